@@ -0,0 +1,210 @@
+package com.csis231.api.DTO;
+
+import com.csis231.api.model.Author;
+
+/**
+ * Data Transfer Object (DTO) representing a book in catalog listings.
+ * It carries the same fields as the `Book` entity's JSON, with its author, but without the genres
+ * and the Base64 image, so it can be streamed row by row from a single query.
+ */
+public class BookDTO {
+
+    private long book_id;               // The unique ID of the book
+    private String isbn;               // The ISBN of the book
+    private String title;             // The title of the book
+    private String publisher;        // The publisher of the book
+    private int published_year;     // The year the book was published
+    private String status;         // The status of the book (e.g. AVAILABLE, UNAVAILABLE)
+    private int quantity;         // The number of copies in stock
+    private int rate;            // The rating of the book (1 to 5)
+    private String description; // The description of the book
+    private Author author;     // The author of the book (may be null)
+
+    /**
+     * Default constructor required for frameworks like Jackson to deserialize the object.
+     */
+    public BookDTO() {
+    }
+
+    // Getters and setters
+
+    /**
+     * Gets the unique ID of the book.
+     *
+     * @return the book ID
+     */
+    public long getBook_id() {
+        return book_id;
+    }
+
+    /**
+     * Sets the unique ID of the book.
+     *
+     * @param book_id the book ID to set
+     */
+    public void setBook_id(long book_id) {
+        this.book_id = book_id;
+    }
+
+    /**
+     * Gets the ISBN of the book.
+     *
+     * @return the ISBN
+     */
+    public String getISBN() {
+        return isbn;
+    }
+
+    /**
+     * Sets the ISBN of the book.
+     *
+     * @param isbn the ISBN to set
+     */
+    public void setISBN(String isbn) {
+        this.isbn = isbn;
+    }
+
+    /**
+     * Gets the title of the book.
+     *
+     * @return the title
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Sets the title of the book.
+     *
+     * @param title the title to set
+     */
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    /**
+     * Gets the publisher of the book.
+     *
+     * @return the publisher
+     */
+    public String getPublisher() {
+        return publisher;
+    }
+
+    /**
+     * Sets the publisher of the book.
+     *
+     * @param publisher the publisher to set
+     */
+    public void setPublisher(String publisher) {
+        this.publisher = publisher;
+    }
+
+    /**
+     * Gets the year the book was published.
+     *
+     * @return the published year
+     */
+    public int getPublished_year() {
+        return published_year;
+    }
+
+    /**
+     * Sets the year the book was published.
+     *
+     * @param published_year the published year to set
+     */
+    public void setPublished_year(int published_year) {
+        this.published_year = published_year;
+    }
+
+    /**
+     * Gets the status of the book.
+     *
+     * @return the status
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Sets the status of the book.
+     *
+     * @param status the status to set
+     */
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    /**
+     * Gets the number of copies in stock.
+     *
+     * @return the quantity
+     */
+    public int getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * Sets the number of copies in stock.
+     *
+     * @param quantity the quantity to set
+     */
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    /**
+     * Gets the rating of the book.
+     *
+     * @return the rating (1 to 5)
+     */
+    public int getRate() {
+        return rate;
+    }
+
+    /**
+     * Sets the rating of the book.
+     *
+     * @param rate the rating to set
+     */
+    public void setRate(int rate) {
+        this.rate = rate;
+    }
+
+    /**
+     * Gets the description of the book.
+     *
+     * @return the description
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Sets the description of the book.
+     *
+     * @param description the description to set
+     */
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    /**
+     * Gets the author of the book.
+     *
+     * @return the author, or null if the book has none
+     */
+    public Author getAuthor() {
+        return author;
+    }
+
+    /**
+     * Sets the author of the book.
+     *
+     * @param author the author to set
+     */
+    public void setAuthor(Author author) {
+        this.author = author;
+    }
+}
@@ -1,5 +1,6 @@
 package com.csis231.api.DTO;
 
+import com.csis231.api.model.ArchivedFine;
 import com.csis231.api.model.Fine;
 import java.time.LocalDateTime;
 
@@ -36,6 +37,20 @@ public class FineDTO {
         this.paid_date = fine.getPaid_date();
     }
 
+    /**
+     * Constructor that maps from an `ArchivedFine` entity to a `FineDTO`,
+     * so archived fines are returned in the same shape as current ones.
+     *
+     * @param fine the `ArchivedFine` entity to map from
+     */
+    public FineDTO(ArchivedFine fine) {
+        this.fine_id = fine.getFineId();
+        this.transaction_id = fine.getTransactionId();
+        this.fine_amount = fine.getFineAmount();
+        this.fine_status = fine.getFineStatus();
+        this.paid_date = fine.getPaidDate();
+    }
+
     // Getters and setters
 
     /**
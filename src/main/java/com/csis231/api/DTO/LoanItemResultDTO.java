@@ -0,0 +1,153 @@
+package com.csis231.api.DTO;
+
+/**
+ * Data Transfer Object (DTO) reporting the outcome of one book in a bulk checkout or return.
+ * Items of a bulk request succeed or fail independently, so each carries its own status and error.
+ */
+public class LoanItemResultDTO {
+
+    private Long book_id;              // The ID of the book, null if its barcode is unknown
+    private String barcode;            // The barcode scanned for the item, null when the book was given by ID
+    private String status;             // BORROWED, RETURNED or FAILED
+    private Long transaction_id;       // The ID of the loan created or closed, null if the item failed
+    private String error;              // The reason the item failed, null if it succeeded
+
+    /**
+     * Default constructor required for frameworks like Jackson to deserialize the object.
+     */
+    public LoanItemResultDTO() {
+    }
+
+    /**
+     * Constructor for an item not processed yet.
+     *
+     * @param book_id the ID of the book, or null if it is not known.
+     * @param barcode the scanned barcode, or null.
+     */
+    public LoanItemResultDTO(Long book_id, String barcode) {
+        this.book_id = book_id;
+        this.barcode = barcode;
+    }
+
+    /**
+     * Marks the item as processed.
+     *
+     * @param status         the outcome, e.g. BORROWED or RETURNED.
+     * @param transaction_id the ID of the loan created or closed.
+     */
+    public void succeed(String status, long transaction_id) {
+        this.status = status;
+        this.transaction_id = transaction_id;
+    }
+
+    /**
+     * Marks the item as failed.
+     *
+     * @param error the reason the item failed.
+     */
+    public void fail(String error) {
+        this.status = "FAILED";
+        this.error = error;
+    }
+
+    /**
+     * Checks whether the item is still to be processed.
+     *
+     * @return true if the item has neither succeeded nor failed yet.
+     */
+    public boolean isPending() {
+        return status == null;
+    }
+
+    // Getters and setters
+
+    /**
+     * Gets the ID of the book.
+     *
+     * @return the book ID, or null if unknown
+     */
+    public Long getBook_id() {
+        return book_id;
+    }
+
+    /**
+     * Sets the ID of the book.
+     *
+     * @param book_id the book ID to set
+     */
+    public void setBook_id(Long book_id) {
+        this.book_id = book_id;
+    }
+
+    /**
+     * Gets the barcode scanned for the item.
+     *
+     * @return the barcode, or null
+     */
+    public String getBarcode() {
+        return barcode;
+    }
+
+    /**
+     * Sets the barcode scanned for the item.
+     *
+     * @param barcode the barcode to set
+     */
+    public void setBarcode(String barcode) {
+        this.barcode = barcode;
+    }
+
+    /**
+     * Gets the outcome of the item.
+     *
+     * @return BORROWED, RETURNED or FAILED
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Sets the outcome of the item.
+     *
+     * @param status the status to set
+     */
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    /**
+     * Gets the ID of the loan created or closed.
+     *
+     * @return the transaction ID, or null if the item failed
+     */
+    public Long getTransaction_id() {
+        return transaction_id;
+    }
+
+    /**
+     * Sets the ID of the loan created or closed.
+     *
+     * @param transaction_id the transaction ID to set
+     */
+    public void setTransaction_id(Long transaction_id) {
+        this.transaction_id = transaction_id;
+    }
+
+    /**
+     * Gets the reason the item failed.
+     *
+     * @return the error message, or null if the item succeeded
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Sets the reason the item failed.
+     *
+     * @param error the error message to set
+     */
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -3,6 +3,7 @@ package com.csis231.api.DTO;
 
 import com.csis231.api.model.Notification;
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Data Transfer Object (DTO) representing a notification related to a book transaction.
@@ -14,6 +15,7 @@ public class NotificationDTO {
     private long notification_id;              // The unique ID of the notification
     private String username;                  // The username of the user receiving the notification
     private Long book_id;                         // The ID of the book associated with the notification
+    private List<Long> book_ids;                  // The IDs of every book the notification is about
     private Long fine_id;                    // The ID of the fine associated with the notification
     private LocalDateTime reminder_date;        // The date and time when the notification reminder is set
     private String message;                      // The message content of the notification
@@ -32,17 +34,23 @@ public class NotificationDTO {
      * @param notification the `Notification` entity to map from
      */
     public NotificationDTO(Notification notification) {
-        this.book_id = notification.getNotificationId();  // Assuming this is correct
+        this.book_id = notification.getBook() != null ? notification.getBook().getBook_id() : null;
+        // A bulk loan reminder is about several books, any other notification about its own book
+        if (!notification.getBookIds().isEmpty()) {
+            this.book_ids = List.copyOf(notification.getBookIds());
+        } else {
+            this.book_ids = this.book_id != null ? List.of(this.book_id) : List.of();
+        }
         this.message = notification.getMessage();
         this.reminder_date = notification.getReminderDate();
         this.notification_id = notification.getNotificationId();
         this.username = notification.getUser().getUsername();
 
-        // Safely handle null fine
+        // Safely handle null fine, or one moved to the archive
         if (notification.getFine() != null) {
             this.fine_id = notification.getFine().getId();
         } else {
-            this.fine_id = null;  // Set fine_id to null if no fine exists
+            this.fine_id = notification.getArchivedFineId();  // Null if no fine exists
         }
     }
 
@@ -66,6 +74,24 @@ public class NotificationDTO {
         this.book_id = book_id;
     }
 
+    /**
+     * Gets the IDs of every book this notification is about.
+     *
+     * @return the IDs of the books
+     */
+    public List<Long> getBook_ids() {
+        return book_ids;
+    }
+
+    /**
+     * Sets the IDs of every book this notification is about.
+     *
+     * @param book_ids the IDs of the books to set
+     */
+    public void setBook_ids(List<Long> book_ids) {
+        this.book_ids = book_ids;
+    }
+
     /**
      * Gets the message content of the notification.
      *
@@ -1,5 +1,6 @@
 package com.csis231.api.DTO;
 
+import com.csis231.api.model.ArchivedTransaction;
 import com.csis231.api.model.Transaction;
 import java.time.LocalDate;
 
@@ -16,6 +17,7 @@ public class TransactionDTO {
     private LocalDate issue_date;            // The date the book was issued
     private LocalDate due_date;             // The due date for returning the book
     private LocalDate return_date;         // The actual date the book was returned (may be null if not yet returned)
+    private String barcode;               // The barcode of the lent copy (null if the loan is not tracked by copy)
 
     /**
      * Default constructor required for frameworks like Jackson to deserialize the object.
@@ -36,6 +38,23 @@ public class TransactionDTO {
         this.issue_date = transaction.getIssueDate();
         this.due_date = transaction.getDueDate();
         this.return_date = transaction.getReturnDate();
+        this.barcode = transaction.getCopy() == null ? null : transaction.getCopy().getBarcode();
+    }
+
+    /**
+     * Constructor that maps from an `ArchivedTransaction` entity to a `TransactionDTO`,
+     * so archived transactions are returned in the same shape as open ones.
+     *
+     * @param transaction the `ArchivedTransaction` entity to map from
+     */
+    public TransactionDTO(ArchivedTransaction transaction) {
+        this.transaction_id = transaction.getTransactionId();
+        this.username = transaction.getUsername();
+        this.book_id = transaction.getBookId();
+        this.issue_date = transaction.getIssueDate();
+        this.due_date = transaction.getDueDate();
+        this.return_date = transaction.getReturnDate();
+        this.barcode = transaction.getBarcode();
     }
 
     // Getters and setters
@@ -148,4 +167,22 @@ public class TransactionDTO {
     public void setReturn_date(LocalDate return_date) {
         this.return_date = return_date;
     }
+
+    /**
+     * Gets the barcode of the lent copy.
+     *
+     * @return the barcode, or null if the loan is not tracked by copy
+     */
+    public String getBarcode() {
+        return barcode;
+    }
+
+    /**
+     * Sets the barcode of the lent copy.
+     *
+     * @param barcode the barcode to set
+     */
+    public void setBarcode(String barcode) {
+        this.barcode = barcode;
+    }
 }
@@ -0,0 +1,52 @@
+package com.csis231.api.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Binary encodings of the API, for clients that parse large payloads: every endpoint also answers in CBOR
+ * ({@code Accept: application/cbor}) or Smile ({@code Accept: application/x-jackson-smile}).
+ * Both use the same Jackson settings as JSON, so field names and date formats do not change;
+ * JSON stays the default when the client does not ask for another encoding.
+ */
+@Configuration
+public class BinaryEncodingConfig {
+
+    /**
+     * The media type of Smile as a String, e.g. for the {@code produces} of a mapping.
+     */
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    /**
+     * The media type of Smile, which Spring does not declare.
+     */
+    public static final MediaType APPLICATION_SMILE = MediaType.valueOf(APPLICATION_SMILE_VALUE);
+
+    /**
+     * Converter writing and reading CBOR.
+     *
+     * @param builder the builder of the application's JSON mapper.
+     * @return the converter.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.createXmlMapper(false).factory(new CBORFactory()).build());
+    }
+
+    /**
+     * Converter writing and reading Smile.
+     *
+     * @param builder the builder of the application's JSON mapper.
+     * @return the converter.
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.createXmlMapper(false).factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,76 @@
+package com.csis231.api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * JDBC datasources used by JPA.
+ * Spring Boot stops auto-configuring a {@link DataSource} as soon as an R2DBC connection factory
+ * exists (used by the reactive catalog API), so the pools are declared here: the primary from the usual
+ * {@code spring.datasource.*} properties and, when {@code library.datasource.replica.jdbc-url} is set,
+ * a replica receiving read-only transactions (see {@link ReplicaRoutingDataSource}).
+ */
+@Configuration
+public class DataSourceConfig {
+
+    /**
+     * Creates the primary HikariCP pool, tuned by the {@code spring.datasource.hikari.*} properties.
+     *
+     * @param properties the {@code spring.datasource.*} properties (URL, credentials, driver).
+     * @return the primary connection pool.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Creates the replica HikariCP pool from the {@code library.datasource.replica.*} properties
+     * ({@code jdbc-url}, {@code username}, {@code password}, {@code maximum-pool-size}, ...).
+     *
+     * @return the replica connection pool.
+     */
+    @Bean
+    @ConditionalOnProperty("library.datasource.replica.jdbc-url")
+    @ConfigurationProperties("library.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class).build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * The datasource used by the application, routing each transaction to the primary or the replica.
+     *
+     * @param primary the primary pool.
+     * @param replica the replica pool, if one is configured.
+     * @param maxLag  how long after a write reads stay on the primary.
+     * @return the routing datasource.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") ObjectProvider<DataSource> replica,
+                                 @Value("${library.datasource.replica.max-lag:1s}") Duration maxLag) {
+        // The lazy proxy delays picking a route until the transaction's read-only flag is set
+        return new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, replica.getIfAvailable(), maxLag));
+    }
+}
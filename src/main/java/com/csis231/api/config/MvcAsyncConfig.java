@@ -0,0 +1,52 @@
+package com.csis231.api.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Bounded executor for the asynchronous responses of Spring MVC: the {@code Flux} streams of the reactive catalog
+ * and the image bodies written as {@code StreamingResponseBody}.
+ * The request thread is released while such a response runs, but its body is still written with blocking
+ * servlet I/O, on a thread of this executor, which a slow client holds until its socket takes the data.
+ * Without it, MVC would fall back on Boot's application executor, whose queue is unbounded.
+ * In virtual-thread mode each write gets a virtual thread of the application executor instead.
+ */
+@Configuration
+@ConditionalOnProperty(name = "library.threads.virtual.enabled", havingValue = "false", matchIfMissing = true)
+public class MvcAsyncConfig implements WebMvcConfigurer, DisposableBean {
+
+    // Not a bean: an Executor bean would replace Boot's application executor used by @Async methods
+    private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+    /**
+     * Constructor for MvcAsyncConfig.
+     *
+     * @param poolSize      the number of responses written at once.
+     * @param queueCapacity the number of writes waiting for a thread before new ones are rejected.
+     */
+    public MvcAsyncConfig(@Value("${library.mvc.async.pool-size:16}") int poolSize,
+                          @Value("${library.mvc.async.queue-capacity:100}") int queueCapacity) {
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("mvc-async-");
+        executor.initialize();
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        // Applied after Boot's configurer, so it replaces the application executor; the timeout is left to
+        // spring.mvc.async.request-timeout
+        configurer.setTaskExecutor(executor);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
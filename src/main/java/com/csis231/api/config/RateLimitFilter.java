@@ -0,0 +1,166 @@
+package com.csis231.api.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control in front of the API, rejecting excess requests before any database work.
+ * Each caller, identified by its {@code X-API-Key} header when the key is registered in
+ * {@code library.rate-limit.api-keys}, else by its IP address, spends tokens from one {@link TokenBucket} per endpoint budget and gets 429 Too Many Requests once it is empty.
+ * Budgets with a concurrency limit also shed load with 503 Service Unavailable when too many of their
+ * requests are already running, whoever sends them.
+ * Unverified headers are never trusted, so a client cannot get fresh buckets by rotating them; the IP address is
+ * the one Tomcat resolved from {@code X-Forwarded-For} behind trusted proxies ({@code server.forward-headers-strategy}).
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 100)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    // Budgets in the order they are matched, the default one last
+    private final List<Endpoint> endpoints = new ArrayList<>();
+
+    // Token buckets keyed by budget and caller, bounded and evicted once idle
+    private final Cache<String, TokenBucket> buckets;
+
+    // Registered clients by API key
+    private final Map<String, String> clientsByKey = new HashMap<>();
+
+    /**
+     * Constructor for RateLimitFilter.
+     *
+     * @param properties    the budgets of the endpoints.
+     * @param objectMapper  the mapper used to render error responses.
+     * @param meterRegistry the registry rejected requests are counted in.
+     */
+    @Autowired
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        properties.getEndpoints().forEach((name, budget) -> endpoints.add(new Endpoint(name, budget)));
+        endpoints.add(new Endpoint("default", properties.getDefaults()));
+        properties.getApiKeys().forEach((client, key) -> clientsByKey.put(key, client));
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumBuckets())
+                .expireAfterAccess(properties.getIdleExpiry())
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || !pathOf(request).startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Endpoint endpoint = endpointOf(request);
+
+        // Spend a token of the caller's bucket for this budget
+        String caller = callerOf(request);
+        TokenBucket bucket = buckets.get(endpoint.name + "|" + caller,
+                key -> new TokenBucket(endpoint.budget.getCapacity(), endpoint.budget.getRefillPerSecond()));
+        long waitNanos = bucket.tryAcquire(System.nanoTime());
+        if (waitNanos > 0) {
+            reject(response, endpoint, "rate", HttpStatus.TOO_MANY_REQUESTS,
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L)),
+                    "Too many requests, please slow down.");
+            return;
+        }
+
+        // Expensive endpoints only run so many requests at once
+        if (endpoint.running != null && !endpoint.running.tryAcquire()) {
+            reject(response, endpoint, "concurrency", HttpStatus.SERVICE_UNAVAILABLE, 1,
+                    "The service is busy, please retry shortly.");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (endpoint.running != null) {
+                endpoint.running.release();
+            }
+        }
+    }
+
+    // Identifies the caller: registered client of the API key, then IP address
+    private String callerOf(HttpServletRequest request) {
+        String apiKey = request.getHeader("X-API-Key");
+        String client = apiKey == null ? null : clientsByKey.get(apiKey);
+        if (client != null) {
+            return "client:" + client;
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private Endpoint endpointOf(HttpServletRequest request) {
+        String path = pathOf(request);
+        for (Endpoint endpoint : endpoints) {
+            String method = endpoint.budget.getMethod();
+            if ((method == null || method.equalsIgnoreCase(request.getMethod()))
+                    && pathMatcher.match(endpoint.budget.getPattern(), path)) {
+                return endpoint;
+            }
+        }
+        return endpoints.get(endpoints.size() - 1);
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private void reject(HttpServletResponse response, Endpoint endpoint, String reason, HttpStatus status,
+                        long retryAfterSeconds, String message) throws IOException {
+        meterRegistry.counter("library.ratelimit.rejected", "budget", endpoint.name, "reason", reason).increment();
+        Map<String, String> errorResponse = new HashMap<>();
+        errorResponse.put("error", message);
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+
+    /**
+     * A budget with its name and, if it limits concurrency, the permits of its running requests.
+     */
+    private static final class Endpoint {
+
+        private final String name;
+        private final RateLimitProperties.Budget budget;
+        private final Semaphore running;
+
+        Endpoint(String name, RateLimitProperties.Budget budget) {
+            this.name = name;
+            this.budget = budget;
+            this.running = budget.getMaxConcurrent() > 0 ? new Semaphore(budget.getMaxConcurrent()) : null;
+        }
+    }
+}
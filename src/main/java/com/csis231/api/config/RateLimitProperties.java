@@ -0,0 +1,146 @@
+package com.csis231.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Budgets of the rate limiter, bound from {@code library.rate-limit.*}.
+ * Every caller gets its own token bucket per endpoint budget; endpoints not matched by any budget
+ * share the default one.
+ */
+@Component
+@ConfigurationProperties("library.rate-limit")
+public class RateLimitProperties {
+
+    // Whether requests are rate limited at all
+    private boolean enabled = true;
+
+    // Maximum number of caller buckets kept in memory; the least recently used are evicted
+    private long maximumBuckets = 1_000_000;
+
+    // Buckets idle for this long are dropped; they would be full again by then
+    private Duration idleExpiry = Duration.ofMinutes(10);
+
+    // Budget of every endpoint not matched below
+    private Budget defaults = new Budget();
+
+    // Budgets of specific endpoints, checked in order
+    private Map<String, Budget> endpoints = new LinkedHashMap<>();
+
+    // API keys of the registered clients, by client name; other callers are identified by their IP address
+    private Map<String, String> apiKeys = new LinkedHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaximumBuckets() {
+        return maximumBuckets;
+    }
+
+    public void setMaximumBuckets(long maximumBuckets) {
+        this.maximumBuckets = maximumBuckets;
+    }
+
+    public Duration getIdleExpiry() {
+        return idleExpiry;
+    }
+
+    public void setIdleExpiry(Duration idleExpiry) {
+        this.idleExpiry = idleExpiry;
+    }
+
+    public Budget getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Budget defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Budget> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(Map<String, Budget> endpoints) {
+        this.endpoints = endpoints;
+    }
+
+    public Map<String, String> getApiKeys() {
+        return apiKeys;
+    }
+
+    public void setApiKeys(Map<String, String> apiKeys) {
+        this.apiKeys = apiKeys;
+    }
+
+    /**
+     * The budget of an endpoint: which requests it covers, the size and refill rate of each caller's bucket,
+     * and how many of its requests may run at once across all callers.
+     */
+    public static class Budget {
+
+        // Ant path pattern of the requests covered, e.g. /api/fines/check/**
+        private String pattern = "/api/**";
+
+        // HTTP method of the requests covered, or null for every method
+        private String method;
+
+        // Requests a caller can make in a burst
+        private int capacity = 100;
+
+        // Requests a caller regains every second
+        private double refillPerSecond = 50;
+
+        // Requests running at once across all callers, 0 for no limit
+        private int maxConcurrent;
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public void setPattern(String pattern) {
+            this.pattern = pattern;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public void setMethod(String method) {
+            this.method = method;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public double getRefillPerSecond() {
+            return refillPerSecond;
+        }
+
+        public void setRefillPerSecond(double refillPerSecond) {
+            this.refillPerSecond = refillPerSecond;
+        }
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+    }
+}
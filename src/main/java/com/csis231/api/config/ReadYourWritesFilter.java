@@ -0,0 +1,42 @@
+package com.csis231.api.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Names the caller of each request for the {@link ReplicaRoutingDataSource}, so only the reads of the client
+ * that just wrote are kept on the primary. The client is its address, with its {@code X-Username} when sent:
+ * a forged username can only move the sender's own reads between the primary and the replica.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 50)
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ReplicaRoutingDataSource.setCaller(callerOf(request));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.setCaller(null);
+        }
+    }
+
+    // Identifies the client: its address, narrowed to the user when one is named
+    private static String callerOf(HttpServletRequest request) {
+        String username = request.getHeader("X-Username");
+        if (username != null && !username.isBlank()) {
+            return request.getRemoteAddr() + "/" + username;
+        }
+        return request.getRemoteAddr();
+    }
+}
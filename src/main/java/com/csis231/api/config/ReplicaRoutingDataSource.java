@@ -0,0 +1,121 @@
+package com.csis231.api.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Datasource sending read-only transactions to a replica and everything else to the primary.
+ * Until the configured replica lag has passed since a caller's last committed write, that caller's read-only
+ * transactions also stay on the primary, so a client reading right after a write sees its own changes;
+ * the reads of other callers keep going to the replica. The caller is set per request by {@link ReadYourWritesFilter};
+ * work outside of a request is scoped to its thread.
+ * Must be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy},
+ * as the read-only flag of a transaction is only known after its connection is requested.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * The two routes a connection can take.
+     */
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private static final int MAXIMUM_CALLERS = 100_000;
+
+    // The caller of the current request, if any
+    private static final ThreadLocal<String> CALLER = new ThreadLocal<>();
+
+    private final boolean hasReplica;
+    private final long maxLagNanos;
+
+    // Time of each caller's last committed read-write transaction, from System.nanoTime(), forgotten after the lag
+    private final Cache<String, Long> lastWriteNanos;
+
+    /**
+     * Constructor for ReplicaRoutingDataSource.
+     *
+     * @param primary the datasource receiving writes and read-your-writes reads.
+     * @param replica the datasource receiving read-only transactions, or null to use the primary for everything.
+     * @param maxLag  how long after a write reads stay on the primary, i.e. the tolerated replica lag.
+     */
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration maxLag) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(Route.PRIMARY, primary);
+        if (replica != null) {
+            targets.put(Route.REPLICA, replica);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+
+        this.hasReplica = replica != null;
+        this.maxLagNanos = maxLag.toNanos();
+        this.lastWriteNanos = Caffeine.newBuilder()
+                .maximumSize(MAXIMUM_CALLERS)
+                .expireAfterWrite(maxLag)
+                .build();
+    }
+
+    /**
+     * Sets the caller whose writes the transactions of the current thread must see, e.g. the client of a request.
+     *
+     * @param caller the key of the caller, or null to scope writes to the current thread.
+     */
+    public static void setCaller(String caller) {
+        if (caller == null) {
+            CALLER.remove();
+        } else {
+            CALLER.set(caller);
+        }
+    }
+
+    /**
+     * Chooses the route of the connection being opened.
+     *
+     * @return the route to use.
+     */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (hasReplica && TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !isWithinReplicaLag()) {
+            return Route.REPLICA;
+        }
+
+        // Remember when this read-write transaction commits, so the caller's reads following it stay on the primary
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            String caller = currentCaller();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    lastWriteNanos.put(caller, System.nanoTime());
+                }
+            });
+        }
+        return Route.PRIMARY;
+    }
+
+    /**
+     * Checks whether the current caller committed a write recently enough for the replica to possibly not have it yet.
+     *
+     * @return true if the caller's reads must still go to the primary.
+     */
+    public boolean isWithinReplicaLag() {
+        Long lastWrite = lastWriteNanos.getIfPresent(currentCaller());
+        return lastWrite != null && System.nanoTime() - lastWrite <= maxLagNanos;
+    }
+
+    private static String currentCaller() {
+        String caller = CALLER.get();
+        return caller != null ? "caller:" + caller : "thread:" + Thread.currentThread().getId();
+    }
+}
@@ -0,0 +1,12 @@
+package com.csis231.api.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} background jobs, such as the transaction archival.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,55 @@
+package com.csis231.api.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket holding up to {@code capacity} requests and refilled at a steady rate.
+ * It is implemented as the equivalent generic cell rate algorithm: the whole state is the theoretical
+ * time the next request is due, in a single {@link AtomicLong} updated by compare-and-set, which keeps
+ * a bucket at a few dozen bytes so a million callers can be tracked.
+ */
+public final class TokenBucket {
+
+    // Time for one token to refill
+    private final long intervalNanos;
+
+    // How far ahead of the steady rate a burst may run: the capacity minus the token being spent
+    private final long burstNanos;
+
+    // Theoretical arrival time of the next request, from System.nanoTime(); a full bucket starts in the past
+    private final AtomicLong nextDueNanos = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * Constructor for TokenBucket.
+     *
+     * @param capacity        the number of requests that can be made at once from a full bucket.
+     * @param refillPerSecond the number of requests the bucket regains every second.
+     */
+    public TokenBucket(int capacity, double refillPerSecond) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("A token bucket needs a capacity of at least 1 and a positive refill rate.");
+        }
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / refillPerSecond));
+        this.burstNanos = intervalNanos * (capacity - 1);
+    }
+
+    /**
+     * Takes a token if one is available.
+     *
+     * @param nowNanos the current time, from System.nanoTime().
+     * @return 0 if a token was taken, otherwise how many nanoseconds to wait for the next one.
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long due = nextDueNanos.get();
+            long start = due == Long.MIN_VALUE ? nowNanos : Math.max(due, nowNanos);
+            long ahead = start - nowNanos;
+            if (ahead > burstNanos) {
+                return ahead - burstNanos;
+            }
+            if (nextDueNanos.compareAndSet(due, start + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.csis231.api.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Virtual-thread execution mode, enabled with {@code library.threads.virtual.enabled=true}
+ * (or the {@code virtual} profile) on a Java 21 runtime.
+ * Tomcat, {@code @Async} methods and scheduled jobs then run each task on its own virtual thread,
+ * so requests blocked on JDBC no longer exhaust a fixed pool of platform threads.
+ */
+@Configuration
+@ConditionalOnProperty(name = "library.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    /**
+     * Replaces Tomcat's request thread pool with a virtual thread per request.
+     *
+     * @return the customizer applied to Tomcat's protocol handler.
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.newThreadPerTaskExecutor("http-"));
+    }
+
+    /**
+     * Executor used for {@code @Async} methods and other application tasks, replacing Boot's thread pool.
+     *
+     * @return the virtual-thread task executor.
+     */
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(VirtualThreads.newThreadPerTaskExecutor("task-"));
+    }
+
+    /**
+     * Scheduler used for {@code @Scheduled} jobs, running each job on a virtual thread.
+     * Its pool bounds how many jobs run at once, not the platform threads used: sized above the number of jobs,
+     * a long run of one job (e.g. the image migration) no longer delays the others.
+     *
+     * @param poolSize the number of jobs that may run at once, {@code spring.task.scheduling.pool.size}.
+     * @return the task scheduler.
+     */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(@Value("${spring.task.scheduling.pool.size:8}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadFactory(VirtualThreads.threadFactory("scheduling-"));
+        return scheduler;
+    }
+}
@@ -0,0 +1,54 @@
+package com.csis231.api.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to the Java 21 virtual-thread API from code compiled for Java 17.
+ * The methods are looked up reflectively so the default build keeps targeting Java 17.
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Creates a thread factory producing named virtual threads ({@code prefix0}, {@code prefix1}, ...).
+     *
+     * @param prefix the prefix of the thread names.
+     * @return the virtual thread factory.
+     * @throws IllegalStateException if the runtime does not support virtual threads.
+     */
+    static ThreadFactory threadFactory(String prefix) {
+        try {
+            Class<?> ofVirtual = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = ofVirtual.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) ofVirtual.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw unsupported(e);
+        }
+    }
+
+    /**
+     * Creates an executor starting a new virtual thread for every task.
+     *
+     * @param prefix the prefix of the thread names.
+     * @return the executor.
+     * @throws IllegalStateException if the runtime does not support virtual threads.
+     */
+    static ExecutorService newThreadPerTaskExecutor(String prefix) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, threadFactory(prefix));
+        } catch (ReflectiveOperationException e) {
+            throw unsupported(e);
+        }
+    }
+
+    private static IllegalStateException unsupported(ReflectiveOperationException cause) {
+        return new IllegalStateException("Virtual threads require Java 21 or later (build with -Pjava21), running on "
+                + Runtime.version(), cause);
+    }
+}
@@ -2,12 +2,14 @@ package com.csis231.api.controller;
 
 import com.csis231.api.exception.ResourceNotFoundException;
 import com.csis231.api.model.Author;
+import com.csis231.api.repository.VersionStamp;
 import com.csis231.api.service.AuthorService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
 import java.util.List;
@@ -29,20 +31,72 @@ public class AuthorController {
 
     /**
      * Get all authors from the database.
+     * Answers 304 Not Modified without loading any author when the client's copy is current.
+     * With {@code fields}, only those fields are selected and returned, e.g. {@code ?fields=author_id,lastName}.
      *
-     * @return List of authors.
+     * @param fields  the comma-separated fields to return, or null for whole authors.
+     * @param request the current request, used to evaluate conditional headers.
+     * @return List of authors, or an error message if a field is unknown.
      */
     @GetMapping
-    public List<Author> getAllAuthors() {
+    public ResponseEntity<?> getAllAuthors(@RequestParam(required = false) String fields, WebRequest request) {
+        // Compare the client's validators with the author table's version stamp
+        if (ConditionalRequests.isNotModified(request, authorService.getAuthorsVersion())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        if (fields != null) {
+            try {
+                // Select only the requested fields
+                return ResponseEntity.ok(authorService.getAllAuthors(fields));
+            } catch (IllegalArgumentException e) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("error", e.getMessage());
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+            }
+        }
+
         // Call the service layer to retrieve all authors
-        return authorService.getAllAuthors();
+        return ResponseEntity.ok(authorService.getAllAuthors());
+    }
+
+    /**
+     * Suggests authors as their name is typed, the most popular first, e.g. {@code ?q=tol} for Tolkien.
+     * Answered from memory, for pickers calling it on every keystroke instead of loading every author.
+     *
+     * @param q     the text typed so far.
+     * @param limit the maximum number of suggestions.
+     * @return the ID, first name and last name of each suggested author, or an error message.
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<?> suggestAuthors(@RequestParam(defaultValue = "") String q,
+                                            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(authorService.suggestAuthors(q, limit));
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
+    }
+
+    /**
+     * Gets the pairs of likely duplicate authors found by the last duplicate report, run nightly.
+     * Before the first report is ready, an empty report with the status {@code PENDING} is returned.
+     *
+     * @return the status and time of the report and its pairs of authors with their similarity.
+     */
+    @GetMapping("/duplicates")
+    public ResponseEntity<Map<String, Object>> getDuplicateAuthors() {
+        return ResponseEntity.ok(authorService.getDuplicateReport());
     }
 
     /**
      * Create a new author.
+     * The response lists the existing authors whose name is likely a duplicate, e.g. "JRR Tolkien" for "J.R.R. Tolkien".
      *
      * @param author the author to create. The author's details are provided in the request body.
-     * @return a ResponseEntity containing a message and the created author, or an error message.
+     * @return a ResponseEntity containing a message, the created author and its likely duplicates, or an error message.
      * @throws IllegalArgumentException if the author already exists in the system.
      */
     @PostMapping
@@ -55,6 +109,7 @@ public class AuthorController {
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Author created successfully");
             response.put("author", createdAuthor);
+            response.put("possible_duplicates", authorService.findLikelyDuplicates(createdAuthor));
 
             // Return the created author with a 201 Created status
             return new ResponseEntity<>(response, HttpStatus.CREATED);
@@ -72,13 +127,20 @@ public class AuthorController {
     /**
      * Get a specific author by their ID.
      *
-     * @param id the ID of the author to retrieve.
+     * @param id      the ID of the author to retrieve.
+     * @param request the current request, used to evaluate conditional headers.
      * @return a ResponseEntity containing either the author details (if found) or an error message (if not found).
      * @throws ResourceNotFoundException if no author is found with the provided ID.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<?> getAuthorById(@PathVariable Long id) {
+    public ResponseEntity<?> getAuthorById(@PathVariable Long id, WebRequest request) {
         try {
+            // Answer 304 from the author's version stamp when the client's copy is current
+            VersionStamp version = authorService.getAuthorVersion(id);
+            if (version.getTotal() > 0 && ConditionalRequests.isNotModified(request, version)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+
             // Retrieve the author from the service
             return ResponseEntity.ok(authorService.getAuthorById(id)); // Return the author in the response body
 
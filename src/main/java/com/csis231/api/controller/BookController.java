@@ -1,16 +1,25 @@
 package com.csis231.api.controller;
 
+import com.csis231.api.config.BinaryEncodingConfig;
 import com.csis231.api.exception.ResourceNotFoundException;
 import com.csis231.api.model.Book;
+import com.csis231.api.service.BookJsonCache.CachedBookJson;
+import com.csis231.api.service.BookReadCoalescer;
 import com.csis231.api.service.BookService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 /**
@@ -21,34 +30,160 @@ import java.util.Map;
 public class BookController {
 
     private final BookService bookService;
+    private final BookReadCoalescer bookReadCoalescer;
+    private final ObjectMapper objectMapper;
 
     // Constructor to inject services
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, BookReadCoalescer bookReadCoalescer, ObjectMapper objectMapper) {
         this.bookService = bookService;
+        this.bookReadCoalescer = bookReadCoalescer;
+        this.objectMapper = objectMapper;
     }
 
     /**
      * Get all books from the database.
+     * Answers 304 Not Modified without loading any book when the client's copy is current.
+     * With {@code fields}, only those fields are selected and returned, e.g. {@code ?fields=book_id,title}.
      *
-     * @return List of books.
+     * @param fields  the comma-separated fields to return, or null for whole books.
+     * @param request the current request, used to evaluate conditional headers.
+     * @return List of books, or an error message if a field is unknown.
      */
     @GetMapping
-    public List<Book> getAllBooks() {
+    public ResponseEntity<?> getAllBooks(@RequestParam(required = false) String fields, WebRequest request) {
+        // Compare the client's validators with the version stamp of books and what they embed
+        if (ConditionalRequests.isNotModified(request, bookService.getBooksVersion())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        if (fields != null) {
+            try {
+                // Select only the requested fields
+                return ResponseEntity.ok(bookService.getAllBooks(fields));
+            } catch (IllegalArgumentException e) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("error", e.getMessage());
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+            }
+        }
+
         // Call the service layer to retrieve all books
-        return bookService.getAllBooks();
+        return ResponseEntity.ok(bookService.getAllBooks());
+    }
+
+    /**
+     * Finds the books matching a combination of genres, with the number of matching books in each genre,
+     * e.g. {@code ?all=3,7&none=12} for books in genres 3 and 7 but not in genre 12.
+     *
+     * @param all  genres the books must all have.
+     * @param any  genres the books must have at least one of.
+     * @param none genres the books must not have.
+     * @param page the page of books to return, from 0.
+     * @param size the number of books per page.
+     * @return the total of matching books, their count per genre, and the books of the page, or an error message.
+     */
+    @GetMapping("/filter")
+    public ResponseEntity<?> getBooksByGenres(@RequestParam(required = false) List<Long> all,
+                                              @RequestParam(required = false) List<Long> any,
+                                              @RequestParam(required = false) List<Long> none,
+                                              @RequestParam(defaultValue = "0") int page,
+                                              @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(bookService.findByGenres(all, any, none, page, size));
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
+    }
+
+    /**
+     * Suggests books as their title is typed, the most borrowed first, e.g. {@code ?q=hob} for "The Hobbit".
+     * Answered from memory, for pickers calling it on every keystroke.
+     *
+     * @param q     the text typed so far.
+     * @param limit the maximum number of suggestions.
+     * @return the ID, title and author ID of each suggested book, or an error message.
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<?> suggestBooks(@RequestParam(defaultValue = "") String q,
+                                          @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(bookService.suggestBooks(q, limit));
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
+    }
+
+    /**
+     * Counts the books per genre, author, bucket of publication years and status, for catalog browse pages,
+     * optionally among the books matching a filter, e.g. {@code ?all=3&year_from=2000&status=AVAILABLE}.
+     *
+     * @param all          genres the books must all have.
+     * @param any          genres the books must have at least one of.
+     * @param none         genres the books must not have.
+     * @param author       the ID of the author the books must have.
+     * @param yearFrom     the first publication year, inclusive.
+     * @param yearTo       the last publication year, inclusive.
+     * @param status       the status the books must show.
+     * @param authorLimit  the maximum number of authors to count, those with the most books first.
+     * @return the total of matching books and their counts per facet, or an error message.
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<?> getBookFacets(@RequestParam(required = false) List<Long> all,
+                                           @RequestParam(required = false) List<Long> any,
+                                           @RequestParam(required = false) List<Long> none,
+                                           @RequestParam(required = false) Long author,
+                                           @RequestParam(name = "year_from", required = false) Integer yearFrom,
+                                           @RequestParam(name = "year_to", required = false) Integer yearTo,
+                                           @RequestParam(required = false) String status,
+                                           @RequestParam(name = "author_limit", defaultValue = "20") int authorLimit) {
+        try {
+            return ResponseEntity.ok(bookService.getFacets(all, any, none, author, yearFrom, yearTo, status, authorLimit));
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
     }
 
     /**
      * Retrieves a specific book by its ID.
+     * The book is served from its pre-rendered JSON, gzipped when the client's Accept-Encoding gives gzip
+     * a non-zero q-value, and a matching If-None-Match header is answered with 304 Not Modified.
      *
-     * @param id the ID of the book to retrieve.
+     * @param id             the ID of the book to retrieve.
+     * @param acceptEncoding the Accept-Encoding header sent by the client, if any.
+     * @param request        the current request, used to evaluate conditional headers.
      * @return a ResponseEntity containing either the book details or an error message.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<?> getBookById(@PathVariable Long id) {
+    public ResponseEntity<?> getBookById(@PathVariable Long id,
+                                         @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                         WebRequest request) {
         try {
-            // Attempt to retrieve the book by its ID
-            return ResponseEntity.ok(bookService.getBookById(id));
+            // Retrieve the rendered book, sharing the load with concurrent requests for the same ID
+            CachedBookJson book = bookReadCoalescer.getBookJson(id);
+            boolean gzip = book.getGzippedJson() != null && acceptsGzip(acceptEncoding);
+            String etag = gzip ? book.getGzipEtag() : book.getEtag();
+
+            // The client already holds this version of the book; caches must still key it by encoding
+            if (ConditionalRequests.isNotModified(request, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .varyBy(HttpHeaders.ACCEPT_ENCODING, HttpHeaders.ACCEPT)
+                        .build();
+            }
+
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .eTag(etag)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING, HttpHeaders.ACCEPT);
+            if (gzip) {
+                return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(book.getGzippedJson());
+            }
+            return response.body(book.getJson());
 
         } catch (ResourceNotFoundException ex) {
             // Handle case where the book is not found
@@ -60,6 +195,72 @@ public class BookController {
         }
     }
 
+    // Checks whether the client accepts gzip, by its q-value: "gzip;q=0" refuses it, "x-gzip" is the same coding,
+    // and "*" covers gzip when it is not listed on its own
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzip = -1;
+        double any = -1;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzip = Math.max(gzip, quality);
+            } else if (name.equals("*")) {
+                any = Math.max(any, quality);
+            }
+        }
+        return (gzip >= 0 ? gzip : any) > 0;
+    }
+
+    /**
+     * Retrieves a specific book by its ID in a binary encoding, CBOR or Smile, as asked for by the Accept header.
+     * The book is transcoded from its pre-rendered JSON, so it shares the cache of the JSON representation.
+     *
+     * @param id      the ID of the book to retrieve.
+     * @param accept  the Accept header sent by the client.
+     * @param request the current request, used to evaluate conditional headers.
+     * @return a ResponseEntity containing either the book details or an error message.
+     */
+    @GetMapping(value = "/{id}", produces = {MediaType.APPLICATION_CBOR_VALUE, BinaryEncodingConfig.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<?> getBookByIdBinary(@PathVariable Long id,
+                                               @RequestHeader(HttpHeaders.ACCEPT) String accept,
+                                               WebRequest request) throws IOException {
+        try {
+            CachedBookJson book = bookReadCoalescer.getBookJson(id);
+
+            // Each encoding has its own bytes, hence its own ETag
+            String encoding = accept.contains(MediaType.APPLICATION_CBOR_VALUE) ? "cbor" : "smile";
+            String etag = book.getEtag().substring(0, book.getEtag().length() - 1) + "-" + encoding + "\"";
+            if (ConditionalRequests.isNotModified(request, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .body(objectMapper.readTree(book.getJson()));
+
+        } catch (ResourceNotFoundException ex) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", ex.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+        }
+    }
+
     /**
      * Deletes a book by its ID.
      *
@@ -94,11 +295,46 @@ public class BookController {
         }
     }
 
+    /**
+     * Retrieves a book by ISBN, as scanned at the checkout desk, e.g. {@code /isbn/978-0-06-051275-0}.
+     * Any ISBN-10 or ISBN-13 notation of the book finds it.
+     *
+     * @param isbn the ISBN.
+     * @return the book, or an error message if the ISBN is invalid or no book has it.
+     */
+    @GetMapping("/isbn/{isbn}")
+    public ResponseEntity<?> getBookByIsbn(@PathVariable String isbn) {
+        try {
+            return ResponseEntity.ok(bookService.getBookByIsbn(isbn));
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        } catch (ResourceNotFoundException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+        }
+    }
+
+    /**
+     * Gets the pairs of likely duplicate books found by the last duplicate report, run nightly.
+     * Before the first report is ready, an empty report with the status {@code PENDING} is returned.
+     *
+     * @return the status and time of the report and its pairs of books with their title similarity.
+     */
+    @GetMapping("/duplicates")
+    public ResponseEntity<Map<String, Object>> getDuplicateBooks() {
+        return ResponseEntity.ok(bookService.getDuplicateReport());
+    }
+
     /**
      * Creates a new book in the system.
+     * The response lists the existing books likely duplicates of it: a similar title by the same or a similar author.
      *
      * @param book the book object to be created.
-     * @return a ResponseEntity containing either the created book with success message or an error message.
+     * @return a ResponseEntity containing either the created book with success message and its likely duplicates,
+     *         or an error message.
      */
     @PostMapping
     public ResponseEntity<Object> createBook(@RequestBody Book book) {
@@ -110,10 +346,17 @@ public class BookController {
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Book created successfully");
             response.put("book", createdBook);
+            response.put("possible_duplicates", bookService.findLikelyDuplicates(createdBook));
 
             // Return the response with CREATED status (HTTP 201)
             return new ResponseEntity<>(response, HttpStatus.CREATED);
 
+        } catch (IllegalArgumentException e) {
+            // The ISBN is malformed or its check digit is wrong
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+
         } catch (ResourceNotFoundException e) {
             // In case of error (like book already exists or author/genre/image validation fails)
             Map<String, String> errorResponse = new HashMap<>();
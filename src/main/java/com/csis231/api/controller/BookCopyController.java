@@ -0,0 +1,109 @@
+package com.csis231.api.controller;
+
+import com.csis231.api.exception.ResourceNotFoundException;
+import com.csis231.api.model.BookCopy;
+import com.csis231.api.model.CopyRequest;
+import com.csis231.api.service.BookCopyService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controller to handle requests about the physical copies of books, identified by barcode.
+ */
+@RestController
+@RequestMapping("api/copies")
+public class BookCopyController {
+
+    private final BookCopyService bookCopyService;
+
+    // Constructor to inject services
+    public BookCopyController(BookCopyService bookCopyService) {
+        this.bookCopyService = bookCopyService;
+    }
+
+    /**
+     * Retrieves a copy by the barcode scanned at the desk.
+     *
+     * @param barcode the barcode of the copy.
+     * @return a ResponseEntity containing either the copy or an error message.
+     */
+    @GetMapping("/{barcode}")
+    public ResponseEntity<?> getCopyByBarcode(@PathVariable String barcode) {
+        try {
+            return ResponseEntity.ok(bookCopyService.getCopyByBarcode(barcode));
+        } catch (ResourceNotFoundException e) {
+            // Handle case where no copy has this barcode
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+        }
+    }
+
+    /**
+     * Retrieves every copy of a book.
+     *
+     * @param bookId the ID of the book.
+     * @return a list of copies, oldest first.
+     */
+    @GetMapping("/books/{bookId}")
+    public ResponseEntity<List<BookCopy>> getCopiesByBook(@PathVariable long bookId) {
+        return ResponseEntity.ok(bookCopyService.getCopiesByBook(bookId));
+    }
+
+    /**
+     * Registers a new copy of a book.
+     *
+     * @param copyRequest the request containing the book ID and the barcode of the copy.
+     * @return a ResponseEntity containing either the registered copy or an error message.
+     */
+    @PostMapping
+    public ResponseEntity<?> registerCopy(@RequestBody CopyRequest copyRequest) {
+        try {
+            BookCopy copy = bookCopyService.registerCopy(copyRequest.getBookId(), copyRequest.getBarcode());
+            return ResponseEntity.status(HttpStatus.CREATED).body(copy);
+        } catch (ResourceNotFoundException e) {
+            // Handle case where the book is not found
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+        } catch (IllegalArgumentException e) {
+            // Handle a missing or duplicate barcode
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        } catch (IllegalStateException e) {
+            // Handle a first copy registered while the book has loans made by count
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+        }
+    }
+
+    /**
+     * Writes off a lost or damaged copy, taking it out of circulation.
+     *
+     * @param barcode the barcode of the copy.
+     * @return a ResponseEntity containing either the written-off copy or an error message.
+     */
+    @DeleteMapping("/{barcode}")
+    public ResponseEntity<?> writeOffCopy(@PathVariable String barcode) {
+        try {
+            return ResponseEntity.ok(bookCopyService.writeOffCopy(barcode));
+        } catch (ResourceNotFoundException e) {
+            // Handle case where no copy in circulation has this barcode
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+        } catch (IllegalStateException e) {
+            // Handle case where the copy is on loan
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+        }
+    }
+}
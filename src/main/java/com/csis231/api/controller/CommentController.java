@@ -3,12 +3,14 @@ package com.csis231.api.controller;
 import com.csis231.api.DTO.CommentDTO;
 import com.csis231.api.exception.ResourceNotFoundException;
 import com.csis231.api.model.Comment;
+import com.csis231.api.repository.VersionStamp;
 import com.csis231.api.service.CommentService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
 import java.util.List;
@@ -30,11 +32,31 @@ public class CommentController {
 
     /**
      * Get all comments from the database.
+     * Answers 304 Not Modified without loading any comment when the client's copy is current.
+     * With {@code fields}, only those fields are selected and returned, e.g. {@code ?fields=bookId,rating}.
      *
-     * @return List of comments.
+     * @param fields  the comma-separated fields to return, or null for whole comments.
+     * @param request the current request, used to evaluate conditional headers.
+     * @return List of comments, or an error message if a field is unknown.
      */
     @GetMapping
-    public ResponseEntity<List<CommentDTO>> getAllComments() {
+    public ResponseEntity<?> getAllComments(@RequestParam(required = false) String fields, WebRequest request) {
+        // Compare the client's validators with the comment table's version stamp
+        if (ConditionalRequests.isNotModified(request, commentService.getCommentsVersion())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        if (fields != null) {
+            try {
+                // Select only the requested fields
+                return ResponseEntity.ok(commentService.getAllComments(fields));
+            } catch (IllegalArgumentException e) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("error", e.getMessage());
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+            }
+        }
+
         // Retrieve all comments from the service layer and converts them to CommentDTO objects.
         List<CommentDTO> comments = commentService.getAllComments();
 
@@ -89,12 +111,19 @@ public class CommentController {
     /**
      * Get a specific comment by their ID.
      *
-     * @param id the ID of the comment.
+     * @param id      the ID of the comment.
+     * @param request the current request, used to evaluate conditional headers.
      * @return the comment.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<?> getCommentById(@PathVariable Long id) {
+    public ResponseEntity<?> getCommentById(@PathVariable Long id, WebRequest request) {
         try {
+            // Answer 304 from the comment's version stamp when the client's copy is current
+            VersionStamp version = commentService.getCommentVersion(id);
+            if (version.getTotal() > 0 && ConditionalRequests.isNotModified(request, version)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+
             // Call the service to get the CommentDTO
             CommentDTO commentDTO = commentService.getCommentById(id);
             return ResponseEntity.ok(commentDTO);
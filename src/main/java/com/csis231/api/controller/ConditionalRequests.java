@@ -0,0 +1,60 @@
+package com.csis231.api.controller;
+
+import com.csis231.api.repository.VersionStamp;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Helper used by the read endpoints to answer conditional GET requests
+ * (If-None-Match / If-Modified-Since) from a {@link VersionStamp} before any entity is loaded,
+ * or from the ETag of a representation already at hand.
+ */
+final class ConditionalRequests {
+
+    private ConditionalRequests() {
+    }
+
+    /**
+     * Checks the request's validators against a stamp.
+     * The ETag and Last-Modified headers are added to the response in both cases.
+     *
+     * @param request the current request.
+     * @param stamp   the version of the rows the response is built from.
+     * @return true if the client's copy is current and 304 Not Modified should be returned.
+     */
+    static boolean isNotModified(WebRequest request, VersionStamp stamp) {
+        long lastModified = stamp.getLastModifiedMillis();
+
+        // A weak ETag: the rows are unchanged, the exact bytes are not guaranteed to be
+        String etag = "W/\"" + stamp.getTotal() + "-" + lastModified + "\"";
+
+        // Rows never stamped have no usable Last-Modified, so only the ETag is checked
+        return request.checkNotModified(etag, lastModified > 0 ? lastModified : -1) || matchesAny(request);
+    }
+
+    /**
+     * Checks the request's If-None-Match header against the ETag of an existing representation.
+     * The ETag header is added to the response in both cases.
+     *
+     * @param request the current request.
+     * @param etag    the quoted ETag of the representation, strong or weak.
+     * @return true if the client's copy is current and 304 Not Modified should be returned.
+     */
+    static boolean isNotModified(WebRequest request, String etag) {
+        return request.checkNotModified(etag) || matchesAny(request);
+    }
+
+    // "If-None-Match: *" matches any current representation, which WebRequest does not check on a GET
+    private static boolean matchesAny(WebRequest request) {
+        String[] values = request.getHeaderValues(HttpHeaders.IF_NONE_MATCH);
+        if (values == null) {
+            return false;
+        }
+        for (String value : values) {
+            if (value.trim().equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
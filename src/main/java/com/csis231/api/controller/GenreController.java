@@ -2,6 +2,7 @@ package com.csis231.api.controller;
 
 import com.csis231.api.exception.ResourceNotFoundException;
 import com.csis231.api.model.Genre;
+import com.csis231.api.repository.VersionStamp;
 import com.csis231.api.service.GenreService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +10,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
 import java.util.List;
@@ -30,13 +32,20 @@ public class GenreController {
 
     /**
      * Get all genres from the database.
+     * Answers 304 Not Modified without loading any genre when the client's copy is current.
      *
+     * @param request the current request, used to evaluate conditional headers.
      * @return a list of all genres stored in the database.
      */
     @GetMapping
-    public List<Genre> getAllGenres() {
+    public ResponseEntity<List<Genre>> getAllGenres(WebRequest request) {
+        // Compare the client's validators with the genre table's version stamp
+        if (ConditionalRequests.isNotModified(request, genreService.getGenresVersion())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         // Call the service layer to retrieve all genres
-        return genreService.getAllGenres();
+        return ResponseEntity.ok(genreService.getAllGenres());
     }
 
     /**
@@ -72,12 +81,19 @@ public class GenreController {
     /**
      * Get a specific genre by its ID
      *
-     * @param id the ID of the genre to retrieve.
+     * @param id      the ID of the genre to retrieve.
+     * @param request the current request, used to evaluate conditional headers.
      * @return the genre if found, or an error message if not found.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<?> getGenreById(@PathVariable Long id) {
+    public ResponseEntity<?> getGenreById(@PathVariable Long id, WebRequest request) {
         try {
+            // Answer 304 from the genre's version stamp when the client's copy is current
+            VersionStamp version = genreService.getGenreVersion(id);
+            if (version.getTotal() > 0 && ConditionalRequests.isNotModified(request, version)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+
             // Call the service method to retrieve the genre by ID
             return ResponseEntity.ok(genreService.getGenreById(id));
 
@@ -0,0 +1,137 @@
+package com.csis231.api.controller;
+
+import com.csis231.api.exception.ImageTooLargeException;
+import com.csis231.api.exception.ResourceNotFoundException;
+import com.csis231.api.model.Image;
+import com.csis231.api.service.ImageContent;
+import com.csis231.api.service.ImageService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.apache.tomcat.util.http.fileupload.FileItemIterator;
+import org.apache.tomcat.util.http.fileupload.FileItemStream;
+import org.apache.tomcat.util.http.fileupload.FileUpload;
+import org.apache.tomcat.util.http.fileupload.FileUploadException;
+import org.apache.tomcat.util.http.fileupload.servlet.ServletRequestContext;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Controller to upload and serve the cover images of books.
+ */
+@RestController
+@RequestMapping("api/images")
+public class ImageController {
+
+    // Room for the boundaries and part headers around an image of the maximum size
+    private static final long MULTIPART_OVERHEAD = 64 * 1024;
+
+    private final ImageService imageService;
+    private final ObjectMapper objectMapper;
+
+    // Constructor to inject services
+    public ImageController(ImageService imageService, ObjectMapper objectMapper) {
+        this.imageService = imageService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Serves the bytes of an image, from the off-heap image cache when possible.
+     * Images never change once stored, so clients may keep them for a day and revalidate with their ETag.
+     *
+     * @param id      the ID of the image.
+     * @param request the current request, used to evaluate conditional headers.
+     * @return a ResponseEntity streaming the image, or an error message if it does not exist.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<StreamingResponseBody> getImage(@PathVariable long id, WebRequest request) {
+        ImageContent image;
+        try {
+            image = imageService.openImage(id);
+        } catch (ResourceNotFoundException e) {
+            // Handle case where the image is not found
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> objectMapper.writeValue(out, errorResponse));
+        }
+
+        // The client already holds the image
+        if (ConditionalRequests.isNotModified(request, image.getEtag())) {
+            image.close();
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        // Written once the response is committed; the image stays pinned in the cache until then
+        StreamingResponseBody body = out -> {
+            try (image) {
+                image.writeTo(out);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(image.getContentType()))
+                .contentLength(image.getLength())
+                .eTag(image.getEtag())
+                .cacheControl(CacheControl.maxAge(Duration.ofDays(1)))
+                .body(body);
+    }
+
+    /**
+     * Uploads an image from the {@code file} part of a multipart request.
+     * The request body is parsed as a stream: the image is stored chunk by chunk as it arrives,
+     * and rejected as soon as its type or size is known to be wrong, so memory use does not depend on its size.
+     *
+     * @param request the multipart request.
+     * @return a ResponseEntity containing either the created image or an error message.
+     * @throws IOException if the image cannot be stored.
+     */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> uploadImage(HttpServletRequest request) throws IOException {
+        Map<String, String> errorResponse = new HashMap<>();
+        // Refuse a body that cannot fit before reading any of it
+        if (request.getContentLengthLong() > imageService.getMaxUploadSize() + MULTIPART_OVERHEAD) {
+            errorResponse.put("error", "Image exceeds the maximum size of " + imageService.getMaxUploadSize() + " bytes");
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(errorResponse);
+        }
+
+        try {
+            FileItemIterator parts = new FileUpload().getItemIterator(new ServletRequestContext(request));
+            while (parts.hasNext()) {
+                FileItemStream part = parts.next();
+                if (part.isFormField() || !"file".equals(part.getFieldName())) {
+                    continue;
+                }
+                try (InputStream data = part.openStream()) {
+                    Image image = imageService.uploadImage(data);
+                    return ResponseEntity.created(URI.create(image.getImageUrl())).body(image);
+                }
+            }
+            errorResponse.put("error", "The request has no file part");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        } catch (ImageTooLargeException e) {
+            // Handle an image growing past the maximum size
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(errorResponse);
+        } catch (IllegalArgumentException e) {
+            // Handle an empty image or one of an unsupported type
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        } catch (FileUploadException e) {
+            // Handle a malformed multipart body
+            errorResponse.put("error", "Malformed multipart request: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
+    }
+}
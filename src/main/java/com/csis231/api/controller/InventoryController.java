@@ -0,0 +1,58 @@
+package com.csis231.api.controller;
+
+import com.csis231.api.model.InventoryEvent;
+import com.csis231.api.service.InventoryService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controller to handle inventory-related requests: the availability and stock history of books.
+ */
+@RestController
+@RequestMapping("api/inventory")
+public class InventoryController {
+
+    private final InventoryService inventoryService;
+
+    // Constructor to inject services
+    public InventoryController(InventoryService inventoryService) {
+        this.inventoryService = inventoryService;
+    }
+
+    /**
+     * Retrieves the number of available copies of a book, served from memory.
+     *
+     * @param bookId the ID of the book.
+     * @return a ResponseEntity containing either the availability or an error message.
+     */
+    @GetMapping("/{bookId}")
+    public ResponseEntity<Map<String, Object>> getAvailability(@PathVariable long bookId) {
+        if (!inventoryService.isTracked(bookId)) {
+            // Handle case where the book is not found
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Book not found with id: " + bookId);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("book_id", bookId);
+        response.put("available", inventoryService.getAvailable(bookId));
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Retrieves the stock history of a book: every borrow, return, restock and write-off.
+     *
+     * @param bookId the ID of the book.
+     * @return a list of inventory events, oldest first.
+     */
+    @GetMapping("/{bookId}/events")
+    public ResponseEntity<List<InventoryEvent>> getHistory(@PathVariable long bookId) {
+        return ResponseEntity.ok(inventoryService.getHistory(bookId));
+    }
+}
@@ -0,0 +1,83 @@
+package com.csis231.api.controller;
+
+import com.csis231.api.DTO.BookDTO;
+import com.csis231.api.DTO.CommentDTO;
+import com.csis231.api.model.Author;
+import com.csis231.api.model.Genre;
+import com.csis231.api.service.CatalogStreamService;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+/**
+ * Controller exposing a read-only, reactive variant of the catalog endpoints.
+ * Every row is written as {@code application/x-ndjson} as soon as it is read, one JSON document per line,
+ * and the next row is only requested once the client has taken the previous one.
+ * The request thread is released while a stream runs, but this is still Spring MVC: each row is written with
+ * blocking servlet I/O on a thread of the bounded MVC async executor ({@link com.csis231.api.config.MvcAsyncConfig}),
+ * which a slow client holds until its socket takes the row.
+ * A JSON array would be collected whole before being written, so it is not offered here:
+ * clients wanting one use the regular catalog endpoints, and other {@code Accept} headers get a 406.
+ */
+@RestController
+@RequestMapping("api/reactive")
+public class ReactiveCatalogController {
+
+    private final CatalogStreamService catalogStreamService;
+
+    // Constructor to inject services
+    public ReactiveCatalogController(CatalogStreamService catalogStreamService) {
+        this.catalogStreamService = catalogStreamService;
+    }
+
+    /**
+     * Streams all books with their author.
+     *
+     * @return a stream of books.
+     */
+    @GetMapping(value = "/books", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BookDTO> streamBooks() {
+        return catalogStreamService.streamBooks();
+    }
+
+    /**
+     * Streams the comments of a book.
+     *
+     * @param id the ID of the book.
+     * @return a stream of the book's comments.
+     */
+    @GetMapping(value = "/books/{id}/comments", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CommentDTO> streamCommentsByBook(@PathVariable Long id) {
+        return catalogStreamService.streamCommentsByBook(id);
+    }
+
+    /**
+     * Streams all authors.
+     *
+     * @return a stream of authors.
+     */
+    @GetMapping(value = "/authors", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Author> streamAuthors() {
+        return catalogStreamService.streamAuthors();
+    }
+
+    /**
+     * Streams all genres.
+     *
+     * @return a stream of genres.
+     */
+    @GetMapping(value = "/genres", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Genre> streamGenres() {
+        return catalogStreamService.streamGenres();
+    }
+
+    /**
+     * Streams all comments.
+     *
+     * @return a stream of comments.
+     */
+    @GetMapping(value = "/comments", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CommentDTO> streamComments() {
+        return catalogStreamService.streamComments();
+    }
+}
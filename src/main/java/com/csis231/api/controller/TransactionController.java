@@ -1,5 +1,6 @@
 package com.csis231.api.controller;
 
+import com.csis231.api.DTO.LoanItemResultDTO;
 import com.csis231.api.DTO.TransactionDTO;
 import com.csis231.api.exception.ResourceNotFoundException;
 import com.csis231.api.model.*;
@@ -28,11 +29,24 @@ public class TransactionController {
 
     /**
      * Retrieve all transactions from the system.
+     * With {@code fields}, only those fields are selected and returned, e.g. {@code ?fields=transaction_id,due_date}.
      *
-     * @return ResponseEntity with a list of TransactionDTOs.
+     * @param fields the comma-separated fields to return, or null for whole transactions.
+     * @return ResponseEntity with a list of TransactionDTOs, or an error message if a field is unknown.
      */
     @GetMapping
-    public ResponseEntity<List<TransactionDTO>> getAllTransactions() {
+    public ResponseEntity<?> getAllTransactions(@RequestParam(required = false) String fields) {
+        if (fields != null) {
+            try {
+                // Select only the requested fields
+                return ResponseEntity.ok(transactionService.getAllTransactions(fields));
+            } catch (IllegalArgumentException e) {
+                Map<String, String> errorResponse = new HashMap<>();
+                errorResponse.put("error", e.getMessage());
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+            }
+        }
+
         // Get all transactions using the service
         List<TransactionDTO> transactions = transactionService.getAllTransactions();
         return ResponseEntity.ok(transactions);
@@ -58,17 +72,30 @@ public class TransactionController {
         }
     }
 
+    /**
+     * Retrieve the borrowing history of a user, including archived transactions.
+     *
+     * @param username The username of the user.
+     * @return ResponseEntity with the user's TransactionDTOs, oldest first.
+     */
+    @GetMapping("/users/{username}")
+    public ResponseEntity<List<TransactionDTO>> getTransactionsByUser(@PathVariable String username) {
+        // Get the user's open and archived transactions using the service
+        List<TransactionDTO> transactions = transactionService.getTransactionsByUser(username);
+        return ResponseEntity.ok(transactions);
+    }
+
     /**
      * Endpoint for borrowing a book.
      *
-     * @param borrowRequest The request containing the book ID and username.
+     * @param borrowRequest The request containing the book ID and username, and optionally the scanned barcode.
      * @return ResponseEntity with a success or error message.
      */
     @PostMapping("/borrow")
     public ResponseEntity<?> borrowBook(@RequestBody BorrowRequest borrowRequest) {
         try {
-            // Call the service layer to borrow the book
-            transactionService.borrowBook(borrowRequest.getBookId(), borrowRequest.getUsername());
+            // Call the service layer to borrow the book, or the copy scanned at the desk
+            transactionService.borrowBook(borrowRequest.getBookId(), borrowRequest.getUsername(), borrowRequest.getBarcode());
 
             // Success response
             Map<String, Object> response = new HashMap<>();
@@ -96,14 +123,18 @@ public class TransactionController {
     /**
      * Endpoint for returning a borrowed book.
      *
-     * @param returnBookRequest The request containing the book ID and username.
+     * @param returnBookRequest The request containing the book ID and username, or the barcode of the returned copy.
      * @return ResponseEntity with a success or error message.
      */
     @PutMapping("/return")
     public ResponseEntity<?> returnBook(@RequestBody ReturnRequest returnBookRequest) {
         try {
-            // Call the service layer to handle the return
-            transactionService.returnBook(returnBookRequest.getBookId(), returnBookRequest.getUsername());
+            // Call the service layer to handle the return, by scanned copy when a barcode is given
+            if (returnBookRequest.getBarcode() != null) {
+                transactionService.returnCopy(returnBookRequest.getBarcode());
+            } else {
+                transactionService.returnBook(returnBookRequest.getBookId(), returnBookRequest.getUsername());
+            }
 
             // Success response
             Map<String, String> response = new HashMap<>();
@@ -127,6 +158,59 @@ public class TransactionController {
         }
     }
 
+    /**
+     * Endpoint for borrowing a stack of books at once, e.g. at a self-service kiosk.
+     * Each book succeeds or fails on its own; the response lists the result of every book.
+     *
+     * @param bulkLoanRequest The request containing the username and the book IDs or scanned barcodes.
+     * @return ResponseEntity with the result of each book, or an error message.
+     */
+    @PostMapping("/borrow/bulk")
+    public ResponseEntity<?> borrowBooks(@RequestBody BulkLoanRequest bulkLoanRequest) {
+        try {
+            List<LoanItemResultDTO> results = transactionService.borrowBooks(bulkLoanRequest.getUsername(),
+                    bulkLoanRequest.getBookIds(), bulkLoanRequest.getBarcodes());
+            return ResponseEntity.ok(bulkResponse(bulkLoanRequest.getUsername(), results));
+        } catch (ResourceNotFoundException e) {
+            // Handle case where the user is not found
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+        }
+    }
+
+    /**
+     * Endpoint for returning a stack of books at once, e.g. at a self-service kiosk.
+     * Each book succeeds or fails on its own; the response lists the result of every book.
+     *
+     * @param bulkLoanRequest The request containing the username and the book IDs or scanned barcodes.
+     * @return ResponseEntity with the result of each book, or an error message.
+     */
+    @PutMapping("/return/bulk")
+    public ResponseEntity<?> returnBooks(@RequestBody BulkLoanRequest bulkLoanRequest) {
+        try {
+            List<LoanItemResultDTO> results = transactionService.returnBooks(bulkLoanRequest.getUsername(),
+                    bulkLoanRequest.getBookIds(), bulkLoanRequest.getBarcodes());
+            return ResponseEntity.ok(bulkResponse(bulkLoanRequest.getUsername(), results));
+        } catch (ResourceNotFoundException e) {
+            // Handle case where the user is not found
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+        }
+    }
+
+    // Summarizes the per-book results of a bulk request
+    private static Map<String, Object> bulkResponse(String username, List<LoanItemResultDTO> results) {
+        long failed = results.stream().filter(result -> "FAILED".equals(result.getStatus())).count();
+        Map<String, Object> response = new HashMap<>();
+        response.put("username", username);
+        response.put("succeeded", results.size() - failed);
+        response.put("failed", failed);
+        response.put("results", results);
+        return response;
+    }
+
     /**
      * Deletes a transaction based on its ID.
      *
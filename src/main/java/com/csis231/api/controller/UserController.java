@@ -4,9 +4,11 @@ import com.csis231.api.DTO.LogInDTO;
 import com.csis231.api.model.User;
 import com.csis231.api.service.UserService;
 import com.csis231.api.exception.ResourceNotFoundException;
+import com.csis231.api.repository.VersionStamp;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
 import java.util.List;
@@ -28,24 +30,50 @@ public class UserController {
 
     /**
      * Get all users from the database.
+     * Answers 304 Not Modified without loading any user when the client's copy is current.
+     * With {@code fields}, only those fields are selected and returned, e.g. {@code ?fields=username,email}.
      *
-     * @return List of users.
+     * @param fields  the comma-separated fields to return, or null for whole users.
+     * @param request the current request, used to evaluate conditional headers.
+     * @return List of users, or an error message if a field is unknown.
      */
     @GetMapping
-    public List<User> getAllUsers() {
-        return userService.getAllUsers();
+    public ResponseEntity<?> getAllUsers(@RequestParam(required = false) String fields, WebRequest request) {
+        // Compare the client's validators with the user table's version stamp
+        if (ConditionalRequests.isNotModified(request, userService.getUsersVersion())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        if (fields != null) {
+            try {
+                // Select only the requested fields
+                return ResponseEntity.ok(userService.getAllUsers(fields));
+            } catch (IllegalArgumentException e) {
+                Map<String, String> errorResponse = new HashMap<>();
+                errorResponse.put("error", e.getMessage());
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+            }
+        }
+        return ResponseEntity.ok(userService.getAllUsers());
     }
 
     /**
      * Get a specific user by their username.
      *
      * @param username the username of the user.
+     * @param request  the current request, used to evaluate conditional headers.
      * @return the found user.
      * @throws ResourceNotFoundException if the user is not found.
      */
     @GetMapping("/{username}")
-    public ResponseEntity<?> getUserByUsername(@PathVariable String username) {
+    public ResponseEntity<?> getUserByUsername(@PathVariable String username, WebRequest request) {
         try {
+            // Answer 304 from the user's version stamp when the client's copy is current
+            VersionStamp version = userService.getUserVersion(username);
+            if (version.getTotal() > 0 && ConditionalRequests.isNotModified(request, version)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+
             return ResponseEntity.ok(userService.getUserByUsername(username));
         } catch (ResourceNotFoundException ex) {
             Map<String, String> errorResponse = new HashMap<>();
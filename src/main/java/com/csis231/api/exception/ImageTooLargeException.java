@@ -0,0 +1,24 @@
+package com.csis231.api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Custom exception to indicate that an uploaded image is larger than allowed.
+ * It is thrown as soon as the limit is crossed, while the image is still being received,
+ * and it automatically triggers a `413 Payload Too Large` HTTP status response.
+ */
+@ResponseStatus(value = HttpStatus.PAYLOAD_TOO_LARGE)
+public class ImageTooLargeException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L; // Serial version ID for serialization
+
+    /**
+     * Constructor that takes a custom message to describe the exception.
+     *
+     * @param message The custom error message, stating the limit
+     */
+    public ImageTooLargeException(String message) {
+        super(message);
+    }
+}
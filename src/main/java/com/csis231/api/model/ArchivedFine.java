@@ -0,0 +1,101 @@
+package com.csis231.api.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing a settled fine archived together with its {@link ArchivedTransaction}.
+ */
+@Entity
+@Immutable
+@Table(name = "archived_fine", indexes = {
+        @Index(name = "idx_archived_fine_transaction", columnList = "transaction_id")
+})
+public class ArchivedFine {
+
+    /**
+     * The ID the fine had in the {@code fine} table.
+     */
+    @Id
+    @Column(name = "fine_id", nullable = false)
+    private long fineId;
+
+    /**
+     * The ID of the archived transaction the fine belongs to.
+     */
+    @Column(name = "transaction_id", nullable = false)
+    private long transactionId;
+
+    /**
+     * The amount of the fine.
+     */
+    @Column(name = "fine_amount", nullable = false)
+    private double fineAmount;
+
+    /**
+     * The status of the fine when it was archived.
+     */
+    @Column(name = "fine_status", nullable = false)
+    private String fineStatus;
+
+    /**
+     * The date and time the fine was paid.
+     */
+    @Column(name = "paid_date", nullable = false)
+    private LocalDateTime paidDate;
+
+    /**
+     * Default constructor required by JPA.
+     */
+    public ArchivedFine() {
+    }
+
+    // Getters
+
+    /**
+     * Gets the ID of the fine.
+     *
+     * @return The ID of the fine.
+     */
+    public long getFineId() {
+        return fineId;
+    }
+
+    /**
+     * Gets the ID of the transaction the fine belongs to.
+     *
+     * @return The ID of the transaction.
+     */
+    public long getTransactionId() {
+        return transactionId;
+    }
+
+    /**
+     * Gets the amount of the fine.
+     *
+     * @return The fine amount.
+     */
+    public double getFineAmount() {
+        return fineAmount;
+    }
+
+    /**
+     * Gets the status of the fine.
+     *
+     * @return The fine status.
+     */
+    public String getFineStatus() {
+        return fineStatus;
+    }
+
+    /**
+     * Gets the date and time the fine was paid.
+     *
+     * @return The paid date.
+     */
+    public LocalDateTime getPaidDate() {
+        return paidDate;
+    }
+}
@@ -0,0 +1,134 @@
+package com.csis231.api.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDate;
+
+/**
+ * Entity representing a returned transaction moved out of {@code borrowing_transaction} by the archival job.
+ * Archived rows keep their original ID and only reference the book and user by key, so the archive
+ * can grow without weighing on the tables and indexes used by open loans.
+ */
+@Entity
+@Immutable
+@Table(name = "archived_transaction", indexes = {
+        @Index(name = "idx_archived_transaction_username", columnList = "username"),
+        @Index(name = "idx_archived_transaction_book", columnList = "book_id")
+})
+public class ArchivedTransaction {
+
+    /**
+     * The ID the transaction had in {@code borrowing_transaction}.
+     */
+    @Id
+    @Column(name = "transaction_id", nullable = false)
+    private long transactionId;
+
+    /**
+     * The username of the user who borrowed the book.
+     */
+    @Column(name = "username", nullable = false)
+    private String username;
+
+    /**
+     * The ID of the borrowed book.
+     */
+    @Column(name = "book_id", nullable = false)
+    private long bookId;
+
+    /**
+     * The date the book was issued.
+     */
+    @Column(name = "issue_date", nullable = false)
+    private LocalDate issueDate;
+
+    /**
+     * The date the book was due.
+     */
+    @Column(name = "due_date", nullable = false)
+    private LocalDate dueDate;
+
+    /**
+     * The date the book was returned.
+     */
+    @Column(name = "return_date", nullable = false)
+    private LocalDate returnDate;
+
+    /**
+     * The barcode of the lent copy, null for loans not tracked by copy.
+     */
+    @Column(name = "barcode", length = 64)
+    private String barcode;
+
+    /**
+     * Default constructor required by JPA.
+     */
+    public ArchivedTransaction() {
+    }
+
+    // Getters
+
+    /**
+     * Gets the ID of the transaction.
+     *
+     * @return The ID of the transaction.
+     */
+    public long getTransactionId() {
+        return transactionId;
+    }
+
+    /**
+     * Gets the username of the borrower.
+     *
+     * @return The username of the borrower.
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * Gets the ID of the borrowed book.
+     *
+     * @return The ID of the book.
+     */
+    public long getBookId() {
+        return bookId;
+    }
+
+    /**
+     * Gets the issue date of the transaction.
+     *
+     * @return The issue date.
+     */
+    public LocalDate getIssueDate() {
+        return issueDate;
+    }
+
+    /**
+     * Gets the due date of the transaction.
+     *
+     * @return The due date.
+     */
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    /**
+     * Gets the return date of the transaction.
+     *
+     * @return The return date.
+     */
+    public LocalDate getReturnDate() {
+        return returnDate;
+    }
+
+    /**
+     * Gets the barcode of the lent copy.
+     *
+     * @return The barcode, or null if the loan was not tracked by copy.
+     */
+    public String getBarcode() {
+        return barcode;
+    }
+}
@@ -1,12 +1,17 @@
 package com.csis231.api.model;
 
 import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import org.hibernate.annotations.UpdateTimestamp;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 /**
  * Entity representing an Author in the database.
  */
 @Table(name = "author")
 @Entity
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Author {
 
     /**
@@ -32,6 +37,14 @@ public class Author {
     @Column(name = "last_name", nullable = false)
     private String last_name;
 
+    /**
+     * The date and time the author was last changed.
+     * Maintained by Hibernate on every insert and update, and used to answer conditional requests.
+     */
+    @UpdateTimestamp
+    @Column(name = "last_modified")
+    private LocalDateTime lastModified;
+
     /**
      * Default constructor required by JPA.
      */
@@ -117,6 +130,16 @@ public class Author {
         this.author_id = author_id;
     }
 
+    /**
+     * Gets the date and time the author was last changed.
+     *
+     * @return The last modification time, or null for rows written before it was tracked.
+     */
+    @JsonIgnore
+    public LocalDateTime getLastModified() {
+        return lastModified;
+    }
+
     // Override toString method for better object representation
     @Override
     public String toString() {
@@ -1,13 +1,27 @@
 package com.csis231.api.model;
 
 import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import org.hibernate.annotations.UpdateTimestamp;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.util.List;
 
 /**
  * Entity representing a Book in the database.
+ * Its author and image are loaded lazily; the "Book.detail" graph fetches what the book's JSON embeds,
+ * the author, genres and image, in the query loading the book.
  */
 @Entity
-@Table(name = "book")
+@NamedEntityGraph(name = "Book.detail", attributeNodes = {
+        @NamedAttributeNode("author"),
+        @NamedAttributeNode("genres"),
+        @NamedAttributeNode("image")
+})
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@Table(name = "book", indexes = {
+        @Index(name = "uk_book_isbn_key", columnList = "isbn_key", unique = true)
+})
 public class Book {
 
     /**
@@ -25,7 +39,7 @@ public class Book {
      *
      * @see Author
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id")
     private Author author;
 
@@ -36,6 +50,14 @@ public class Book {
     @Column(name = "isbn")
     private String isbn;
 
+    /**
+     * The ISBN as its ISBN-13 digits, unique among books.
+     * Set by the service from the isbn on create; null only for books saved before ISBNs were canonicalized
+     * whose isbn is invalid or shared with another book.
+     */
+    @Column(name = "isbn_key")
+    private Long isbnKey;
+
     /**
      * The title of the book.
      * This field is required and cannot be null.
@@ -104,10 +126,18 @@ public class Book {
      * @return The image associated with the book.
      * @see Image
      */
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "image_id")  // One book has one image, no repetitive images for books
     private Image image;  // The image associated with the book
 
+    /**
+     * The date and time the book was last changed.
+     * Maintained by Hibernate on every insert and update, and used to answer conditional requests.
+     */
+    @UpdateTimestamp
+    @Column(name = "last_modified")
+    private LocalDateTime lastModified;
+
     /**
      * Default constructor required by JPA.
      */
@@ -249,6 +279,25 @@ public class Book {
         this.isbn = isbn;
     }
 
+    /**
+     * Gets the canonical ISBN of the book.
+     *
+     * @return The ISBN-13 digits of the book, or null if not canonicalized.
+     */
+    @JsonIgnore
+    public Long getIsbnKey() {
+        return isbnKey;
+    }
+
+    /**
+     * Sets the canonical ISBN of the book.
+     *
+     * @param isbnKey The ISBN-13 digits of the book.
+     */
+    public void setIsbnKey(Long isbnKey) {
+        this.isbnKey = isbnKey;
+    }
+
     /**
      * Gets the publisher of the book.
      *
@@ -412,6 +461,16 @@ public class Book {
         this.genres = genres;
     }
 
+    /**
+     * Gets the date and time the book was last changed.
+     *
+     * @return The last modification time, or null for rows written before it was tracked.
+     */
+    @JsonIgnore
+    public LocalDateTime getLastModified() {
+        return lastModified;
+    }
+
     /**
      * Converts the Book object to a string representation.
      *
@@ -0,0 +1,117 @@
+package com.csis231.api.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Entity representing one physical copy of a {@link Book}, identified by the barcode on its label.
+ * Copies reference their book by ID only, like {@link InventoryEvent}, so claiming a copy at checkout
+ * locks the copy row and never the {@code book} row shared by every borrower of the title.
+ */
+@Entity
+@Table(name = "book_copy", indexes = {
+        @Index(name = "idx_book_copy_barcode", columnList = "barcode", unique = true),
+        @Index(name = "idx_book_copy_book_status", columnList = "book_id, status")
+})
+public class BookCopy {
+
+    /**
+     * The states a copy goes through.
+     */
+    public enum Status {
+        AVAILABLE,
+        ON_LOAN,
+        WRITTEN_OFF
+    }
+
+    /**
+     * Unique identifier for the copy, used as the primary key in the database.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "copy_id", nullable = false)
+    private long copyId;
+
+    /**
+     * The ID of the book this is a copy of.
+     */
+    @Column(name = "book_id", nullable = false)
+    private long bookId;
+
+    /**
+     * The barcode printed on the copy, unique across the library.
+     */
+    @Column(name = "barcode", nullable = false, length = 64)
+    private String barcode;
+
+    /**
+     * Whether the copy is on the shelf, lent out, or no longer in circulation.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private Status status;
+
+    /**
+     * Default constructor required by JPA.
+     */
+    public BookCopy() {
+    }
+
+    /**
+     * Constructor for a new copy, available on the shelf.
+     *
+     * @param bookId  the ID of the book.
+     * @param barcode the barcode of the copy.
+     */
+    public BookCopy(long bookId, String barcode) {
+        this.bookId = bookId;
+        this.barcode = barcode;
+        this.status = Status.AVAILABLE;
+    }
+
+    // Getters and Setters
+
+    /**
+     * Gets the id of the copy.
+     *
+     * @return The id of the copy.
+     */
+    public long getCopyId() {
+        return copyId;
+    }
+
+    /**
+     * Gets the id of the book this is a copy of.
+     *
+     * @return The id of the book.
+     */
+    public long getBookId() {
+        return bookId;
+    }
+
+    /**
+     * Gets the barcode of the copy.
+     *
+     * @return The barcode of the copy.
+     */
+    public String getBarcode() {
+        return barcode;
+    }
+
+    /**
+     * Gets the status of the copy.
+     *
+     * @return The status of the copy.
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Sets the status of the copy.
+     *
+     * @param status The new status of the copy.
+     */
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+}
@@ -8,6 +8,7 @@ public class BorrowRequest {
 
     private Long book_id;  // The ID of the book being borrowed
     private String username;  // The ID of the user borrowing the book
+    private String barcode;  // The barcode of the copy scanned at the desk, optional
 
     // Getters and Setters
 
@@ -46,4 +47,12 @@ public class BorrowRequest {
     public void setUsername(String username) {
         this.username = username;
     }
+
+    public String getBarcode() {
+        return barcode;
+    }
+
+    public void setBarcode(String barcode) {
+        this.barcode = barcode;
+    }
 }
@@ -0,0 +1,40 @@
+package com.csis231.api.model;
+
+import java.util.List;
+
+/**
+ * Represents a bulk checkout or return made at a self-service kiosk.
+ * Books are given by ID, by the barcode of the scanned copy, or both.
+ */
+public class BulkLoanRequest {
+
+    private String username;  // The username of the user borrowing or returning the books
+    private List<Long> book_ids;  // The IDs of the books, optional
+    private List<String> barcodes;  // The barcodes of the scanned copies, optional
+
+    // Getters and Setters
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public List<Long> getBookIds() {
+        return book_ids;
+    }
+
+    public void setBookIds(List<Long> book_ids) {
+        this.book_ids = book_ids;
+    }
+
+    public List<String> getBarcodes() {
+        return barcodes;
+    }
+
+    public void setBarcodes(List<String> barcodes) {
+        this.barcodes = barcodes;
+    }
+}
@@ -1,6 +1,8 @@
 package com.csis231.api.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.UpdateTimestamp;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.time.LocalDateTime;
 
 /**
@@ -23,7 +25,7 @@ public class Comment {
      * Foreign key referencing the Book entity.
      * Each comment is linked to a specific book through this book ID.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "book_id", referencedColumnName = "book_id")
     private Book book;
 
@@ -48,6 +50,14 @@ public class Comment {
     @Column(name = "comment_date")
     private LocalDateTime comment_date;
 
+    /**
+     * The date and time the comment was last changed.
+     * Maintained by Hibernate on every insert and update, and used to answer conditional requests.
+     */
+    @UpdateTimestamp
+    @Column(name = "last_modified")
+    private LocalDateTime lastModified;
+
     /**
      * Default constructor required by JPA.
      */
@@ -172,4 +182,14 @@ public class Comment {
     public void setCommentDate(LocalDateTime comment_date) {
         this.comment_date = comment_date;
     }
+
+    /**
+     * Gets the date and time the comment was last changed.
+     *
+     * @return The last modification time, or null for rows written before it was tracked.
+     */
+    @JsonIgnore
+    public LocalDateTime getLastModified() {
+        return lastModified;
+    }
 }
@@ -0,0 +1,28 @@
+package com.csis231.api.model;
+
+/**
+ * Represents a request to register a physical copy of a book.
+ */
+public class CopyRequest {
+
+    private Long book_id;  // The ID of the book the copy belongs to
+    private String barcode;  // The barcode printed on the copy
+
+    // Getters and Setters
+
+    public Long getBookId() {
+        return book_id;
+    }
+
+    public void setBookId(Long book_id) {
+        this.book_id = book_id;
+    }
+
+    public String getBarcode() {
+        return barcode;
+    }
+
+    public void setBarcode(String barcode) {
+        this.barcode = barcode;
+    }
+}
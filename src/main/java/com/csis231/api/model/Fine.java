@@ -23,7 +23,7 @@ public class Fine {
      * Many-to-One relationship with the Transaction entity.
      * Each fine is associated with one transaction.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "transaction_id", referencedColumnName = "transaction_id")
     private Transaction transaction;
 
@@ -45,9 +45,9 @@ public class Fine {
 
     /**
      * The date and time when the user paid the fine.
-     * This field is automatically set to the current date and time at the time of user payment.
+     * This field is automatically set to the current date and time at the time of user payment, and is null while the fine is unpaid.
      */
-    @Column(name = "paid_date", nullable = false)
+    @Column(name = "paid_date")
     private LocalDateTime paid_date;
 
     /**
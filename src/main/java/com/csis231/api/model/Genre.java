@@ -1,6 +1,9 @@
 package com.csis231.api.model;
 
 import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import org.hibernate.annotations.UpdateTimestamp;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import javax.validation.constraints.NotEmpty;
 
 /**
@@ -27,6 +30,14 @@ public class Genre {
     @Column(name = "type", nullable = false)
     private String type;
 
+    /**
+     * The date and time the genre was last changed.
+     * Maintained by Hibernate on every insert and update, and used to answer conditional requests.
+     */
+    @UpdateTimestamp
+    @Column(name = "last_modified")
+    private LocalDateTime lastModified;
+
     /**
      * Default constructor required by JPA.
      */
@@ -81,6 +92,16 @@ public class Genre {
         this.type = type;
     }
 
+    /**
+     * Gets the date and time the genre was last changed.
+     *
+     * @return The last modification time, or null for rows written before it was tracked.
+     */
+    @JsonIgnore
+    public LocalDateTime getLastModified() {
+        return lastModified;
+    }
+
     /**
      * Optional: Override the toString method for better object representation.
      *
@@ -0,0 +1,239 @@
+package com.csis231.api.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity recording a request made with an {@code Idempotency-Key} header, and the response it got.
+ * The key is the primary key, so two nodes receiving the same retry cannot both claim it:
+ * the second insert fails and that node replays, or reports as in progress, the first one's outcome.
+ */
+@Entity
+@Table(name = "idempotency_record", indexes = {
+        @Index(name = "idx_idempotency_record_expires_at", columnList = "expires_at")
+})
+public class IdempotencyRecord implements Persistable<String> {
+
+    /**
+     * The states of a keyed request.
+     */
+    public enum Status {
+        IN_PROGRESS,
+        COMPLETED
+    }
+
+    /**
+     * The key sent by the client.
+     */
+    @Id
+    @Column(name = "idempotency_key", nullable = false, length = 255)
+    private String idempotencyKey;
+
+    /**
+     * Hash of the method, path and body of the request, so a key reused for another request is detected.
+     */
+    @Column(name = "fingerprint", nullable = false, length = 64)
+    private String fingerprint;
+
+    /**
+     * Whether the first request with this key is still running.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private Status status;
+
+    /**
+     * The HTTP status of the response, once completed.
+     */
+    @Column(name = "response_status")
+    private Integer responseStatus;
+
+    /**
+     * The content type of the response, once completed.
+     */
+    @Column(name = "content_type")
+    private String contentType;
+
+    /**
+     * The body of the response, once completed.
+     */
+    @Lob
+    @Column(name = "response_body")
+    private byte[] responseBody;
+
+    /**
+     * Random token of the request holding the key, renewed on takeover; only that request may complete or release it.
+     */
+    @Column(name = "owner", length = 36)
+    private String owner;
+
+    /**
+     * The time the running request claimed the key; a claim older than the lease may be taken over by a retry.
+     */
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
+    /**
+     * The time after which the key can be used again.
+     */
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Whether the record was created here rather than loaded, so saving it inserts instead of merging
+    @Transient
+    private boolean isNew = true;
+
+    /**
+     * Default constructor required by JPA.
+     */
+    public IdempotencyRecord() {
+    }
+
+    /**
+     * Constructor for a request that just claimed its key.
+     *
+     * @param idempotencyKey the key sent by the client.
+     * @param fingerprint    the hash of the request.
+     * @param owner          the token of the request.
+     * @param expiresAt      the time after which the key can be used again.
+     */
+    public IdempotencyRecord(String idempotencyKey, String fingerprint, String owner, LocalDateTime expiresAt) {
+        this(idempotencyKey, fingerprint, owner, LocalDateTime.now(), expiresAt);
+    }
+
+    /**
+     * Constructor for a request that claimed its key at the given time.
+     *
+     * @param idempotencyKey the key sent by the client.
+     * @param fingerprint    the hash of the request.
+     * @param owner          the token of the request.
+     * @param claimedAt      the time the key was claimed.
+     * @param expiresAt      the time after which the key can be used again.
+     */
+    public IdempotencyRecord(String idempotencyKey, String fingerprint, String owner, LocalDateTime claimedAt,
+                             LocalDateTime expiresAt) {
+        this.idempotencyKey = idempotencyKey;
+        this.fingerprint = fingerprint;
+        this.owner = owner;
+        this.status = Status.IN_PROGRESS;
+        this.claimedAt = claimedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Records the response of the request.
+     *
+     * @param responseStatus the HTTP status.
+     * @param contentType    the content type, may be null.
+     * @param responseBody   the body.
+     */
+    public void complete(int responseStatus, String contentType, byte[] responseBody) {
+        this.status = Status.COMPLETED;
+        this.responseStatus = responseStatus;
+        this.contentType = contentType;
+        this.responseBody = responseBody;
+    }
+
+    // Loaded or saved records are updated, never inserted again
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    /**
+     * Gets the key of the record.
+     *
+     * @return the Idempotency-Key.
+     */
+    @Override
+    public String getId() {
+        return idempotencyKey;
+    }
+
+    /**
+     * Checks whether the record still has to be inserted.
+     *
+     * @return true if the record was created here and not saved yet.
+     */
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    // Getters
+
+    /**
+     * Gets the hash of the request.
+     *
+     * @return the hash of the request.
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Gets the status of the request.
+     *
+     * @return the status of the request.
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Gets the HTTP status of the response.
+     *
+     * @return the HTTP status of the response, or null while in progress.
+     */
+    public Integer getResponseStatus() {
+        return responseStatus;
+    }
+
+    /**
+     * Gets the content type of the response.
+     *
+     * @return the content type of the response, may be null.
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Gets the body of the response.
+     *
+     * @return the body of the response, or null while in progress.
+     */
+    public byte[] getResponseBody() {
+        return responseBody;
+    }
+
+    /**
+     * Gets the time the running request claimed the key.
+     *
+     * @return the time of the claim, null for records saved before claims had a lease.
+     */
+    public LocalDateTime getClaimedAt() {
+        return claimedAt;
+    }
+
+    /**
+     * Gets the token of the request holding the key.
+     *
+     * @return the token of the request holding the key.
+     */
+    public String getOwner() {
+        return owner;
+    }
+
+    /**
+     * Gets the time after which the key can be used again.
+     *
+     * @return the time after which the key can be used again.
+     */
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+}
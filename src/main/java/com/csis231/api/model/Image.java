@@ -1,17 +1,28 @@
 package com.csis231.api.model;
 
 import jakarta.persistence.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.sql.Blob;
 import java.util.Base64;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 /**
- * Represents an image entity with an ID and the image itself stored as a Blob.
+ * Represents an image entity with an ID and the image itself, either stored as a Blob of its own
+ * or, once moved to the content-addressed image store, referenced by the SHA-256 hash of its bytes.
  */
 @Entity
 @Table(name = "images")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Image {
 
+    // The largest image whose base64 encoding fits in a string
+    private static final long MAX_BASE64_SOURCE_SIZE = (Integer.MAX_VALUE - 8) / 4 * 3L;
+
     /**
      * Unique identifier for the image.
      * This field will be the primary key.
@@ -22,12 +33,18 @@ public class Image {
     private long image_id;
 
     /**
-     * Image data stored as a Blob.
+     * Image data stored as a Blob, for images not yet moved to the image store.
      */
     @Lob
-    @Column(name = "image_data", nullable = false)
+    @Column(name = "image_data")
     private Blob image_data;
 
+    /**
+     * SHA-256 hash of the image data in the image store, for images moved there.
+     */
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     /**
      * Default constructor required by JPA.
      */
@@ -42,6 +59,15 @@ public class Image {
         this.image_data = image_data;
     }
 
+    /**
+     * Constructor to initialize the Image with bytes held by the image store.
+     *
+     * @param contentHash The SHA-256 hash of the image data in the image store.
+     */
+    public Image(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     /**
      * Gets the ID of the image.
      *
@@ -79,17 +105,53 @@ public class Image {
         this.image_data = image_data;
     }
 
+    /**
+     * Gets the hash of the image data in the image store.
+     *
+     * @return The SHA-256 hash in hexadecimal, or null if the image is still stored as a Blob of its own.
+     */
+    @JsonIgnore
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * Sets the hash of the image data in the image store.
+     *
+     * @param contentHash The SHA-256 hash in hexadecimal.
+     */
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    /**
+     * Gets the URL the image is served from.
+     *
+     * @return The path of the image endpoint.
+     */
+    public String getImageUrl() {
+        return "/api/images/" + image_id;
+    }
+
     /**
      * Gets the image data as a base64-encoded string for JSON serialization.
      * This method is used to convert the image data into a format that can be safely serialized into JSON.
      *
-     * @return A base64-encoded string representing the image data.
+     * @return A base64-encoded string representing the image data, or null once the image is in the image store.
      */
     public String getImageBase64() {
         if (image_data != null) {
             try {
-                byte[] byteArray = image_data.getBytes(1, (int) image_data.length());
-                return Base64.getEncoder().encodeToString(byteArray);
+                // Encoded straight from the blob stream, so the raw bytes are never held alongside their encoding
+                long length = image_data.length();
+                if (length > MAX_BASE64_SOURCE_SIZE) {
+                    return null; // Too large for a string, served by its URL only
+                }
+                ByteArrayOutputStream encoded = new ByteArrayOutputStream((int) ((length + 2) / 3 * 4));
+                try (InputStream data = image_data.getBinaryStream(); OutputStream out = Base64.getEncoder().wrap(encoded)) {
+                    data.transferTo(out);
+                }
+                return encoded.toString(StandardCharsets.ISO_8859_1);
             } catch (Exception e) {
                 e.printStackTrace(); // Handle exceptions related to Blob processing
             }
@@ -0,0 +1,85 @@
+package com.csis231.api.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.sql.Blob;
+
+/**
+ * Entity holding the bytes of an image object in the database, for the database store backend.
+ */
+@Entity
+@Table(name = "image_blobs")
+public class ImageBlob implements Persistable<String> {
+
+    /**
+     * SHA-256 hash of the bytes, in hexadecimal.
+     */
+    @Id
+    @Column(name = "sha256", nullable = false, length = 64)
+    private String hash;
+
+    /**
+     * The bytes of the image.
+     */
+    @Lob
+    @Column(name = "data", nullable = false)
+    private Blob data;
+
+    // Whether the blob was created here rather than loaded, so saving it inserts instead of merging
+    @Transient
+    private boolean isNew = true;
+
+    /**
+     * Default constructor required by JPA.
+     */
+    public ImageBlob() {
+    }
+
+    /**
+     * Constructor for bytes to be inserted.
+     *
+     * @param hash the SHA-256 hash of the bytes.
+     * @param data the bytes, typically streamed from a file.
+     */
+    public ImageBlob(String hash, Blob data) {
+        this.hash = hash;
+        this.data = data;
+    }
+
+    // Loaded or saved blobs are never inserted again
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    /**
+     * Gets the hash of the bytes.
+     *
+     * @return the SHA-256 hash in hexadecimal.
+     */
+    @Override
+    public String getId() {
+        return hash;
+    }
+
+    /**
+     * Checks whether the blob still has to be inserted.
+     *
+     * @return true if the blob was created here and not saved yet.
+     */
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    /**
+     * Gets the bytes of the image.
+     *
+     * @return the Blob, readable within the transaction that loaded it.
+     */
+    public Blob getData() {
+        return data;
+    }
+}
@@ -0,0 +1,144 @@
+package com.csis231.api.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Entity describing the bytes of an image in the content-addressed image store, keyed by their SHA-256 hash.
+ * Identical images are stored once: every {@link Image} with the same bytes references the same object,
+ * and the object counts those references so its bytes can be deleted with the last one.
+ */
+@Entity
+@Table(name = "image_objects")
+public class ImageObject implements Persistable<String> {
+
+    /**
+     * SHA-256 hash of the bytes, in hexadecimal.
+     */
+    @Id
+    @Column(name = "sha256", nullable = false, length = 64)
+    private String hash;
+
+    /**
+     * Size of the image in bytes.
+     */
+    @Column(name = "length", nullable = false)
+    private long length;
+
+    /**
+     * Media type of the image, detected from its first bytes.
+     */
+    @Column(name = "content_type", nullable = false, length = 64)
+    private String contentType;
+
+    /**
+     * Name of the store backend holding the bytes.
+     */
+    @Column(name = "store", nullable = false, length = 16)
+    private String store;
+
+    /**
+     * Number of images referencing these bytes.
+     */
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    // Whether the object was created here rather than loaded, so saving it inserts instead of merging
+    @Transient
+    private boolean isNew = true;
+
+    /**
+     * Default constructor required by JPA.
+     */
+    public ImageObject() {
+    }
+
+    /**
+     * Constructor for bytes just written to a store, not referenced yet.
+     *
+     * @param hash        the SHA-256 hash of the bytes.
+     * @param length      the size of the image.
+     * @param contentType the media type of the image.
+     * @param store       the name of the store backend holding the bytes.
+     */
+    public ImageObject(String hash, long length, String contentType, String store) {
+        this.hash = hash;
+        this.length = length;
+        this.contentType = contentType;
+        this.store = store;
+    }
+
+    // Loaded or saved objects are updated, never inserted again
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    /**
+     * Gets the hash of the object.
+     *
+     * @return the SHA-256 hash in hexadecimal.
+     */
+    @Override
+    public String getId() {
+        return hash;
+    }
+
+    /**
+     * Checks whether the object still has to be inserted.
+     *
+     * @return true if the object was created here and not saved yet.
+     */
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    // Getters
+
+    /**
+     * Gets the hash of the bytes.
+     *
+     * @return the SHA-256 hash in hexadecimal.
+     */
+    public String getHash() {
+        return hash;
+    }
+
+    /**
+     * Gets the size of the image.
+     *
+     * @return the number of bytes.
+     */
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * Gets the media type of the image.
+     *
+     * @return e.g. {@code image/jpeg}.
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Gets the store backend holding the bytes.
+     *
+     * @return the name of the backend.
+     */
+    public String getStore() {
+        return store;
+    }
+
+    /**
+     * Gets the number of images referencing the bytes, as loaded.
+     *
+     * @return the reference count.
+     */
+    public int getRefCount() {
+        return refCount;
+    }
+}
@@ -0,0 +1,147 @@
+package com.csis231.api.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing one change to the stock of a book, appended to the inventory ledger.
+ * Events are never updated or deleted: the stock of a book at any time is the sum of its events,
+ * starting from its latest {@link InventorySnapshot}.
+ * The book is referenced by ID only, so appending an event never locks the {@code book} row.
+ */
+@Entity
+@Immutable
+@Table(name = "inventory_event", indexes = {
+        @Index(name = "idx_inventory_event_book", columnList = "book_id, event_id")
+})
+public class InventoryEvent {
+
+    /**
+     * The kinds of stock changes recorded in the ledger.
+     */
+    public enum Type {
+        BORROW,
+        RETURN,
+        RESTOCK,
+        WRITE_OFF
+    }
+
+    /**
+     * Unique identifier for the event, increasing in the order events were appended.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "event_id", nullable = false)
+    private long eventId;
+
+    /**
+     * The ID of the book whose stock changed.
+     */
+    @Column(name = "book_id", nullable = false)
+    private long bookId;
+
+    /**
+     * The kind of change.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 16)
+    private Type type;
+
+    /**
+     * The change in available copies, negative for borrows and write-offs.
+     */
+    @Column(name = "quantity_delta", nullable = false)
+    private int quantityDelta;
+
+    /**
+     * The user who borrowed or returned the book, null for stock changes made by the library.
+     */
+    @Column(name = "username")
+    private String username;
+
+    /**
+     * The date and time the change happened.
+     */
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    /**
+     * Default constructor required by JPA.
+     */
+    public InventoryEvent() {
+    }
+
+    /**
+     * Constructor to create a new event happening now.
+     *
+     * @param bookId        The ID of the book whose stock changed.
+     * @param type          The kind of change.
+     * @param quantityDelta The change in available copies.
+     * @param username      The user involved, or null.
+     */
+    public InventoryEvent(long bookId, Type type, int quantityDelta, String username) {
+        this.bookId = bookId;
+        this.type = type;
+        this.quantityDelta = quantityDelta;
+        this.username = username;
+        this.occurredAt = LocalDateTime.now();
+    }
+
+    // Getters
+
+    /**
+     * Gets the ID of the event.
+     *
+     * @return The ID of the event.
+     */
+    public long getEventId() {
+        return eventId;
+    }
+
+    /**
+     * Gets the ID of the book.
+     *
+     * @return The ID of the book.
+     */
+    public long getBookId() {
+        return bookId;
+    }
+
+    /**
+     * Gets the kind of change.
+     *
+     * @return The type of the event.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets the change in available copies.
+     *
+     * @return The quantity delta.
+     */
+    public int getQuantityDelta() {
+        return quantityDelta;
+    }
+
+    /**
+     * Gets the user involved in the change.
+     *
+     * @return The username, or null.
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * Gets the date and time of the change.
+     *
+     * @return The time the event occurred.
+     */
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+}
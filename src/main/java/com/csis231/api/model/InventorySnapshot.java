@@ -0,0 +1,97 @@
+package com.csis231.api.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing the stock of a book folded up to a given ledger event.
+ * The current stock is the snapshot quantity plus the events appended after {@code lastEventId}.
+ */
+@Entity
+@Table(name = "inventory_snapshot")
+public class InventorySnapshot {
+
+    /**
+     * The ID of the book, one snapshot per book.
+     */
+    @Id
+    @Column(name = "book_id", nullable = false)
+    private long bookId;
+
+    /**
+     * The number of available copies after the last folded event.
+     */
+    @Column(name = "quantity", nullable = false)
+    private int quantity;
+
+    /**
+     * The ID of the last event folded into the quantity, 0 if none.
+     */
+    @Column(name = "last_event_id", nullable = false)
+    private long lastEventId;
+
+    /**
+     * The date and time the snapshot was taken.
+     */
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+
+    /**
+     * Default constructor required by JPA.
+     */
+    public InventorySnapshot() {
+    }
+
+    /**
+     * Constructor to create a snapshot taken now.
+     *
+     * @param bookId      The ID of the book.
+     * @param quantity    The number of available copies.
+     * @param lastEventId The ID of the last event folded into the quantity.
+     */
+    public InventorySnapshot(long bookId, int quantity, long lastEventId) {
+        this.bookId = bookId;
+        this.quantity = quantity;
+        this.lastEventId = lastEventId;
+        this.takenAt = LocalDateTime.now();
+    }
+
+    // Getters
+
+    /**
+     * Gets the ID of the book.
+     *
+     * @return The ID of the book.
+     */
+    public long getBookId() {
+        return bookId;
+    }
+
+    /**
+     * Gets the number of available copies.
+     *
+     * @return The snapshot quantity.
+     */
+    public int getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * Gets the ID of the last folded event.
+     *
+     * @return The last event ID.
+     */
+    public long getLastEventId() {
+        return lastEventId;
+    }
+
+    /**
+     * Gets the date and time the snapshot was taken.
+     *
+     * @return The snapshot time.
+     */
+    public LocalDateTime getTakenAt() {
+        return takenAt;
+    }
+}
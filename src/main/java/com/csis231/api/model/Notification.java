@@ -2,6 +2,8 @@ package com.csis231.api.model;
 
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 
 /**
@@ -22,28 +24,44 @@ public class Notification {
 
     /**
      * Many-to-One relationship with the Fine entity.
-     * Each notification is associated with one fine.
+     * Each notification is associated with at most one fine; borrow reminders have none.
      */
-    @ManyToOne
-    @JoinColumn(name = "fine_id", nullable = false) // Foreign Key to Fine
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "fine_id") // Foreign Key to Fine
     private Fine fine; // Fine associated with the notification
 
+    /**
+     * The ID of the fine this notification was about once that fine moved to the archive with its transaction.
+     * The archived fine keeps its ID but has no foreign key to point at, so the reminder keeps the ID alone.
+     */
+    @Column(name = "archived_fine_id")
+    private Long archivedFineId;
+
     /**
      * Many-to-One relationship with the User entity.
      * Each notification is associated with a specific user.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "username", nullable = false) // Foreign Key to User (username)
     private User user; // User who is associated with the notification
 
     /**
      * Many-to-One relationship with the Book entity.
-     * Each notification is linked to a specific book.
+     * Each notification is linked to a specific book, except a reminder of several books borrowed at once.
      */
-    @ManyToOne
-    @JoinColumn(name = "book_id", nullable = false) // Foreign Key to Book
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "book_id") // Foreign Key to Book
     private Book book; // Book associated with the notification
 
+    /**
+     * The IDs of the books a reminder of a bulk loan is about; empty for a notification about a single book.
+     * Kept as IDs, which is all a notification shows, so listing notifications loads no book.
+     */
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "notification_book", joinColumns = @JoinColumn(name = "notification_id"))
+    @Column(name = "book_id", nullable = false)
+    private List<Long> bookIds = new ArrayList<>(); // Books associated with a bulk loan reminder
+
     /**
      * The date and time when the reminder for the notification should occur.
      */
@@ -120,6 +138,24 @@ public class Notification {
         this.fine = fine;
     }
 
+    /**
+     * Gets the ID of the archived fine associated with this notification.
+     *
+     * @return The ID of the fine, or null if the fine is not archived or there is none.
+     */
+    public Long getArchivedFineId() {
+        return archivedFineId;
+    }
+
+    /**
+     * Sets the ID of the archived fine associated with this notification.
+     *
+     * @param archivedFineId The ID of the fine.
+     */
+    public void setArchivedFineId(Long archivedFineId) {
+        this.archivedFineId = archivedFineId;
+    }
+
     /**
      * Gets the user associated with this notification.
      *
@@ -156,6 +192,24 @@ public class Notification {
         this.book = book;
     }
 
+    /**
+     * Gets the IDs of the books of a bulk loan this notification reminds of.
+     *
+     * @return The book IDs, empty for a notification about a single book.
+     */
+    public List<Long> getBookIds() {
+        return bookIds;
+    }
+
+    /**
+     * Sets the IDs of the books of a bulk loan this notification reminds of.
+     *
+     * @param bookIds The book IDs.
+     */
+    public void setBookIds(List<Long> bookIds) {
+        this.bookIds = bookIds;
+    }
+
     /**
      * Gets the date and time when the reminder for this notification should occur.
      *
@@ -7,6 +7,7 @@ package com.csis231.api.model;
 public class ReturnRequest {
     private Long book_id;  // The ID of the book being returned
     private String username;  // The username of the user returning the book
+    private String barcode;  // The barcode of the copy scanned at the desk, optional
 
     // Getters and Setters
 
@@ -45,4 +46,12 @@ public class ReturnRequest {
     public void setUsername(String username) {
         this.username = username;
     }
+
+    public String getBarcode() {
+        return barcode;
+    }
+
+    public void setBarcode(String barcode) {
+        this.barcode = barcode;
+    }
 }
@@ -5,9 +5,12 @@ import java.time.LocalDate;
 
 /**
  * Entity representing a Transaction in the database.
+ * Returned transactions are moved to {@link ArchivedTransaction} after a retention period, keeping this table small.
  */
 @Entity
-@Table(name = "borrowing_transaction")
+@Table(name = "borrowing_transaction", indexes = {
+        @Index(name = "idx_transaction_return_date", columnList = "return_date")
+})
 public class Transaction {
 
     /**
@@ -44,7 +47,7 @@ public class Transaction {
      * The username of the user who borrowed the book.
      * This field represents a foreign key to the User entity.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "username", referencedColumnName = "username", nullable = false)
     private User user; // The User who borrowed the book
 
@@ -52,10 +55,18 @@ public class Transaction {
      * The book associated with the borrowing transaction.
      * This field represents a foreign key to the Book entity.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "book_id", referencedColumnName = "book_id", nullable = false)
     private Book book; // The Book that was borrowed
 
+    /**
+     * The physical copy that was lent out.
+     * Null for loans of books lent by count only, and for loans made before the book had registered copies.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "copy_id", referencedColumnName = "copy_id")
+    private BookCopy copy; // The copy that was borrowed
+
     /**
      * Default constructor required by JPA.
      */
@@ -207,4 +218,22 @@ public class Transaction {
     public void setBook(Book book) {
         this.book = book;
     }
+
+    /**
+     * Get the copy that was lent out.
+     *
+     * @return the BookCopy entity, or null if the loan is not tracked by copy.
+     */
+    public BookCopy getCopy() {
+        return copy;
+    }
+
+    /**
+     * Set the copy that was lent out.
+     *
+     * @param copy the BookCopy entity to set.
+     */
+    public void setCopy(BookCopy copy) {
+        this.copy = copy;
+    }
 }
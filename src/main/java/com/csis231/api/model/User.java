@@ -1,6 +1,8 @@
 package com.csis231.api.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.UpdateTimestamp;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.time.LocalDateTime;
 
 /**
@@ -75,6 +77,14 @@ public class User {
     @Column(name = "password", nullable = false)
     private String password;
 
+    /**
+     * The date and time the user was last changed.
+     * Maintained by Hibernate on every insert and update, and used to answer conditional requests.
+     */
+    @UpdateTimestamp
+    @Column(name = "last_modified")
+    private LocalDateTime lastModified;
+
     /**
      * Default constructor.
      * Required by JPA for entity instantiation.
@@ -273,4 +283,14 @@ public class User {
     public void setPassword(String password) {
         this.password = password;
     }
+
+    /**
+     * Gets the date and time the user was last changed.
+     *
+     * @return The last modification time, or null for rows written before it was tracked.
+     */
+    @JsonIgnore
+    public LocalDateTime getLastModified() {
+        return lastModified;
+    }
 }
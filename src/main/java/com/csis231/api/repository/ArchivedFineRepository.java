@@ -0,0 +1,24 @@
+package com.csis231.api.repository;
+
+import com.csis231.api.model.ArchivedFine;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository interface for ArchivedFine entity, holding the settled fines of archived transactions.
+ */
+@Repository
+public interface ArchivedFineRepository extends JpaRepository<ArchivedFine, Long> {
+
+    // Copies the fines of the given transactions into the archive in a single statement
+    @Modifying
+    @Query("INSERT INTO ArchivedFine (fineId, transactionId, fineAmount, fineStatus, paidDate) " +
+            "SELECT f.fine_id, f.transaction.transactionId, f.fineAmount, f.fineStatus, f.paid_date " +
+            "FROM Fine f WHERE f.transaction.transactionId IN :transactionIds")
+    int archive(@Param("transactionIds") List<Long> transactionIds);
+}
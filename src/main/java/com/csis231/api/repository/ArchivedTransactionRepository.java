@@ -0,0 +1,27 @@
+package com.csis231.api.repository;
+
+import com.csis231.api.model.ArchivedTransaction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository interface for ArchivedTransaction entity, holding returned transactions moved out of the hot table.
+ */
+@Repository
+public interface ArchivedTransactionRepository extends JpaRepository<ArchivedTransaction, Long> {
+
+    // Copies the given transactions into the archive in a single statement, keeping the barcode of the lent copy
+    @Modifying
+    @Query("INSERT INTO ArchivedTransaction (transactionId, username, bookId, issueDate, dueDate, returnDate, barcode) " +
+            "SELECT t.transactionId, t.user.username, t.book.book_id, t.issueDate, t.dueDate, t.returnDate, c.barcode " +
+            "FROM Transaction t LEFT JOIN t.copy c WHERE t.transactionId IN :ids")
+    int archive(@Param("ids") List<Long> ids);
+
+    // Retrieves the archived transactions of a user
+    List<ArchivedTransaction> findByUsername(String username);
+}
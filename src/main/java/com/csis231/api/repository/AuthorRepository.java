@@ -1,11 +1,14 @@
 package com.csis231.api.repository;
 
 import com.csis231.api.model.Author;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -18,4 +21,22 @@ public interface AuthorRepository extends JpaRepository<Author, Long> {
     @Query("SELECT a FROM Author a WHERE a.first_name = :firstName AND a.last_name = :lastName")
     Optional<Author> findByFirstNameAndLastName(@Param("firstName") String firstName, @Param("lastName") String lastName);
 
+    // Retrieves the ID of the author with the given first and last name, without loading the author
+    @Query("SELECT a.author_id FROM Author a WHERE a.first_name = :firstName AND a.last_name = :lastName")
+    List<Long> findIdsByFirstNameAndLastName(@Param("firstName") String firstName, @Param("lastName") String lastName,
+                                             Pageable pageable);
+
+    // Checks if an author has the given first and last name, reading at most one row (LIMIT 1)
+    default boolean existsByFirstNameAndLastName(String firstName, String lastName) {
+        return !findIdsByFirstNameAndLastName(firstName, lastName, PageRequest.of(0, 1)).isEmpty();
+    }
+
+    // Retrieves the version stamp of the whole author table
+    @Query("SELECT COUNT(a) AS total, MAX(a.lastModified) AS lastModified FROM Author a")
+    VersionStamp findVersionStamp();
+
+    // Retrieves the version stamp of a single author, with a total of 0 if it does not exist
+    @Query("SELECT COUNT(a) AS total, MAX(a.lastModified) AS lastModified FROM Author a WHERE a.author_id = :id")
+    VersionStamp findVersionStampById(@Param("id") Long id);
+
 }
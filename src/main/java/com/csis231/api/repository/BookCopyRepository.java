@@ -0,0 +1,45 @@
+package com.csis231.api.repository;
+
+import com.csis231.api.model.BookCopy;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for BookCopy entity, the physical copies of books.
+ */
+@Repository
+public interface BookCopyRepository extends JpaRepository<BookCopy, Long> {
+
+    // Locks the first free copies of a book, skipping copies already locked by concurrent checkouts.
+    // A lock timeout of -2 is rendered as FOR UPDATE SKIP LOCKED on databases that support it (MySQL 8),
+    // and as a plain FOR UPDATE elsewhere.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT c FROM BookCopy c WHERE c.bookId = :bookId AND c.status = :status ORDER BY c.copyId")
+    List<BookCopy> findFreeCopies(@Param("bookId") long bookId, @Param("status") BookCopy.Status status,
+                                  Pageable pageable);
+
+    // Locks a single copy, e.g. the one scanned at the checkout desk
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM BookCopy c WHERE c.copyId = :copyId")
+    Optional<BookCopy> lockById(@Param("copyId") long copyId);
+
+    // Counts the copies of a book not in the given status, e.g. those still in circulation
+    long countByBookIdAndStatusNot(long bookId, BookCopy.Status status);
+
+    // Retrieves the copies of a book
+    List<BookCopy> findByBookIdOrderByCopyIdAsc(long bookId);
+
+    // Retrieves the copies not in the given status, e.g. those still in circulation to build the barcode index
+    List<BookCopy> findByStatusNot(BookCopy.Status status);
+}
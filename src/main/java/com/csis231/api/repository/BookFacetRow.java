@@ -0,0 +1,19 @@
+package com.csis231.api.repository;
+
+/**
+ * Projection of the columns of a book the catalog facets are counted on.
+ */
+public interface BookFacetRow {
+
+    // The book
+    long getBookId();
+
+    // Its author, null if it has none
+    Long getAuthorId();
+
+    // The year it was published
+    int getPublishedYear();
+
+    // The status stored on the book
+    String getStatus();
+}
@@ -0,0 +1,13 @@
+package com.csis231.api.repository;
+
+/**
+ * Projection of one row of the book-genre join table, used to build the genre index.
+ */
+public interface BookGenreLink {
+
+    // The book
+    long getBookId();
+
+    // One of its genres, null for a book without genres
+    Long getGenreId();
+}
@@ -0,0 +1,13 @@
+package com.csis231.api.repository;
+
+/**
+ * Projection of the canonical ISBN of a book.
+ */
+public interface BookIsbnKey {
+
+    // The book
+    long getBookId();
+
+    // Its ISBN-13 as a number
+    long getIsbnKey();
+}
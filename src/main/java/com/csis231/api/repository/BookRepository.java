@@ -3,13 +3,24 @@ package com.csis231.api.repository;
 import com.csis231.api.model.Author;
 import com.csis231.api.model.Book;
 import com.csis231.api.model.Genre;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Book entity, extending JpaRepository for CRUD operations.
@@ -17,17 +28,110 @@ import java.util.Optional;
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
 
+    // Retrieves a book with its author, genres and image, as its JSON embeds them, in a single query
+    @EntityGraph("Book.detail")
+    @Query("SELECT b FROM Book b WHERE b.book_id = :id")
+    Optional<Book> findDetailById(@Param("id") Long id);
+
+    // Locks a book row until the end of the transaction, e.g. while its copies are counted
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Book b WHERE b.book_id = :id")
+    Optional<Book> findForUpdate(@Param("id") long id);
+
+    // Retrieves every book with its author, genres and image in a single query
+    @EntityGraph("Book.detail")
+    @Query("SELECT b FROM Book b")
+    List<Book> findAllDetailed();
+
+    // Retrieves the given books with their author, genres and image in a single query
+    @EntityGraph("Book.detail")
+    @Query("SELECT b FROM Book b WHERE b.book_id IN :ids")
+    List<Book> findAllDetailedById(@Param("ids") Collection<Long> ids);
+
     // Retrieves a list of books associated with a specific genre by its ID
     @Query("SELECT b FROM Book b JOIN b.genres g WHERE g.id = :genreId")
     List<Book> findByGenreId(@Param("genreId") Long genreId);
 
+    // Retrieves the IDs of the books in a genre, a page at a time, without loading the books
+    @Query("SELECT b.book_id FROM Book b JOIN b.genres g WHERE g.genre_id = :genreId")
+    List<Long> findIdsByGenreId(@Param("genreId") Long genreId, Pageable pageable);
+
+    // Checks if any book is in a genre, reading at most one row (LIMIT 1)
+    default boolean existsByGenreId(Long genreId) {
+        return !findIdsByGenreId(genreId, PageRequest.of(0, 1)).isEmpty();
+    }
+
+    // Streams every book with each of its genres, a book without genres once with a null genre
+    @Query("SELECT b.book_id AS bookId, g.genre_id AS genreId FROM Book b LEFT JOIN b.genres g")
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    Stream<BookGenreLink> streamGenreLinks();
+
+    // Streams the columns of every book the catalog facets are counted on
+    @Query("SELECT b.book_id AS bookId, a.author_id AS authorId, b.published_year AS publishedYear, " +
+            "b.status AS status FROM Book b LEFT JOIN b.author a")
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    Stream<BookFacetRow> streamFacetRows();
+
+    // Streams the title and author of every book, for the title suggestions
+    @Query("SELECT b.book_id AS bookId, a.author_id AS authorId, b.title AS title FROM Book b LEFT JOIN b.author a")
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    Stream<BookTitleRow> streamTitleRows();
+
     // Retrieves a list of books written by a specific author using their author ID
     @Query("SELECT b FROM Book b WHERE b.author.author_id = :authorId")
     List<Book> findByAuthorId(@Param("authorId") Long authorId);
 
-    // Retrieves a book by its ISBN
-    @Query("SELECT b FROM Book b WHERE b.isbn = :isbn")
-    Book findByIsbn(@Param("isbn") String isbn);
+    // Retrieves the IDs of the books written by an author, a page at a time, without loading the books
+    @Query("SELECT b.book_id FROM Book b WHERE b.author.author_id = :authorId")
+    List<Long> findIdsByAuthorId(@Param("authorId") Long authorId, Pageable pageable);
+
+    // Checks if an author wrote any book, reading at most one row (LIMIT 1)
+    default boolean existsByAuthorId(Long authorId) {
+        return !findIdsByAuthorId(authorId, PageRequest.of(0, 1)).isEmpty();
+    }
+
+    // Retrieves the quantity column of a book without loading the book
+    @Query("SELECT b.quantity FROM Book b WHERE b.book_id = :bookId")
+    Optional<Integer> findQuantityById(@Param("bookId") long bookId);
+
+    // Retrieves a book by its canonical ISBN, an equality on the unique isbn_key index, with its author, genres and image
+    @EntityGraph("Book.detail")
+    Optional<Book> findByIsbnKey(long isbnKey);
+
+    // Checks if a book has the given canonical ISBN
+    boolean existsByIsbnKey(long isbnKey);
+
+    // Streams the canonical ISBN of every book having one
+    @Query("SELECT b.book_id AS bookId, b.isbnKey AS isbnKey FROM Book b WHERE b.isbnKey IS NOT NULL")
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    Stream<BookIsbnKey> streamIsbnKeys();
+
+    // Retrieves the books saved before ISBNs were canonicalized
+    List<Book> findByIsbnKeyIsNull();
+
+    // Sets the canonical ISBN of a book
+    @Modifying
+    @Query("UPDATE Book b SET b.isbnKey = :isbnKey WHERE b.book_id = :bookId")
+    int updateIsbnKey(@Param("bookId") long bookId, @Param("isbnKey") long isbnKey);
+
+    // Retrieves the IDs of the books showing an image
+    @Query("SELECT b.book_id FROM Book b WHERE b.image.image_id = :imageId")
+    List<Long> findIdsByImageId(@Param("imageId") long imageId);
+
+    // Marks the books showing an image as changed, so the version stamps covering them move on
+    @Modifying
+    @Query("UPDATE Book b SET b.lastModified = :now WHERE b.image.image_id = :imageId")
+    int touchByImageId(@Param("imageId") long imageId, @Param("now") LocalDateTime now);
 
+    // Retrieves the version stamp of the whole book table
+    @Query("SELECT COUNT(b) AS total, MAX(b.lastModified) AS lastModified FROM Book b")
+    VersionStamp findVersionStamp();
 
+    // Mirrors the stock folded from the inventory ledger; statuses other than AVAILABLE/UNAVAILABLE are kept
+    @Modifying
+    @Query("UPDATE Book b SET b.quantity = :quantity, b.status = CASE " +
+            "WHEN UPPER(b.status) IN ('AVAILABLE', 'UNAVAILABLE') OR b.status IS NULL " +
+            "THEN (CASE WHEN :quantity > 0 THEN 'AVAILABLE' ELSE 'UNAVAILABLE' END) " +
+            "ELSE b.status END WHERE b.book_id = :bookId")
+    int updateStock(@Param("bookId") long bookId, @Param("quantity") int quantity);
 }
@@ -0,0 +1,16 @@
+package com.csis231.api.repository;
+
+/**
+ * Projection of the columns of a book the title suggestions are built from.
+ */
+public interface BookTitleRow {
+
+    // The book
+    long getBookId();
+
+    // Its author, null if it has none
+    Long getAuthorId();
+
+    // Its title
+    String getTitle();
+}
@@ -2,6 +2,8 @@ package com.csis231.api.repository;
 
 import com.csis231.api.model.Comment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -10,4 +12,11 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
+    // Retrieves the version stamp of the whole comment table
+    @Query("SELECT COUNT(c) AS total, MAX(c.lastModified) AS lastModified FROM Comment c")
+    VersionStamp findVersionStamp();
+
+    // Retrieves the version stamp of a single comment, with a total of 0 if it does not exist
+    @Query("SELECT COUNT(c) AS total, MAX(c.lastModified) AS lastModified FROM Comment c WHERE c.comment_id = :id")
+    VersionStamp findVersionStampById(@Param("id") Long id);
 }
@@ -0,0 +1,111 @@
+package com.csis231.api.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Repository answering sparse fieldset requests ({@code ?fields=book_id,title}) with tuple queries
+ * that select only the requested columns, so no entity, association or unrequested column is loaded.
+ * Each list endpoint declares which fields it exposes and the attribute path each one is read from.
+ */
+@Repository
+public class FieldProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Parses the {@code fields} request parameter against the fields an endpoint exposes.
+     *
+     * @param fields     the comma-separated field names, as sent by the client.
+     * @param selectable the fields exposed by the endpoint, by JSON name.
+     * @return the requested fields, without duplicates, in the order they were asked for.
+     * @throws IllegalArgumentException if no field is given or a field is not exposed.
+     */
+    public static List<String> parseFields(String fields, Map<String, String> selectable) {
+        Set<String> requested = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!selectable.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name + ". Available fields: "
+                        + String.join(", ", selectable.keySet()));
+            }
+            requested.add(name);
+        }
+        if (requested.isEmpty()) {
+            throw new IllegalArgumentException("At least one field is required.");
+        }
+        return new ArrayList<>(requested);
+    }
+
+    /**
+     * Selects the given fields of every row of an entity.
+     * A path to the ID of an association (e.g. {@code author.author_id}) reads the foreign key without a join;
+     * other paths through an association (e.g. {@code copy.barcode}) are read over a left join,
+     * so rows without the association are kept with a null value.
+     *
+     * @param entity     the entity to read.
+     * @param selectable the fields exposed, by JSON name, mapped to their attribute path.
+     * @param fields     the fields to select, already validated.
+     * @return one map per row, from field name to value, in the order of {@code fields}.
+     */
+    public List<Map<String, Object>> findFields(Class<?> entity, Map<String, String> selectable, List<String> fields) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<?> root = query.from(entity);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        for (String field : fields) {
+            selections.add(path(root, selectable.get(field)).alias(field));
+        }
+        query.multiselect(selections);
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Tuple tuple : entityManager.createQuery(query).getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String field : fields) {
+                row.put(field, tuple.get(field));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    // Resolves a dotted attribute path, reading foreign keys in place and left joining other associations
+    private Path<?> path(Root<?> root, String attributePath) {
+        String[] parts = attributePath.split("\\.");
+        From<?, ?> from = root;
+        for (int i = 0; i < parts.length - 1; i++) {
+            Path<?> association = from.get(parts[i]);
+            if (i == parts.length - 2 && isIdentifier(association.getJavaType(), parts[i + 1])) {
+                return association.get(parts[i + 1]);
+            }
+            from = from.join(parts[i], JoinType.LEFT);
+        }
+        return from.get(parts[parts.length - 1]);
+    }
+
+    private boolean isIdentifier(Class<?> entity, String attribute) {
+        return entityManager.getMetamodel().entity(entity).getSingularAttributes().stream()
+                .anyMatch(candidate -> candidate.isId() && candidate.getName().equals(attribute));
+    }
+}
@@ -3,8 +3,12 @@ package com.csis231.api.repository;
 import com.csis231.api.model.Fine;
 import com.csis231.api.model.Transaction;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -15,4 +19,9 @@ public interface FineRepository extends JpaRepository<Fine, Long> {
 
     // Find fines by associated transaction
     Optional<Fine> findByTransaction(Transaction transaction);
+
+    // Deletes the fines of the given transactions in a single statement
+    @Modifying
+    @Query("DELETE FROM Fine f WHERE f.transaction.transactionId IN :transactionIds")
+    int deleteByTransactionIds(@Param("transactionIds") List<Long> transactionIds);
 }
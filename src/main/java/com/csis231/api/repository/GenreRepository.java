@@ -2,8 +2,12 @@ package com.csis231.api.repository;
 
 import com.csis231.api.model.Genre;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -14,4 +18,19 @@ public interface GenreRepository extends JpaRepository<Genre, Long> {
 
     // Finds a Genre by its type.
     Optional<Genre> findByType(String type);
+
+    // Checks if a genre has the given type
+    boolean existsByType(String type);
+
+    // Retrieves which of the given genre IDs exist, in a single query
+    @Query("SELECT g.genre_id FROM Genre g WHERE g.genre_id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Retrieves the version stamp of the whole genre table
+    @Query("SELECT COUNT(g) AS total, MAX(g.lastModified) AS lastModified FROM Genre g")
+    VersionStamp findVersionStamp();
+
+    // Retrieves the version stamp of a single genre, with a total of 0 if it does not exist
+    @Query("SELECT COUNT(g) AS total, MAX(g.lastModified) AS lastModified FROM Genre g WHERE g.genre_id = :id")
+    VersionStamp findVersionStampById(@Param("id") Long id);
 }
@@ -0,0 +1,64 @@
+package com.csis231.api.repository;
+
+import com.csis231.api.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository interface for IdempotencyRecord entity, the requests made with an Idempotency-Key.
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Read in a read-write transaction, so it goes to the primary and sees a key claimed a moment ago by another node
+    @Override
+    @Transactional
+    Optional<IdempotencyRecord> findById(String key);
+
+    // Stores the response of a keyed request, unless another request took the key over in the meantime
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = :status, r.responseStatus = :responseStatus, " +
+            "r.contentType = :contentType, r.responseBody = :responseBody " +
+            "WHERE r.idempotencyKey = :key AND r.owner = :owner")
+    int complete(@Param("key") String key, @Param("owner") String owner,
+                 @Param("status") IdempotencyRecord.Status status,
+                 @Param("responseStatus") int responseStatus, @Param("contentType") String contentType,
+                 @Param("responseBody") byte[] responseBody);
+
+    // Takes over a key whose request is still in progress but claimed before the lease start, e.g. on a node that died;
+    // only one of concurrent retries matches, as the claim is renewed by the first one, which becomes the owner
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.owner = :owner, r.claimedAt = :now WHERE r.idempotencyKey = :key " +
+            "AND r.fingerprint = :fingerprint AND r.status = :status " +
+            "AND (r.claimedAt IS NULL OR r.claimedAt < :leaseStart)")
+    int takeOver(@Param("key") String key, @Param("fingerprint") String fingerprint, @Param("owner") String owner,
+                 @Param("status") IdempotencyRecord.Status status,
+                 @Param("leaseStart") LocalDateTime leaseStart, @Param("now") LocalDateTime now);
+
+    // Deletes the record of a key, if any
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :key")
+    int deleteByKey(@Param("key") String key);
+
+    // Deletes the record of a key, unless another request took the key over in the meantime
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :key AND r.owner = :owner")
+    int deleteByKeyAndOwner(@Param("key") String key, @Param("owner") String owner);
+
+    // Deletes the records whose key can be used again
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,13 @@
+package com.csis231.api.repository;
+
+import com.csis231.api.model.ImageBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for ImageBlob entity, the bytes of the images kept by the database store backend.
+ */
+@Repository
+public interface ImageBlobRepository extends JpaRepository<ImageBlob, String> {
+
+}
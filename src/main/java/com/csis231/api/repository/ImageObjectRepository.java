@@ -0,0 +1,35 @@
+package com.csis231.api.repository;
+
+import com.csis231.api.model.ImageObject;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repository interface for ImageObject entity, the images of the content-addressed image store.
+ * Reference counts are changed with single UPDATE statements, so concurrent references are never lost.
+ */
+@Repository
+public interface ImageObjectRepository extends JpaRepository<ImageObject, String> {
+
+    // Adds a reference to an object; 0 if the object no longer exists
+    @Transactional
+    @Modifying
+    @Query("UPDATE ImageObject o SET o.refCount = o.refCount + 1 WHERE o.hash = :hash")
+    int retain(@Param("hash") String hash);
+
+    // Removes a reference from an object
+    @Transactional
+    @Modifying
+    @Query("UPDATE ImageObject o SET o.refCount = o.refCount - 1 WHERE o.hash = :hash AND o.refCount > 0")
+    int release(@Param("hash") String hash);
+
+    // Deletes an object no image references any more
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ImageObject o WHERE o.hash = :hash AND o.refCount = 0")
+    int deleteIfUnreferenced(@Param("hash") String hash);
+}
@@ -1,18 +1,21 @@
 package com.csis231.api.repository;
 
-import com.csis231.api.model.Author;
+import com.csis231.api.model.Image;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
+import java.util.List;
 
 /**
  * Repository interface for Image entity, extending JpaRepository for CRUD operations.
  */
 @Repository
-public interface ImageRepository extends JpaRepository<Author, Long> {
-
+public interface ImageRepository extends JpaRepository<Image, Long> {
 
+    // IDs of the images still stored as a Blob of their own, in order after the given ID
+    @Query("SELECT i.image_id FROM Image i WHERE i.contentHash IS NULL AND i.image_id > :after ORDER BY i.image_id")
+    List<Long> findBlobImageIds(@Param("after") long after, Pageable pageable);
 }
@@ -0,0 +1,56 @@
+package com.csis231.api.repository;
+
+import com.csis231.api.model.InventoryEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for InventoryEvent entity, the append-only stock ledger.
+ */
+@Repository
+public interface InventoryEventRepository extends JpaRepository<InventoryEvent, Long> {
+
+    // Retrieves the stock history of a book, oldest first
+    List<InventoryEvent> findByBookIdOrderByEventIdAsc(long bookId);
+
+    // Checks if any event was recorded for a book
+    boolean existsByBookId(long bookId);
+
+    // Sums the events of a book appended after the given event
+    @Query("SELECT COALESCE(SUM(e.quantityDelta), 0) FROM InventoryEvent e WHERE e.bookId = :bookId AND e.eventId > :afterEventId")
+    long sumDeltasAfter(@Param("bookId") long bookId, @Param("afterEventId") long afterEventId);
+
+    // Sums, per book, the events not yet folded into a snapshot
+    @Query("SELECT e.bookId AS bookId, SUM(e.quantityDelta) AS quantity, MAX(e.eventId) AS lastEventId " +
+            "FROM InventoryEvent e " +
+            "WHERE e.eventId > COALESCE((SELECT s.lastEventId FROM InventorySnapshot s WHERE s.bookId = e.bookId), 0) " +
+            "GROUP BY e.bookId ORDER BY e.bookId")
+    List<StockLevel> findUnsnapshotted();
+
+    // Sums the events of a book appended after the given event, with the ID of the last one; empty if none
+    @Query("SELECT e.bookId AS bookId, SUM(e.quantityDelta) AS quantity, MAX(e.eventId) AS lastEventId " +
+            "FROM InventoryEvent e WHERE e.bookId = :bookId AND e.eventId > :afterEventId " +
+            "GROUP BY e.bookId")
+    Optional<StockLevel> findTail(@Param("bookId") long bookId, @Param("afterEventId") long afterEventId);
+
+    // Sums, per book among the given ones, the events appended after its snapshot
+    @Query("SELECT e.bookId AS bookId, SUM(e.quantityDelta) AS quantity, MAX(e.eventId) AS lastEventId " +
+            "FROM InventoryEvent e, InventorySnapshot s " +
+            "WHERE s.bookId IN :bookIds AND e.bookId = s.bookId AND e.eventId > s.lastEventId " +
+            "GROUP BY e.bookId")
+    List<StockLevel> findTails(@Param("bookIds") Collection<Long> bookIds);
+
+    // Counts, per book, the events of the given type, e.g. the loans of each book
+    @Query("SELECT e.bookId AS bookId, COUNT(e) AS loans FROM InventoryEvent e WHERE e.type = :type GROUP BY e.bookId")
+    List<LoanCount> countByType(@Param("type") InventoryEvent.Type type);
+
+    // Retrieves the version stamp of the ledger
+    @Query("SELECT COUNT(e) AS total, MAX(e.occurredAt) AS lastModified FROM InventoryEvent e")
+    VersionStamp findVersionStamp();
+}
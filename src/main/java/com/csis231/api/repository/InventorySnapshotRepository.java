@@ -0,0 +1,65 @@
+package com.csis231.api.repository;
+
+import com.csis231.api.model.InventorySnapshot;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for InventorySnapshot entity, the folded stock of each book.
+ */
+@Repository
+public interface InventorySnapshotRepository extends JpaRepository<InventorySnapshot, Long> {
+
+    // Seeds a snapshot from the book's quantity column for books that predate the ledger
+    @Transactional
+    @Modifying
+    @Query("INSERT INTO InventorySnapshot (bookId, quantity, lastEventId, takenAt) " +
+            "SELECT b.book_id, b.quantity, 0L, LOCAL DATETIME FROM Book b " +
+            "WHERE NOT EXISTS (SELECT s FROM InventorySnapshot s WHERE s.bookId = b.book_id) " +
+            "AND NOT EXISTS (SELECT e FROM InventoryEvent e WHERE e.bookId = b.book_id)")
+    int seedFromBooks();
+
+    // Seeds an empty snapshot for books whose events predate their snapshot, the events holding their whole stock
+    @Transactional
+    @Modifying
+    @Query("INSERT INTO InventorySnapshot (bookId, quantity, lastEventId, takenAt) " +
+            "SELECT DISTINCT e.bookId, 0, 0L, LOCAL DATETIME FROM InventoryEvent e " +
+            "WHERE NOT EXISTS (SELECT s FROM InventorySnapshot s WHERE s.bookId = e.bookId)")
+    int seedFromEvents();
+
+    // Locks the snapshot of a book until the end of the transaction; every event of the book is appended under it
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM InventorySnapshot s WHERE s.bookId = :bookId")
+    Optional<InventorySnapshot> findForUpdate(@Param("bookId") long bookId);
+
+    // Locks the snapshots of several books in one query, in book order so concurrent callers cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM InventorySnapshot s WHERE s.bookId IN :bookIds ORDER BY s.bookId")
+    List<InventorySnapshot> findAllForUpdate(@Param("bookIds") Collection<Long> bookIds);
+
+    // Computes the current stock of every existing book: its snapshot plus the events appended after it
+    @Query("SELECT s.bookId AS bookId, s.quantity + COALESCE(SUM(e.quantityDelta), 0) AS quantity, " +
+            "COALESCE(MAX(e.eventId), s.lastEventId) AS lastEventId " +
+            "FROM InventorySnapshot s LEFT JOIN InventoryEvent e ON e.bookId = s.bookId AND e.eventId > s.lastEventId " +
+            "WHERE EXISTS (SELECT b FROM Book b WHERE b.book_id = s.bookId) " +
+            "GROUP BY s.bookId, s.quantity, s.lastEventId")
+    List<StockLevel> findCurrentStock();
+
+    // Same as findCurrentStock, for one book
+    @Query("SELECT s.bookId AS bookId, s.quantity + COALESCE(SUM(e.quantityDelta), 0) AS quantity, " +
+            "COALESCE(MAX(e.eventId), s.lastEventId) AS lastEventId " +
+            "FROM InventorySnapshot s LEFT JOIN InventoryEvent e ON e.bookId = s.bookId AND e.eventId > s.lastEventId " +
+            "WHERE s.bookId = :bookId " +
+            "GROUP BY s.bookId, s.quantity, s.lastEventId")
+    Optional<StockLevel> findCurrentStock(@Param("bookId") long bookId);
+}
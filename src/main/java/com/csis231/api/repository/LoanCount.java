@@ -0,0 +1,13 @@
+package com.csis231.api.repository;
+
+/**
+ * Projection counting the loans of one book.
+ */
+public interface LoanCount {
+
+    // The book
+    long getBookId();
+
+    // The number of times it was borrowed
+    long getLoans();
+}
@@ -2,13 +2,35 @@ package com.csis231.api.repository;
 
 import com.csis231.api.model.Author;
 import com.csis231.api.model.Notification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Repository interface for Notification entity, extending JpaRepository for CRUD operations.
  */
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
 
+    // Retrieves every notification with its fine and the book IDs of a bulk loan, which the list shows;
+    // the user and book stay unloaded
+    @EntityGraph(attributePaths = {"fine", "bookIds"})
+    @Query("SELECT n FROM Notification n")
+    List<Notification> findAllWithFine();
+
+    // Retrieves a notification with its fine and the book IDs of a bulk loan
+    @EntityGraph(attributePaths = {"fine", "bookIds"})
+    Optional<Notification> findWithFineByNotificationId(Long notificationId);
+
+    // Points the fine reminders of the given transactions at their archived fine, keeping its ID but no foreign key
+    @Modifying
+    @Query("UPDATE Notification n SET n.archivedFineId = n.fine.fine_id, n.fine = NULL WHERE n.fine.fine_id IN " +
+            "(SELECT f.fine_id FROM Fine f WHERE f.transaction.transactionId IN :transactionIds)")
+    int archiveFinesOfTransactions(@Param("transactionIds") List<Long> transactionIds);
 }
@@ -0,0 +1,17 @@
+package com.csis231.api.repository;
+
+/**
+ * Projection of the stock of one book up to a ledger event: the events appended after its snapshot,
+ * or the snapshot and those events together.
+ */
+public interface StockLevel {
+
+    // The book the events belong to
+    long getBookId();
+
+    // Sum of the quantity deltas, plus the snapshot quantity when included
+    long getQuantity();
+
+    // The ID of the last counted event
+    long getLastEventId();
+}
@@ -3,9 +3,18 @@ package com.csis231.api.repository;
 import com.csis231.api.model.Book;
 import com.csis231.api.model.Transaction;
 import com.csis231.api.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository interface for Transaction entity, extending JpaRepository for CRUD operations.
@@ -18,4 +27,44 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
 
     // Retrieves the transaction associated with the given book and user
     Transaction findByBookAndUser(Book book, User user);
+
+    // Retrieves, among the given books, those the user has a transaction for
+    @Query("SELECT t.book.book_id FROM Transaction t WHERE t.user = :user AND t.book.book_id IN :bookIds")
+    List<Long> findBorrowedBookIds(@Param("user") User user, @Param("bookIds") Collection<Long> bookIds);
+
+    // Counts the open loans of a book lent by count, without a copy
+    @Query("SELECT COUNT(t) FROM Transaction t WHERE t.book.book_id = :bookId AND t.returnDate IS NULL AND t.copy IS NULL")
+    long countOpenLoansWithoutCopy(@Param("bookId") long bookId);
+
+    // Retrieves the open loans of a user with their book and copy
+    @Query("SELECT t FROM Transaction t JOIN FETCH t.book LEFT JOIN FETCH t.copy " +
+            "WHERE t.user.username = :username AND t.returnDate IS NULL")
+    List<Transaction> findOpenLoans(@Param("username") String username);
+
+    // Retrieves the open loan of a copy, if any
+    Transaction findByCopyCopyIdAndReturnDateIsNull(long copyId);
+
+    // Retrieves the transactions of a user with their copy, whose barcode the list shows
+    @EntityGraph(attributePaths = "copy")
+    List<Transaction> findByUserUsername(String username);
+
+    // Retrieves every transaction with its copy, whose barcode the list shows
+    @EntityGraph(attributePaths = "copy")
+    @Query("SELECT t FROM Transaction t")
+    List<Transaction> findAllWithCopy();
+
+    // Retrieves a transaction with its copy
+    @EntityGraph(attributePaths = "copy")
+    Optional<Transaction> findWithCopyByTransactionId(long transactionId);
+
+    // IDs of transactions returned before the cutoff with no unpaid fine, oldest first
+    @Query("SELECT t.transactionId FROM Transaction t WHERE t.returnDate < :cutoff " +
+            "AND NOT EXISTS (SELECT f FROM Fine f WHERE f.transaction = t AND f.paid_date IS NULL) " +
+            "ORDER BY t.transactionId")
+    List<Long> findArchivableIds(@Param("cutoff") LocalDate cutoff, Pageable pageable);
+
+    // Deletes the given transactions in a single statement
+    @Modifying
+    @Query("DELETE FROM Transaction t WHERE t.transactionId IN :ids")
+    int deleteByIds(@Param("ids") List<Long> ids);
 }
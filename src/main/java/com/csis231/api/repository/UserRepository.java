@@ -3,6 +3,7 @@ package com.csis231.api.repository;
 import com.csis231.api.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -16,4 +17,15 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // Query to find user by their username
     @Query("SELECT u FROM User u WHERE u.username = :username")
     Optional<User> findByUsername(String username);
+
+    // Checks if a user has the given username
+    boolean existsByUsername(String username);
+
+    // Retrieves the version stamp of the whole user table
+    @Query("SELECT COUNT(u) AS total, MAX(u.lastModified) AS lastModified FROM User u")
+    VersionStamp findVersionStamp();
+
+    // Retrieves the version stamp of a single user, with a total of 0 if it does not exist
+    @Query("SELECT COUNT(u) AS total, MAX(u.lastModified) AS lastModified FROM User u WHERE u.username = :username")
+    VersionStamp findVersionStampByUsername(@Param("username") String username);
 }
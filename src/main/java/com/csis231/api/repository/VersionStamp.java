@@ -0,0 +1,60 @@
+package com.csis231.api.repository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Projection describing the version of a set of rows: how many there are and when the latest one changed.
+ * Returned by the stamp queries of the repositories so validators can be computed without loading entities.
+ */
+public interface VersionStamp {
+
+    // Number of rows covered by the stamp
+    long getTotal();
+
+    // Latest modification time among those rows, null if none was ever stamped
+    LocalDateTime getLastModified();
+
+    /**
+     * Gets the latest modification time in epoch milliseconds.
+     *
+     * @return the modification time, or 0 if no row was ever stamped.
+     */
+    default long getLastModifiedMillis() {
+        LocalDateTime lastModified = getLastModified();
+        return lastModified == null ? 0 : lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Combines several stamps into one covering all of their rows,
+     * e.g. a list of books together with the authors and genres embedded in it.
+     *
+     * @param stamps the stamps to combine.
+     * @return a stamp whose total is the sum of the totals and whose modification time is the latest one.
+     */
+    static VersionStamp combine(VersionStamp... stamps) {
+        long total = 0;
+        LocalDateTime lastModified = null;
+        for (VersionStamp stamp : stamps) {
+            total += stamp.getTotal();
+            if (stamp.getLastModified() != null
+                    && (lastModified == null || stamp.getLastModified().isAfter(lastModified))) {
+                lastModified = stamp.getLastModified();
+            }
+        }
+
+        long combinedTotal = total;
+        LocalDateTime combinedLastModified = lastModified;
+        return new VersionStamp() {
+            @Override
+            public long getTotal() {
+                return combinedTotal;
+            }
+
+            @Override
+            public LocalDateTime getLastModified() {
+                return combinedLastModified;
+            }
+        };
+    }
+}
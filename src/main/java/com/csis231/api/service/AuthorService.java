@@ -2,13 +2,16 @@ package com.csis231.api.service;
 
 import com.csis231.api.exception.ResourceNotFoundException;
 import com.csis231.api.model.Author;
-import com.csis231.api.model.Book;
 import com.csis231.api.repository.AuthorRepository;
 import com.csis231.api.repository.BookRepository;
+import com.csis231.api.repository.FieldProjectionRepository;
+import com.csis231.api.repository.VersionStamp;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -19,19 +22,45 @@ import java.util.Map;
 @Service
 public class AuthorService {
 
+    // Fields of the author list that can be requested one by one, mapped to the attribute they are read from
+    private static final Map<String, String> LIST_FIELDS = new LinkedHashMap<>();
+
+    static {
+        LIST_FIELDS.put("author_id", "author_id");
+        LIST_FIELDS.put("firstName", "first_name");
+        LIST_FIELDS.put("lastName", "last_name");
+    }
+
     private final AuthorRepository authorRepository;
     private final BookRepository bookRepository;
+    private final BookJsonCache bookJsonCache;
+    private final FieldProjectionRepository fieldProjectionRepository;
+    private final AutocompleteIndex autocompleteIndex;
+    private final DuplicateIndex duplicateIndex;
+    private final DuplicateReportJob duplicateReportJob;
 
     /**
      * Constructor for AuthorService.
      *
      * @param authorRepository the AuthorRepository to interact with the database.
      * @param bookRepository   the BookRepository to check if author has associated books.
+     * @param bookJsonCache    the cache of pre-rendered books, which embed their author.
+     * @param fieldProjectionRepository the repository selecting only the requested fields of authors.
+     * @param autocompleteIndex the in-memory typeahead over author names.
+     * @param duplicateIndex    the in-memory similarity index flagging likely duplicate authors.
+     * @param duplicateReportJob the job listing every pair of likely duplicate authors.
      */
     @Autowired
-    public AuthorService(AuthorRepository authorRepository, BookRepository bookRepository) {
+    public AuthorService(AuthorRepository authorRepository, BookRepository bookRepository, BookJsonCache bookJsonCache,
+                         FieldProjectionRepository fieldProjectionRepository, AutocompleteIndex autocompleteIndex,
+                         DuplicateIndex duplicateIndex, DuplicateReportJob duplicateReportJob) {
         this.authorRepository = authorRepository;
         this.bookRepository = bookRepository;
+        this.bookJsonCache = bookJsonCache;
+        this.fieldProjectionRepository = fieldProjectionRepository;
+        this.autocompleteIndex = autocompleteIndex;
+        this.duplicateIndex = duplicateIndex;
+        this.duplicateReportJob = duplicateReportJob;
     }
 
     /**
@@ -39,11 +68,61 @@ public class AuthorService {
      *
      * @return List of authors.
      */
+    @Transactional(readOnly = true)
     public List<Author> getAllAuthors() {
         // Retrieves a list of all authors from the database
         return authorRepository.findAll();
     }
 
+    /**
+     * Get only the requested fields of all authors.
+     *
+     * @param fields the comma-separated fields to return, e.g. {@code author_id,lastName}.
+     * @return one map per author, from field name to value.
+     * @throws IllegalArgumentException if a field is unknown.
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllAuthors(String fields) {
+        return fieldProjectionRepository.findFields(Author.class, LIST_FIELDS,
+                FieldProjectionRepository.parseFields(fields, LIST_FIELDS));
+    }
+
+    /**
+     * Suggests authors as their name is typed, the most popular first.
+     *
+     * @param prefix the text typed so far, matched against the start of the first or last name.
+     * @param limit  the maximum number of suggestions, from 1 to 50.
+     * @return the ID, first name and last name of each suggested author.
+     * @throws IllegalArgumentException if the limit is out of range.
+     */
+    public List<Map<String, Object>> suggestAuthors(String prefix, int limit) {
+        if (limit < 1 || limit > 50) {
+            throw new IllegalArgumentException("The limit must be between 1 and 50.");
+        }
+        return autocompleteIndex.suggestAuthors(prefix, limit);
+    }
+
+    /**
+     * Gets the version stamp of all authors, used to answer conditional requests without loading them.
+     *
+     * @return the number of authors and their latest modification time.
+     */
+    @Transactional(readOnly = true)
+    public VersionStamp getAuthorsVersion() {
+        return authorRepository.findVersionStamp();
+    }
+
+    /**
+     * Gets the version stamp of a single author.
+     *
+     * @param id the ID of the author.
+     * @return the author's modification time, with a total of 0 if the author does not exist.
+     */
+    @Transactional(readOnly = true)
+    public VersionStamp getAuthorVersion(Long id) {
+        return authorRepository.findVersionStampById(id);
+    }
+
     /**
      * Get a specific author by their ID.
      *
@@ -51,6 +130,7 @@ public class AuthorService {
      * @return the found author.
      * @throws ResourceNotFoundException if the author is not found.
      */
+    @Transactional(readOnly = true)
     public Author getAuthorById(Long id) {
         // Fetch the author entity by ID or throw an exception if not found
         return authorRepository.findById(id)
@@ -70,8 +150,27 @@ public class AuthorService {
         }
 
         // If an author is found, it returns true, otherwise false
-        return authorRepository.findByFirstNameAndLastName(
-                author.getFirstName(), author.getLastName()).isPresent();
+        return authorRepository.existsByFirstNameAndLastName(author.getFirstName(), author.getLastName());
+    }
+
+    /**
+     * Finds the authors whose name is likely a duplicate of the given author's, e.g. "JRR Tolkien" for "J.R.R. Tolkien".
+     *
+     * @param author the author, e.g. one just created, itself left out of the result.
+     * @return the ID, names and similarity of each likely duplicate, most similar first.
+     */
+    public List<Map<String, Object>> findLikelyDuplicates(Author author) {
+        return duplicateIndex.findSimilarAuthors(author.getAuthor_id(), author.getFirstName(), author.getLastName());
+    }
+
+    /**
+     * Gets the pairs of likely duplicate authors found by the last duplicate report.
+     * Until the first report is ready, the report is empty and pending while it runs in the background.
+     *
+     * @return the status and time of the report and its pairs of authors.
+     */
+    public Map<String, Object> getDuplicateReport() {
+        return duplicateReportJob.getAuthorReport();
     }
 
     /**
@@ -81,6 +180,7 @@ public class AuthorService {
      * @return the saved author.
      * @throws IllegalArgumentException if the author already exists.
      */
+    @Transactional
     public Author createAuthor(Author author) {
         // Check if the user already exists by username
         if (doesAuthorExist(author)) {
@@ -89,7 +189,9 @@ public class AuthorService {
         }
 
         // Save the user if the username doesn't exist
-        return authorRepository.save(author);
+        Author createdAuthor = authorRepository.save(author);
+        indexAuthor(createdAuthor);
+        return createdAuthor;
     }
 
     /**
@@ -101,6 +203,7 @@ public class AuthorService {
      * @throws ResourceNotFoundException if the author is not found.
      * @throws IllegalArgumentException if the updated author details already exist.
      */
+    @Transactional
     public Author updateAuthor(Long id, Author authorDetails) {
         // Fetch the existing author
         Author existingAuthor = authorRepository.findById(id)
@@ -114,8 +217,13 @@ public class AuthorService {
         // Update the existing author's details
         existingAuthor.setAuthor(authorDetails.getFirstName(), authorDetails.getLastName());
 
-        // Save and return the updated author
-        return authorRepository.save(existingAuthor);
+        // Save the updated author
+        Author updatedAuthor = authorRepository.save(existingAuthor);
+
+        // Books embed their author, so their cached JSON is outdated once this commits
+        AfterCommit.run(bookJsonCache::invalidateAll);
+        indexAuthor(updatedAuthor);
+        return updatedAuthor;
     }
 
     /**
@@ -126,23 +234,38 @@ public class AuthorService {
      * @throws ResourceNotFoundException if the author is not found.
      * @throws IllegalArgumentException if the author has associated books and cannot be deleted.
      */
+    @Transactional
     public Map<String, Boolean> deleteAuthor(Long id) {
         // Fetch author by id
         Author author = authorRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Author not found with id: " + id));
 
-        // Check if the author is associated with any books
-        List<Book> booksWithAuthor = bookRepository.findByAuthorId(id);
-        if (!booksWithAuthor.isEmpty()) {
+        // Check if the author is associated with any books, reading at most one book ID
+        if (bookRepository.existsByAuthorId(id)) {
             throw new IllegalArgumentException("Author is associated with one or more books and cannot be deleted.");
         }
 
         // Delete the author
         authorRepository.delete(author);
+        AfterCommit.run(() -> {
+            autocompleteIndex.removeAuthor(id);
+            duplicateIndex.removeAuthor(id);
+        });
 
         // Return a simple response indicating the author was deleted
         Map<String, Boolean> response = new HashMap<>();
         response.put("deleted", Boolean.TRUE);
         return response;  // Return the response
     }
+
+    // Updates the typeahead and duplicate indexes with a saved author once the change commits
+    private void indexAuthor(Author author) {
+        long authorId = author.getAuthor_id();
+        String firstName = author.getFirstName();
+        String lastName = author.getLastName();
+        AfterCommit.run(() -> {
+            autocompleteIndex.putAuthor(authorId, firstName, lastName);
+            duplicateIndex.putAuthor(authorId, firstName, lastName);
+        });
+    }
 }
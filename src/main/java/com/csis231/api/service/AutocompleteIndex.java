@@ -0,0 +1,267 @@
+package com.csis231.api.service;
+
+import com.csis231.api.model.Author;
+import com.csis231.api.model.InventoryEvent;
+import com.csis231.api.repository.AuthorRepository;
+import com.csis231.api.repository.BookRepository;
+import com.csis231.api.repository.BookTitleRow;
+import com.csis231.api.repository.InventoryEventRepository;
+import com.csis231.api.repository.LoanCount;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory typeahead over author names and book titles, so pickers can suggest as the user types
+ * without loading every author or book. Names and titles are held in {@link PrefixTrie}s and ranked by popularity:
+ * a book by the number of times it was borrowed, an author by their books plus the loans of those books.
+ * Built at startup and kept current by {@link AuthorService}, {@link BookService} and {@link InventoryService}
+ * as changes commit.
+ */
+@Service
+public class AutocompleteIndex {
+
+    private final AuthorRepository authorRepository;
+    private final BookRepository bookRepository;
+    private final InventoryEventRepository inventoryEventRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    // Everything below is guarded by lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final PrefixTrie authorTrie = new PrefixTrie();
+    private final PrefixTrie titleTrie = new PrefixTrie();
+    private final Map<Integer, String[]> authorNames = new HashMap<>();
+    private final Map<Integer, Integer> authorScores = new HashMap<>();
+    private final Map<Integer, String> titles = new HashMap<>();
+    private final Map<Integer, Integer> bookAuthors = new HashMap<>();
+    private final Map<Integer, Integer> bookLoans = new HashMap<>();
+
+    /**
+     * Constructor for AutocompleteIndex.
+     *
+     * @param authorRepository         the repository of the authors loaded at startup.
+     * @param bookRepository           the repository streaming the book titles at startup.
+     * @param inventoryEventRepository the ledger the loans of each book are counted from.
+     * @param transactionManager       the transaction manager, everything being read within a read-only transaction.
+     */
+    @Autowired
+    public AutocompleteIndex(AuthorRepository authorRepository, BookRepository bookRepository,
+                             InventoryEventRepository inventoryEventRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.authorRepository = authorRepository;
+        this.bookRepository = bookRepository;
+        this.inventoryEventRepository = inventoryEventRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Rebuilds the index from the authors, the book titles and the loans recorded in the ledger.
+     */
+    @PostConstruct
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            authorTrie.clear();
+            titleTrie.clear();
+            authorNames.clear();
+            authorScores.clear();
+            titles.clear();
+            bookAuthors.clear();
+            bookLoans.clear();
+            readOnlyTransaction.executeWithoutResult(status -> {
+                for (LoanCount count : inventoryEventRepository.countByType(InventoryEvent.Type.BORROW)) {
+                    bookLoans.put(Math.toIntExact(count.getBookId()), Math.toIntExact(count.getLoans()));
+                }
+                try (Stream<BookTitleRow> books = bookRepository.streamTitleRows()) {
+                    books.forEach(book -> addBook(Math.toIntExact(book.getBookId()), book.getAuthorId(), book.getTitle()));
+                }
+                for (Author author : authorRepository.findAll()) {
+                    addAuthor(Math.toIntExact(author.getAuthor_id()), author.getFirstName(), author.getLastName());
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes a created or renamed author.
+     *
+     * @param authorId  the ID of the author.
+     * @param firstName their first name.
+     * @param lastName  their last name.
+     */
+    public void putAuthor(long authorId, String firstName, String lastName) {
+        lock.writeLock().lock();
+        try {
+            addAuthor(Math.toIntExact(authorId), firstName, lastName);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a deleted author from the index.
+     *
+     * @param authorId the ID of the author.
+     */
+    public void removeAuthor(long authorId) {
+        int id = Math.toIntExact(authorId);
+        lock.writeLock().lock();
+        try {
+            authorTrie.remove(id);
+            authorNames.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes a created or updated book, replacing the title and author it had.
+     *
+     * @param bookId   the ID of the book.
+     * @param authorId the ID of its author, may be null.
+     * @param title    its title.
+     */
+    public void putBook(long bookId, Long authorId, String title) {
+        int id = Math.toIntExact(bookId);
+        lock.writeLock().lock();
+        try {
+            removeBookFromAuthor(id);
+            addBook(id, authorId, title);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a deleted book from the index.
+     *
+     * @param bookId the ID of the book.
+     */
+    public void removeBook(long bookId) {
+        int id = Math.toIntExact(bookId);
+        lock.writeLock().lock();
+        try {
+            removeBookFromAuthor(id);
+            titleTrie.remove(id);
+            titles.remove(id);
+            bookLoans.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Counts a committed loan towards the popularity of the book and its author.
+     *
+     * @param bookId the ID of the borrowed book.
+     */
+    public void recordLoan(long bookId) {
+        int id = Math.toIntExact(bookId);
+        lock.writeLock().lock();
+        try {
+            int loans = bookLoans.merge(id, 1, Integer::sum);
+            titleTrie.setScore(id, loans);
+            Integer authorId = bookAuthors.get(id);
+            if (authorId != null) {
+                changeAuthorScore(authorId, 1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Suggests the most popular authors with a first or last name starting with the prefix.
+     *
+     * @param prefix the text typed so far.
+     * @param limit  the maximum number of suggestions.
+     * @return the ID, first name and last name of each author, most popular first.
+     */
+    public List<Map<String, Object>> suggestAuthors(String prefix, int limit) {
+        List<Map<String, Object>> suggestions = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (int id : authorTrie.top(prefix, limit)) {
+                String[] name = authorNames.get(id);
+                Map<String, Object> suggestion = new LinkedHashMap<>();
+                suggestion.put("author_id", (long) id);
+                suggestion.put("firstName", name[0]);
+                suggestion.put("lastName", name[1]);
+                suggestions.add(suggestion);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return suggestions;
+    }
+
+    /**
+     * Suggests the most borrowed books with a word of their title starting with the prefix.
+     *
+     * @param prefix the text typed so far.
+     * @param limit  the maximum number of suggestions.
+     * @return the ID, title and author ID of each book, most borrowed first.
+     */
+    public List<Map<String, Object>> suggestBooks(String prefix, int limit) {
+        List<Map<String, Object>> suggestions = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (int id : titleTrie.top(prefix, limit)) {
+                Integer authorId = bookAuthors.get(id);
+                Map<String, Object> suggestion = new LinkedHashMap<>();
+                suggestion.put("book_id", (long) id);
+                suggestion.put("title", titles.get(id));
+                suggestion.put("author_id", authorId == null ? null : (long) authorId);
+                suggestions.add(suggestion);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return suggestions;
+    }
+
+    // Callers hold the write lock
+    private void addAuthor(int id, String firstName, String lastName) {
+        authorNames.put(id, new String[]{firstName, lastName});
+        authorTrie.put(id, firstName + " " + lastName, authorScores.getOrDefault(id, 0));
+    }
+
+    // Callers hold the write lock; a book counts once for its author, plus once per loan
+    private void addBook(int id, Long authorId, String title) {
+        titles.put(id, title);
+        titleTrie.put(id, title, bookLoans.getOrDefault(id, 0));
+        if (authorId != null) {
+            int author = Math.toIntExact(authorId);
+            bookAuthors.put(id, author);
+            changeAuthorScore(author, 1 + bookLoans.getOrDefault(id, 0));
+        }
+    }
+
+    // Callers hold the write lock
+    private void removeBookFromAuthor(int id) {
+        Integer authorId = bookAuthors.remove(id);
+        if (authorId != null) {
+            changeAuthorScore(authorId, -(1 + bookLoans.getOrDefault(id, 0)));
+        }
+    }
+
+    // Callers hold the write lock
+    private void changeAuthorScore(int authorId, int delta) {
+        int score = authorScores.merge(authorId, delta, Integer::sum);
+        authorTrie.setScore(authorId, score);
+    }
+}
@@ -0,0 +1,113 @@
+package com.csis231.api.service;
+
+import com.csis231.api.model.BookCopy;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory hash index of the copies in circulation, keyed by barcode.
+ * Resolving a scanned barcode to its copy and book is a single map lookup, and knowing whether
+ * a title is lent out by copy needs no query. Kept current by {@link BookCopyService} as changes commit.
+ */
+@Service
+public class BarcodeIndex {
+
+    private final ConcurrentHashMap<String, Entry> byBarcode = new ConcurrentHashMap<>();
+
+    // Number of copies in circulation per book
+    private final ConcurrentHashMap<Long, AtomicInteger> copiesPerBook = new ConcurrentHashMap<>();
+
+    /**
+     * Normalizes a barcode as typed or scanned, so lookups ignore surrounding spaces and case.
+     *
+     * @param barcode the barcode.
+     * @return the normalized barcode, or null if none was given.
+     */
+    public static String normalize(String barcode) {
+        return barcode == null ? null : barcode.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Looks up a copy by barcode.
+     *
+     * @param barcode the barcode, normalized or not.
+     * @return the indexed copy, or null if no copy in circulation has this barcode.
+     */
+    public Entry get(String barcode) {
+        return barcode == null ? null : byBarcode.get(normalize(barcode));
+    }
+
+    /**
+     * Checks whether a book has copies in circulation, i.e. whether its loans are tracked by copy.
+     *
+     * @param bookId the ID of the book.
+     * @return true if at least one copy is registered for the book.
+     */
+    public boolean hasCopies(long bookId) {
+        AtomicInteger copies = copiesPerBook.get(bookId);
+        return copies != null && copies.get() > 0;
+    }
+
+    /**
+     * Adds a copy to the index.
+     *
+     * @param copy the copy.
+     */
+    public void put(BookCopy copy) {
+        if (byBarcode.putIfAbsent(copy.getBarcode(), new Entry(copy.getCopyId(), copy.getBookId())) == null) {
+            copiesPerBook.computeIfAbsent(copy.getBookId(), id -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+
+    /**
+     * Removes a copy from the index, e.g. once it is written off.
+     *
+     * @param copy the copy.
+     */
+    public void remove(BookCopy copy) {
+        if (byBarcode.remove(copy.getBarcode()) != null) {
+            copiesPerBook.computeIfPresent(copy.getBookId(), (id, copies) -> copies.decrementAndGet() > 0 ? copies : null);
+        }
+    }
+
+    /**
+     * A copy as found in the index: its ID and the ID of its book.
+     */
+    public static final class Entry {
+
+        private final long copyId;
+        private final long bookId;
+
+        /**
+         * Constructor for Entry.
+         *
+         * @param copyId the ID of the copy.
+         * @param bookId the ID of the book.
+         */
+        public Entry(long copyId, long bookId) {
+            this.copyId = copyId;
+            this.bookId = bookId;
+        }
+
+        /**
+         * Gets the ID of the copy.
+         *
+         * @return the copy ID.
+         */
+        public long getCopyId() {
+            return copyId;
+        }
+
+        /**
+         * Gets the ID of the book.
+         *
+         * @return the book ID.
+         */
+        public long getBookId() {
+            return bookId;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.csis231.api.service;
+
+import com.csis231.api.exception.ResourceNotFoundException;
+import com.csis231.api.model.BookCopy;
+import com.csis231.api.repository.BookCopyRepository;
+import com.csis231.api.repository.BookRepository;
+import com.csis231.api.repository.TransactionRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Service responsible for the physical copies of books.
+ * Once a title has registered copies, every loan claims one specific copy and its stock in the
+ * inventory ledger counts the copies on the shelf; titles without copies keep being lent by count only.
+ */
+@Service
+public class BookCopyService {
+
+    private final BookCopyRepository bookCopyRepository;
+    private final BookRepository bookRepository;
+    private final TransactionRepository transactionRepository;
+    private final BarcodeIndex barcodeIndex;
+    private final InventoryService inventoryService;
+
+    /**
+     * Constructor for BookCopyService.
+     *
+     * @param bookCopyRepository    the repository of copies.
+     * @param bookRepository        the repository used to check that books exist.
+     * @param transactionRepository the repository of loans, checked before a title switches to lending by copy.
+     * @param barcodeIndex          the in-memory index of copies by barcode.
+     * @param inventoryService      the ledger counting the copies on the shelf.
+     */
+    @Autowired
+    public BookCopyService(BookCopyRepository bookCopyRepository, BookRepository bookRepository,
+                           TransactionRepository transactionRepository,
+                           BarcodeIndex barcodeIndex, InventoryService inventoryService) {
+        this.bookCopyRepository = bookCopyRepository;
+        this.bookRepository = bookRepository;
+        this.transactionRepository = transactionRepository;
+        this.barcodeIndex = barcodeIndex;
+        this.inventoryService = inventoryService;
+    }
+
+    /**
+     * Builds the barcode index from the copies in circulation.
+     */
+    @PostConstruct
+    public void loadIndex() {
+        bookCopyRepository.findByStatusNot(BookCopy.Status.WRITTEN_OFF).forEach(barcodeIndex::put);
+    }
+
+    /**
+     * Checks whether a book is lent out by copy.
+     * The index answers when it knows copies of the book; otherwise it may lag behind a first copy registered
+     * on another node or committed a moment ago, so the copies are counted in the database under the lock
+     * of the book row, which {@link #registerCopy} holds while it adds the first copy.
+     * Must be called within a transaction, which keeps the lock until the loan or return is recorded.
+     *
+     * @param bookId the ID of the book.
+     * @return true if the book has copies in circulation.
+     */
+    @Transactional
+    public boolean hasCopies(long bookId) {
+        if (barcodeIndex.hasCopies(bookId)) {
+            return true;
+        }
+        bookRepository.findForUpdate(bookId);
+        List<BookCopy> copies = bookCopyRepository.findByBookIdOrderByCopyIdAsc(bookId).stream()
+                .filter(copy -> copy.getStatus() != BookCopy.Status.WRITTEN_OFF)
+                .toList();
+        if (copies.isEmpty()) {
+            return false;
+        }
+
+        // Catch the index up with the copies it missed
+        AfterCommit.run(() -> copies.forEach(barcodeIndex::put));
+        return true;
+    }
+
+    /**
+     * Resolves a scanned barcode to the ID of its book, from the in-memory index.
+     *
+     * @param barcode the barcode of the copy.
+     * @return the ID of the book, or null if no copy in circulation has this barcode.
+     */
+    public Long findBookIdByBarcode(String barcode) {
+        BarcodeIndex.Entry entry = barcodeIndex.get(barcode);
+        return entry == null ? null : entry.getBookId();
+    }
+
+    /**
+     * Retrieves a copy by its barcode, resolved through the in-memory index.
+     *
+     * @param barcode the barcode of the copy.
+     * @return the copy.
+     * @throws ResourceNotFoundException if no copy in circulation has this barcode.
+     */
+    @Transactional(readOnly = true)
+    public BookCopy getCopyByBarcode(String barcode) {
+        BarcodeIndex.Entry entry = barcodeIndex.get(barcode);
+        if (entry == null) {
+            throw new ResourceNotFoundException("Copy not found with barcode: " + barcode);
+        }
+        return bookCopyRepository.findById(entry.getCopyId())
+                .orElseThrow(() -> new ResourceNotFoundException("Copy not found with barcode: " + barcode));
+    }
+
+    /**
+     * Retrieves every copy of a book, including the written-off ones.
+     *
+     * @param bookId the ID of the book.
+     * @return the copies, oldest first.
+     */
+    @Transactional(readOnly = true)
+    public List<BookCopy> getCopiesByBook(long bookId) {
+        return bookCopyRepository.findByBookIdOrderByCopyIdAsc(bookId);
+    }
+
+    /**
+     * Registers a new copy of a book and puts it on the shelf.
+     * The first copy registered for a title switches it to lending by copy: its stock is reset to the
+     * registered copies, and copies already on the shelf are expected to be registered in turn.
+     * The switch is decided under the lock of the book row, from the copies in the database, so concurrent
+     * registrations agree on which copy is the first; it is refused while loans made by count are still open,
+     * as their copies could not be told apart from the registered ones on return.
+     *
+     * @param bookId  the ID of the book.
+     * @param barcode the barcode of the copy.
+     * @return the registered copy.
+     * @throws ResourceNotFoundException if the book does not exist.
+     * @throws IllegalArgumentException  if the barcode is missing or already in use.
+     * @throws IllegalStateException     if the first copy is registered while loans made by count are open.
+     */
+    @Transactional
+    public BookCopy registerCopy(Long bookId, String barcode) {
+        String normalized = BarcodeIndex.normalize(barcode);
+        if (normalized == null || normalized.isEmpty()) {
+            throw new IllegalArgumentException("A barcode is required.");
+        }
+        // Lock the book, so concurrent registrations count its copies one after the other
+        if (bookId == null || bookRepository.findForUpdate(bookId).isEmpty()) {
+            throw new ResourceNotFoundException("Book not found with id: " + bookId);
+        }
+        if (barcodeIndex.get(normalized) != null) {
+            throw new IllegalArgumentException("Copy already exists with barcode: " + normalized);
+        }
+        boolean firstCopy = bookCopyRepository.countByBookIdAndStatusNot(bookId, BookCopy.Status.WRITTEN_OFF) == 0;
+        if (firstCopy && transactionRepository.countOpenLoansWithoutCopy(bookId) > 0) {
+            throw new IllegalStateException("The book has loans open without a copy: register its copies once they are returned.");
+        }
+
+        BookCopy copy = bookCopyRepository.save(new BookCopy(bookId, normalized));
+
+        // Count the new copy in the ledger, starting over from it when the title was counted without copies
+        if (firstCopy) {
+            inventoryService.recordStockLevel(bookId, 1);
+        } else {
+            inventoryService.recordStockChange(bookId, 1);
+        }
+
+        AfterCommit.run(() -> barcodeIndex.put(copy));
+        return copy;
+    }
+
+    /**
+     * Claims a copy of a book for a loan, marking it as on loan.
+     * Without a barcode the first free copy is taken; copies locked by concurrent checkouts are skipped,
+     * so parallel loans of the same title never wait on each other.
+     * Must be called within the transaction of the loan, which holds the lock; a failure leaves that transaction
+     * usable, so a bulk checkout can report it and go on with the other books.
+     *
+     * @param bookId  the ID of the book.
+     * @param barcode the barcode of the copy scanned at the desk, or null to take any free copy.
+     * @return the claimed copy, or null if the book is not lent out by copy.
+     * @throws ResourceNotFoundException if the barcode is unknown.
+     * @throws IllegalStateException     if the copy is not on the shelf or no copy is free.
+     */
+    public BookCopy claimCopy(long bookId, String barcode) {
+        BookCopy copy;
+        if (barcode != null) {
+            // A specific copy was scanned: it must belong to the book and be on the shelf
+            BarcodeIndex.Entry entry = barcodeIndex.get(barcode);
+            if (entry == null || entry.getBookId() != bookId) {
+                throw new ResourceNotFoundException("Copy not found with barcode: " + barcode + " for book: " + bookId);
+            }
+            copy = bookCopyRepository.lockById(entry.getCopyId())
+                    .filter(found -> found.getStatus() == BookCopy.Status.AVAILABLE)
+                    .orElseThrow(() -> new IllegalStateException("The copy is not available for borrowing."));
+        } else if (hasCopies(bookId)) {
+            copy = bookCopyRepository.findFreeCopies(bookId, BookCopy.Status.AVAILABLE, PageRequest.of(0, 1)).stream()
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("The book is out of stock."));
+        } else {
+            return null;
+        }
+
+        copy.setStatus(BookCopy.Status.ON_LOAN);
+        return copy;
+    }
+
+    /**
+     * Puts a returned copy back on the shelf.
+     *
+     * @param copy the copy, loaded in the current transaction.
+     */
+    @Transactional
+    public void releaseCopy(BookCopy copy) {
+        if (copy.getStatus() == BookCopy.Status.ON_LOAN) {
+            copy.setStatus(BookCopy.Status.AVAILABLE);
+            bookCopyRepository.save(copy);
+        }
+    }
+
+    /**
+     * Takes a copy out of circulation, e.g. when it is lost or damaged. The copy is kept for the loan history.
+     *
+     * @param barcode the barcode of the copy.
+     * @return the written-off copy.
+     * @throws ResourceNotFoundException if no copy in circulation has this barcode.
+     * @throws IllegalStateException     if the copy is on loan.
+     */
+    @Transactional
+    public BookCopy writeOffCopy(String barcode) {
+        BarcodeIndex.Entry entry = barcodeIndex.get(barcode);
+        BookCopy copy = entry == null ? null : bookCopyRepository.lockById(entry.getCopyId()).orElse(null);
+        if (copy == null || copy.getStatus() == BookCopy.Status.WRITTEN_OFF) {
+            throw new ResourceNotFoundException("Copy not found with barcode: " + barcode);
+        }
+        if (copy.getStatus() == BookCopy.Status.ON_LOAN) {
+            throw new IllegalStateException("The copy is on loan and cannot be written off.");
+        }
+
+        copy.setStatus(BookCopy.Status.WRITTEN_OFF);
+        inventoryService.recordStockChange(copy.getBookId(), -1);
+        AfterCommit.run(() -> barcodeIndex.remove(copy));
+        return copy;
+    }
+}
@@ -0,0 +1,173 @@
+package com.csis231.api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Response-level cache holding the pre-rendered UTF-8 JSON of single books.
+ * Entries are evicted whenever a book, or anything embedded in its JSON (author, genres, stock), changes.
+ */
+@Service
+public class BookJsonCache {
+
+    private final Cache<Long, CachedBookJson> entries;
+    private final int gzipMinSize;
+
+    // Bumped on every invalidation so loads that started before it are not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Constructor for BookJsonCache.
+     *
+     * @param maximumSize   the maximum number of books kept in the cache.
+     * @param gzipMinSize   the JSON size from which a gzipped copy is also stored.
+     * @param meterRegistry the registry the cache statistics are published to.
+     */
+    @Autowired
+    public BookJsonCache(@Value("${library.cache.book-json.maximum-size:10000}") long maximumSize,
+                         @Value("${library.cache.book-json.gzip-min-size:1024}") int gzipMinSize,
+                         MeterRegistry meterRegistry) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        this.gzipMinSize = gzipMinSize;
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "bookJson");
+    }
+
+    /**
+     * Gets the cached rendering of a book.
+     *
+     * @param id the ID of the book.
+     * @return the cached rendering, or null if the book is not cached.
+     */
+    public CachedBookJson get(Long id) {
+        return entries.getIfPresent(id);
+    }
+
+    /**
+     * Gets the current generation, to be passed to {@link #put} once a load completes.
+     *
+     * @return the current generation.
+     */
+    public long currentGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Renders and caches a book's JSON, unless an invalidation happened since the load started.
+     *
+     * @param id               the ID of the book.
+     * @param json             the serialized book.
+     * @param loadedGeneration the generation read before the book was loaded.
+     * @return the rendering, whether or not it was cached.
+     */
+    public CachedBookJson put(Long id, byte[] json, long loadedGeneration) {
+        CachedBookJson rendered = new CachedBookJson(json, json.length >= gzipMinSize ? gzip(json) : null);
+        if (generation.get() == loadedGeneration) {
+            entries.put(id, rendered);
+        }
+        return rendered;
+    }
+
+    /**
+     * Evicts a single book, e.g. after it was updated or deleted.
+     * Call it once the change is committed (see {@link AfterCommit}): a load racing an uncommitted change would
+     * read the old row under the new generation and cache it, with no expiry to drop it.
+     *
+     * @param id the ID of the book to evict.
+     */
+    public void invalidate(Long id) {
+        generation.incrementAndGet();
+        entries.invalidate(id);
+    }
+
+    /**
+     * Evicts every book, e.g. after an author or genre embedded in many books changed, once that change is committed.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.invalidateAll();
+    }
+
+    // Compresses the JSON once so gzip-capable clients are served without per-request compression
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Pre-rendered representation of a book: the JSON bytes, an optional gzipped copy, and their ETag.
+     */
+    public static final class CachedBookJson {
+
+        private final byte[] json;
+        private final byte[] gzippedJson;
+        private final String etag;
+
+        /**
+         * Constructor for CachedBookJson.
+         *
+         * @param json        the serialized book.
+         * @param gzippedJson the gzipped JSON, or null if the JSON is too small to be worth compressing.
+         */
+        public CachedBookJson(byte[] json, byte[] gzippedJson) {
+            this.json = json;
+            this.gzippedJson = gzippedJson;
+            this.etag = "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+        }
+
+        /**
+         * Gets the serialized book.
+         *
+         * @return the UTF-8 JSON bytes.
+         */
+        public byte[] getJson() {
+            return json;
+        }
+
+        /**
+         * Gets the gzipped JSON.
+         *
+         * @return the gzipped bytes, or null if no compressed copy was stored.
+         */
+        public byte[] getGzippedJson() {
+            return gzippedJson;
+        }
+
+        /**
+         * Gets the strong ETag of the JSON representation.
+         *
+         * @return the quoted ETag.
+         */
+        public String getEtag() {
+            return etag;
+        }
+
+        /**
+         * Gets the ETag of the gzipped representation, which differs from the plain one as the bytes differ.
+         *
+         * @return the quoted ETag.
+         */
+        public String getGzipEtag() {
+            return etag.substring(0, etag.length() - 1) + "-gzip\"";
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.csis231.api.service;
+
+import com.csis231.api.service.BookJsonCache.CachedBookJson;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single-flight layer in front of {@link BookService#getBookById(Long)}.
+ * Books are served from the {@link BookJsonCache} when possible; on a miss, concurrent requests
+ * for the same book share one in-flight database load and one serialized JSON byte buffer.
+ */
+@Service
+public class BookReadCoalescer {
+
+    private final BookService bookService;
+    private final BookJsonCache bookJsonCache;
+    private final ObjectMapper objectMapper;
+
+    // Loads currently in progress, keyed by book ID
+    private final ConcurrentHashMap<Long, CompletableFuture<CachedBookJson>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter loadedReads;
+    private final Counter coalescedReads;
+
+    /**
+     * Constructor for BookReadCoalescer.
+     *
+     * @param bookService   the service used to load books from the database.
+     * @param bookJsonCache the cache of pre-rendered books.
+     * @param objectMapper  the mapper used to render books as JSON.
+     * @param meterRegistry the registry the coalescing metrics are published to.
+     */
+    @Autowired
+    public BookReadCoalescer(BookService bookService, BookJsonCache bookJsonCache,
+                             ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.bookService = bookService;
+        this.bookJsonCache = bookJsonCache;
+        this.objectMapper = objectMapper;
+        this.loadedReads = Counter.builder("library.books.reads")
+                .tag("result", "loaded")
+                .description("Book reads that ran their own database load")
+                .register(meterRegistry);
+        this.coalescedReads = Counter.builder("library.books.reads")
+                .tag("result", "coalesced")
+                .description("Book reads that joined a load already in flight")
+                .register(meterRegistry);
+        Gauge.builder("library.books.reads.coalescing.ratio", this, BookReadCoalescer::getCoalescingRatio)
+                .description("Share of book reads served by joining an in-flight load")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Retrieves a book as pre-rendered JSON, from the cache or by sharing the load with
+     * any concurrent request for the same ID.
+     *
+     * @param id the ID of the book to retrieve.
+     * @return the rendered book.
+     * @throws com.csis231.api.exception.ResourceNotFoundException if the book is not found.
+     */
+    public CachedBookJson getBookJson(Long id) {
+        CachedBookJson cached = bookJsonCache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<CachedBookJson> load = new CompletableFuture<>();
+        CompletableFuture<CachedBookJson> existing = inFlight.putIfAbsent(id, load);
+
+        // Another request is already loading this book, wait for its result
+        if (existing != null) {
+            coalescedReads.increment();
+            return await(existing);
+        }
+
+        loadedReads.increment();
+        try {
+            // Read the generation first so an update racing with this load is not cached
+            long generation = bookJsonCache.currentGeneration();
+            byte[] json = objectMapper.writeValueAsBytes(bookService.getBookById(id));
+            CachedBookJson rendered = bookJsonCache.put(id, json, generation);
+            load.complete(rendered);
+            return rendered;
+        } catch (JsonProcessingException e) {
+            IllegalStateException failure = new IllegalStateException("Could not serialize book with id: " + id, e);
+            load.completeExceptionally(failure);
+            throw failure;
+        } catch (Throwable e) {
+            // Followers receive the same failure (e.g. book not found), and an Error never leaves them waiting
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            // Later requests are served from the cache, or load again if the result was not cacheable
+            inFlight.remove(id, load);
+        }
+    }
+
+    /**
+     * Gets the share of reads that were served by joining an in-flight load.
+     *
+     * @return the coalescing ratio, between 0 and 1.
+     */
+    public double getCoalescingRatio() {
+        double coalesced = coalescedReads.count();
+        double total = coalesced + loadedReads.count();
+        return total == 0 ? 0 : coalesced / total;
+    }
+
+    // Waits for another request's load, rethrowing its failure unwrapped
+    private CachedBookJson await(CompletableFuture<CachedBookJson> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -1,16 +1,24 @@
 package com.csis231.api.service;
 
 import com.csis231.api.exception.ResourceNotFoundException;
+import com.csis231.api.model.Author;
 import com.csis231.api.model.Book;
 import com.csis231.api.model.Genre;
 import com.csis231.api.repository.BookRepository;
+import com.csis231.api.repository.FieldProjectionRepository;
+import com.csis231.api.repository.VersionStamp;
+import org.roaringbitmap.RoaringBitmap;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * Service class responsible for handling business logic related to Books.
@@ -19,33 +27,238 @@ import java.util.Map;
 @Service
 public class BookService {
 
+    // Fields of the book list that can be requested one by one, mapped to the attribute they are read from
+    private static final Map<String, String> LIST_FIELDS = new LinkedHashMap<>();
+
+    static {
+        LIST_FIELDS.put("book_id", "book_id");
+        LIST_FIELDS.put("title", "title");
+        LIST_FIELDS.put("isbn", "isbn");
+        LIST_FIELDS.put("publisher", "publisher");
+        LIST_FIELDS.put("published_year", "published_year");
+        LIST_FIELDS.put("status", "status");
+        LIST_FIELDS.put("quantity", "quantity");
+        LIST_FIELDS.put("rate", "rate");
+        LIST_FIELDS.put("description", "description");
+        LIST_FIELDS.put("author_id", "author.author_id");
+    }
+
     private final BookRepository bookRepository;
     private final AuthorService authorService;
     private final GenreService genreService;
+    private final BookJsonCache bookJsonCache;
+    private final InventoryService inventoryService;
+    private final FieldProjectionRepository fieldProjectionRepository;
+    private final GenreIndex genreIndex;
+    private final CatalogFacetIndex catalogFacetIndex;
+    private final AutocompleteIndex autocompleteIndex;
+    private final DuplicateIndex duplicateIndex;
+    private final DuplicateReportJob duplicateReportJob;
+    private final IsbnIndex isbnIndex;
 
     /**
      * Constructor for BookService.
      * Initializes the dependencies required for book management.
      *
-     * @param bookRepository the repository used to interact with the Book database.
-     * @param authorService  the service responsible for interacting with authors.
-     * @param genreService   the service responsible for managing genres.
+     * @param bookRepository   the repository used to interact with the Book database.
+     * @param authorService    the service responsible for interacting with authors.
+     * @param genreService     the service responsible for managing genres.
+     * @param bookJsonCache    the cache of pre-rendered books, evicted on every change.
+     * @param inventoryService the ledger holding the stock of each book.
+     * @param fieldProjectionRepository the repository selecting only the requested fields of books.
+     * @param genreIndex       the in-memory index of the books of each genre.
+     * @param catalogFacetIndex the in-memory index of the books by author, publication year and status.
+     * @param autocompleteIndex the in-memory typeahead over book titles.
+     * @param duplicateIndex    the in-memory similarity index flagging likely duplicate books.
+     * @param duplicateReportJob the job listing every pair of likely duplicate books.
+     * @param isbnIndex         the in-memory index of the books by canonical ISBN.
      */
     @Autowired
-    public BookService(BookRepository bookRepository, AuthorService authorService, GenreService genreService) {
+    public BookService(BookRepository bookRepository, AuthorService authorService, GenreService genreService,
+                       BookJsonCache bookJsonCache, InventoryService inventoryService,
+                       FieldProjectionRepository fieldProjectionRepository, GenreIndex genreIndex,
+                       CatalogFacetIndex catalogFacetIndex, AutocompleteIndex autocompleteIndex,
+                       DuplicateIndex duplicateIndex, DuplicateReportJob duplicateReportJob, IsbnIndex isbnIndex) {
         this.bookRepository = bookRepository;
         this.authorService = authorService;
         this.genreService = genreService;
+        this.bookJsonCache = bookJsonCache;
+        this.inventoryService = inventoryService;
+        this.fieldProjectionRepository = fieldProjectionRepository;
+        this.genreIndex = genreIndex;
+        this.catalogFacetIndex = catalogFacetIndex;
+        this.autocompleteIndex = autocompleteIndex;
+        this.duplicateIndex = duplicateIndex;
+        this.duplicateReportJob = duplicateReportJob;
+        this.isbnIndex = isbnIndex;
     }
 
     /**
-     * Retrieves all books from the database.
+     * Retrieves all books from the database, with their current stock from the inventory ledger.
      *
      * @return a list of all books.
      */
+    @Transactional(readOnly = true)
     public List<Book> getAllBooks() {
         // Retrieves a list of all books from the database
-        return bookRepository.findAll();
+        List<Book> books = bookRepository.findAllDetailed();
+        books.forEach(inventoryService::withCurrentStock);
+        return books;
+    }
+
+    /**
+     * Retrieves only the requested fields of all books, without loading their author, genres or image.
+     * The quantity and status come from the inventory ledger, like in the full list.
+     *
+     * @param fields the comma-separated fields to return, e.g. {@code book_id,title}.
+     * @return one map per book, from field name to value.
+     * @throws IllegalArgumentException if a field is unknown.
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllBooks(String fields) {
+        List<String> requested = FieldProjectionRepository.parseFields(fields, LIST_FIELDS);
+        boolean stock = requested.contains("quantity") || requested.contains("status");
+        if (!stock) {
+            return fieldProjectionRepository.findFields(Book.class, LIST_FIELDS, requested);
+        }
+
+        // The stock is derived from the ledger, which needs the ID and the stored status of each book
+        List<String> selected = new ArrayList<>(requested);
+        selected.remove("quantity");
+        for (String needed : List.of("book_id", "status")) {
+            if (!selected.contains(needed)) {
+                selected.add(needed);
+            }
+        }
+        List<Map<String, Object>> books = new ArrayList<>();
+        for (Map<String, Object> row : fieldProjectionRepository.findFields(Book.class, LIST_FIELDS, selected)) {
+            int available = inventoryService.getAvailable((Long) row.get("book_id"));
+            row.put("quantity", available);
+            row.put("status", InventoryService.effectiveStatus((String) row.get("status"), available));
+
+            // Keep the requested fields only, in the order they were asked for
+            Map<String, Object> book = new LinkedHashMap<>();
+            requested.forEach(field -> book.put(field, row.get(field)));
+            books.add(book);
+        }
+        return books;
+    }
+
+    /**
+     * Finds the books matching a combination of genres, e.g. fantasy AND young-adult NOT horror,
+     * with the number of matching books in each genre. Matching and counting are done on the genre index;
+     * only the requested page of books is loaded.
+     *
+     * @param allOf  genres the books must all have, may be null.
+     * @param anyOf  genres the books must have at least one of, may be null.
+     * @param noneOf genres the books must not have, may be null.
+     * @param page   the page of books to load, from 0.
+     * @param size   the number of books per page, from 1 to 500.
+     * @return the total of matching books, their count per genre ID, and the books of the page by ID.
+     * @throws IllegalArgumentException if the page or size is out of range.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> findByGenres(List<Long> allOf, List<Long> anyOf, List<Long> noneOf, int page, int size) {
+        if (page < 0 || size < 1 || size > 500) {
+            throw new IllegalArgumentException("The page must be positive and the size between 1 and 500.");
+        }
+        RoaringBitmap matching = genreIndex.match(orEmpty(allOf), orEmpty(anyOf), orEmpty(noneOf));
+
+        // Load the books of the page only, in ID order
+        List<Long> ids = matching.stream().skip((long) page * size).limit(size).mapToObj(id -> (long) id).toList();
+        List<Book> books = new ArrayList<>(bookRepository.findAllDetailedById(ids));
+        books.sort(Comparator.comparingLong(Book::getBook_id));
+        books.forEach(inventoryService::withCurrentStock);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("total", matching.getLongCardinality());
+        result.put("genre_counts", genreIndex.countByGenre(matching));
+        result.put("books", books);
+        return result;
+    }
+
+    /**
+     * Counts the books matching a filter per genre, author, bucket of publication years and status,
+     * for catalog browse pages. Everything is computed on the in-memory indexes; no book is loaded.
+     *
+     * @param allOf       genres the books must all have, may be null.
+     * @param anyOf       genres the books must have at least one of, may be null.
+     * @param noneOf      genres the books must not have, may be null.
+     * @param authorId    the author the books must have, may be null.
+     * @param yearFrom    the first publication year, inclusive, may be null.
+     * @param yearTo      the last publication year, inclusive, may be null.
+     * @param status      the status the books must show, may be null.
+     * @param authorLimit the maximum number of authors to count, those with the most books first.
+     * @return the total of matching books and their counts per genre ID, author ID, year bucket and status.
+     * @throws IllegalArgumentException if the author limit is out of range.
+     */
+    public Map<String, Object> getFacets(List<Long> allOf, List<Long> anyOf, List<Long> noneOf, Long authorId,
+                                         Integer yearFrom, Integer yearTo, String status, int authorLimit) {
+        if (authorLimit < 1 || authorLimit > 1000) {
+            throw new IllegalArgumentException("The author limit must be between 1 and 1000.");
+        }
+        RoaringBitmap matching = catalogFacetIndex.filter(genreIndex.match(orEmpty(allOf), orEmpty(anyOf), orEmpty(noneOf)),
+                authorId, yearFrom, yearTo, status);
+
+        Map<String, Object> facets = new LinkedHashMap<>();
+        facets.put("total", matching.getLongCardinality());
+        facets.put("genres", genreIndex.countByGenre(matching));
+        facets.put("authors", catalogFacetIndex.countByAuthor(matching, authorLimit));
+        facets.put("published_years", catalogFacetIndex.countByYearBucket(matching));
+        facets.put("statuses", catalogFacetIndex.countByStatus(matching));
+        return facets;
+    }
+
+    /**
+     * Suggests books as their title is typed, the most borrowed first.
+     *
+     * @param prefix the text typed so far, matched against the start of any word of the title.
+     * @param limit  the maximum number of suggestions, from 1 to 50.
+     * @return the ID, title and author ID of each suggested book.
+     * @throws IllegalArgumentException if the limit is out of range.
+     */
+    public List<Map<String, Object>> suggestBooks(String prefix, int limit) {
+        if (limit < 1 || limit > 50) {
+            throw new IllegalArgumentException("The limit must be between 1 and 50.");
+        }
+        return autocompleteIndex.suggestBooks(prefix, limit);
+    }
+
+    /**
+     * Finds the books likely duplicates of the given one: a similar title by the same or a likely duplicate author.
+     *
+     * @param book the book, e.g. one just created, itself left out of the result.
+     * @return the ID, title, author ID and similarity of each likely duplicate, most similar first.
+     */
+    public List<Map<String, Object>> findLikelyDuplicates(Book book) {
+        Long authorId = book.getAuthor() == null ? null : book.getAuthor().getAuthor_id();
+        return duplicateIndex.findSimilarBooks(book.getBook_id(), authorId, book.getTitle());
+    }
+
+    /**
+     * Gets the pairs of likely duplicate books found by the last duplicate report.
+     * Until the first report is ready, the report is empty and pending while it runs in the background.
+     *
+     * @return the status and time of the report and its pairs of books.
+     */
+    public Map<String, Object> getDuplicateReport() {
+        return duplicateReportJob.getBookReport();
+    }
+
+    private static List<Long> orEmpty(List<Long> ids) {
+        return ids == null ? List.of() : ids;
+    }
+
+    /**
+     * Gets the version stamp of the book list, used to answer conditional requests without loading it.
+     * Books embed their author, genres and stock, so those tables and the inventory ledger are part of the stamp.
+     *
+     * @return the combined row count and latest modification time of books, authors, genres and stock changes.
+     */
+    @Transactional(readOnly = true)
+    public VersionStamp getBooksVersion() {
+        return VersionStamp.combine(bookRepository.findVersionStamp(),
+                authorService.getAuthorsVersion(), genreService.getGenresVersion(), inventoryService.getVersion());
     }
 
     /**
@@ -55,26 +268,60 @@ public class BookService {
      * @return the found book.
      * @throws ResourceNotFoundException if the book is not found.
      */
+    @Transactional(readOnly = true)
     public Book getBookById(Long id) {
-        // Fetch the book entity by ID or throw an exception if not found
-        return bookRepository.findById(id)
+        // Fetch the book entity with its author, genres and image by ID or throw an exception if not found
+        Book book = bookRepository.findDetailById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + id));
+
+        // Quantity and status come from the inventory ledger, not from the book row
+        return inventoryService.withCurrentStock(book);
+    }
+
+    /**
+     * Retrieves a book by ISBN, as scanned at the checkout desk, in any ISBN-10 or ISBN-13 notation.
+     * The book is found in the in-memory ISBN index; only a book the index does not know yet
+     * (e.g. created by another instance) is looked up in the database. An entry left behind by a book
+     * deleted or given another ISBN on another instance is dropped, and the ISBN looked up in the database too.
+     *
+     * @param isbn the ISBN.
+     * @return the book, with its current stock.
+     * @throws IllegalArgumentException  if the ISBN is invalid.
+     * @throws ResourceNotFoundException if no book has this ISBN.
+     */
+    @Transactional(readOnly = true)
+    public Book getBookByIsbn(String isbn) {
+        long isbnKey = IsbnIndex.toKey(isbn);
+        Long bookId = isbnIndex.get(isbnKey);
+        if (bookId != null) {
+            Book indexed = bookRepository.findDetailById(bookId).orElse(null);
+            if (indexed != null && Objects.equals(indexed.getIsbnKey(), isbnKey)) {
+                return inventoryService.withCurrentStock(indexed);
+            }
+            isbnIndex.remove(isbnKey, bookId);
+        }
+
+        Book book = bookRepository.findByIsbnKey(isbnKey)
+                .orElseThrow(() -> new ResourceNotFoundException("Book not found with ISBN: " + isbn));
+        isbnIndex.put(isbnKey, book.getBook_id());
+        return inventoryService.withCurrentStock(book);
     }
 
     /**
-     * Checks if a book exists in the database based on its ISBN.
+     * Checks if a book exists in the database based on its ISBN, in any ISBN-10 or ISBN-13 notation.
      *
      * @param book the book to check.
-     * @return true if the book exists, false otherwise.
+     * @return true if the book exists, false otherwise, including when its ISBN is invalid.
      */
     public boolean doesBookExist(Book book) {
-        // Check if the book is null or has an invalid ID
-        if (book == null || book.getISBN() == null) {
+        // Check if the book is null or has an invalid ISBN
+        Long isbnKey = book == null ? null : IsbnIndex.toKeyOrNull(book.getISBN());
+        if (isbnKey == null) {
             return false;
         }
 
-        // If a book is found by isbn, it returns true, otherwise false
-        return bookRepository.findByIsbn(book.getISBN()) != null;
+        // Equality on the unique isbn_key index
+        return bookRepository.existsByIsbnKey(isbnKey);
     }
 
     /**
@@ -83,46 +330,31 @@ public class BookService {
      *
      * @param book the book to create.
      * @return the created book.
+     * @throws IllegalArgumentException  if the ISBN is invalid.
      * @throws ResourceNotFoundException if the author or genres do not exist.
      */
+    @Transactional
     public Book createBook(Book book) {
+        // Validate the ISBN and store it canonicalized, so the unique index sees every notation of it as one
+        book.setIsbnKey(IsbnIndex.toKey(book.getISBN()));
+
         // Check if the book already exists in the database using the ISBN
         if ((doesBookExist(book))) {
             throw new ResourceNotFoundException("Book already exist");
         }
 
-        // Check if the book's author exists
-        if (authorService.getAuthorById(book.getAuthor().getAuthor_id()) == null) {
-            throw new ResourceNotFoundException("Author does not exist");
-        }
-
-        // Initialize a list to store valid genres
-        List<Genre> validGenres = new ArrayList<>();
-
-        // Iterate through each genre provided in the book's genre list
-        for (int i = 0; i < book.getGenres().size(); i++) {
-            Genre genre = book.getGenres().get(i);
-
-            // Check if each genre exists in the database by its ID
-            Genre fetchedGenre = genreService.getGenreById(genre.getGenreId());
-
-            if (fetchedGenre == null) {
-                // If any genre is invalid, throw an exception with the genre's ID
-                throw new ResourceNotFoundException("Genre does not exist with id: " + genre.getGenreId());
-            }
-
-            // If the genre is valid, add it to the validGenres list
-            validGenres.add(fetchedGenre);
-        }
-
-        // Set the valid genres to the book
-        book.setGenres(validGenres);
-
-        // Set the author correctly
+        // Check if the book's author exists, and set it correctly
         book.setAuthor(authorService.getAuthorById(book.getAuthor().getAuthor_id()));
 
-        // Save the book if all checks pass
-        return bookRepository.save(book);
+        // Fetch the genres in a single query, failing if any does not exist, and set them to the book
+        List<Long> genreIds = book.getGenres().stream().map(Genre::getGenreId).toList();
+        book.setGenres(new ArrayList<>(genreService.getGenresByIds(genreIds)));
+
+        // Save the book if all checks pass, and open its stock in the inventory ledger
+        Book createdBook = bookRepository.save(book);
+        inventoryService.recordInitialStock(createdBook.getBook_id(), createdBook.getQuantity());
+        indexBook(createdBook);
+        return createdBook;
     }
 
     /**
@@ -134,40 +366,42 @@ public class BookService {
      * @throws ResourceNotFoundException if the book, author, or genre does not exist.
      * @throws IllegalArgumentException  if the ISBN already exists in the system.
      */
+    @Transactional
     public Book updateBook(Long id, Book bookDetails) {
         // Retrieve the existing book by its ID.
         Book existingBook = bookRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Book does not exist with id: " + id));
 
-        // Validate if the ISBN of the existing book matches the provided one to avoid duplicates.
-        if (!existingBook.getISBN().equalsIgnoreCase(bookDetails.getISBN())) {
+        // Validate if the ISBN of the existing book matches the provided one, in any notation, to avoid duplicates.
+        boolean sameIsbn = existingBook.getIsbnKey() != null
+                ? existingBook.getIsbnKey().equals(IsbnIndex.toKeyOrNull(bookDetails.getISBN()))
+                : existingBook.getISBN().equalsIgnoreCase(bookDetails.getISBN());
+        if (!sameIsbn) {
             throw new IllegalArgumentException("Book already exists with ISBN: " + bookDetails.getISBN());
         }
 
         // Check if the author of the book exists.
-        if (authorService.getAuthorById(bookDetails.getAuthor().getAuthor_id()) == null) {
-            throw new ResourceNotFoundException("Author does not exist");
-        }
+        Author author = authorService.getAuthorById(bookDetails.getAuthor().getAuthor_id());
 
-        // Validate that each genre exists.
-        for (int i = 0; i < bookDetails.getGenres().size(); i++) {
-            Genre genre = bookDetails.getGenres().get(i);
+        // Fetch the genres in a single query, failing if any does not exist.
+        List<Long> genreIds = bookDetails.getGenres().stream().map(Genre::getGenreId).toList();
+        List<Genre> genres = new ArrayList<>(genreService.getGenresByIds(genreIds));
 
-            // Fetch the genre by its ID to check if it exists.
-            Genre fetchedGenre = genreService.getGenreById(genre.getGenreId());
-            if (fetchedGenre == null) {
-                throw new ResourceNotFoundException("Genre does not exist with id: " + genre.getGenreId());
-            }
+        // Update the existing book with the new details provided in the 'bookDetails' parameter.
+        existingBook.setUpdateBook(bookDetails.getTitle(), bookDetails.getPublisher(), bookDetails.getPublished_year(),
+                bookDetails.getStatus(), bookDetails.getDescription(), author, bookDetails.getQuantity(),
+                bookDetails.getRate(), genres, bookDetails.getImage());
 
-            // Update the existing book with the new details provided in the 'bookDetails' parameter.
-            existingBook.setUpdateBook(bookDetails.getTitle(), bookDetails.getPublisher(), bookDetails.getPublished_year(),
-                    bookDetails.getStatus(), bookDetails.getDescription(), bookDetails.getAuthor(), bookDetails.getQuantity(),
-                    bookDetails.getRate(), bookDetails.getGenres(), bookDetails.getImage());
+        // Save the updated book back into the repository.
+        Book updatedBook = bookRepository.save(existingBook);
 
+        // Record a quantity change as a restock or write-off in the inventory ledger
+        inventoryService.recordStockLevel(id, bookDetails.getQuantity());
 
-        }
-        // Save the updated book back into the repository.
-        return bookRepository.save(existingBook);
+        // Drop the cached JSON once committed, so no read racing the commit caches the old details again
+        AfterCommit.run(() -> bookJsonCache.invalidate(id));
+        indexBook(updatedBook);
+        return updatedBook;
     }
 
     /**
@@ -177,6 +411,7 @@ public class BookService {
      * @return a response indicating if the book was deleted.
      * @throws ResourceNotFoundException if the book is not found.
      */
+    @Transactional
     public Map<String, Boolean> deleteBook(Long id) {
         // Find the book in the database by its ID
         Book book = bookRepository.findById(id)
@@ -184,12 +419,42 @@ public class BookService {
 
         // If the book is found, delete it from the repository
         bookRepository.delete(book);
+        AfterCommit.run(() -> bookJsonCache.invalidate(id));
+        inventoryService.forget(id);
+        Long isbnKey = book.getIsbnKey();
+        AfterCommit.run(() -> {
+            if (isbnKey != null) {
+                isbnIndex.remove(isbnKey, id);
+            }
+            genreIndex.remove(id);
+            catalogFacetIndex.remove(id);
+            autocompleteIndex.removeBook(id);
+            duplicateIndex.removeBook(id);
+        });
 
         // Return a simple response indicating the author was deleted
         Map<String, Boolean> response = new HashMap<>();
         response.put("deleted", Boolean.TRUE);
         return response;  // Return the response
     }
-}
-
 
+    // Updates the genre, facet, typeahead, duplicate and ISBN indexes with a saved book once the change commits
+    private void indexBook(Book book) {
+        long bookId = book.getBook_id();
+        List<Long> genreIds = book.getGenres().stream().map(Genre::getGenreId).toList();
+        Long authorId = book.getAuthor() == null ? null : book.getAuthor().getAuthor_id();
+        int publishedYear = book.getPublished_year();
+        String status = book.getStatus();
+        String title = book.getTitle();
+        Long isbnKey = book.getIsbnKey();
+        AfterCommit.run(() -> {
+            if (isbnKey != null) {
+                isbnIndex.put(isbnKey, bookId);
+            }
+            genreIndex.put(bookId, genreIds);
+            catalogFacetIndex.put(bookId, authorId, publishedYear, status);
+            autocompleteIndex.putBook(bookId, authorId, title);
+            duplicateIndex.putBook(bookId, authorId, title);
+        });
+    }
+}
@@ -0,0 +1,313 @@
+package com.csis231.api.service;
+
+import com.csis231.api.repository.BookFacetRow;
+import com.csis231.api.repository.BookRepository;
+import jakarta.annotation.PostConstruct;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index of the catalog columns browse pages count books on: author, publication year and status.
+ * Each value maps to a compressed bitmap of book IDs, so filtering is a bitmap intersection and
+ * a facet count is the cardinality of one, without {@code GROUP BY} over the book table.
+ * Stock-driven statuses (AVAILABLE / UNAVAILABLE) are resolved against the in-stock bitmap
+ * of the {@link InventoryProjection}; other statuses set by the library are indexed as stored.
+ * Built from the book table at startup and kept current by {@link BookService} as changes commit.
+ */
+@Service
+public class CatalogFacetIndex {
+
+    private final BookRepository bookRepository;
+    private final InventoryProjection inventoryProjection;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int yearBucketSize;
+
+    // Everything below is guarded by lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Row> rows = new HashMap<>();
+    private final Map<Long, RoaringBitmap> byAuthor = new HashMap<>();
+    private final NavigableMap<Integer, RoaringBitmap> byYear = new TreeMap<>();
+    private final Map<String, RoaringBitmap> byStoredStatus = new HashMap<>();
+    private final RoaringBitmap stockDriven = new RoaringBitmap();
+
+    /**
+     * Constructor for CatalogFacetIndex.
+     *
+     * @param bookRepository      the repository streaming the books at startup.
+     * @param inventoryProjection the projection knowing which books are in stock.
+     * @param transactionManager  the transaction manager, the stream being read within a read-only transaction.
+     * @param yearBucketSize      the number of years counted together in the publication year facet.
+     */
+    @Autowired
+    public CatalogFacetIndex(BookRepository bookRepository, InventoryProjection inventoryProjection,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${library.facets.year-bucket-size:10}") int yearBucketSize) {
+        this.bookRepository = bookRepository;
+        this.inventoryProjection = inventoryProjection;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.yearBucketSize = yearBucketSize;
+    }
+
+    /**
+     * Rebuilds the index with one streaming pass over the books.
+     */
+    @PostConstruct
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            rows.clear();
+            byAuthor.clear();
+            byYear.clear();
+            byStoredStatus.clear();
+            stockDriven.clear();
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<BookFacetRow> books = bookRepository.streamFacetRows()) {
+                    books.forEach(book -> add(Math.toIntExact(book.getBookId()),
+                            new Row(book.getAuthorId(), book.getPublishedYear(), book.getStatus())));
+                }
+            });
+            byAuthor.values().forEach(RoaringBitmap::runOptimize);
+            byYear.values().forEach(RoaringBitmap::runOptimize);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes a created or updated book, replacing what was indexed for it.
+     *
+     * @param bookId        the ID of the book.
+     * @param authorId      the ID of its author, may be null.
+     * @param publishedYear the year it was published.
+     * @param status        the status stored on the book.
+     */
+    public void put(long bookId, Long authorId, int publishedYear, String status) {
+        int id = Math.toIntExact(bookId);
+        lock.writeLock().lock();
+        try {
+            removeRow(id);
+            add(id, new Row(authorId, publishedYear, status));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a deleted book from the index.
+     *
+     * @param bookId the ID of the book.
+     */
+    public void remove(long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeRow(Math.toIntExact(bookId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Narrows a set of books down to those matching the given author, years and status.
+     *
+     * @param books    the IDs of the books, narrowed in place.
+     * @param authorId the author the books must have, or null.
+     * @param yearFrom the first publication year, inclusive, or null.
+     * @param yearTo   the last publication year, inclusive, or null.
+     * @param status   the status the books must show, as in the book list, or null.
+     * @return the same bitmap, narrowed.
+     */
+    public RoaringBitmap filter(RoaringBitmap books, Long authorId, Integer yearFrom, Integer yearTo, String status) {
+        lock.readLock().lock();
+        try {
+            if (authorId != null) {
+                books.and(byAuthor.getOrDefault(authorId, new RoaringBitmap()));
+            }
+            if (yearFrom != null || yearTo != null) {
+                RoaringBitmap years = new RoaringBitmap();
+                years(yearFrom, yearTo).values().forEach(years::or);
+                books.and(years);
+            }
+            if (status != null) {
+                if (InventoryService.isStockDriven(status)) {
+                    RoaringBitmap stock = RoaringBitmap.and(books, stockDriven);
+                    RoaringBitmap inStock = inventoryProjection.selectInStock(stock);
+                    books.and("AVAILABLE".equalsIgnoreCase(status) ? inStock : RoaringBitmap.andNot(stock, inStock));
+                } else {
+                    books.and(byStoredStatus.getOrDefault(status, new RoaringBitmap()));
+                }
+            }
+            return books;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts the given books per author, keeping the authors with the most books.
+     * Small sets are counted book by book, large ones author by author.
+     *
+     * @param books the IDs of the books.
+     * @param limit the maximum number of authors to return.
+     * @return the number of books per author ID, most books first.
+     */
+    public Map<Long, Integer> countByAuthor(RoaringBitmap books, int limit) {
+        Map<Long, Integer> counts = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            if (books.getCardinality() < byAuthor.size()) {
+                IntIterator ids = books.getIntIterator();
+                while (ids.hasNext()) {
+                    Row row = rows.get(ids.next());
+                    if (row != null && row.authorId != null) {
+                        counts.merge(row.authorId, 1, Integer::sum);
+                    }
+                }
+            } else {
+                byAuthor.forEach((authorId, authorBooks) -> {
+                    int count = RoaringBitmap.andCardinality(authorBooks, books);
+                    if (count > 0) {
+                        counts.put(authorId, count);
+                    }
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Map<Long, Integer> top = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .forEach(entry -> top.put(entry.getKey(), entry.getValue()));
+        return top;
+    }
+
+    /**
+     * Counts the given books per bucket of publication years, e.g. "1990-1999".
+     *
+     * @param books the IDs of the books.
+     * @return the number of books per bucket, oldest first, empty buckets left out.
+     */
+    public Map<String, Integer> countByYearBucket(RoaringBitmap books) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            byYear.forEach((year, yearBooks) -> {
+                int count = RoaringBitmap.andCardinality(yearBooks, books);
+                if (count > 0) {
+                    int start = Math.floorDiv(year, yearBucketSize) * yearBucketSize;
+                    counts.merge(start + "-" + (start + yearBucketSize - 1), count, Integer::sum);
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        return counts;
+    }
+
+    /**
+     * Counts the given books per status, as shown in the book list.
+     *
+     * @param books the IDs of the books.
+     * @return the number of books per status, most books first, empty statuses left out.
+     */
+    public Map<String, Integer> countByStatus(RoaringBitmap books) {
+        Map<String, Integer> counts = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            RoaringBitmap stock = RoaringBitmap.and(books, stockDriven);
+            int inStock = inventoryProjection.countInStock(stock);
+            counts.put("AVAILABLE", inStock);
+            counts.put("UNAVAILABLE", stock.getCardinality() - inStock);
+            byStoredStatus.forEach((status, statusBooks) ->
+                    counts.merge(status, RoaringBitmap.andCardinality(statusBooks, books), Integer::sum));
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Map<String, Integer> sorted = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return sorted;
+    }
+
+    // The years within the range, both bounds optional
+    private NavigableMap<Integer, RoaringBitmap> years(Integer from, Integer to) {
+        return byYear.subMap(from == null ? Integer.MIN_VALUE : from, true, to == null ? Integer.MAX_VALUE : to, true);
+    }
+
+    // Callers hold the write lock
+    private void add(int id, Row row) {
+        rows.put(id, row);
+        if (row.authorId != null) {
+            byAuthor.computeIfAbsent(row.authorId, authorId -> new RoaringBitmap()).add(id);
+        }
+        byYear.computeIfAbsent(row.publishedYear, year -> new RoaringBitmap()).add(id);
+        if (InventoryService.isStockDriven(row.status)) {
+            stockDriven.add(id);
+        } else {
+            byStoredStatus.computeIfAbsent(row.status, status -> new RoaringBitmap()).add(id);
+        }
+    }
+
+    // Callers hold the write lock
+    private void removeRow(int id) {
+        Row row = rows.remove(id);
+        if (row == null) {
+            return;
+        }
+        if (row.authorId != null) {
+            removeFrom(byAuthor, row.authorId, id);
+        }
+        removeFrom(byYear, row.publishedYear, id);
+        if (InventoryService.isStockDriven(row.status)) {
+            stockDriven.remove(id);
+        } else {
+            removeFrom(byStoredStatus, row.status, id);
+        }
+    }
+
+    // Drops the bitmap of a value once its last book is removed, so facets do not list empty values
+    private static <K> void removeFrom(Map<K, RoaringBitmap> index, K key, int id) {
+        RoaringBitmap books = index.get(key);
+        if (books != null) {
+            books.remove(id);
+            if (books.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    /**
+     * The indexed columns of one book, kept to find its bitmaps when it changes.
+     */
+    private static final class Row {
+
+        private final Long authorId;
+        private final int publishedYear;
+        private final String status;
+
+        Row(Long authorId, int publishedYear, String status) {
+            this.authorId = authorId;
+            this.publishedYear = publishedYear;
+            this.status = status;
+        }
+    }
+}
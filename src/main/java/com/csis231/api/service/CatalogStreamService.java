@@ -0,0 +1,150 @@
+package com.csis231.api.service;
+
+import com.csis231.api.DTO.BookDTO;
+import com.csis231.api.DTO.CommentDTO;
+import com.csis231.api.model.Author;
+import com.csis231.api.model.Genre;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+/**
+ * Read-only access to the catalog (books, authors, genres and comments) over R2DBC.
+ * It reads the same tables as the JPA entities and emits rows as they arrive, with no thread held while waiting
+ * for the database. Writing the rows to a client is not non-blocking: the MVC controller serving them writes
+ * each one with blocking servlet I/O on the MVC async executor (see {@link com.csis231.api.config.MvcAsyncConfig}).
+ */
+@Service
+public class CatalogStreamService {
+
+    private final DatabaseClient databaseClient;
+    private final InventoryProjection inventoryProjection;
+
+    /**
+     * Constructor for CatalogStreamService.
+     *
+     * @param databaseClient      the reactive client bound to the R2DBC connection factory.
+     * @param inventoryProjection the in-memory stock of each book, overriding the book rows.
+     */
+    @Autowired
+    public CatalogStreamService(DatabaseClient databaseClient, InventoryProjection inventoryProjection) {
+        this.databaseClient = databaseClient;
+        this.inventoryProjection = inventoryProjection;
+    }
+
+    /**
+     * Streams all books with their author, ordered by ID.
+     *
+     * @return a stream of books.
+     */
+    public Flux<BookDTO> streamBooks() {
+        return databaseClient.sql("SELECT b.book_id, b.isbn, b.title, b.publisher, b.published_year, b.status, "
+                        + "b.quantity, b.rate, b.description, a.author_id, a.first_name, a.last_name "
+                        + "FROM book b LEFT JOIN author a ON a.author_id = b.author_id ORDER BY b.book_id")
+                .map(CatalogStreamService::toBook)
+                .all()
+                .map(this::withCurrentStock);
+    }
+
+    /**
+     * Streams all authors, ordered by ID.
+     *
+     * @return a stream of authors.
+     */
+    public Flux<Author> streamAuthors() {
+        return databaseClient.sql("SELECT author_id, first_name, last_name FROM author ORDER BY author_id")
+                .map(CatalogStreamService::toAuthor)
+                .all();
+    }
+
+    /**
+     * Streams all genres, ordered by ID.
+     *
+     * @return a stream of genres.
+     */
+    public Flux<Genre> streamGenres() {
+        return databaseClient.sql("SELECT genre_id, type FROM genre ORDER BY genre_id")
+                .map(row -> {
+                    Genre genre = new Genre(row.get("type", String.class));
+                    genre.setGenreId(row.get("genre_id", Long.class));
+                    return genre;
+                })
+                .all();
+    }
+
+    /**
+     * Streams all comments, ordered by ID.
+     *
+     * @return a stream of comments.
+     */
+    public Flux<CommentDTO> streamComments() {
+        return databaseClient.sql("SELECT comment_id, book_id, comment_description, rating FROM comment ORDER BY comment_id")
+                .map(CatalogStreamService::toComment)
+                .all();
+    }
+
+    /**
+     * Streams the comments of a single book, ordered by ID.
+     *
+     * @param bookId the ID of the book.
+     * @return a stream of the book's comments, empty if the book has none or does not exist.
+     */
+    public Flux<CommentDTO> streamCommentsByBook(Long bookId) {
+        return databaseClient.sql("SELECT comment_id, book_id, comment_description, rating FROM comment "
+                        + "WHERE book_id = :bookId ORDER BY comment_id")
+                .bind("bookId", bookId)
+                .map(CatalogStreamService::toComment)
+                .all();
+    }
+
+    // The book row only catches up with the inventory ledger at each snapshot, the projection is current
+    private BookDTO withCurrentStock(BookDTO book) {
+        if (inventoryProjection.isTracked(book.getBook_id())) {
+            int available = inventoryProjection.getAvailable(book.getBook_id());
+            book.setQuantity(available);
+            book.setStatus(InventoryService.effectiveStatus(book.getStatus(), available));
+        }
+        return book;
+    }
+
+    // Maps a joined book/author row
+    private static BookDTO toBook(Readable row) {
+        BookDTO book = new BookDTO();
+        book.setBook_id(row.get("book_id", Long.class));
+        book.setISBN(row.get("isbn", String.class));
+        book.setTitle(row.get("title", String.class));
+        book.setPublisher(row.get("publisher", String.class));
+        book.setPublished_year(intOrZero(row.get("published_year", Integer.class)));
+        book.setStatus(row.get("status", String.class));
+        book.setQuantity(intOrZero(row.get("quantity", Integer.class)));
+        book.setRate(intOrZero(row.get("rate", Integer.class)));
+        book.setDescription(row.get("description", String.class));
+
+        // The author columns are null when the book has no author
+        if (row.get("author_id", Long.class) != null) {
+            book.setAuthor(toAuthor(row));
+        }
+        return book;
+    }
+
+    private static Author toAuthor(Readable row) {
+        Author author = new Author(row.get("first_name", String.class), row.get("last_name", String.class));
+        author.setAuthor_id(row.get("author_id", Long.class));
+        return author;
+    }
+
+    private static CommentDTO toComment(Readable row) {
+        CommentDTO comment = new CommentDTO();
+        comment.setId(row.get("comment_id", Long.class));
+        comment.setBookId(row.get("book_id", Long.class));
+        comment.setCommentDescription(row.get("comment_description", String.class));
+        comment.setRating(intOrZero(row.get("rating", Integer.class)));
+        return comment;
+    }
+
+    private static int intOrZero(Integer value) {
+        return value == null ? 0 : value;
+    }
+}
@@ -2,13 +2,18 @@ package com.csis231.api.service;
 
 import com.csis231.api.DTO.CommentDTO;
 import com.csis231.api.exception.ResourceNotFoundException;
+import com.csis231.api.model.Book;
 import com.csis231.api.model.Comment;
 import com.csis231.api.repository.BookRepository;
 import com.csis231.api.repository.CommentRepository;
+import com.csis231.api.repository.FieldProjectionRepository;
+import com.csis231.api.repository.VersionStamp;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -20,19 +25,33 @@ import java.util.stream.Collectors;
 @Service
 public class CommentService {
 
+    // Fields of the comment list that can be requested one by one, mapped to the attribute they are read from
+    private static final Map<String, String> LIST_FIELDS = new LinkedHashMap<>();
+
+    static {
+        LIST_FIELDS.put("id", "comment_id");
+        LIST_FIELDS.put("bookId", "book.book_id");
+        LIST_FIELDS.put("commentDescription", "comment_description");
+        LIST_FIELDS.put("rating", "rating");
+    }
+
     private final CommentRepository commentRepository;
     private final BookRepository bookRepository;
+    private final FieldProjectionRepository fieldProjectionRepository;
 
     /**
      * The constructor for the CommentService class.
      *
      * @param commentRepository The repository responsible for interacting with Comment data.
      * @param bookRepository The repository responsible for interacting with Book data.
+     * @param fieldProjectionRepository The repository selecting only the requested fields of comments.
      */
     @Autowired
-    public CommentService(CommentRepository commentRepository, BookRepository bookRepository) {
+    public CommentService(CommentRepository commentRepository, BookRepository bookRepository,
+                          FieldProjectionRepository fieldProjectionRepository) {
         this.commentRepository = commentRepository;
         this.bookRepository = bookRepository;
+        this.fieldProjectionRepository = fieldProjectionRepository;
     }
 
     /**
@@ -40,6 +59,7 @@ public class CommentService {
      *
      * @return a list of all comments.
      */
+    @Transactional(readOnly = true)
     public List<CommentDTO> getAllComments() {
         List<Comment> comments = commentRepository.findAll();
         return comments.stream()
@@ -47,6 +67,40 @@ public class CommentService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Retrieve only the requested fields of all comments, without loading the commented books.
+     *
+     * @param fields the comma-separated fields to return, e.g. {@code bookId,rating}.
+     * @return one map per comment, from field name to value.
+     * @throws IllegalArgumentException if a field is unknown.
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllComments(String fields) {
+        return fieldProjectionRepository.findFields(Comment.class, LIST_FIELDS,
+                FieldProjectionRepository.parseFields(fields, LIST_FIELDS));
+    }
+
+    /**
+     * Gets the version stamp of all comments, used to answer conditional requests without loading them.
+     *
+     * @return the number of comments and their latest modification time.
+     */
+    @Transactional(readOnly = true)
+    public VersionStamp getCommentsVersion() {
+        return commentRepository.findVersionStamp();
+    }
+
+    /**
+     * Gets the version stamp of a single comment.
+     *
+     * @param id the ID of the comment.
+     * @return the comment's modification time, with a total of 0 if the comment does not exist.
+     */
+    @Transactional(readOnly = true)
+    public VersionStamp getCommentVersion(Long id) {
+        return commentRepository.findVersionStampById(id);
+    }
+
     /**
      * Retrieve a specific comment by its ID.
      *
@@ -54,6 +108,7 @@ public class CommentService {
      * @return the found comment.
      * @throws ResourceNotFoundException if no comment with the given ID is found.
      */
+    @Transactional(readOnly = true)
     public CommentDTO getCommentById(Long id) {
         // Fetch the Comment entity by ID or throw an exception if not found
         Comment comment = commentRepository.findById(id)
@@ -76,7 +131,7 @@ public class CommentService {
         }
 
         // If a comment is found by id, it returns true, otherwise false
-        return commentRepository.findById(comment.getCommentId()).isPresent();
+        return commentRepository.existsById(comment.getCommentId());
     }
 
     /**
@@ -86,15 +141,11 @@ public class CommentService {
      * @return The saved Comment object after it has been persisted.
      * @throws IllegalArgumentException if the book associated with the comment does not exist.
      */
+    @Transactional
     public Comment createComment(Comment comment) {
-        // Check if the book associated with the comment exists in the repository
-        if ((bookRepository.findById(comment.getBook().getBook_id()) == null)) {
-            // If the book does not exist, throw an IllegalArgumentException
-            throw new IllegalArgumentException("Book does not exist");
-        }
-
-        // Retrieve the book from the repository to ensure it is a valid reference
-        comment.setBook(bookRepository.findById(comment.getBook().getBook_id()).get());
+        // Retrieve the book from the repository once, to ensure it exists and is a valid reference
+        comment.setBook(bookRepository.findDetailById(comment.getBook().getBook_id())
+                .orElseThrow(() -> new IllegalArgumentException("Book does not exist")));
 
         // Save the comment to the repository and return the saved comment
         return commentRepository.save(comment);
@@ -109,22 +160,22 @@ public class CommentService {
      * @throws ResourceNotFoundException If no comment is found with the given `id`.
      * @throws IllegalArgumentException If the book associated with the updated comment does not exist.
      */
+    @Transactional
     public Comment updateComment(Long id, Comment commentDetails) {
         // Fetch the existing comment to update by its ID
         Comment existingComment = commentRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Comment does not exist with id: " + id));
 
-        // Check if the book associated with the commentDetails exists in the repository
-        if (!(bookRepository.findById(commentDetails.getBook().getBook_id()).isPresent())) {
-            throw new IllegalArgumentException("Book does not exist");
-        }
+        // Retrieve the book associated with the commentDetails once, to ensure it exists
+        Book book = bookRepository.findDetailById(commentDetails.getBook().getBook_id())
+                .orElseThrow(() -> new IllegalArgumentException("Book does not exist"));
 
         // Update the existing comment with the new details provided in commentDetails.
         existingComment.setCommentDescription(commentDetails.getCommentDescription());
         existingComment.setRating(commentDetails.getRating());
 
-        // Retrieve the book from the repository to associate with the updated comment
-        existingComment.setBook(bookRepository.findById(commentDetails.getBook().getBook_id()).get());
+        // Associate the book with the updated comment
+        existingComment.setBook(book);
 
         // Save and return the updated comment
         return commentRepository.save(existingComment);
@@ -137,6 +188,7 @@ public class CommentService {
      * @return a map indicating the deletion status.
      * @throws ResourceNotFoundException if no comment with the given ID is found.
      */
+    @Transactional
     public Map<String, Boolean> deleteComment(Long id) {
         // Find the comment to delete
         Comment comment = commentRepository.findById(id)
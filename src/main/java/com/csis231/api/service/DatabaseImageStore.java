@@ -0,0 +1,89 @@
+package com.csis231.api.service;
+
+import com.csis231.api.model.ImageBlob;
+import com.csis231.api.repository.ImageBlobRepository;
+import org.hibernate.engine.jdbc.BlobProxy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+
+/**
+ * Image store backend keeping the bytes in the {@code image_blobs} table, as images always were.
+ * Bytes are streamed from the staged file into the insert and from the blob into the response, never held whole.
+ */
+@Component
+public class DatabaseImageStore implements ImageStore {
+
+    private final ImageBlobRepository imageBlobRepository;
+    private final TransactionTemplate readOnly;
+
+    /**
+     * Constructor for DatabaseImageStore.
+     *
+     * @param imageBlobRepository the repository of the bytes.
+     * @param transactionManager  the transaction manager, blobs being written to responses within a read-only transaction.
+     */
+    @Autowired
+    public DatabaseImageStore(ImageBlobRepository imageBlobRepository, PlatformTransactionManager transactionManager) {
+        this.imageBlobRepository = imageBlobRepository;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    @Override
+    public String getName() {
+        return "database";
+    }
+
+    @Override
+    public void save(String hash, Path staged) throws IOException {
+        if (imageBlobRepository.existsById(hash)) {
+            return;
+        }
+        // The stream is read when the insert is flushed, so flush before closing it
+        try (InputStream data = Files.newInputStream(staged)) {
+            imageBlobRepository.saveAndFlush(new ImageBlob(hash, BlobProxy.generateProxy(data, Files.size(staged))));
+        }
+    }
+
+    @Override
+    public InputStream open(String hash) throws IOException {
+        ImageBlob blob = imageBlobRepository.findById(hash)
+                .orElseThrow(() -> new NoSuchFileException("Image object not found: " + hash));
+        try {
+            return blob.getData().getBinaryStream();
+        } catch (SQLException e) {
+            throw new IOException("Could not read image object " + hash, e);
+        }
+    }
+
+    @Override
+    public void writeTo(String hash, OutputStream out) throws IOException {
+        try {
+            readOnly.executeWithoutResult(status -> {
+                try (InputStream data = open(hash)) {
+                    data.transferTo(out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public void delete(String hash) {
+        imageBlobRepository.deleteById(hash);
+    }
+}
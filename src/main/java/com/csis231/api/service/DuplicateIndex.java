@@ -0,0 +1,353 @@
+package com.csis231.api.service;
+
+import com.csis231.api.model.Author;
+import com.csis231.api.repository.AuthorRepository;
+import com.csis231.api.repository.BookRepository;
+import com.csis231.api.repository.BookTitleRow;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiPredicate;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-memory similarity index of author names and book titles, flagging likely duplicates such as
+ * "J.R.R. Tolkien" and "JRR Tolkien" that exact-match checks let through.
+ * Names and titles are normalized (case, accents, punctuation; name parts in any order; leading articles of titles)
+ * and compared by their character trigrams in a {@link MinHashIndex}. Two books are likely duplicates when their
+ * titles are similar and they have the same author or likely duplicate authors.
+ * Built at startup and kept current by {@link AuthorService} and {@link BookService} as changes commit.
+ */
+@Service
+public class DuplicateIndex {
+
+    private final AuthorRepository authorRepository;
+    private final BookRepository bookRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final double threshold;
+
+    // Everything below is guarded by lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final MinHashIndex authorIndex = new MinHashIndex();
+    private final MinHashIndex titleIndex = new MinHashIndex();
+    private final Map<Integer, String[]> authorNames = new HashMap<>();
+    private final Map<Integer, String> titles = new HashMap<>();
+    private final Map<Integer, Integer> bookAuthors = new HashMap<>();
+
+    /**
+     * Constructor for DuplicateIndex.
+     *
+     * @param authorRepository   the repository of the authors loaded at startup.
+     * @param bookRepository     the repository streaming the book titles at startup.
+     * @param transactionManager the transaction manager, everything being read within a read-only transaction.
+     * @param threshold          the similarity from which two names or titles are likely duplicates, from 0 to 1.
+     */
+    @Autowired
+    public DuplicateIndex(AuthorRepository authorRepository, BookRepository bookRepository,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${library.duplicates.threshold:0.8}") double threshold) {
+        if (threshold <= 0 || threshold > 1) {
+            throw new IllegalArgumentException("library.duplicates.threshold must be above 0 and at most 1.");
+        }
+        this.authorRepository = authorRepository;
+        this.bookRepository = bookRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.threshold = threshold;
+    }
+
+    /**
+     * Normalizes an author name: lower case, accents and punctuation dropped, name parts sorted and joined,
+     * so "J.R.R. Tolkien", "JRR Tolkien" and "Tolkien, J. R. R." all read "jrrtolkien".
+     *
+     * @param firstName the first name, may be null.
+     * @param lastName  the last name, may be null.
+     * @return the normalized name.
+     */
+    static String authorKey(String firstName, String lastName) {
+        return Arrays.stream(words(firstName + " " + lastName)).sorted().collect(Collectors.joining());
+    }
+
+    /**
+     * Normalizes a book title: lower case, accents and punctuation dropped, a leading "the", "a" or "an" left out.
+     *
+     * @param title the title, may be null.
+     * @return the normalized title.
+     */
+    static String titleKey(String title) {
+        String[] words = words(title);
+        int first = words.length > 1 && (words[0].equals("the") || words[0].equals("a") || words[0].equals("an")) ? 1 : 0;
+        return String.join("", Arrays.copyOfRange(words, first, words.length));
+    }
+
+    private static String[] words(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("[^\\p{L}\\p{N}\\s]+", "")
+                .trim();
+        return folded.isEmpty() ? new String[0] : folded.split("\\s+");
+    }
+
+    /**
+     * Rebuilds the index from the authors and the book titles.
+     */
+    @PostConstruct
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            authorIndex.clear();
+            titleIndex.clear();
+            authorNames.clear();
+            titles.clear();
+            bookAuthors.clear();
+            readOnlyTransaction.executeWithoutResult(status -> {
+                for (Author author : authorRepository.findAll()) {
+                    addAuthor(Math.toIntExact(author.getAuthor_id()), author.getFirstName(), author.getLastName());
+                }
+                try (Stream<BookTitleRow> books = bookRepository.streamTitleRows()) {
+                    books.forEach(book -> addBook(Math.toIntExact(book.getBookId()), book.getAuthorId(), book.getTitle()));
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes a created or renamed author.
+     *
+     * @param authorId  the ID of the author.
+     * @param firstName their first name.
+     * @param lastName  their last name.
+     */
+    public void putAuthor(long authorId, String firstName, String lastName) {
+        lock.writeLock().lock();
+        try {
+            addAuthor(Math.toIntExact(authorId), firstName, lastName);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a deleted author from the index.
+     *
+     * @param authorId the ID of the author.
+     */
+    public void removeAuthor(long authorId) {
+        int id = Math.toIntExact(authorId);
+        lock.writeLock().lock();
+        try {
+            authorIndex.remove(id);
+            authorNames.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes a created or updated book.
+     *
+     * @param bookId   the ID of the book.
+     * @param authorId the ID of its author, may be null.
+     * @param title    its title.
+     */
+    public void putBook(long bookId, Long authorId, String title) {
+        lock.writeLock().lock();
+        try {
+            addBook(Math.toIntExact(bookId), authorId, title);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a deleted book from the index.
+     *
+     * @param bookId the ID of the book.
+     */
+    public void removeBook(long bookId) {
+        int id = Math.toIntExact(bookId);
+        lock.writeLock().lock();
+        try {
+            titleIndex.remove(id);
+            titles.remove(id);
+            bookAuthors.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the authors whose name is likely a duplicate of the given one.
+     *
+     * @param authorId  the ID of the author to leave out, e.g. the one just created, or null.
+     * @param firstName the first name.
+     * @param lastName  the last name.
+     * @return the ID, first name, last name and similarity of each likely duplicate, most similar first.
+     */
+    public List<Map<String, Object>> findSimilarAuthors(Long authorId, String firstName, String lastName) {
+        lock.readLock().lock();
+        try {
+            List<Map<String, Object>> duplicates = new ArrayList<>();
+            for (MinHashIndex.Match match : authorIndex.similar(authorKey(firstName, lastName), threshold, exclude(authorId))) {
+                Map<String, Object> duplicate = authorEntry(match.getId());
+                duplicate.put("similarity", round(match.getSimilarity()));
+                duplicates.add(duplicate);
+            }
+            return duplicates;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the books likely duplicates of the given one: a similar title by the same or a likely duplicate author.
+     *
+     * @param bookId   the ID of the book to leave out, e.g. the one just created, or null.
+     * @param authorId the ID of its author, may be null.
+     * @param title    its title.
+     * @return the ID, title, author ID and title similarity of each likely duplicate, most similar first.
+     */
+    public List<Map<String, Object>> findSimilarBooks(Long bookId, Long authorId, String title) {
+        Integer author = authorId == null ? null : Math.toIntExact(authorId);
+        lock.readLock().lock();
+        try {
+            List<Map<String, Object>> duplicates = new ArrayList<>();
+            for (MinHashIndex.Match match : titleIndex.similar(titleKey(title), threshold, exclude(bookId))) {
+                if (sameOrSimilarAuthor(author, bookAuthors.get(match.getId()))) {
+                    Map<String, Object> duplicate = bookEntry(match.getId());
+                    duplicate.put("similarity", round(match.getSimilarity()));
+                    duplicates.add(duplicate);
+                }
+            }
+            return duplicates;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds every pair of likely duplicate authors, comparing each author with the whole catalog in parallel.
+     *
+     * @return each pair once, as the two authors and their similarity, the lower author ID first.
+     */
+    public List<Map<String, Object>> findDuplicateAuthors() {
+        return findPairs(authorIndex, (first, second) -> true, this::authorEntry);
+    }
+
+    /**
+     * Finds every pair of likely duplicate books, comparing each book with the whole catalog in parallel.
+     *
+     * @return each pair once, as the two books and their title similarity, the lower book ID first.
+     */
+    public List<Map<String, Object>> findDuplicateBooks() {
+        return findPairs(titleIndex, (first, second) -> sameOrSimilarAuthor(bookAuthors.get(first), bookAuthors.get(second)),
+                this::bookEntry);
+    }
+
+    // Each ID is compared on the common fork-join pool, under the read lock taken by every worker
+    private List<Map<String, Object>> findPairs(MinHashIndex index, BiPredicate<Integer, Integer> filter,
+                                               IntFunction<Map<String, Object>> entry) {
+        int[] ids;
+        lock.readLock().lock();
+        try {
+            ids = index.ids();
+        } finally {
+            lock.readLock().unlock();
+        }
+        Arrays.sort(ids);
+
+        return Arrays.stream(ids).parallel().boxed().flatMap(id -> {
+            lock.readLock().lock();
+            try {
+                List<Map<String, Object>> pairs = new ArrayList<>();
+                for (MinHashIndex.Match match : index.similarTo(id, threshold)) {
+                    if (match.getId() > id && filter.test(id, match.getId())) {
+                        Map<String, Object> pair = new LinkedHashMap<>();
+                        pair.put("first", entry.apply(id));
+                        pair.put("second", entry.apply(match.getId()));
+                        pair.put("similarity", round(match.getSimilarity()));
+                        pairs.add(pair);
+                    }
+                }
+                return pairs.stream();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }).toList();
+    }
+
+    // Callers hold the lock; books by unknown authors are only compared with each other
+    private boolean sameOrSimilarAuthor(Integer first, Integer second) {
+        if (first == null || second == null) {
+            return first == null && second == null;
+        }
+        return first.equals(second) || authorIndex.similarity(first, second) >= threshold;
+    }
+
+    // Callers hold the lock
+    private Map<String, Object> authorEntry(int id) {
+        String[] name = authorNames.get(id);
+        Map<String, Object> author = new LinkedHashMap<>();
+        author.put("author_id", (long) id);
+        author.put("firstName", name[0]);
+        author.put("lastName", name[1]);
+        return author;
+    }
+
+    // Callers hold the lock
+    private Map<String, Object> bookEntry(int id) {
+        Integer authorId = bookAuthors.get(id);
+        Map<String, Object> book = new LinkedHashMap<>();
+        book.put("book_id", (long) id);
+        book.put("title", titles.get(id));
+        book.put("author_id", authorId == null ? null : (long) authorId);
+        return book;
+    }
+
+    // Callers hold the write lock
+    private void addAuthor(int id, String firstName, String lastName) {
+        authorNames.put(id, new String[]{firstName, lastName});
+        authorIndex.put(id, authorKey(firstName, lastName));
+    }
+
+    // Callers hold the write lock
+    private void addBook(int id, Long authorId, String title) {
+        titles.put(id, title);
+        if (authorId != null) {
+            bookAuthors.put(id, Math.toIntExact(authorId));
+        } else {
+            bookAuthors.remove(id);
+        }
+        titleIndex.put(id, titleKey(title));
+    }
+
+    private static int exclude(Long id) {
+        return id == null ? -1 : Math.toIntExact(id);
+    }
+
+    private static double round(double similarity) {
+        return Math.round(similarity * 1000) / 1000.0;
+    }
+}
@@ -0,0 +1,121 @@
+package com.csis231.api.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Background job listing every pair of likely duplicate authors and books in the catalog,
+ * on the {@code library.duplicates.report-cron} schedule. Each author and book is compared with the whole catalog
+ * through the {@link DuplicateIndex}, spread over all cores; the last report is kept for the librarians to review.
+ * Until the first report is ready, an empty report marked as pending is returned, and the first request for it
+ * starts one in the background: the comparison never runs on a request thread.
+ */
+@Component
+public class DuplicateReportJob {
+
+    private final DuplicateIndex duplicateIndex;
+    private final Executor executor;
+    private final AtomicBoolean firstRunStarted = new AtomicBoolean();
+
+    private volatile Report lastReport;
+
+    /**
+     * Constructor for DuplicateReportJob.
+     *
+     * @param duplicateIndex the index comparing names and titles.
+     * @param meterRegistry  the registry the number of duplicate pairs is published to.
+     * @param executor       the application task executor, running the first report when it is first asked for.
+     */
+    @Autowired
+    public DuplicateReportJob(DuplicateIndex duplicateIndex, MeterRegistry meterRegistry,
+                              @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor executor) {
+        this.duplicateIndex = duplicateIndex;
+        this.executor = executor;
+        Gauge.builder("library.duplicates.pairs", this, job -> job.lastReport == null ? 0 : job.lastReport.authors.size())
+                .description("Pairs of likely duplicate authors in the last report")
+                .tag("kind", "author")
+                .register(meterRegistry);
+        Gauge.builder("library.duplicates.pairs", this, job -> job.lastReport == null ? 0 : job.lastReport.books.size())
+                .description("Pairs of likely duplicate books in the last report")
+                .tag("kind", "book")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Compares the whole catalog and keeps the result as the last report.
+     *
+     * @return the number of likely duplicate pairs found, authors and books together.
+     */
+    @Scheduled(cron = "${library.duplicates.report-cron:0 0 4 * * *}")
+    public int runReport() {
+        Report report = new Report(LocalDateTime.now(), duplicateIndex.findDuplicateAuthors(), duplicateIndex.findDuplicateBooks());
+        lastReport = report;
+        return report.authors.size() + report.books.size();
+    }
+
+    /**
+     * Gets the likely duplicate authors of the last report, or an empty pending report if none is ready yet.
+     *
+     * @return the status and time of the report and its pairs of authors.
+     */
+    public Map<String, Object> getAuthorReport() {
+        Report report = current();
+        return report == null ? toResponse(null, List.of()) : toResponse(report.generatedAt, report.authors);
+    }
+
+    /**
+     * Gets the likely duplicate books of the last report, or an empty pending report if none is ready yet.
+     *
+     * @return the status and time of the report and its pairs of books.
+     */
+    public Map<String, Object> getBookReport() {
+        Report report = current();
+        return report == null ? toResponse(null, List.of()) : toResponse(report.generatedAt, report.books);
+    }
+
+    // The last report, or null if none is ready yet, in which case the first one is started in the background
+    private Report current() {
+        Report report = lastReport;
+        if (report == null && firstRunStarted.compareAndSet(false, true)) {
+            executor.execute(this::runReport);
+        }
+        return report;
+    }
+
+    private static Map<String, Object> toResponse(LocalDateTime generatedAt, List<Map<String, Object>> pairs) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("status", generatedAt == null ? "PENDING" : "READY");
+        response.put("generated_at", generatedAt == null ? null : generatedAt.toString());
+        response.put("total", pairs.size());
+        response.put("pairs", pairs);
+        return response;
+    }
+
+    /**
+     * A report: when it was run and the pairs of likely duplicates it found.
+     */
+    private static final class Report {
+
+        private final LocalDateTime generatedAt;
+        private final List<Map<String, Object>> authors;
+        private final List<Map<String, Object>> books;
+
+        Report(LocalDateTime generatedAt, List<Map<String, Object>> authors, List<Map<String, Object>> books) {
+            this.generatedAt = generatedAt;
+            this.authors = authors;
+            this.books = books;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.csis231.api.service;
+
+import org.apache.catalina.connector.CoyoteOutputStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+/**
+ * Image store backend keeping the bytes as files under {@code library.images.store.directory},
+ * fanned out by the first bytes of their hash ({@code ab/cd/abcd...}) so no directory grows too large.
+ * Files are linked or written next to their final name and renamed into place, so a file under a hash is always whole.
+ * They are written to responses from memory-mapped windows, or with {@link FileChannel#transferTo}
+ * outside of Tomcat, so the bytes are not copied through the heap.
+ */
+@Component
+public class FileSystemImageStore implements ImageStore {
+
+    private static final long MAP_WINDOW = 16 * 1024 * 1024;
+
+    private final Path directory;
+
+    /**
+     * Constructor for FileSystemImageStore.
+     *
+     * @param directory the root directory of the files, created on the first save.
+     */
+    @Autowired
+    public FileSystemImageStore(@Value("${library.images.store.directory:images}") Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public String getName() {
+        return "filesystem";
+    }
+
+    @Override
+    public void save(String hash, Path staged) throws IOException {
+        Path target = path(hash);
+        if (Files.exists(target)) {
+            return;
+        }
+        Files.createDirectories(target.getParent());
+        Path partial = target.resolveSibling(hash + "." + UUID.randomUUID() + ".partial");
+        try {
+            // A staged file on the same filesystem is linked rather than copied
+            try {
+                Files.createLink(partial, staged);
+            } catch (IOException | UnsupportedOperationException e) {
+                Files.copy(staged, partial);
+            }
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    @Override
+    public InputStream open(String hash) throws IOException {
+        return Files.newInputStream(path(hash));
+    }
+
+    @Override
+    public void writeTo(String hash, OutputStream out) throws IOException {
+        try (FileChannel file = FileChannel.open(path(hash), StandardOpenOption.READ)) {
+            long size = file.size();
+            if (out instanceof CoyoteOutputStream coyote) {
+                // Hand the mapped pages to the connector window by window
+                for (long position = 0; position < size; position += MAP_WINDOW) {
+                    coyote.write(file.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW, size - position)));
+                }
+            } else {
+                WritableByteChannel channel = Channels.newChannel(out);
+                for (long position = 0; position < size; ) {
+                    position += file.transferTo(position, size - position, channel);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void delete(String hash) throws IOException {
+        Files.deleteIfExists(path(hash));
+    }
+
+    /**
+     * Gets the file holding the bytes of an object.
+     *
+     * @param hash the SHA-256 hash of the bytes.
+     * @return the path of the file, which may not exist.
+     */
+    public Path path(String hash) {
+        return directory.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+}
@@ -7,10 +7,12 @@ import com.csis231.api.exception.NoFineRequiredException;
 import com.csis231.api.exception.ResourceNotFoundException;
 import com.csis231.api.model.Fine;
 import com.csis231.api.model.Transaction;
+import com.csis231.api.repository.ArchivedFineRepository;
 import com.csis231.api.repository.FineRepository;
 import com.csis231.api.repository.TransactionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -18,17 +20,20 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service class responsible for handling business logic related to Fines.
  * Provides CRUD operations for managing fines in the system.
  */
 @Service
+@Transactional
 public class FineService {
 
     private final FineRepository fineRepository;
     private final TransactionRepository transactionRepository;
     private final NotificationService notificationService; // Lazy injection
+    private final ArchivedFineRepository archivedFineRepository;
 
 
     /**
@@ -37,17 +42,19 @@ public class FineService {
      * @param fineRepository the repository to interact with the Fine database for CRUD operations.
      * @param transactionRepository the repository to interact with the Transaction database for CRUD operations.
      * @param notificationService the service to handle notifications related to fines or transactions.
+     * @param archivedFineRepository the repository of settled fines moved to the archive with their transaction.
      */
     @Autowired
     public FineService(FineRepository fineRepository, TransactionRepository transactionRepository,
-                       NotificationService notificationService) {
+                       NotificationService notificationService, ArchivedFineRepository archivedFineRepository) {
         this.fineRepository = fineRepository;
         this.transactionRepository = transactionRepository;
         this.notificationService = notificationService;
+        this.archivedFineRepository = archivedFineRepository;
     }
 
     /**
-     * Retrieves all fines from the database and returns them as a list of Data Transfer Objects (DTOs).
+     * Retrieves all fines from the database, current and archived, and returns them as a list of Data Transfer Objects (DTOs).
      *
      * @return A list of `FineDTO` objects, each representing a fine in the database.
      */
@@ -55,9 +62,10 @@ public class FineService {
         // Retrieve all Fine entities from the repository
         List<Fine> fines = fineRepository.findAll();
 
-        // Convert each Fine to FineDTO and return the list
-        return fines.stream()
-                .map(FineDTO::new)
+        // Convert each Fine to FineDTO and return the list, including archived fines
+        return Stream.concat(
+                        archivedFineRepository.findAll().stream().map(FineDTO::new),
+                        fines.stream().map(FineDTO::new))
                 .collect(Collectors.toList());
     }
 
@@ -69,13 +77,12 @@ public class FineService {
      * @throws ResourceNotFoundException if the fine with the specified ID does not exist.
      */
     public FineDTO getFineById(Long id) {
-        // Fetch the Fine entity by ID or throw an exception if the fine is not found
-        Fine fine = fineRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Fine not found with id: " + id));
-
-        // Convert the Fine entity to FineDTO
+        // Fetch the Fine entity by ID, falling back to the archive, or throw an exception if the fine is not found
         // FineDTO is a Data Transfer Object (DTO) containing a simplified version of the Fine entity
-        return new FineDTO(fine);
+        return fineRepository.findById(id)
+                .map(FineDTO::new)
+                .or(() -> archivedFineRepository.findById(id).map(FineDTO::new))
+                .orElseThrow(() -> new ResourceNotFoundException("Fine not found with id: " + id));
     }
 
     /**
@@ -91,7 +98,7 @@ public class FineService {
         }
 
         // Check if the fine with the given ID exists in the repository
-        return fineRepository.findById(fine.getId()).isPresent();
+        return fineRepository.existsById(fine.getId());
     }
 
     /**
@@ -0,0 +1,179 @@
+package com.csis231.api.service;
+
+import com.csis231.api.repository.BookGenreLink;
+import com.csis231.api.repository.BookRepository;
+import jakarta.annotation.PostConstruct;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index of the books of each genre, as compressed bitmaps of book IDs.
+ * Boolean combinations of genres ("fantasy AND young-adult NOT horror") and the number of matching books
+ * in each genre are answered with bitmap operations instead of joins on {@code bookgenres}.
+ * Built from the join table at startup and kept current by {@link BookService} as changes commit.
+ * Reads share a read lock; writes, far less frequent, update the bitmaps in place under the write lock.
+ */
+@Service
+public class GenreIndex {
+
+    private static final RoaringBitmap EMPTY = new RoaringBitmap();
+
+    private final BookRepository bookRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    // Everything below is guarded by lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RoaringBitmap books = new RoaringBitmap();
+    private final Map<Long, RoaringBitmap> byGenre = new HashMap<>();
+
+    /**
+     * Constructor for GenreIndex.
+     *
+     * @param bookRepository     the repository streaming the book-genre links at startup.
+     * @param transactionManager the transaction manager, the stream being read within a read-only transaction.
+     */
+    @Autowired
+    public GenreIndex(BookRepository bookRepository, PlatformTransactionManager transactionManager) {
+        this.bookRepository = bookRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Rebuilds the index with one streaming pass over the books and their genres.
+     */
+    @PostConstruct
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            books.clear();
+            byGenre.clear();
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<BookGenreLink> links = bookRepository.streamGenreLinks()) {
+                    links.forEach(link -> {
+                        int bookId = Math.toIntExact(link.getBookId());
+                        books.add(bookId);
+                        if (link.getGenreId() != null) {
+                            byGenre.computeIfAbsent(link.getGenreId(), genreId -> new RoaringBitmap()).add(bookId);
+                        }
+                    });
+                }
+            });
+            byGenre.values().forEach(RoaringBitmap::runOptimize);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sets the genres of a book, replacing the ones it had.
+     *
+     * @param bookId   the ID of the book.
+     * @param genreIds the IDs of its genres.
+     */
+    public void put(long bookId, Collection<Long> genreIds) {
+        int id = Math.toIntExact(bookId);
+        lock.writeLock().lock();
+        try {
+            byGenre.forEach((genreId, genreBooks) -> {
+                if (!genreIds.contains(genreId)) {
+                    genreBooks.remove(id);
+                }
+            });
+            for (Long genreId : genreIds) {
+                byGenre.computeIfAbsent(genreId, key -> new RoaringBitmap()).add(id);
+            }
+            books.add(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a deleted book from the index.
+     *
+     * @param bookId the ID of the book.
+     */
+    public void remove(long bookId) {
+        int id = Math.toIntExact(bookId);
+        lock.writeLock().lock();
+        try {
+            byGenre.values().forEach(genreBooks -> genreBooks.remove(id));
+            books.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the books matching a combination of genres.
+     * A genre listed in {@code allOf} but unknown to the index matches no book.
+     *
+     * @param allOf  genres the books must all have; empty for no constraint.
+     * @param anyOf  genres the books must have at least one of; empty for no constraint.
+     * @param noneOf genres the books must not have.
+     * @return the IDs of the matching books, a new bitmap the caller may modify.
+     */
+    public RoaringBitmap match(Collection<Long> allOf, Collection<Long> anyOf, Collection<Long> noneOf) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result = books.clone();
+            for (Long genreId : allOf) {
+                result.and(genre(genreId));
+            }
+            if (!anyOf.isEmpty()) {
+                RoaringBitmap any = new RoaringBitmap();
+                for (Long genreId : anyOf) {
+                    any.or(genre(genreId));
+                }
+                result.and(any);
+            }
+            for (Long genreId : noneOf) {
+                result.andNot(genre(genreId));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts, for each genre, how many of the given books it has, without materializing any intersection.
+     *
+     * @param books the IDs of the books, e.g. the result of {@link #match}.
+     * @return the number of books per genre ID, genres without any of the books left out.
+     */
+    public Map<Long, Integer> countByGenre(RoaringBitmap books) {
+        Map<Long, Integer> counts = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            byGenre.entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .forEach(entry -> {
+                        int count = RoaringBitmap.andCardinality(entry.getValue(), books);
+                        if (count > 0) {
+                            counts.put(entry.getKey(), count);
+                        }
+                    });
+        } finally {
+            lock.readLock().unlock();
+        }
+        return counts;
+    }
+
+    // Callers hold the lock
+    private RoaringBitmap genre(Long genreId) {
+        return byGenre.getOrDefault(genreId, EMPTY);
+    }
+}
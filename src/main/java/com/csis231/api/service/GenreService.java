@@ -1,16 +1,21 @@
 package com.csis231.api.service;
 
 import com.csis231.api.exception.ResourceNotFoundException;
-import com.csis231.api.model.Book;
 import com.csis231.api.model.Genre;
 import com.csis231.api.repository.BookRepository;
 import com.csis231.api.repository.GenreRepository;
+import com.csis231.api.repository.VersionStamp;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Service class responsible for handling business logic related to Genres.
@@ -21,17 +26,20 @@ public class GenreService {
 
     private final GenreRepository genreRepository;
     private final BookRepository bookRepository;
+    private final BookJsonCache bookJsonCache;
 
     /**
      * Constructor for the GenreService class.
      *
      * @param genreRepository the repository for accessing genre data.
      * @param bookRepository  the repository for accessing book data.
+     * @param bookJsonCache   the cache of pre-rendered books, which embed their genres.
      */
     @Autowired
-    public GenreService(GenreRepository genreRepository, BookRepository bookRepository) {
+    public GenreService(GenreRepository genreRepository, BookRepository bookRepository, BookJsonCache bookJsonCache) {
         this.genreRepository = genreRepository;
         this.bookRepository = bookRepository;
+        this.bookJsonCache = bookJsonCache;
     }
 
     /**
@@ -39,11 +47,33 @@ public class GenreService {
      *
      * @return List of genres.
      */
+    @Transactional(readOnly = true)
     public List<Genre> getAllGenres() {
         // Retrieves a list of all genres from the database
         return genreRepository.findAll();
     }
 
+    /**
+     * Gets the version stamp of all genres, used to answer conditional requests without loading them.
+     *
+     * @return the number of genres and their latest modification time.
+     */
+    @Transactional(readOnly = true)
+    public VersionStamp getGenresVersion() {
+        return genreRepository.findVersionStamp();
+    }
+
+    /**
+     * Gets the version stamp of a single genre.
+     *
+     * @param id the ID of the genre.
+     * @return the genre's modification time, with a total of 0 if the genre does not exist.
+     */
+    @Transactional(readOnly = true)
+    public VersionStamp getGenreVersion(Long id) {
+        return genreRepository.findVersionStampById(id);
+    }
+
     /**
      * Get a specific genre by their ID.
      *
@@ -51,6 +81,7 @@ public class GenreService {
      * @return the found genre.
      * @throws ResourceNotFoundException if the genre is not found.
      */
+    @Transactional(readOnly = true)
     public Genre getGenreById(Long id) {
         // Fetch the transaction entity by ID or throw an exception if not found
         return genreRepository.findById(id)
@@ -63,6 +94,7 @@ public class GenreService {
      * @param genre the genre to create.
      * @return the saved genre.
      */
+    @Transactional
     public Genre createGenre(Genre genre) {
         // Check if the genre already exists by id
         if (doesGenreExist(genre.getType())) {
@@ -79,15 +111,49 @@ public class GenreService {
      * @return true if the genre exists, false otherwise
      */
     public boolean doesGenreExist(String type) {
-        return genreRepository.findByType(type).isPresent();
+        return genreRepository.existsByType(type);
     }
 
+    /**
+     * Checks if all the given genres exist, in a single query reading only their IDs.
+     *
+     * @param genreIds the genre IDs to check, duplicates allowed.
+     * @return true if every genre exists, false otherwise.
+     */
     public boolean doesGenreExistManyGenres(List<Long> genreIds) {
-        // Check if all genre IDs exist in the database
-        List<Genre> genres = genreRepository.findAllById(genreIds);
+        return findMissingGenreId(genreIds) == null;
+    }
 
-        // If the number of genres retrieved matches the number of genre IDs, then all genres exist
-        return genres.size() == genreIds.size();
+    /**
+     * Retrieves the given genres in a single query.
+     *
+     * @param genreIds the genre IDs, duplicates allowed.
+     * @return the genres, in no particular order, each once.
+     * @throws ResourceNotFoundException if any of the genres does not exist.
+     */
+    @Transactional(readOnly = true)
+    public List<Genre> getGenresByIds(List<Long> genreIds) {
+        List<Genre> genres = genreRepository.findAllById(new LinkedHashSet<>(genreIds));
+        if (genres.size() < new HashSet<>(genreIds).size()) {
+            Set<Long> found = genres.stream().map(Genre::getGenreId).collect(Collectors.toSet());
+            Long missing = genreIds.stream().filter(id -> !found.contains(id)).findFirst().orElse(null);
+            throw new ResourceNotFoundException("Genre does not exist with id: " + missing);
+        }
+        return genres;
+    }
+
+    /**
+     * Finds the first of the given genres that does not exist, reading only the IDs of the existing ones.
+     *
+     * @param genreIds the genre IDs to check, duplicates allowed.
+     * @return the first ID with no genre, in list order, or null if every genre exists.
+     */
+    public Long findMissingGenreId(List<Long> genreIds) {
+        if (genreIds.isEmpty()) {
+            return null;
+        }
+        Set<Long> existing = new HashSet<>(genreRepository.findExistingIds(new LinkedHashSet<>(genreIds)));
+        return genreIds.stream().filter(id -> !existing.contains(id)).findFirst().orElse(null);
     }
 
     /**
@@ -99,6 +165,7 @@ public class GenreService {
      * @throws ResourceNotFoundException if the genre with the specified ID is not found.
      * @throws IllegalArgumentException if a genre with the new type already exists.
      */
+    @Transactional
     public Genre updateGenre(Long id, Genre genreDetails) {
         // Fetch the genre from the repository by its ID. If not found, throw ResourceNotFoundException
         Genre existingGenre = genreRepository.findById(id)
@@ -112,8 +179,12 @@ public class GenreService {
         // Update the genre's type to the new type provided in genreDetails
         existingGenre.setType(genreDetails.getType());
 
-        // Save the updated genre back to the repository and return it
-        return genreRepository.save(existingGenre);
+        // Save the updated genre back to the repository
+        Genre updatedGenre = genreRepository.save(existingGenre);
+
+        // Books embed their genres, so their cached JSON is outdated once this commits
+        AfterCommit.run(bookJsonCache::invalidateAll);
+        return updatedGenre;
     }
 
     /**
@@ -124,14 +195,14 @@ public class GenreService {
      * @throws ResourceNotFoundException if the genre with the given ID is not found.
      * @throws IllegalArgumentException if the genre is associated with one or more books and cannot be deleted.
      */
+    @Transactional
     public Map<String, Boolean> deleteGenre(Long id) {
         // Retrieve the genre from the repository by its ID. If not found, throw ResourceNotFoundException
         Genre genre = genreRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Genre not found with id: " + id));
 
-        // Check if the genre is associated with any books
-        List<Book> booksWithGenre = bookRepository.findByGenreId(id);
-        if (!booksWithGenre.isEmpty()) {
+        // Check if the genre is associated with any books, reading at most one book ID
+        if (bookRepository.existsByGenreId(id)) {
             throw new IllegalArgumentException("Genre is associated with one or more books and cannot be deleted.");
         }
 
@@ -0,0 +1,35 @@
+package com.csis231.api.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Background job deleting the expired Idempotency-Key records on the {@code library.idempotency.purge-interval},
+ * keeping the {@code idempotency_record} table bounded.
+ */
+@Component
+public class IdempotencyPurgeJob {
+
+    private final IdempotencyStore idempotencyStore;
+
+    /**
+     * Constructor for IdempotencyPurgeJob.
+     *
+     * @param idempotencyStore the store whose expired records are deleted.
+     */
+    @Autowired
+    public IdempotencyPurgeJob(IdempotencyStore idempotencyStore) {
+        this.idempotencyStore = idempotencyStore;
+    }
+
+    /**
+     * Deletes the expired records.
+     *
+     * @return the number of records deleted.
+     */
+    @Scheduled(fixedDelayString = "${library.idempotency.purge-interval:PT10M}")
+    public int purgeExpired() {
+        return idempotencyStore.purgeExpired();
+    }
+}
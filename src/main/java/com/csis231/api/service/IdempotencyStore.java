@@ -0,0 +1,166 @@
+package com.csis231.api.service;
+
+import com.csis231.api.model.IdempotencyRecord;
+import com.csis231.api.repository.IdempotencyRecordRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Store of the requests made with an {@code Idempotency-Key} header and of their responses.
+ * Retries are answered from a bounded in-memory cache; the {@code idempotency_record} table is the
+ * fallback shared by every node, and decides which request owns a key when two arrive at once.
+ * Keys expire after {@code library.idempotency.ttl}. A request holds its key for {@code library.idempotency.lease}:
+ * past that, a retry takes the key over, so a request whose node died does not block its key until it expires.
+ * Each claim carries the random token of its request, and only the request holding the key may complete or release
+ * it: a request that was taken over finds its key gone and leaves the record of the retry alone.
+ */
+@Service
+public class IdempotencyStore {
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final Cache<String, IdempotencyRecord> records;
+    private final Duration ttl;
+    private final Duration lease;
+
+    /**
+     * Constructor for IdempotencyStore.
+     *
+     * @param idempotencyRecordRepository the repository of records shared between nodes.
+     * @param ttl                         how long a key is remembered.
+     * @param lease                       how long a running request holds its key before a retry may take it over.
+     * @param maximumSize                 the maximum number of records kept in memory.
+     * @param meterRegistry               the registry the cache statistics are published to.
+     */
+    @Autowired
+    public IdempotencyStore(IdempotencyRecordRepository idempotencyRecordRepository,
+                            @Value("${library.idempotency.ttl:PT24H}") Duration ttl,
+                            @Value("${library.idempotency.lease:PT30S}") Duration lease,
+                            @Value("${library.idempotency.maximum-size:10000}") long maximumSize,
+                            MeterRegistry meterRegistry) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.ttl = ttl;
+        this.lease = lease;
+        this.records = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, records, "idempotency");
+    }
+
+    /**
+     * Claims a key for a request.
+     *
+     * @param key         the Idempotency-Key sent by the client.
+     * @param fingerprint the hash of the request.
+     * @param owner       a random token of the request, passed again to {@link #complete} or {@link #release}.
+     * @return empty if the request claimed the key, or took over a claim past its lease, and must run;
+     * otherwise the record of the request that claimed it first, completed or still in progress.
+     */
+    public Optional<IdempotencyRecord> begin(String key, String fingerprint, String owner) {
+        // Fast path: a retry of a request this node has seen, unless its claim may have lapsed
+        IdempotencyRecord cached = records.getIfPresent(key);
+        if (cached != null && !isLapsed(cached)) {
+            return Optional.of(cached);
+        }
+
+        // The database decides which of concurrent requests owns the key, across nodes
+        for (int attempt = 0; attempt < 2; attempt++) {
+            IdempotencyRecord claimed = new IdempotencyRecord(key, fingerprint, owner, LocalDateTime.now().plus(ttl));
+            try {
+                idempotencyRecordRepository.saveAndFlush(claimed);
+                records.put(key, claimed);
+                return Optional.empty();
+            } catch (DataIntegrityViolationException e) {
+                Optional<IdempotencyRecord> existing = idempotencyRecordRepository.findById(key);
+                if (existing.isEmpty()) {
+                    continue; // Released in the meantime, claim it again
+                }
+                if (existing.get().getExpiresAt().isBefore(LocalDateTime.now())) {
+                    // Expired but not purged yet: the key is free again
+                    idempotencyRecordRepository.deleteByKey(key);
+                    continue;
+                }
+                if (existing.get().getStatus() == IdempotencyRecord.Status.COMPLETED) {
+                    records.put(key, existing.get());
+                } else if (isLapsed(existing.get()) && takeOver(key, fingerprint, owner)) {
+                    return Optional.empty();
+                }
+                return existing;
+            }
+        }
+        throw new IllegalStateException("Could not claim Idempotency-Key: " + key);
+    }
+
+    // Checks whether a request still in progress has held its key for longer than the lease
+    private boolean isLapsed(IdempotencyRecord record) {
+        return record.getStatus() == IdempotencyRecord.Status.IN_PROGRESS
+                && (record.getClaimedAt() == null || record.getClaimedAt().isBefore(LocalDateTime.now().minus(lease)));
+    }
+
+    // Claims a lapsed key for a retry of the same request; false if another retry took it first
+    private boolean takeOver(String key, String fingerprint, String owner) {
+        LocalDateTime now = LocalDateTime.now();
+        if (idempotencyRecordRepository.takeOver(key, fingerprint, owner, IdempotencyRecord.Status.IN_PROGRESS,
+                now.minus(lease), now) == 0) {
+            return false;
+        }
+        records.put(key, new IdempotencyRecord(key, fingerprint, owner, now, now.plus(ttl)));
+        return true;
+    }
+
+    /**
+     * Stores the response of a request that claimed its key, so retries are replayed.
+     *
+     * @param key            the Idempotency-Key.
+     * @param fingerprint    the hash of the request.
+     * @param owner          the token the request claimed the key with.
+     * @param responseStatus the HTTP status of the response.
+     * @param contentType    the content type of the response, may be null.
+     * @param responseBody   the body of the response.
+     * @return false if the request lost the key to a retry past its lease, whose response is kept instead.
+     */
+    public boolean complete(String key, String fingerprint, String owner, int responseStatus, String contentType,
+                            byte[] responseBody) {
+        if (idempotencyRecordRepository.complete(key, owner, IdempotencyRecord.Status.COMPLETED,
+                responseStatus, contentType, responseBody) == 0) {
+            records.invalidate(key);
+            return false;
+        }
+        IdempotencyRecord completed = new IdempotencyRecord(key, fingerprint, owner, LocalDateTime.now().plus(ttl));
+        completed.complete(responseStatus, contentType, responseBody);
+        records.put(key, completed);
+        return true;
+    }
+
+    /**
+     * Frees a key whose request failed without a response worth replaying, so the client can retry it.
+     *
+     * @param key   the Idempotency-Key.
+     * @param owner the token the request claimed the key with.
+     * @return false if the request lost the key to a retry past its lease, which keeps it.
+     */
+    public boolean release(String key, String owner) {
+        records.invalidate(key);
+        return idempotencyRecordRepository.deleteByKeyAndOwner(key, owner) > 0;
+    }
+
+    /**
+     * Deletes the expired records from the database; the in-memory cache expires its entries by itself.
+     *
+     * @return the number of records deleted.
+     */
+    public int purgeExpired() {
+        return idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+    }
+}
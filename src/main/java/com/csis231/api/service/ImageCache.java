@@ -0,0 +1,383 @@
+package com.csis231.api.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.catalina.connector.CoyoteOutputStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Off-heap LRU cache of cover image bytes, so the largest objects served never sit on the Java heap.
+ * Memory is reserved from the OS in direct {@link ByteBuffer} slabs of up to 16 MB, carved into fixed-size pages;
+ * an image takes as many pages as its size needs, anywhere in any slab. Slabs are allocated as the cache fills,
+ * up to {@code library.cache.images.max-bytes}, and are never freed: evicted pages are reused.
+ * When room is needed, the least recently served images are evicted until the new one fits. An image being written
+ * to a client is pinned: it may be evicted meanwhile, but its pages are only reused once the last writer is done.
+ * Hits, misses, evictions and off-heap usage are published under {@code library.cache.images}.
+ */
+@Service
+public class ImageCache {
+
+    private static final int SLAB_SIZE = 16 * 1024 * 1024;
+    private static final int TRANSFER_SIZE = 8192;
+
+    private final int pageSize;
+    private final int pagesPerSlab;
+    private final int maxPages;
+    private final long maxEntrySize;
+
+    // All guarded by this: the images by ID in access order, the slabs, and the pages free for reuse
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private int[] freePages = new int[64];
+    private int freeCount;
+    private int carvedPages;
+    private int usedPages;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Constructor for ImageCache.
+     *
+     * @param maxBytes      the off-heap memory the cache may reserve.
+     * @param pageSize      the unit memory is handed out in; an image wastes less than a page.
+     * @param maxEntrySize  the largest image cached; larger ones are always streamed from storage.
+     * @param meterRegistry the registry the cache statistics are published to.
+     */
+    @Autowired
+    public ImageCache(@Value("${library.cache.images.max-bytes:256MB}") DataSize maxBytes,
+                      @Value("${library.cache.images.page-size:64KB}") DataSize pageSize,
+                      @Value("${library.cache.images.max-entry-size:8MB}") DataSize maxEntrySize,
+                      MeterRegistry meterRegistry) {
+        this.pageSize = (int) Math.min(pageSize.toBytes(), SLAB_SIZE);
+        this.pagesPerSlab = SLAB_SIZE / this.pageSize;
+        this.maxPages = (int) Math.min(maxBytes.toBytes() / this.pageSize, Integer.MAX_VALUE);
+        this.maxEntrySize = Math.min(maxEntrySize.toBytes(), (long) maxPages * this.pageSize);
+
+        FunctionCounter.builder("library.cache.images.requests", hits, AtomicLong::get)
+                .description("Image requests served from the off-heap cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("library.cache.images.requests", misses, AtomicLong::get)
+                .description("Image requests read from storage")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("library.cache.images.evictions", evictions, AtomicLong::get)
+                .description("Images evicted to make room for others")
+                .register(meterRegistry);
+        Gauge.builder("library.cache.images.hit.ratio", this, ImageCache::getHitRatio)
+                .description("Share of image requests served from the off-heap cache")
+                .register(meterRegistry);
+        Gauge.builder("library.cache.images.offheap.used", this, ImageCache::getUsedBytes)
+                .description("Off-heap bytes holding cached images")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("library.cache.images.offheap.reserved", this, ImageCache::getReservedBytes)
+                .description("Off-heap bytes reserved in slabs")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("library.cache.images.entries", this, ImageCache::size)
+                .description("Images in the off-heap cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Gets a cached image, marking it as the most recently used.
+     *
+     * @param id the ID of the image.
+     * @return the image, pinned until closed, or null if it is not cached.
+     */
+    public CachedImage acquire(long id) {
+        synchronized (this) {
+            Entry entry = entries.get(id);
+            if (entry != null) {
+                entry.pins++;
+                hits.incrementAndGet();
+                return new CachedImage(entry);
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Copies an image into the cache, page by page, evicting the least recently used images to make room.
+     *
+     * @param id          the ID of the image.
+     * @param length      the size of the image.
+     * @param contentType the media type of the image.
+     * @param etag        the strong ETag of the image.
+     * @param data        the bytes of the image, read up to its length; not closed.
+     * @return the cached image, pinned until closed, or null if it is too large or every page is being written.
+     * @throws IOException if the data cannot be read or ends before its length.
+     */
+    public CachedImage put(long id, long length, String contentType, String etag, InputStream data) throws IOException {
+        if (length > maxEntrySize) {
+            return null;
+        }
+        int[] pages = reserve((int) ((length + pageSize - 1) / pageSize));
+        if (pages == null) {
+            return null;
+        }
+
+        // Fill the pages outside the lock: nobody else can see them yet
+        Entry entry = new Entry(id, length, contentType, etag, pages);
+        try {
+            byte[] chunk = new byte[(int) Math.min(TRANSFER_SIZE, Math.max(length, 1))];
+            long remaining = length;
+            for (int page : pages) {
+                ByteBuffer target = page(page);
+                int pageBytes = (int) Math.min(pageSize, remaining);
+                while (pageBytes > 0) {
+                    int read = data.read(chunk, 0, Math.min(chunk.length, pageBytes));
+                    if (read < 0) {
+                        throw new EOFException("Image " + id + " ended before its " + length + " bytes");
+                    }
+                    target.put(chunk, 0, read);
+                    pageBytes -= read;
+                    remaining -= read;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                release(pages);
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            // Another request cached the same image meanwhile: serve that one
+            Entry existing = entries.get(id);
+            if (existing != null) {
+                release(pages);
+                existing.pins++;
+                return new CachedImage(existing);
+            }
+            entry.pins = 1;
+            entries.put(id, entry);
+            return new CachedImage(entry);
+        }
+    }
+
+    /**
+     * Evicts an image, e.g. after it was replaced or deleted.
+     *
+     * @param id the ID of the image.
+     */
+    public synchronized void invalidate(long id) {
+        Entry entry = entries.remove(id);
+        if (entry != null) {
+            evict(entry);
+        }
+    }
+
+    /**
+     * Gets the number of cached images.
+     *
+     * @return the number of images.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the off-heap memory holding images, including evicted ones still being written.
+     *
+     * @return the number of bytes, in whole pages.
+     */
+    public synchronized long getUsedBytes() {
+        return (long) usedPages * pageSize;
+    }
+
+    /**
+     * Gets the off-heap memory reserved so far.
+     *
+     * @return the number of bytes in the allocated slabs.
+     */
+    public synchronized long getReservedBytes() {
+        return (long) carvedPages * pageSize;
+    }
+
+    /**
+     * Gets the share of requests served from the cache.
+     *
+     * @return the hit ratio, from 0 to 1, 0 before any request.
+     */
+    public double getHitRatio() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    // Takes the given number of pages, evicting the least recently used images until enough are free
+    private synchronized int[] reserve(int count) {
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (freeCount + (maxPages - carvedPages) < count) {
+            if (!eldest.hasNext()) {
+                return null; // The rest is pinned by images being written
+            }
+            Entry entry = eldest.next();
+            eldest.remove();
+            evict(entry);
+            evictions.incrementAndGet();
+        }
+
+        int[] pages = new int[count];
+        for (int i = 0; i < count; i++) {
+            pages[i] = freeCount > 0 ? freePages[--freeCount] : carve();
+        }
+        usedPages += count;
+        return pages;
+    }
+
+    // Takes a page never used before, allocating a new slab when the last one is full
+    private int carve() {
+        if (carvedPages % pagesPerSlab == 0) {
+            int slabPages = Math.min(pagesPerSlab, maxPages - carvedPages);
+            slabs.add(ByteBuffer.allocateDirect(slabPages * pageSize));
+        }
+        return carvedPages++;
+    }
+
+    // Frees the pages of an image no longer in the map, now or once its last writer is done
+    private void evict(Entry entry) {
+        entry.evicted = true;
+        if (entry.pins == 0) {
+            release(entry.pages);
+        }
+    }
+
+    private synchronized void unpin(Entry entry) {
+        entry.pins--;
+        if (entry.evicted && entry.pins == 0) {
+            release(entry.pages);
+        }
+    }
+
+    private void release(int[] pages) {
+        if (freeCount + pages.length > freePages.length) {
+            int[] grown = new int[Math.max(freePages.length * 2, freeCount + pages.length)];
+            System.arraycopy(freePages, 0, grown, 0, freeCount);
+            freePages = grown;
+        }
+        for (int page : pages) {
+            freePages[freeCount++] = page;
+        }
+        usedPages -= pages.length;
+    }
+
+    // A view of a whole page, with its own position so concurrent readers and writers do not interfere
+    private ByteBuffer page(int page) {
+        ByteBuffer slab;
+        synchronized (this) {
+            slab = slabs.get(page / pagesPerSlab);
+        }
+        int offset = (page % pagesPerSlab) * pageSize;
+        return slab.duplicate().limit(offset + pageSize).position(offset).slice();
+    }
+
+    /**
+     * A cached image: where its bytes are and how many writers are using them.
+     */
+    private static final class Entry {
+
+        private final long id;
+        private final long length;
+        private final String contentType;
+        private final String etag;
+        private final int[] pages;
+        private int pins;
+        private boolean evicted;
+
+        Entry(long id, long length, String contentType, String etag, int[] pages) {
+            this.id = id;
+            this.length = length;
+            this.contentType = contentType;
+            this.etag = etag;
+            this.pages = pages;
+        }
+    }
+
+    /**
+     * A cached image pinned for serving. Its bytes are handed to the connector straight from off-heap memory.
+     */
+    public final class CachedImage implements ImageContent {
+
+        private final Entry entry;
+        private boolean closed;
+
+        private CachedImage(Entry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public long getLength() {
+            return entry.length;
+        }
+
+        @Override
+        public String getContentType() {
+            return entry.contentType;
+        }
+
+        @Override
+        public String getEtag() {
+            return entry.etag;
+        }
+
+        /**
+         * Writes the image page by page. On Tomcat the direct buffers go to the connector's NIO output buffer
+         * without an intermediate copy on the heap; other streams get them through a small transfer buffer.
+         *
+         * @param out the output stream of the response.
+         * @throws IOException if the client went away.
+         */
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            WritableByteChannel channel = out instanceof CoyoteOutputStream ? null : Channels.newChannel(out);
+            long remaining = entry.length;
+            for (int page : entry.pages) {
+                ByteBuffer bytes = page(page).limit((int) Math.min(pageSize, remaining));
+                remaining -= bytes.remaining();
+                if (channel == null) {
+                    ((CoyoteOutputStream) out).write(bytes);
+                } else {
+                    while (bytes.hasRemaining()) {
+                        channel.write(bytes);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                unpin(entry);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "CachedImage{id=" + entry.id + ", length=" + entry.length + "}";
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.csis231.api.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The bytes of an image opened for serving, from the off-heap cache or straight from storage.
+ * Must be closed once written, or if it is not written at all, so cached bytes can be evicted.
+ */
+public interface ImageContent extends AutoCloseable {
+
+    /**
+     * Gets the size of the image.
+     *
+     * @return the number of bytes.
+     */
+    long getLength();
+
+    /**
+     * Gets the media type of the image, detected from its first bytes.
+     *
+     * @return e.g. {@code image/jpeg}, or {@code application/octet-stream} if not recognized.
+     */
+    String getContentType();
+
+    /**
+     * Gets the strong ETag of the image.
+     *
+     * @return the quoted ETag.
+     */
+    String getEtag();
+
+    /**
+     * Writes the image to a response body.
+     *
+     * @param out the output stream of the response.
+     * @throws IOException if the client went away or storage could not be read.
+     */
+    void writeTo(OutputStream out) throws IOException;
+
+    /**
+     * Releases the image.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,112 @@
+package com.csis231.api.service;
+
+import com.csis231.api.repository.ImageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background job moving the images still stored as a Blob of their own to the content-addressed image store,
+ * on the {@code library.images.migration.cron} schedule. Images are read in batches by ID, and the images of a batch
+ * are moved in parallel by {@code library.images.migration.threads} workers, each in short transactions of its own.
+ * An image that fails is left as it is, counted, and picked up again by the next run.
+ */
+@Component
+@ConditionalOnProperty(name = "library.images.migration.enabled", havingValue = "true")
+public class ImageMigrationJob {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageMigrationJob.class);
+
+    private final ImageService imageService;
+    private final ImageRepository imageRepository;
+    private final int batchSize;
+    private final int threads;
+    private final Counter migrated;
+    private final Counter failed;
+
+    /**
+     * Constructor for ImageMigrationJob.
+     *
+     * @param imageService    the service moving each image.
+     * @param imageRepository the repository listing the images left to move.
+     * @param batchSize       the number of images listed at once.
+     * @param threads         the number of images moved in parallel, each holding a database connection.
+     * @param meterRegistry   the registry the moved and failed counts are published to.
+     */
+    @Autowired
+    public ImageMigrationJob(ImageService imageService, ImageRepository imageRepository,
+                             @Value("${library.images.migration.batch-size:100}") int batchSize,
+                             @Value("${library.images.migration.threads:4}") int threads,
+                             MeterRegistry meterRegistry) {
+        this.imageService = imageService;
+        this.imageRepository = imageRepository;
+        this.batchSize = batchSize;
+        this.threads = threads;
+        this.migrated = Counter.builder("library.images.migrated")
+                .description("Images moved to the content-addressed image store")
+                .tag("result", "moved")
+                .register(meterRegistry);
+        this.failed = Counter.builder("library.images.migrated")
+                .description("Images that could not be moved to the image store")
+                .tag("result", "failed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Moves every image still stored as a Blob of its own to the image store.
+     *
+     * @return the number of images moved.
+     */
+    @Scheduled(cron = "${library.images.migration.cron:0 0 2 * * *}")
+    public int migrateImages() {
+        AtomicInteger workerCount = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(threads,
+                task -> new Thread(task, "image-migration-" + workerCount.incrementAndGet()));
+        int total = 0;
+        try {
+            long after = 0;
+            List<Long> batch;
+            do {
+                batch = imageRepository.findBlobImageIds(after, PageRequest.of(0, batchSize));
+                List<Future<Boolean>> moves = new ArrayList<>(batch.size());
+                for (long id : batch) {
+                    moves.add(workers.submit(() -> imageService.moveToStore(id)));
+                }
+                for (int i = 0; i < moves.size(); i++) {
+                    try {
+                        if (moves.get(i).get()) {
+                            migrated.increment();
+                            total++;
+                        }
+                    } catch (ExecutionException e) {
+                        failed.increment();
+                        log.warn("Could not move image {} to the image store", batch.get(i), e.getCause());
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    after = batch.get(batch.size() - 1);
+                }
+            } while (batch.size() == batchSize);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            workers.shutdownNow();
+        }
+        return total;
+    }
+}
@@ -1,9 +1,26 @@
 package com.csis231.api.service;
 
+import com.csis231.api.exception.ResourceNotFoundException;
 import com.csis231.api.model.Image;
+import com.csis231.api.model.ImageObject;
+import com.csis231.api.repository.BookRepository;
 import com.csis231.api.repository.ImageRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Blob;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Service class for managing Image-related operations.
@@ -11,17 +28,42 @@ import org.springframework.stereotype.Service;
 @Service
 public class ImageService {
 
+    // The cover formats accepted for upload
+    private static final Set<String> UPLOAD_TYPES = Set.of("image/jpeg", "image/png", "image/gif", "image/webp");
+
     private final ImageRepository imageRepository;
+    private final ImageCache imageCache;
+    private final ImageStorage imageStorage;
+    private final BookRepository bookRepository;
+    private final BookJsonCache bookJsonCache;
+    private final TransactionTemplate transaction;
+    private final long maxUploadSize;
 
     /**
      * Constructor for ImageService.
      * Initializes the ImageRepository used to interact with the Image data source.
      *
-     * @param imageRepository the repository to interact with Image data in the database.
+     * @param imageRepository    the repository to interact with Image data in the database.
+     * @param imageCache         the off-heap cache of image bytes.
+     * @param imageStorage       the content-addressed image store.
+     * @param bookRepository     the repository of the books, whose JSON embeds their image.
+     * @param bookJsonCache      the cache of serialized books, cleared of the books whose image moved.
+     * @param transactionManager the transaction manager, image blobs being read within a read-only transaction.
+     * @param maxUploadSize      the largest image accepted for upload.
      */
     @Autowired
-    public ImageService(ImageRepository imageRepository) {
+    public ImageService(ImageRepository imageRepository, ImageCache imageCache, ImageStorage imageStorage,
+                        BookRepository bookRepository, BookJsonCache bookJsonCache,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${library.images.upload.max-size:10MB}") DataSize maxUploadSize) {
         this.imageRepository = imageRepository;
+        this.imageCache = imageCache;
+        this.imageStorage = imageStorage;
+        this.bookRepository = bookRepository;
+        this.bookJsonCache = bookJsonCache;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setReadOnly(true);
+        this.maxUploadSize = maxUploadSize.toBytes();
     }
 
     /**
@@ -36,6 +78,240 @@ public class ImageService {
             return false;
         }
         // Check if the image exists in the repository
-        return imageRepository.findById(image.getId()).isPresent();
+        return imageRepository.existsById(image.getId());
+    }
+
+    /**
+     * Opens an image for serving: from the off-heap cache, or read from the image store or its blob
+     * and cached on the way. Images too large for the cache are streamed from storage when written.
+     *
+     * @param id the ID of the image.
+     * @return the image, to be closed once written.
+     * @throws ResourceNotFoundException if no image has this ID.
+     */
+    public ImageContent openImage(long id) {
+        ImageContent cached = imageCache.acquire(id);
+        if (cached != null) {
+            return cached;
+        }
+        return transaction.execute(status -> {
+            Image image = findImage(id);
+            try {
+                return image.getContentHash() != null ? openStored(id, image.getContentHash()) : openBlob(id, image.getImage());
+            } catch (SQLException e) {
+                throw new IllegalStateException("Could not read image " + id, e);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    // An image in the image store: its hash is a strong ETag shared by every image with the same bytes
+    private ImageContent openStored(long id, String hash) throws IOException {
+        ImageObject object = imageStorage.find(hash);
+        ImageStore store = imageStorage.getStore(object);
+        String etag = "\"" + hash + "\"";
+        try (InputStream data = store.open(hash)) {
+            ImageContent loaded = imageCache.put(id, object.getLength(), object.getContentType(), etag, data);
+            if (loaded != null) {
+                return loaded;
+            }
+        }
+        return new StoredImage(store, object, etag);
+    }
+
+    // An image still stored as a Blob of its own
+    private ImageContent openBlob(long id, Blob blob) throws SQLException, IOException {
+        long length = blob.length();
+        String contentType = ImageStorage.detectContentType(blob.getBytes(1, (int) Math.min(length, 12)));
+        String etag = "\"image-" + id + "-" + length + "\"";
+        try (InputStream data = blob.getBinaryStream()) {
+            ImageContent loaded = imageCache.put(id, length, contentType, etag, data);
+            if (loaded != null) {
+                return loaded;
+            }
+        }
+        return new BlobImage(id, length, contentType, etag);
+    }
+
+    /**
+     * Stores an uploaded image as it is received, and creates an image referencing it.
+     * The bytes are staged and hashed chunk by chunk, then saved to the image store unless identical bytes are already there;
+     * the upload is rejected as soon as its first bytes show another format or it grows past the maximum size.
+     *
+     * @param data the bytes of the image, read to the end unless rejected; not closed.
+     * @return the created image.
+     * @throws com.csis231.api.exception.ImageTooLargeException if the image is larger than {@code library.images.upload.max-size}.
+     * @throws IllegalArgumentException if the image is empty or not a JPEG, PNG, GIF or WebP image.
+     * @throws IOException              if the bytes cannot be read or stored.
+     */
+    public Image uploadImage(InputStream data) throws IOException {
+        try (ImageStorage.StagedImage staged = imageStorage.stage(data, maxUploadSize, UPLOAD_TYPES)) {
+            return imageStorage.reference(staged, object -> imageRepository.save(new Image(object.getHash())));
+        }
+    }
+
+    /**
+     * Gets the largest image accepted for upload.
+     *
+     * @return the number of bytes.
+     */
+    public long getMaxUploadSize() {
+        return maxUploadSize;
+    }
+
+    /**
+     * Moves an image stored as a Blob of its own to the image store, where identical bytes are kept once.
+     * The image keeps its ID; its blob is cleared in the transaction referencing the stored bytes.
+     * The JSON of the books showing it no longer embeds its bytes, so those books are marked as changed in the same
+     * transaction, moving the version stamp of the book list, and dropped from the cache of serialized books.
+     *
+     * @param id the ID of the image.
+     * @return {@code true} if the image was moved, {@code false} if it was in the image store already.
+     * @throws ResourceNotFoundException if no image has this ID.
+     * @throws IOException               if the bytes cannot be staged or saved.
+     */
+    public boolean moveToStore(long id) throws IOException {
+        ImageStorage.StagedImage staged;
+        try {
+            staged = transaction.execute(status -> {
+                Image image = findImage(id);
+                if (image.getContentHash() != null) {
+                    return null;
+                }
+                try (InputStream data = image.getImage().getBinaryStream()) {
+                    return imageStorage.stage(data);
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Could not read image " + id, e);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (staged == null) {
+            return false;
+        }
+
+        List<Long> books;
+        try (staged) {
+            books = imageStorage.reference(staged, object -> {
+                Image image = findImage(id);
+                if (image.getContentHash() != null) {
+                    throw new IllegalStateException("Image " + id + " was moved to the image store meanwhile");
+                }
+                image.setContentHash(object.getHash());
+                image.setImage(null);
+                imageRepository.save(image);
+                bookRepository.touchByImageId(id, LocalDateTime.now());
+                return bookRepository.findIdsByImageId(id);
+            });
+        }
+        // Same bytes, but served with the ETag of the stored object from now on
+        imageCache.invalidate(id);
+        books.forEach(bookJsonCache::invalidate);
+        return true;
+    }
+
+    private Image findImage(long id) {
+        return imageRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Image not found with id: " + id));
+    }
+
+    /**
+     * An image in the image store too large for the cache, written straight from its backend.
+     */
+    private static final class StoredImage implements ImageContent {
+
+        private final ImageStore store;
+        private final ImageObject object;
+        private final String etag;
+
+        StoredImage(ImageStore store, ImageObject object, String etag) {
+            this.store = store;
+            this.object = object;
+            this.etag = etag;
+        }
+
+        @Override
+        public long getLength() {
+            return object.getLength();
+        }
+
+        @Override
+        public String getContentType() {
+            return object.getContentType();
+        }
+
+        @Override
+        public String getEtag() {
+            return etag;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            store.writeTo(object.getHash(), out);
+        }
+
+        @Override
+        public void close() {
+            // Nothing held between requests
+        }
+    }
+
+    /**
+     * An image too large for the cache, streamed from its blob in a read-only transaction when written.
+     */
+    private final class BlobImage implements ImageContent {
+
+        private final long id;
+        private final long length;
+        private final String contentType;
+        private final String etag;
+
+        BlobImage(long id, long length, String contentType, String etag) {
+            this.id = id;
+            this.length = length;
+            this.contentType = contentType;
+            this.etag = etag;
+        }
+
+        @Override
+        public long getLength() {
+            return length;
+        }
+
+        @Override
+        public String getContentType() {
+            return contentType;
+        }
+
+        @Override
+        public String getEtag() {
+            return etag;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            try {
+                transaction.executeWithoutResult(status -> {
+                    try (InputStream data = findImage(id).getImage().getBinaryStream()) {
+                        data.transferTo(out);
+                    } catch (SQLException e) {
+                        throw new IllegalStateException("Could not read image " + id, e);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+
+        @Override
+        public void close() {
+            // Nothing held between requests
+        }
     }
 }
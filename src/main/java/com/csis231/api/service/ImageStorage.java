@@ -0,0 +1,384 @@
+package com.csis231.api.service;
+
+import com.csis231.api.exception.ImageTooLargeException;
+import com.csis231.api.model.ImageObject;
+import com.csis231.api.repository.ImageObjectRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Content-addressed image store: image bytes are keyed by their SHA-256 hash, so a cover shared by many editions
+ * is stored once and reference-counted by the images using it.
+ * New bytes go to the backend named by {@code library.images.store.backend}; every object records its backend,
+ * so objects saved before a change of backend are still read from where they are.
+ * Bytes are first staged to a temporary file while their hash is computed, then saved under that hash.
+ */
+@Service
+public class ImageStorage {
+
+    private static final int TRANSFER_SIZE = 8192;
+    private static final int HEAD_SIZE = 12;
+
+    private final ImageObjectRepository imageObjectRepository;
+    private final Map<String, ImageStore> stores = new HashMap<>();
+    private final ImageStore backend;
+    private final Path stagingDirectory;
+    private final TransactionTemplate transaction;
+
+    // Saving and deleting the same hash are serialized within this node, until committed, so bytes are never deleted
+    // under a new object; across nodes, the primary key of the object decides which save of the same bytes wins
+    private final Object[] locks = new Object[64];
+
+    /**
+     * Constructor for ImageStorage.
+     *
+     * @param imageObjectRepository the repository of the objects and their reference counts.
+     * @param stores                every store backend.
+     * @param backend               the name of the backend new bytes are saved to.
+     * @param stagingDirectory      the directory bytes are staged in while hashed.
+     * @param transactionManager    the transaction manager, objects being recorded in transactions of their own.
+     */
+    @Autowired
+    public ImageStorage(ImageObjectRepository imageObjectRepository, List<ImageStore> stores,
+                        @Value("${library.images.store.backend:database}") String backend,
+                        @Value("${library.images.store.staging-directory:${java.io.tmpdir}}") Path stagingDirectory,
+                        PlatformTransactionManager transactionManager) {
+        this.imageObjectRepository = imageObjectRepository;
+        for (ImageStore store : stores) {
+            this.stores.put(store.getName(), store);
+        }
+        this.backend = this.stores.get(backend);
+        if (this.backend == null) {
+            throw new IllegalArgumentException("Unknown image store backend: " + backend + ", expected one of " + this.stores.keySet());
+        }
+        this.stagingDirectory = stagingDirectory;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Copies image bytes to a temporary file, computing their hash and detecting their type on the way.
+     *
+     * @param data the bytes of the image, read to the end; not closed.
+     * @return the staged image, to be closed once stored.
+     * @throws IOException if the bytes cannot be read or staged.
+     */
+    public StagedImage stage(InputStream data) throws IOException {
+        return stage(data, Long.MAX_VALUE, null);
+    }
+
+    /**
+     * Copies image bytes to a temporary file chunk by chunk, computing their hash and detecting their type on the way.
+     * Memory use does not depend on the size of the image. The limits are checked as the bytes arrive:
+     * the type as soon as the first bytes are in, the size as soon as it is crossed, and reading stops there.
+     *
+     * @param data         the bytes of the image, read to the end unless rejected; not closed.
+     * @param maxLength    the largest size accepted.
+     * @param allowedTypes the media types accepted, or null for any.
+     * @return the staged image, to be closed once stored.
+     * @throws ImageTooLargeException   if the image is larger than the maximum.
+     * @throws IllegalArgumentException if the image is empty or of another type.
+     * @throws IOException              if the bytes cannot be read or staged.
+     */
+    public StagedImage stage(InputStream data, long maxLength, Set<String> allowedTypes) throws IOException {
+        Files.createDirectories(stagingDirectory);
+        Path file = Files.createTempFile(stagingDirectory, "image-", ".staged");
+        try {
+            MessageDigest digest = sha256();
+            byte[] buffer = new byte[TRANSFER_SIZE];
+            byte[] head = new byte[HEAD_SIZE];
+            int headLength = 0;
+            String contentType = null;
+            long length = 0;
+            try (OutputStream out = Files.newOutputStream(file)) {
+                int read;
+                while ((read = data.read(buffer)) >= 0) {
+                    if (read > maxLength - length) {
+                        throw new ImageTooLargeException("Image exceeds the maximum size of " + maxLength + " bytes");
+                    }
+                    if (headLength < HEAD_SIZE) {
+                        int copied = Math.min(read, HEAD_SIZE - headLength);
+                        System.arraycopy(buffer, 0, head, headLength, copied);
+                        headLength += copied;
+                        if (headLength == HEAD_SIZE) {
+                            contentType = checkType(head, allowedTypes);
+                        }
+                    }
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                    length += read;
+                }
+            }
+            if (length == 0) {
+                throw new IllegalArgumentException("Image is empty");
+            }
+            if (contentType == null) {
+                contentType = checkType(Arrays.copyOf(head, headLength), allowedTypes);
+            }
+            return new StagedImage(file, HexFormat.of().formatHex(digest.digest()), length, contentType);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    // Detects the type of an image from its first bytes and checks that it is accepted
+    private static String checkType(byte[] head, Set<String> allowedTypes) {
+        String contentType = detectContentType(head);
+        if (allowedTypes != null && !allowedTypes.contains(contentType)) {
+            throw new IllegalArgumentException("Unsupported image type, expected one of " + allowedTypes);
+        }
+        return contentType;
+    }
+
+    /**
+     * Saves staged bytes unless already stored, recording their object in a transaction of its own.
+     * A new object has no reference yet: see {@link #reference}.
+     * If another node stores the same bytes at the same time, the insert of one of the objects fails on its key;
+     * that node rolls back and uses the object the other one committed.
+     *
+     * @param staged the staged image.
+     * @return the object of the bytes, new or already stored.
+     * @throws IOException if the bytes cannot be saved.
+     */
+    public ImageObject store(StagedImage staged) throws IOException {
+        String hash = staged.getHash();
+        synchronized (lock(hash)) {
+            for (int attempt = 0; ; attempt++) {
+                try {
+                    return transaction.execute(status -> imageObjectRepository.findById(hash).orElseGet(() -> {
+                        try {
+                            backend.save(hash, staged.getFile());
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        return imageObjectRepository.saveAndFlush(
+                                new ImageObject(hash, staged.getLength(), staged.getContentType(), backend.getName()));
+                    }));
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                } catch (DataIntegrityViolationException e) {
+                    // Stored by another node meanwhile: use its object, or save again if it was released since
+                    Optional<ImageObject> stored = transaction.execute(status -> imageObjectRepository.findById(hash));
+                    if (stored.isPresent()) {
+                        return stored.get();
+                    }
+                    if (attempt > 0) {
+                        throw e;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Stores staged bytes and adds a reference to them, in the transaction recording what references them.
+     * If the referrer fails, the reference is rolled back with it.
+     *
+     * @param staged   the staged image.
+     * @param referrer records the reference, e.g. an image with the hash of the object, and returns its result.
+     * @param <T>      the type of the result.
+     * @return the result of the referrer.
+     * @throws IOException if the bytes cannot be saved.
+     */
+    public <T> T reference(StagedImage staged, Function<ImageObject, T> referrer) throws IOException {
+        while (true) {
+            ImageObject object = store(staged);
+            try {
+                return transaction.execute(status -> {
+                    if (imageObjectRepository.retain(object.getHash()) == 0) {
+                        throw new ReleasedMeanwhile();
+                    }
+                    return referrer.apply(object);
+                });
+            } catch (ReleasedMeanwhile e) {
+                // The last reference was released since: store the bytes again
+            }
+        }
+    }
+
+    /**
+     * Removes a reference to an object, deleting the object and its bytes with the last one.
+     *
+     * @param hash the SHA-256 hash of the bytes.
+     * @throws IOException if the bytes cannot be deleted.
+     */
+    public void release(String hash) throws IOException {
+        synchronized (lock(hash)) {
+            ImageObject object = transaction.execute(status -> {
+                ImageObject released = imageObjectRepository.findById(hash).orElse(null);
+                imageObjectRepository.release(hash);
+                return imageObjectRepository.deleteIfUnreferenced(hash) == 1 ? released : null;
+            });
+            // Bytes go after the object is gone, so no committed object ever lacks its bytes
+            if (object != null) {
+                getStore(object).delete(hash);
+            }
+        }
+    }
+
+    /**
+     * Gets the object of stored bytes.
+     *
+     * @param hash the SHA-256 hash of the bytes.
+     * @return the object.
+     * @throws IllegalStateException if no object has this hash.
+     */
+    public ImageObject find(String hash) {
+        return imageObjectRepository.findById(hash)
+                .orElseThrow(() -> new IllegalStateException("Image object not found: " + hash));
+    }
+
+    /**
+     * Gets the backend holding the bytes of an object.
+     *
+     * @param object the object.
+     * @return its backend.
+     * @throws IllegalStateException if the backend is not available.
+     */
+    public ImageStore getStore(ImageObject object) {
+        ImageStore store = stores.get(object.getStore());
+        if (store == null) {
+            throw new IllegalStateException("Unknown image store backend: " + object.getStore());
+        }
+        return store;
+    }
+
+    /**
+     * Recognizes the common cover formats from their signature.
+     *
+     * @param head the first bytes of the image, up to 12.
+     * @return the media type, or {@code application/octet-stream} if not recognized.
+     */
+    static String detectContentType(byte[] head) {
+        if (startsWith(head, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(head, 0x89, 'P', 'N', 'G')) {
+            return "image/png";
+        }
+        if (startsWith(head, 'G', 'I', 'F', '8')) {
+            return "image/gif";
+        }
+        if (startsWith(head, 'R', 'I', 'F', 'F') && head.length >= 12
+                && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') {
+            return "image/webp";
+        }
+        return "application/octet-stream";
+    }
+
+    private static boolean startsWith(byte[] bytes, int... signature) {
+        if (bytes.length < signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((bytes[i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Object lock(String hash) {
+        return locks[Math.floorMod(hash.hashCode(), locks.length)];
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // Every Java platform provides SHA-256
+        }
+    }
+
+    /**
+     * Image bytes staged in a temporary file, with their hash. Closing deletes the file.
+     */
+    public static final class StagedImage implements AutoCloseable {
+
+        private final Path file;
+        private final String hash;
+        private final long length;
+        private final String contentType;
+
+        private StagedImage(Path file, String hash, long length, String contentType) {
+            this.file = file;
+            this.hash = hash;
+            this.length = length;
+            this.contentType = contentType;
+        }
+
+        /**
+         * Gets the temporary file holding the bytes.
+         *
+         * @return the path of the file.
+         */
+        public Path getFile() {
+            return file;
+        }
+
+        /**
+         * Gets the hash of the bytes.
+         *
+         * @return the SHA-256 hash in hexadecimal.
+         */
+        public String getHash() {
+            return hash;
+        }
+
+        /**
+         * Gets the size of the image.
+         *
+         * @return the number of bytes.
+         */
+        public long getLength() {
+            return length;
+        }
+
+        /**
+         * Gets the media type of the image, detected from its first bytes.
+         *
+         * @return e.g. {@code image/jpeg}, or {@code application/octet-stream} if not recognized.
+         */
+        public String getContentType() {
+            return contentType;
+        }
+
+        @Override
+        public void close() throws IOException {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // The object was deleted between storing and referencing it
+    private static final class ReleasedMeanwhile extends RuntimeException {
+        ReleasedMeanwhile() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.csis231.api.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+
+/**
+ * A backend holding the bytes of image objects, addressed by their SHA-256 hash.
+ * Bytes under a hash never change, so saving a hash already held is a no-op.
+ * The reference counts and the choice of backend are left to {@link ImageStorage}.
+ */
+public interface ImageStore {
+
+    /**
+     * Gets the name of the backend, recorded with each object it holds.
+     *
+     * @return e.g. {@code database} or {@code filesystem}.
+     */
+    String getName();
+
+    /**
+     * Saves the bytes of an object, unless already held. Runs within the transaction recording the object.
+     *
+     * @param hash   the SHA-256 hash of the bytes.
+     * @param staged the file holding the bytes; left in place.
+     * @throws IOException if the bytes cannot be read or written.
+     */
+    void save(String hash, Path staged) throws IOException;
+
+    /**
+     * Opens the bytes of an object for reading, within a transaction for backends that need one.
+     *
+     * @param hash the SHA-256 hash of the bytes.
+     * @return a stream of the bytes, to be closed by the caller.
+     * @throws IOException if the bytes cannot be read.
+     */
+    InputStream open(String hash) throws IOException;
+
+    /**
+     * Writes the bytes of an object to a response body, outside of any transaction.
+     *
+     * @param hash the SHA-256 hash of the bytes.
+     * @param out  the output stream of the response.
+     * @throws IOException if the bytes cannot be read or the client went away.
+     */
+    void writeTo(String hash, OutputStream out) throws IOException;
+
+    /**
+     * Deletes the bytes of an object, if held.
+     *
+     * @param hash the SHA-256 hash of the bytes.
+     * @throws IOException if the bytes cannot be deleted.
+     */
+    void delete(String hash) throws IOException;
+}
@@ -0,0 +1,134 @@
+package com.csis231.api.service;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory projection of the inventory ledger: the number of available copies of each book.
+ * It is a read cache: the stock is decided by {@link InventoryService} in the database, under the snapshot lock
+ * of the book, and each committed stock is handed to the projection with the ID of the event that produced it,
+ * so a stale value never overwrites a newer one. It is built at startup and refreshed with the snapshots,
+ * which brings in the changes made by other instances.
+ * The books with at least one available copy are also kept as a bitmap, updated only when a book
+ * runs out or comes back in stock, so catalog facets can count available books with bitmap operations.
+ */
+@Service
+public class InventoryProjection {
+
+    private final ConcurrentHashMap<Long, Stock> available = new ConcurrentHashMap<>();
+
+    // Books with available copies, guarded by inStockLock
+    private final RoaringBitmap inStock = new RoaringBitmap();
+    private final ReadWriteLock inStockLock = new ReentrantReadWriteLock();
+
+    /**
+     * Gets the number of available copies of a book.
+     *
+     * @param bookId the ID of the book.
+     * @return the available copies, 0 for an unknown book.
+     */
+    public int getAvailable(long bookId) {
+        Stock stock = available.get(bookId);
+        return stock == null ? 0 : stock.quantity;
+    }
+
+    /**
+     * Checks whether the ledger has any stock information for a book.
+     *
+     * @param bookId the ID of the book.
+     * @return true if the book is tracked.
+     */
+    public boolean isTracked(long bookId) {
+        return available.containsKey(bookId);
+    }
+
+    /**
+     * Sets the available copies of a book as of a ledger event, unless a later event is already known.
+     *
+     * @param bookId      the ID of the book.
+     * @param quantity    the available copies.
+     * @param lastEventId the ID of the last event counted in the quantity, 0 if none.
+     */
+    public void update(long bookId, int quantity, long lastEventId) {
+        Stock[] previous = new Stock[1];
+        Stock current = available.compute(bookId, (id, stock) -> {
+            previous[0] = stock;
+            return stock != null && stock.lastEventId > lastEventId ? stock : new Stock(quantity, lastEventId);
+        });
+        if ((current.quantity > 0) != (previous[0] != null && previous[0].quantity > 0)) {
+            stockChanged(bookId);
+        }
+    }
+
+    /**
+     * Stops tracking a deleted book.
+     *
+     * @param bookId the ID of the book.
+     */
+    public void remove(long bookId) {
+        if (available.remove(bookId) != null) {
+            stockChanged(bookId);
+        }
+    }
+
+    /**
+     * Counts the books with available copies among the given ones.
+     *
+     * @param books the IDs of the books.
+     * @return how many of them are in stock.
+     */
+    public int countInStock(RoaringBitmap books) {
+        inStockLock.readLock().lock();
+        try {
+            return RoaringBitmap.andCardinality(inStock, books);
+        } finally {
+            inStockLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Selects the books with available copies among the given ones.
+     *
+     * @param books the IDs of the books.
+     * @return the IDs of those in stock, a new bitmap.
+     */
+    public RoaringBitmap selectInStock(RoaringBitmap books) {
+        inStockLock.readLock().lock();
+        try {
+            return RoaringBitmap.and(inStock, books);
+        } finally {
+            inStockLock.readLock().unlock();
+        }
+    }
+
+    // Re-reads the stock under the lock, so concurrent crossings of zero always leave the bitmap current
+    private void stockChanged(long bookId) {
+        int id = Math.toIntExact(bookId);
+        inStockLock.writeLock().lock();
+        try {
+            if (getAvailable(bookId) > 0) {
+                inStock.add(id);
+            } else {
+                inStock.remove(id);
+            }
+        } finally {
+            inStockLock.writeLock().unlock();
+        }
+    }
+
+    // The available copies of a book as of a ledger event
+    private static final class Stock {
+
+        private final int quantity;
+        private final long lastEventId;
+
+        Stock(int quantity, long lastEventId) {
+            this.quantity = quantity;
+            this.lastEventId = lastEventId;
+        }
+    }
+}
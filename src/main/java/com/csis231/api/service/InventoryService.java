@@ -0,0 +1,419 @@
+package com.csis231.api.service;
+
+import com.csis231.api.model.Book;
+import com.csis231.api.model.InventoryEvent;
+import com.csis231.api.model.InventorySnapshot;
+import com.csis231.api.repository.BookRepository;
+import com.csis231.api.repository.InventoryEventRepository;
+import com.csis231.api.repository.InventorySnapshotRepository;
+import com.csis231.api.repository.StockLevel;
+import com.csis231.api.repository.VersionStamp;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Service responsible for the inventory ledger of books.
+ * Every stock change (borrow, return, restock, write-off) is appended as an {@link InventoryEvent};
+ * the {@code quantity} and stock-driven {@code status} of a book are derived from the ledger through
+ * the {@link InventoryProjection} instead of being updated on the {@code book} row.
+ * The database is the authority on the stock: every event of a book is appended under the row lock of its snapshot,
+ * with the stock re-read there, so instances sharing the database cannot overdraw it. The projection only serves reads.
+ */
+@Service
+public class InventoryService {
+
+    private final InventoryEventRepository inventoryEventRepository;
+    private final InventorySnapshotRepository inventorySnapshotRepository;
+    private final BookRepository bookRepository;
+    private final InventoryProjection projection;
+    private final AutocompleteIndex autocompleteIndex;
+    private final TransactionTemplate transaction;
+
+    /**
+     * Constructor for InventoryService.
+     *
+     * @param inventoryEventRepository    the repository of ledger events.
+     * @param inventorySnapshotRepository the repository of stock snapshots.
+     * @param bookRepository              the repository used to mirror snapshots into the book rows.
+     * @param projection                  the in-memory availability of each book.
+     * @param autocompleteIndex           the typeahead ranking books by their number of loans.
+     * @param transactionManager          the transaction manager, each book being snapshotted in a transaction of its own.
+     */
+    @Autowired
+    public InventoryService(InventoryEventRepository inventoryEventRepository,
+                            InventorySnapshotRepository inventorySnapshotRepository,
+                            BookRepository bookRepository, InventoryProjection projection,
+                            AutocompleteIndex autocompleteIndex, PlatformTransactionManager transactionManager) {
+        this.inventoryEventRepository = inventoryEventRepository;
+        this.inventorySnapshotRepository = inventorySnapshotRepository;
+        this.bookRepository = bookRepository;
+        this.projection = projection;
+        this.autocompleteIndex = autocompleteIndex;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Builds the projection from the snapshots and the events appended after them.
+     * Books created before the ledger existed, or without a snapshot yet, are seeded first.
+     */
+    @PostConstruct
+    public void loadProjection() {
+        inventorySnapshotRepository.seedFromBooks();
+        inventorySnapshotRepository.seedFromEvents();
+        refreshProjection();
+    }
+
+    /**
+     * Reloads the projection from the database, picking up the stock changes committed by other instances.
+     * A book whose stock changed here since it was read keeps its newer value.
+     */
+    public void refreshProjection() {
+        for (StockLevel stock : inventorySnapshotRepository.findCurrentStock()) {
+            projection.update(stock.getBookId(), (int) stock.getQuantity(), stock.getLastEventId());
+        }
+    }
+
+    /**
+     * Gets the number of available copies of a book from the projection, for display.
+     * Only a book the projection does not know yet (e.g. inserted by another instance) is read from the database.
+     * Borrowing does not rely on it: the stock is checked again under the lock of the book when the copy is taken.
+     *
+     * @param bookId the ID of the book.
+     * @return the available copies, 0 for an unknown book.
+     */
+    public int getAvailable(long bookId) {
+        ensureTracked(bookId);
+        if (projection.isTracked(bookId)) {
+            return projection.getAvailable(bookId);
+        }
+
+        // Not in the ledger yet: the quantity column holds the opening stock
+        return bookRepository.findQuantityById(bookId).orElse(0);
+    }
+
+    /**
+     * Checks whether the stock of a book is known, from the ledger or from its opening quantity.
+     *
+     * @param bookId the ID of the book.
+     * @return true if the book is tracked.
+     */
+    public boolean isTracked(long bookId) {
+        ensureTracked(bookId);
+        return projection.isTracked(bookId) || bookRepository.existsById(bookId);
+    }
+
+    /**
+     * Gets the status a book shows given its stock.
+     * "AVAILABLE" and "UNAVAILABLE" follow the stock; any other status set by the library is kept.
+     *
+     * @param storedStatus the status stored on the book.
+     * @param available    the available copies.
+     * @return the status to show.
+     */
+    public static String effectiveStatus(String storedStatus, int available) {
+        if (isStockDriven(storedStatus)) {
+            return available > 0 ? "AVAILABLE" : "UNAVAILABLE";
+        }
+        return storedStatus;
+    }
+
+    /**
+     * Checks whether the status a book shows follows its stock, rather than being set by the library.
+     *
+     * @param storedStatus the status stored on the book.
+     * @return true for no status, "AVAILABLE" or "UNAVAILABLE".
+     */
+    public static boolean isStockDriven(String storedStatus) {
+        return storedStatus == null
+                || "AVAILABLE".equalsIgnoreCase(storedStatus) || "UNAVAILABLE".equalsIgnoreCase(storedStatus);
+    }
+
+    /**
+     * Overlays the current stock of a book, from the ledger, on a book loaded read-only.
+     *
+     * @param book the book.
+     * @return the same book, with its current quantity and status.
+     */
+    public Book withCurrentStock(Book book) {
+        int available = getAvailable(book.getBook_id());
+        book.setQuantity(available);
+        book.setStatus(effectiveStatus(book.getStatus(), available));
+        return book;
+    }
+
+    /**
+     * Records the borrowing of a copy, within the transaction of the loan.
+     * The stock is read under the lock of the book, so concurrent borrowers, on any instance, cannot overdraw it.
+     *
+     * @param bookId   the ID of the book.
+     * @param username the borrower.
+     * @throws IllegalStateException if no copy is available.
+     */
+    public void recordBorrow(long bookId, String username) {
+        int available = lockStock(bookId);
+        if (available <= 0) {
+            throw new IllegalStateException("The book is out of stock.");
+        }
+        append(new InventoryEvent(bookId, InventoryEvent.Type.BORROW, -1, username), available);
+        AfterCommit.run(() -> autocompleteIndex.recordLoan(bookId));
+    }
+
+    /**
+     * Locks the stock of several books at once, e.g. for a kiosk checkout: their snapshots are locked and
+     * the events appended after them summed in one query each, instead of two queries per book.
+     *
+     * @param bookIds the IDs of the books.
+     * @return the available copies of each book, which no other writer can change until the transaction ends.
+     */
+    public Map<Long, Integer> lockStock(Collection<Long> bookIds) {
+        Map<Long, Integer> stock = new HashMap<>();
+        if (bookIds.isEmpty()) {
+            return stock;
+        }
+        List<InventorySnapshot> snapshots = inventorySnapshotRepository.findAllForUpdate(bookIds);
+        if (snapshots.size() < new HashSet<>(bookIds).size()) {
+            // Books without a snapshot yet have their ledger opened first, one by one
+            Set<Long> opened = new HashSet<>();
+            snapshots.forEach(snapshot -> opened.add(snapshot.getBookId()));
+            bookIds.stream().filter(opened::add).sorted().forEach(this::openSnapshot);
+            snapshots = inventorySnapshotRepository.findAllForUpdate(bookIds);
+        }
+        snapshots.forEach(snapshot -> stock.put(snapshot.getBookId(), snapshot.getQuantity()));
+        for (StockLevel tail : inventoryEventRepository.findTails(bookIds)) {
+            stock.merge(tail.getBookId(), (int) tail.getQuantity(), Integer::sum);
+        }
+        return stock;
+    }
+
+    /**
+     * Records the borrowing of one copy of each of several books whose stock was locked by {@link #lockStock(Collection)}.
+     *
+     * @param stock    the locked stock, updated with the borrowed copies.
+     * @param bookIds  the IDs of the books, each at most once.
+     * @param username the borrower.
+     * @throws IllegalStateException if a book has no copy available.
+     */
+    public void recordBorrows(Map<Long, Integer> stock, Collection<Long> bookIds, String username) {
+        List<InventoryEvent> events = new ArrayList<>();
+        for (long bookId : bookIds) {
+            if (stock.getOrDefault(bookId, 0) <= 0) {
+                throw new IllegalStateException("The book is out of stock.");
+            }
+            events.add(new InventoryEvent(bookId, InventoryEvent.Type.BORROW, -1, username));
+        }
+        appendAll(events, stock);
+        AfterCommit.run(() -> bookIds.forEach(autocompleteIndex::recordLoan));
+    }
+
+    /**
+     * Records the return of a copy of each of several books whose stock was locked by {@link #lockStock(Collection)}.
+     *
+     * @param stock    the locked stock, updated with the returned copies.
+     * @param shelved  whether the returned copy of each book is available again, see {@link #recordReturn(long, String, boolean)}.
+     * @param username the borrower returning them.
+     */
+    public void recordReturns(Map<Long, Integer> stock, Map<Long, Boolean> shelved, String username) {
+        List<InventoryEvent> events = new ArrayList<>();
+        shelved.forEach((bookId, back) ->
+                events.add(new InventoryEvent(bookId, InventoryEvent.Type.RETURN, back ? 1 : 0, username)));
+        appendAll(events, stock);
+    }
+
+    /**
+     * Records the return of a copy.
+     *
+     * @param bookId   the ID of the book.
+     * @param username the borrower returning it.
+     */
+    public void recordReturn(long bookId, String username) {
+        recordReturn(bookId, username, true);
+    }
+
+    /**
+     * Records the return of a copy that may not go back on the shelf: a title lent out by copy only
+     * counts its registered copies, so an unlabelled copy returned from an older loan is recorded
+     * without adding to the stock until it is registered.
+     *
+     * @param bookId   the ID of the book.
+     * @param username the borrower returning it.
+     * @param shelved  whether the returned copy is available again.
+     */
+    public void recordReturn(long bookId, String username, boolean shelved) {
+        append(new InventoryEvent(bookId, InventoryEvent.Type.RETURN, shelved ? 1 : 0, username), lockStock(bookId));
+    }
+
+    /**
+     * Records the initial stock of a new book, within the transaction creating it.
+     *
+     * @param bookId   the ID of the book.
+     * @param quantity the number of copies.
+     */
+    public void recordInitialStock(long bookId, int quantity) {
+        // The ledger of a new book opens empty: its copies are counted by the restock, not by the quantity column
+        inventorySnapshotRepository.save(new InventorySnapshot(bookId, 0, 0));
+        if (quantity != 0) {
+            append(new InventoryEvent(bookId, InventoryEvent.Type.RESTOCK, quantity, null), 0);
+        } else {
+            // Track the book even without copies, so it shows as known but unavailable
+            AfterCommit.run(() -> projection.update(bookId, 0, 0));
+        }
+    }
+
+    /**
+     * Records a stock correction bringing the available copies to the given number,
+     * as a restock when copies are added and as a write-off when copies are removed.
+     *
+     * @param bookId   the ID of the book.
+     * @param quantity the new number of available copies.
+     */
+    public void recordStockLevel(long bookId, int quantity) {
+        int available = lockStock(bookId);
+        if (quantity != available) {
+            append(stockChange(bookId, quantity - available), available);
+        }
+    }
+
+    /**
+     * Records copies added to or removed from the stock, as a restock or a write-off.
+     *
+     * @param bookId the ID of the book.
+     * @param delta  the number of copies added, negative when copies are removed.
+     */
+    public void recordStockChange(long bookId, int delta) {
+        if (delta != 0) {
+            append(stockChange(bookId, delta), lockStock(bookId));
+        }
+    }
+
+    /**
+     * Stops tracking a deleted book once the deletion commits. Its events are kept as history.
+     *
+     * @param bookId the ID of the book.
+     */
+    public void forget(long bookId) {
+        AfterCommit.run(() -> projection.remove(bookId));
+    }
+
+    /**
+     * Retrieves the stock history of a book.
+     *
+     * @param bookId the ID of the book.
+     * @return the book's events, oldest first.
+     */
+    @Transactional(readOnly = true)
+    public List<InventoryEvent> getHistory(long bookId) {
+        return inventoryEventRepository.findByBookIdOrderByEventIdAsc(bookId);
+    }
+
+    /**
+     * Gets the version stamp of the ledger, which changes with every stock change.
+     *
+     * @return the number of events and the time of the latest one.
+     */
+    @Transactional(readOnly = true)
+    public VersionStamp getVersion() {
+        return inventoryEventRepository.findVersionStamp();
+    }
+
+    /**
+     * Folds the events appended since each book's snapshot into a new snapshot, and mirrors the new stock
+     * into the book rows so direct database readers stay close to the ledger. The projection is then refreshed,
+     * bringing in the stock changes made by other instances.
+     * Each book is folded under its snapshot lock, in a transaction of its own. Events are only appended under
+     * that lock, so every event seen there has committed: none is skipped, whatever order their IDs commit in.
+     *
+     * @return the number of books whose snapshot moved forward.
+     */
+    public int takeSnapshots() {
+        // Books inserted outside the application get their opening snapshot first
+        inventorySnapshotRepository.seedFromBooks();
+        inventorySnapshotRepository.seedFromEvents();
+
+        int folded = 0;
+        for (StockLevel tail : inventoryEventRepository.findUnsnapshotted()) {
+            long bookId = tail.getBookId();
+            Integer quantity = transaction.execute(status -> fold(bookId));
+            if (quantity != null) {
+                // Mirrored after the lock is released, as writers of the book row lock it before the snapshot
+                transaction.executeWithoutResult(status -> bookRepository.updateStock(bookId, quantity));
+                folded++;
+            }
+        }
+        refreshProjection();
+        return folded;
+    }
+
+    // Folds the tail of a book into its snapshot, returning the new quantity, or null if there was nothing to fold
+    private Integer fold(long bookId) {
+        InventorySnapshot snapshot = inventorySnapshotRepository.findForUpdate(bookId).orElse(null);
+        if (snapshot == null) {
+            return null;
+        }
+        StockLevel tail = inventoryEventRepository.findTail(bookId, snapshot.getLastEventId()).orElse(null);
+        if (tail == null) {
+            return null;
+        }
+        int quantity = snapshot.getQuantity() + (int) tail.getQuantity();
+        inventorySnapshotRepository.save(new InventorySnapshot(bookId, quantity, tail.getLastEventId()));
+        return quantity;
+    }
+
+    // Loads a book missing from the projection from its snapshot and the events appended after it
+    private void ensureTracked(long bookId) {
+        if (!projection.isTracked(bookId)) {
+            inventorySnapshotRepository.findCurrentStock(bookId)
+                    .ifPresent(stock -> projection.update(bookId, (int) stock.getQuantity(), stock.getLastEventId()));
+        }
+    }
+
+    // Locks the snapshot of a book for the rest of the transaction and reads the stock, which no other writer can
+    // change until then. A book without a snapshot opens its ledger from its events, or else from its quantity column.
+    private int lockStock(long bookId) {
+        InventorySnapshot snapshot = inventorySnapshotRepository.findForUpdate(bookId).orElse(null);
+        if (snapshot == null) {
+            openSnapshot(bookId);
+            snapshot = inventorySnapshotRepository.findForUpdate(bookId).orElseThrow();
+        }
+        return snapshot.getQuantity() + (int) inventoryEventRepository.sumDeltasAfter(bookId, snapshot.getLastEventId());
+    }
+
+    // Saves the first snapshot of a book, empty if its events hold its whole stock
+    private void openSnapshot(long bookId) {
+        int opening = inventoryEventRepository.existsByBookId(bookId) ? 0 : bookRepository.findQuantityById(bookId).orElse(0);
+        inventorySnapshotRepository.saveAndFlush(new InventorySnapshot(bookId, opening, 0));
+    }
+
+    private static InventoryEvent stockChange(long bookId, int delta) {
+        InventoryEvent.Type type = delta > 0 ? InventoryEvent.Type.RESTOCK : InventoryEvent.Type.WRITE_OFF;
+        return new InventoryEvent(bookId, type, delta, null);
+    }
+
+    // Appends an event to the stock read under the lock, and hands the new stock to the projection once committed
+    private void append(InventoryEvent event, int available) {
+        inventoryEventRepository.save(event);
+        int quantity = available + event.getQuantityDelta();
+        AfterCommit.run(() -> projection.update(event.getBookId(), quantity, event.getEventId()));
+    }
+
+    // Same as append, for events of several books whose stock is locked. Each event is still its own insert:
+    // event IDs must be generated by the database at insert time, under the lock, for snapshots to fold them in order.
+    private void appendAll(List<InventoryEvent> events, Map<Long, Integer> stock) {
+        inventoryEventRepository.saveAll(events);
+        for (InventoryEvent event : events) {
+            int quantity = stock.merge(event.getBookId(), event.getQuantityDelta(), Integer::sum);
+            AfterCommit.run(() -> projection.update(event.getBookId(), quantity, event.getEventId()));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.csis231.api.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Background job folding the inventory ledger into snapshots on the {@code library.inventory.snapshot-interval},
+ * and refreshing the projection with the stock changes made by other instances.
+ */
+@Component
+public class InventorySnapshotJob {
+
+    private final InventoryService inventoryService;
+
+    /**
+     * Constructor for InventorySnapshotJob.
+     *
+     * @param inventoryService the service taking the snapshots.
+     */
+    @Autowired
+    public InventorySnapshotJob(InventoryService inventoryService) {
+        this.inventoryService = inventoryService;
+    }
+
+    /**
+     * Takes the snapshots of every book whose stock changed.
+     *
+     * @return the number of books snapshotted.
+     */
+    @Scheduled(fixedDelayString = "${library.inventory.snapshot-interval:PT5M}")
+    public int takeSnapshots() {
+        return inventoryService.takeSnapshots();
+    }
+}
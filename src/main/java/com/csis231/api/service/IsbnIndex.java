@@ -0,0 +1,157 @@
+package com.csis231.api.service;
+
+import com.csis231.api.model.Book;
+import com.csis231.api.repository.BookIsbnKey;
+import com.csis231.api.repository.BookRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * In-memory hash index of the books by ISBN, for the checkout desk's scan-to-lookup flow.
+ * ISBNs are canonicalized to their ISBN-13 digits as a single {@code long}, the same key stored in the unique
+ * {@code isbn_key} column, so "0-06-051275-X", "978-0-06-051275-0" and "9780060512750" are one book.
+ * Built at startup and kept current by {@link BookService} as changes commit.
+ */
+@Service
+public class IsbnIndex {
+
+    private final BookRepository bookRepository;
+    private final TransactionTemplate transaction;
+
+    private final ConcurrentHashMap<Long, Long> byKey = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for IsbnIndex.
+     *
+     * @param bookRepository     the repository the keys are loaded from and written to.
+     * @param transactionManager the transaction manager, missing keys being filled in within one transaction.
+     */
+    @Autowired
+    public IsbnIndex(BookRepository bookRepository, PlatformTransactionManager transactionManager) {
+        this.bookRepository = bookRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Canonicalizes an ISBN as typed or scanned: ISBN-10 or ISBN-13, with or without an "ISBN" prefix,
+     * hyphens or spaces, its check digit verified. An ISBN-10 is converted to its 978-prefixed ISBN-13.
+     *
+     * @param isbn the ISBN.
+     * @return the 13 digits of the ISBN-13 as a number.
+     * @throws IllegalArgumentException if the ISBN is missing, malformed or its check digit is wrong.
+     */
+    public static long toKey(String isbn) {
+        if (isbn == null) {
+            throw new IllegalArgumentException("An ISBN is required.");
+        }
+        String digits = isbn.trim().toUpperCase(Locale.ROOT)
+                .replaceFirst("^ISBN(-1[03])?:?", "")
+                .replaceAll("[\\s-]", "");
+
+        if (digits.matches("\\d{9}[\\dX]")) {
+            // ISBN-10: weights 10 down to 1, the check digit (X for 10) making the sum a multiple of 11
+            int sum = 0;
+            for (int i = 0; i < 10; i++) {
+                int digit = digits.charAt(i) == 'X' ? 10 : digits.charAt(i) - '0';
+                sum += digit * (10 - i);
+            }
+            if (sum % 11 != 0) {
+                throw new IllegalArgumentException("Invalid ISBN, wrong check digit: " + isbn);
+            }
+            long prefix = 978_000_000_000L + Long.parseLong(digits.substring(0, 9));
+            return prefix * 10 + checkDigit13(prefix);
+        }
+
+        if (digits.matches("97[89]\\d{10}")) {
+            long prefix = Long.parseLong(digits.substring(0, 12));
+            if (checkDigit13(prefix) != digits.charAt(12) - '0') {
+                throw new IllegalArgumentException("Invalid ISBN, wrong check digit: " + isbn);
+            }
+            return prefix * 10 + (digits.charAt(12) - '0');
+        }
+
+        throw new IllegalArgumentException("Invalid ISBN, expected 10 or 13 digits: " + isbn);
+    }
+
+    /**
+     * Tries to canonicalize an ISBN.
+     *
+     * @param isbn the ISBN.
+     * @return the key of the ISBN, or null if it is not a valid ISBN.
+     */
+    public static Long toKeyOrNull(String isbn) {
+        try {
+            return toKey(isbn);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // ISBN-13 check digit of the first 12 digits: weights alternating 1 and 3, the sum made a multiple of 10
+    private static int checkDigit13(long prefix) {
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            int digit = (int) (prefix % 10);
+            sum += i % 2 == 0 ? digit * 3 : digit;
+            prefix /= 10;
+        }
+        return (10 - sum % 10) % 10;
+    }
+
+    /**
+     * Fills in the key of the books saved without one, then loads every key.
+     * A book whose ISBN is invalid, or the same as another book's, is left without a key.
+     */
+    @PostConstruct
+    public void rebuild() {
+        byKey.clear();
+        transaction.executeWithoutResult(status -> {
+            try (Stream<BookIsbnKey> books = bookRepository.streamIsbnKeys()) {
+                books.forEach(book -> byKey.put(book.getIsbnKey(), book.getBookId()));
+            }
+            for (Book book : bookRepository.findByIsbnKeyIsNull()) {
+                Long key = toKeyOrNull(book.getISBN());
+                if (key != null && byKey.putIfAbsent(key, book.getBook_id()) == null) {
+                    bookRepository.updateIsbnKey(book.getBook_id(), key);
+                }
+            }
+        });
+    }
+
+    /**
+     * Looks up a book by ISBN.
+     *
+     * @param key the canonical ISBN, see {@link #toKey}.
+     * @return the ID of the book, or null if no book has this ISBN.
+     */
+    public Long get(long key) {
+        return byKey.get(key);
+    }
+
+    /**
+     * Adds a saved book to the index.
+     *
+     * @param key    the canonical ISBN of the book.
+     * @param bookId the ID of the book.
+     */
+    public void put(long key, long bookId) {
+        byKey.put(key, bookId);
+    }
+
+    /**
+     * Removes a deleted book from the index.
+     *
+     * @param key    the canonical ISBN of the book.
+     * @param bookId the ID of the book.
+     */
+    public void remove(long key, long bookId) {
+        byKey.remove(key, bookId);
+    }
+}
@@ -0,0 +1,255 @@
+package com.csis231.api.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Locality-sensitive index of keys by the MinHash signature of their character trigrams, finding the keys similar
+ * to a given one without comparing it with every key.
+ * The signature is split into bands and each band is hashed to a bucket: keys sharing a bucket are candidates,
+ * which near-identical keys almost always are and unrelated keys almost never. Candidates are then scored exactly
+ * by the Dice coefficient of their trigram sets, {@code 2 |A ∩ B| / (|A| + |B|)}.
+ * With 16 bands of 4 hashes, pairs at a Dice similarity of 0.8 become candidates 97% of the time, and pairs at 0.9
+ * or more over 99.9% of the time.
+ * Keys are normalized by the caller. Not thread-safe: {@link DuplicateIndex} guards it with a read/write lock.
+ */
+final class MinHashIndex {
+
+    private static final int BANDS = 16;
+    private static final int ROWS = 4;
+    private static final long[] SEEDS = new long[BANDS * ROWS];
+
+    static {
+        long seed = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < SEEDS.length; i++) {
+            seed = mix(seed + i);
+            SEEDS[i] = seed;
+        }
+    }
+
+    private final Map<Long, int[]> buckets = new HashMap<>();
+    private final Map<Integer, Entry> entries = new HashMap<>();
+
+    /**
+     * Indexes a key under an ID, replacing the key it had. Empty keys are not indexed.
+     *
+     * @param id  the ID.
+     * @param key the normalized key.
+     */
+    void put(int id, String key) {
+        remove(id);
+        long[] trigrams = trigrams(key);
+        if (trigrams.length == 0) {
+            return;
+        }
+        Entry entry = new Entry(trigrams, bandKeys(trigrams));
+        entries.put(id, entry);
+        for (long bandKey : entry.bandKeys) {
+            buckets.merge(bandKey, new int[]{id}, MinHashIndex::append);
+        }
+    }
+
+    /**
+     * Removes an ID from the index.
+     *
+     * @param id the ID.
+     */
+    void remove(int id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        for (long bandKey : entry.bandKeys) {
+            int[] ids = buckets.get(bandKey);
+            int[] remaining = Arrays.stream(ids).filter(existing -> existing != id).toArray();
+            if (remaining.length == 0) {
+                buckets.remove(bandKey);
+            } else {
+                buckets.put(bandKey, remaining);
+            }
+        }
+    }
+
+    /**
+     * Clears the index.
+     */
+    void clear() {
+        buckets.clear();
+        entries.clear();
+    }
+
+    /**
+     * Gets the indexed IDs.
+     *
+     * @return a copy of the IDs, in no particular order.
+     */
+    int[] ids() {
+        return entries.keySet().stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Finds the keys similar to an indexed one.
+     *
+     * @param id        the ID of the indexed key.
+     * @param threshold the minimum similarity, above 0 and at most 1.
+     * @return the similar IDs with their similarity, most similar first, the ID itself left out.
+     */
+    List<Match> similarTo(int id, double threshold) {
+        Entry entry = entries.get(id);
+        return entry == null ? List.of() : similar(entry, threshold, id);
+    }
+
+    /**
+     * Finds the indexed keys similar to a key.
+     *
+     * @param key       the normalized key.
+     * @param threshold the minimum similarity, above 0 and at most 1.
+     * @param excludeId an ID to leave out, e.g. the key's own, or -1.
+     * @return the similar IDs with their similarity, most similar first.
+     */
+    List<Match> similar(String key, double threshold, int excludeId) {
+        long[] trigrams = trigrams(key);
+        return trigrams.length == 0 ? List.of() : similar(new Entry(trigrams, bandKeys(trigrams)), threshold, excludeId);
+    }
+
+    /**
+     * Computes the similarity of two indexed keys.
+     *
+     * @param first  the ID of the first key.
+     * @param second the ID of the second key.
+     * @return their similarity, 0 if either is not indexed.
+     */
+    double similarity(int first, int second) {
+        Entry a = entries.get(first);
+        Entry b = entries.get(second);
+        return a == null || b == null ? 0 : dice(a.trigrams, b.trigrams);
+    }
+
+    private List<Match> similar(Entry query, double threshold, int excludeId) {
+        Set<Integer> candidates = new HashSet<>();
+        for (long bandKey : query.bandKeys) {
+            int[] ids = buckets.get(bandKey);
+            if (ids != null) {
+                for (int id : ids) {
+                    candidates.add(id);
+                }
+            }
+        }
+        candidates.remove(excludeId);
+
+        List<Match> matches = new ArrayList<>();
+        for (int id : candidates) {
+            double similarity = dice(query.trigrams, entries.get(id).trigrams);
+            if (similarity >= threshold) {
+                matches.add(new Match(id, similarity));
+            }
+        }
+        matches.sort(Comparator.comparingDouble(Match::getSimilarity).reversed().thenComparingInt(Match::getId));
+        return matches;
+    }
+
+    // The bucket of each band: the band number and its ROWS minimum hashes, hashed together
+    private static long[] bandKeys(long[] trigrams) {
+        long[] keys = new long[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            long key = band;
+            for (int row = 0; row < ROWS; row++) {
+                long seed = SEEDS[band * ROWS + row];
+                long min = Long.MAX_VALUE;
+                for (long trigram : trigrams) {
+                    min = Math.min(min, mix(trigram ^ seed));
+                }
+                key = mix(key * 31 + min);
+            }
+            keys[band] = key;
+        }
+        return keys;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // Dice coefficient of two sorted trigram sets
+    private static double dice(long[] a, long[] b) {
+        int shared = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return 2.0 * shared / (a.length + b.length);
+    }
+
+    // The distinct trigrams of a key padded with two leading and one trailing marker, each packed in a long, sorted
+    private static long[] trigrams(String key) {
+        if (key.isEmpty()) {
+            return new long[0];
+        }
+        String padded = "\u0000\u0000" + key + "\u0000";
+        long[] trigrams = new long[padded.length() - 2];
+        for (int i = 0; i < trigrams.length; i++) {
+            trigrams[i] = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+        }
+        return Arrays.stream(trigrams).sorted().distinct().toArray();
+    }
+
+    private static int[] append(int[] ids, int[] added) {
+        int[] appended = Arrays.copyOf(ids, ids.length + added.length);
+        System.arraycopy(added, 0, appended, ids.length, added.length);
+        return appended;
+    }
+
+    /**
+     * The trigrams of an indexed key and the buckets its signature falls in.
+     */
+    private static final class Entry {
+
+        private final long[] trigrams;
+        private final long[] bandKeys;
+
+        Entry(long[] trigrams, long[] bandKeys) {
+            this.trigrams = trigrams;
+            this.bandKeys = bandKeys;
+        }
+    }
+
+    /**
+     * An indexed ID found similar to a query, with its similarity.
+     */
+    static final class Match {
+
+        private final int id;
+        private final double similarity;
+
+        Match(int id, double similarity) {
+            this.id = id;
+            this.similarity = similarity;
+        }
+
+        int getId() {
+            return id;
+        }
+
+        double getSimilarity() {
+            return similarity;
+        }
+    }
+}
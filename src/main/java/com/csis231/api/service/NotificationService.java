@@ -8,8 +8,10 @@ import com.csis231.api.model.*;
 import com.csis231.api.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -46,9 +48,10 @@ public class NotificationService {
      *
      * @return List of `NotificationDTO` objects representing all notifications in the system.
      */
+    @Transactional(readOnly = true)
     public List<NotificationDTO> getAllNotifications() {
         // Fetch all notifications from the database using the repository
-        List<Notification> notifications = notificationRepository.findAll();
+        List<Notification> notifications = notificationRepository.findAllWithFine();
 
         // Convert the list of Notification entities into NotificationDTOs and return the list
         return notifications.stream()
@@ -63,9 +66,10 @@ public class NotificationService {
      * @return `NotificationDTO` representing the fetched notification.
      * @throws ResourceNotFoundException if no notification with the specified ID exists in the database.
      */
+    @Transactional(readOnly = true)
     public NotificationDTO getNotificationById(Long id) {
         // Fetch the Notification entity by ID or throw an exception if not found
-        Notification notification = notificationRepository.findById(id)
+        Notification notification = notificationRepository.findWithFineByNotificationId(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Notification not found with id: " + id));
 
         // Convert the Notification entity to NotificationDTO and return it
@@ -103,6 +107,29 @@ public class NotificationService {
         return new NotificationDTO(notification);
     }
 
+    /**
+     * Creates a single notification for a user who borrowed several books at once, instead of one per book.
+     * The notification records the ID of every book, which its DTO lists; the message only counts them,
+     * so it fits its column however many books were borrowed.
+     *
+     * @param user  the user who borrowed the books, already loaded.
+     * @param books the borrowed books, at least one.
+     * @return a {@link NotificationDTO} representing the newly created notification.
+     */
+    public NotificationDTO createNotificationBulkBorrow(User user, List<Book> books) {
+        // Create the new Notification entity (without fine or single book)
+        Notification notification = new Notification();
+        notification.setBookIds(books.stream().map(Book::getBook_id).collect(Collectors.toCollection(ArrayList::new)));
+        notification.setUser(user);
+        notification.setMessage("Don't forget to return the " + books.size() + " books you borrowed!");
+        notification.setReminderDate(LocalDateTime.now().plusWeeks(2));
+        notification.setFine(null);
+
+        // Save the notification to the repository
+        notification = notificationRepository.save(notification);
+        return new NotificationDTO(notification);
+    }
+
     /**
      * Creates a new notification for a user when a fine is added to their account.
      *
@@ -146,6 +173,7 @@ public class NotificationService {
      * @throws ResourceNotFoundException if any of the associated entities (Notification, Book, User, or Fine) are not found.
      * @throws IllegalArgumentException if any invalid input is provided for updating the notification.
      */
+    @Transactional
     public NotificationDTO updateNotification(long notificationId, NotificationUpdateDTO notificationUpdateDTO) {
         // Retrieve the Notification entity by notificationId
         Notification notification = notificationRepository.findById(notificationId)
@@ -165,6 +193,7 @@ public class NotificationService {
 
         // Update the Notification entity with the new values from the DTO
         notification.setBook(book);
+        notification.getBookIds().clear(); // Now about this book only
         notification.setUser(user);
         notification.setFine(fine);
         notification.setMessage(notificationUpdateDTO.getMessage()); // Corrected
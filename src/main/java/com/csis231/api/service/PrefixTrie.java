@@ -0,0 +1,393 @@
+package com.csis231.api.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Radix trie from normalized text to integer IDs, answering "the K best-scored IDs whose text has a word starting with P".
+ * Edges carry whole runs of characters and children are kept in sorted arrays, so a node costs a few small arrays
+ * instead of one map entry per character. Each node also keeps the best score below it, letting a lookup walk
+ * down the prefix and then expand only the most promising branches until K IDs are found.
+ * Not thread-safe: {@link AutocompleteIndex} guards it with a read/write lock.
+ */
+final class PrefixTrie {
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final int[] NO_IDS = new int[0];
+
+    private final Node root = new Node(new char[0]);
+    private final Map<Integer, String[]> keysById = new HashMap<>();
+    private final Map<Integer, Integer> scoreById = new HashMap<>();
+
+    /**
+     * Normalizes text for indexing and lookup: lower case, accents dropped, anything but letters and digits
+     * turned into single spaces.
+     *
+     * @param text the text, may be null.
+     * @return the normalized text, empty if nothing remains.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT);
+        return folded.replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    /**
+     * Indexes an ID under its text, replacing the text and score it had.
+     * The text is found by a prefix of any of its words, e.g. "The Hobbit" by "hob".
+     *
+     * @param id    the ID.
+     * @param text  the text to find it by.
+     * @param score the score ranking it among the suggestions, higher first.
+     */
+    void put(int id, String text, int score) {
+        remove(id);
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return;
+        }
+
+        // The whole text, then the text from each following word on
+        List<String> keys = new ArrayList<>();
+        keys.add(normalized);
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            keys.add(normalized.substring(i + 1));
+        }
+        String[] distinct = keys.stream().distinct().toArray(String[]::new);
+
+        keysById.put(id, distinct);
+        scoreById.put(id, score);
+        for (String key : distinct) {
+            insert(key, id);
+        }
+    }
+
+    /**
+     * Removes an ID from the trie.
+     *
+     * @param id the ID.
+     */
+    void remove(int id) {
+        String[] keys = keysById.remove(id);
+        if (keys == null) {
+            return;
+        }
+        scoreById.remove(id);
+        for (String key : keys) {
+            delete(key, id);
+        }
+    }
+
+    /**
+     * Changes the score of an indexed ID.
+     *
+     * @param id    the ID.
+     * @param score its new score.
+     */
+    void setScore(int id, int score) {
+        String[] keys = keysById.get(id);
+        if (keys == null) {
+            return;
+        }
+        scoreById.put(id, score);
+        for (String key : keys) {
+            refreshPath(key);
+        }
+    }
+
+    /**
+     * Clears the trie.
+     */
+    void clear() {
+        root.children = NO_CHILDREN;
+        root.ids = NO_IDS;
+        root.best = -1;
+        keysById.clear();
+        scoreById.clear();
+    }
+
+    /**
+     * Finds the best-scored IDs with a word starting with the prefix.
+     *
+     * @param prefix the prefix as typed, normalized here; blank for the best-scored IDs overall.
+     * @param limit  the maximum number of IDs.
+     * @return the IDs, highest score first and lowest ID first among equal scores.
+     */
+    List<Integer> top(String prefix, int limit) {
+        Node start = find(normalize(prefix));
+        List<Integer> result = new ArrayList<>(limit);
+        if (start == null) {
+            return result;
+        }
+
+        // Best-first expansion; at equal scores nodes are expanded before IDs are emitted, so ties come out by ID
+        PriorityQueue<Candidate> queue = new PriorityQueue<>();
+        queue.add(new Candidate(start.best, start, 0));
+        Set<Integer> seen = new HashSet<>();
+        while (!queue.isEmpty() && result.size() < limit) {
+            Candidate candidate = queue.poll();
+            if (candidate.node == null) {
+                if (seen.add(candidate.id)) {
+                    result.add(candidate.id);
+                }
+                continue;
+            }
+            for (int id : candidate.node.ids) {
+                queue.add(new Candidate(scoreById.get(id), null, id));
+            }
+            for (Node child : candidate.node.children) {
+                queue.add(new Candidate(child.best, child, 0));
+            }
+        }
+        return result;
+    }
+
+    // The node whose subtree holds every key starting with the prefix, or null
+    private Node find(String prefix) {
+        Node node = root;
+        int depth = 0;
+        while (depth < prefix.length()) {
+            Node child = child(node, prefix.charAt(depth));
+            if (child == null) {
+                return null;
+            }
+            int common = commonLength(child.label, prefix, depth);
+            if (depth + common == prefix.length()) {
+                return child;
+            }
+            if (common < child.label.length) {
+                return null;
+            }
+            node = child;
+            depth += common;
+        }
+        return node;
+    }
+
+    private void insert(String key, int id) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int depth = 0;
+        while (depth < key.length()) {
+            Node child = child(node, key.charAt(depth));
+            if (child == null) {
+                child = new Node(key.substring(depth).toCharArray());
+                addChild(node, child);
+                node = child;
+                path.add(node);
+                break;
+            }
+            int common = commonLength(child.label, key, depth);
+            if (common < child.label.length) {
+                child = split(node, child, common);
+            }
+            node = child;
+            path.add(node);
+            depth += common;
+        }
+        node.ids = appendId(node.ids, id);
+        refresh(path);
+    }
+
+    private void delete(String key, int id) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int depth = 0;
+        while (depth < key.length()) {
+            node = child(node, key.charAt(depth));
+            if (node == null || commonLength(node.label, key, depth) < node.label.length) {
+                return;
+            }
+            path.add(node);
+            depth += node.label.length;
+        }
+        node.ids = removeId(node.ids, id);
+
+        // Drop emptied leaves and merge nodes left with a single child, bottom-up
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node current = path.get(i);
+            Node parent = path.get(i - 1);
+            if (current.ids.length == 0 && current.children.length == 0) {
+                removeChild(parent, current);
+            } else if (current.ids.length == 0 && current.children.length == 1) {
+                Node only = current.children[0];
+                current.label = concat(current.label, only.label);
+                current.children = only.children;
+                current.ids = only.ids;
+                current.best = only.best;
+            }
+        }
+        refresh(path);
+    }
+
+    // Recomputes the best scores along the path of a key after its score changed
+    private void refreshPath(String key) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int depth = 0;
+        while (depth < key.length()) {
+            node = child(node, key.charAt(depth));
+            if (node == null) {
+                return;
+            }
+            path.add(node);
+            depth += node.label.length;
+        }
+        refresh(path);
+    }
+
+    // Recomputes the best score of each node on a root-first path, deepest first
+    private void refresh(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node node = path.get(i);
+            int best = -1;
+            for (int id : node.ids) {
+                best = Math.max(best, scoreById.get(id));
+            }
+            for (Node child : node.children) {
+                best = Math.max(best, child.best);
+            }
+            node.best = best;
+        }
+    }
+
+    // Splits the edge to a child after its first characters, returning the new intermediate node
+    private static Node split(Node parent, Node child, int at) {
+        int index = indexOf(parent, child.label[0]);
+        Node middle = new Node(Arrays.copyOf(child.label, at));
+        child.label = Arrays.copyOfRange(child.label, at, child.label.length);
+        middle.children = new Node[]{child};
+        middle.best = child.best;
+        parent.children[index] = middle;
+        return middle;
+    }
+
+    private static Node child(Node node, char first) {
+        int index = indexOf(node, first);
+        return index >= 0 ? node.children[index] : null;
+    }
+
+    // Binary search of the children by the first character of their label
+    private static int indexOf(Node node, char first) {
+        int low = 0;
+        int high = node.children.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char c = node.children[middle].label[0];
+            if (c < first) {
+                low = middle + 1;
+            } else if (c > first) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static void addChild(Node parent, Node child) {
+        int insertAt = -(indexOf(parent, child.label[0]) + 1);
+        Node[] children = new Node[parent.children.length + 1];
+        System.arraycopy(parent.children, 0, children, 0, insertAt);
+        children[insertAt] = child;
+        System.arraycopy(parent.children, insertAt, children, insertAt + 1, parent.children.length - insertAt);
+        parent.children = children;
+    }
+
+    private static void removeChild(Node parent, Node child) {
+        int index = indexOf(parent, child.label[0]);
+        Node[] children = new Node[parent.children.length - 1];
+        System.arraycopy(parent.children, 0, children, 0, index);
+        System.arraycopy(parent.children, index + 1, children, index, children.length - index);
+        parent.children = children.length == 0 ? NO_CHILDREN : children;
+    }
+
+    private static int commonLength(char[] label, String key, int from) {
+        int length = Math.min(label.length, key.length() - from);
+        int i = 0;
+        while (i < length && label[i] == key.charAt(from + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int[] appendId(int[] ids, int id) {
+        for (int existing : ids) {
+            if (existing == id) {
+                return ids;
+            }
+        }
+        int[] appended = Arrays.copyOf(ids, ids.length + 1);
+        appended[ids.length] = id;
+        return appended;
+    }
+
+    private static int[] removeId(int[] ids, int id) {
+        int[] remaining = Arrays.stream(ids).filter(existing -> existing != id).toArray();
+        return remaining.length == 0 ? NO_IDS : remaining;
+    }
+
+    private static char[] concat(char[] first, char[] second) {
+        char[] joined = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, joined, first.length, second.length);
+        return joined;
+    }
+
+    /**
+     * A node of the trie: the characters on the edge leading to it, its children sorted by first character,
+     * the IDs whose key ends here and the best score of any ID below it.
+     */
+    private static final class Node {
+
+        private char[] label;
+        private Node[] children = NO_CHILDREN;
+        private int[] ids = NO_IDS;
+        private int best = -1;
+
+        Node(char[] label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * An entry of the best-first expansion: either a node to expand, or an ID to emit.
+     */
+    private static final class Candidate implements Comparable<Candidate> {
+
+        private final int score;
+        private final Node node;
+        private final int id;
+
+        Candidate(int score, Node node, int id) {
+            this.score = score;
+            this.node = node;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            if (score != other.score) {
+                return Integer.compare(other.score, score);
+            }
+            if ((node == null) != (other.node == null)) {
+                return node != null ? -1 : 1;
+            }
+            return Integer.compare(id, other.id);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.csis231.api.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Background job archiving transactions returned more than {@code library.archive.transactions.retention-days} ago.
+ * Runs on the {@code library.archive.transactions.cron} schedule and moves rows chunk by chunk,
+ * so each database transaction stays short and open loans are not blocked.
+ */
+@Component
+@ConditionalOnProperty(name = "library.archive.transactions.enabled", havingValue = "true", matchIfMissing = true)
+public class TransactionArchiveJob {
+
+    private final TransactionArchiveService archiveService;
+    private final int retentionDays;
+    private final int chunkSize;
+    private final Counter archived;
+
+    /**
+     * Constructor for TransactionArchiveJob.
+     *
+     * @param archiveService the service moving each chunk.
+     * @param retentionDays  how many days returned transactions stay in the hot table.
+     * @param chunkSize      the number of transactions moved per database transaction.
+     * @param meterRegistry  the registry the archived count is published to.
+     */
+    @Autowired
+    public TransactionArchiveJob(TransactionArchiveService archiveService,
+                                 @Value("${library.archive.transactions.retention-days:90}") int retentionDays,
+                                 @Value("${library.archive.transactions.chunk-size:500}") int chunkSize,
+                                 MeterRegistry meterRegistry) {
+        this.archiveService = archiveService;
+        this.retentionDays = retentionDays;
+        this.chunkSize = chunkSize;
+        this.archived = Counter.builder("library.transactions.archived")
+                .description("Returned transactions moved to the archive")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Archives every transaction past the retention period.
+     *
+     * @return the number of transactions archived.
+     */
+    @Scheduled(cron = "${library.archive.transactions.cron:0 30 3 * * *}")
+    public int archiveReturnedTransactions() {
+        LocalDate cutoff = LocalDate.now().minusDays(retentionDays);
+        int total = 0;
+        int moved;
+        do {
+            moved = archiveService.archiveChunk(cutoff, chunkSize);
+            archived.increment(moved);
+            total += moved;
+        } while (moved == chunkSize);
+        return total;
+    }
+}
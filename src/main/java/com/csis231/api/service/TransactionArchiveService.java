@@ -0,0 +1,73 @@
+package com.csis231.api.service;
+
+import com.csis231.api.repository.ArchivedFineRepository;
+import com.csis231.api.repository.ArchivedTransactionRepository;
+import com.csis231.api.repository.FineRepository;
+import com.csis231.api.repository.NotificationRepository;
+import com.csis231.api.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Service moving returned transactions, and their settled fines, from the hot tables to the archive.
+ * Each call moves one chunk in its own database transaction, using set-based statements.
+ */
+@Service
+public class TransactionArchiveService {
+
+    private final TransactionRepository transactionRepository;
+    private final FineRepository fineRepository;
+    private final NotificationRepository notificationRepository;
+    private final ArchivedTransactionRepository archivedTransactionRepository;
+    private final ArchivedFineRepository archivedFineRepository;
+
+    /**
+     * Constructor for TransactionArchiveService.
+     *
+     * @param transactionRepository         the repository of hot transactions.
+     * @param fineRepository                the repository of hot fines.
+     * @param notificationRepository        the repository of notifications, whose fine reminders are kept.
+     * @param archivedTransactionRepository the repository of archived transactions.
+     * @param archivedFineRepository        the repository of archived fines.
+     */
+    @Autowired
+    public TransactionArchiveService(TransactionRepository transactionRepository, FineRepository fineRepository,
+                                     NotificationRepository notificationRepository,
+                                     ArchivedTransactionRepository archivedTransactionRepository,
+                                     ArchivedFineRepository archivedFineRepository) {
+        this.transactionRepository = transactionRepository;
+        this.fineRepository = fineRepository;
+        this.notificationRepository = notificationRepository;
+        this.archivedTransactionRepository = archivedTransactionRepository;
+        this.archivedFineRepository = archivedFineRepository;
+    }
+
+    /**
+     * Archives up to one chunk of transactions returned before the cutoff.
+     * Transactions with an unpaid fine stay in the hot table until the fine is paid.
+     *
+     * @param cutoff    the date before which returned transactions are archived.
+     * @param chunkSize the maximum number of transactions to archive.
+     * @return the number of transactions archived, less than the chunk size once nothing is left.
+     */
+    @Transactional
+    public int archiveChunk(LocalDate cutoff, int chunkSize) {
+        List<Long> ids = transactionRepository.findArchivableIds(cutoff, PageRequest.of(0, chunkSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        // Copy first, then release the reminders and delete children before parents to satisfy the foreign keys
+        archivedTransactionRepository.archive(ids);
+        archivedFineRepository.archive(ids);
+        notificationRepository.archiveFinesOfTransactions(ids);
+        fineRepository.deleteByTransactionIds(ids);
+        transactionRepository.deleteByIds(ids);
+        return ids.size();
+    }
+}
@@ -1,32 +1,72 @@
 package com.csis231.api.service;
 
+import com.csis231.api.DTO.LoanItemResultDTO;
 import com.csis231.api.DTO.NotificationCreateDTO;
 import com.csis231.api.DTO.TransactionDTO;
 import com.csis231.api.exception.ResourceNotFoundException;
 import com.csis231.api.model.*;
+import com.csis231.api.repository.ArchivedTransactionRepository;
 import com.csis231.api.repository.BookRepository;
+import com.csis231.api.repository.FieldProjectionRepository;
 import com.csis231.api.repository.TransactionRepository;
 import com.csis231.api.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service class responsible for handling business logic related to transactions.
  * Provides CRUD operations for managing transactions in the system.
  */
 @Service
+@Transactional
 public class TransactionService {
 
+    // Fields of the transaction list that can be requested one by one, mapped to the attribute they are read from
+    // in the hot table and in the archive
+    private static final Map<String, String> LIST_FIELDS = new LinkedHashMap<>();
+    private static final Map<String, String> ARCHIVED_LIST_FIELDS = new LinkedHashMap<>();
+
+    static {
+        LIST_FIELDS.put("transaction_id", "transactionId");
+        LIST_FIELDS.put("username", "user.username");
+        LIST_FIELDS.put("book_id", "book.book_id");
+        LIST_FIELDS.put("issue_date", "issueDate");
+        LIST_FIELDS.put("due_date", "dueDate");
+        LIST_FIELDS.put("return_date", "returnDate");
+        LIST_FIELDS.put("barcode", "copy.barcode");
+
+        ARCHIVED_LIST_FIELDS.put("transaction_id", "transactionId");
+        ARCHIVED_LIST_FIELDS.put("username", "username");
+        ARCHIVED_LIST_FIELDS.put("book_id", "bookId");
+        ARCHIVED_LIST_FIELDS.put("issue_date", "issueDate");
+        ARCHIVED_LIST_FIELDS.put("due_date", "dueDate");
+        ARCHIVED_LIST_FIELDS.put("return_date", "returnDate");
+        ARCHIVED_LIST_FIELDS.put("barcode", "barcode");
+    }
+
     private final BookRepository bookRepository;
     private final UserRepository userRepository;
     private final TransactionRepository transactionRepository;
     private final NotificationService notificationService;
+    private final BookJsonCache bookJsonCache;
+    private final ArchivedTransactionRepository archivedTransactionRepository;
+    private final InventoryService inventoryService;
+    private final BookCopyService bookCopyService;
+    private final FieldProjectionRepository fieldProjectionRepository;
 
     /**
      * Constructor for the TransactionService class.
@@ -34,31 +74,79 @@ public class TransactionService {
      * @param transactionRepository the repository for accessing transaction data.
      * @param bookRepository        the repository for accessing book data.
      * @param userRepository        the repository for accessing user data.
+     * @param notificationService   the service used to notify users about their loans.
+     * @param bookJsonCache         the cache of pre-rendered books, whose stock changes on borrow and return.
+     * @param archivedTransactionRepository the repository of returned transactions moved to the archive.
+     * @param inventoryService      the ledger recording each borrowed and returned copy.
+     * @param bookCopyService       the service claiming and releasing the physical copies of books.
+     * @param fieldProjectionRepository the repository selecting only the requested fields of transactions.
      */
     @Autowired
     public TransactionService(TransactionRepository transactionRepository,
                               BookRepository bookRepository, UserRepository userRepository,
-                              NotificationService notificationService) {
+                              NotificationService notificationService, BookJsonCache bookJsonCache,
+                              ArchivedTransactionRepository archivedTransactionRepository,
+                              InventoryService inventoryService, BookCopyService bookCopyService,
+                              FieldProjectionRepository fieldProjectionRepository) {
         this.transactionRepository = transactionRepository;
         this.bookRepository = bookRepository;
         this.userRepository = userRepository;
         this.notificationService = notificationService;
+        this.bookJsonCache = bookJsonCache;
+        this.archivedTransactionRepository = archivedTransactionRepository;
+        this.inventoryService = inventoryService;
+        this.bookCopyService = bookCopyService;
+        this.fieldProjectionRepository = fieldProjectionRepository;
     }
 
     /**
-     * Retrieve all transactions from the database.
+     * Retrieve all transactions from the database, open and archived.
      *
      * @return List of Transaction objects.
      */
     public List<TransactionDTO> getAllTransactions() {
-        List<Transaction> transactions = transactionRepository.findAll();
-        return transactions.stream()
-                .map(TransactionDTO::new) // Convert each Transaction to TransactionDTO
+        List<Transaction> transactions = transactionRepository.findAllWithCopy();
+        return Stream.concat(
+                        archivedTransactionRepository.findAll().stream().map(TransactionDTO::new),
+                        transactions.stream().map(TransactionDTO::new)) // Convert each Transaction to TransactionDTO
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Retrieve only the requested fields of all transactions, archived and open,
+     * without loading their users, books or copies.
+     *
+     * @param fields the comma-separated fields to return, e.g. {@code transaction_id,due_date}.
+     * @return one map per transaction, from field name to value.
+     * @throws IllegalArgumentException if a field is unknown.
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllTransactions(String fields) {
+        List<String> requested = FieldProjectionRepository.parseFields(fields, LIST_FIELDS);
+        List<Map<String, Object>> transactions = new ArrayList<>(
+                fieldProjectionRepository.findFields(ArchivedTransaction.class, ARCHIVED_LIST_FIELDS, requested));
+        transactions.addAll(fieldProjectionRepository.findFields(Transaction.class, LIST_FIELDS, requested));
+        return transactions;
+    }
+
+    /**
+     * Retrieve the borrowing history of a user, open and archived, oldest first.
+     *
+     * @param username the username of the user.
+     * @return List of the user's transactions.
+     */
+    public List<TransactionDTO> getTransactionsByUser(String username) {
+        return Stream.concat(
+                        archivedTransactionRepository.findByUsername(username).stream().map(TransactionDTO::new),
+                        transactionRepository.findByUserUsername(username).stream().map(TransactionDTO::new))
+                .sorted(Comparator.comparing(TransactionDTO::getIssue_date)
+                        .thenComparing(TransactionDTO::getTransaction_id))
                 .collect(Collectors.toList());
     }
 
     /**
      * Get a specific transaction by its ID.
+     * Archived transactions are looked up when the transaction is no longer in the hot table.
      * If the transaction is not found, a ResourceNotFoundException is thrown.
      *
      * @param id the ID of the transaction to retrieve.
@@ -66,12 +154,11 @@ public class TransactionService {
      * @throws ResourceNotFoundException if no transaction is found with the given ID.
      */
     public TransactionDTO getTransactionById(Long id) {
-        // Fetch the transaction entity by ID or throw an exception if not found
-        Transaction transaction = transactionRepository.findById(id)
+        // Fetch the transaction entity by ID, falling back to the archive
+        return transactionRepository.findWithCopyByTransactionId(id)
+                .map(TransactionDTO::new)
+                .or(() -> archivedTransactionRepository.findById(id).map(TransactionDTO::new))
                 .orElseThrow(() -> new ResourceNotFoundException("Transaction not found with id: " + id));
-
-        // Convert the Transaction entity to TransactionDTO
-        return new TransactionDTO(transaction);
     }
 
     /**
@@ -86,25 +173,40 @@ public class TransactionService {
      *                                   if the user has already borrowed the book, or if the book is out of stock.
      */
     public void borrowBook(Long bookId, String username) {
+        borrowBook(bookId, username, null);
+    }
+
+    /**
+     * Handles the logic for borrowing a book, optionally naming the copy scanned at the checkout desk.
+     * Books with registered copies are lent by copy: the scanned copy, or else any free copy, is claimed for the loan.
+     *
+     * @param bookId   The ID of the book to be borrowed, may be null when a barcode is given.
+     * @param username The username of the user borrowing the book.
+     * @param barcode  The barcode of the copy being borrowed, or null.
+     * @throws ResourceNotFoundException if the book, copy or user is not found in the database.
+     * @throws IllegalStateException     if the book or copy is not available for borrowing,
+     *                                   if the user has already borrowed the book, or if the book is out of stock.
+     */
+    public void borrowBook(Long bookId, String username, String barcode) {
         try {
+            // A scanned barcode identifies the book on its own
+            Long borrowedBookId = bookId == null && barcode != null
+                    ? Long.valueOf(bookCopyService.getCopyByBarcode(barcode).getBookId()) : bookId;
+
+
             // Check if the book exists
-            Book book = bookRepository.findById(bookId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Book not found with ID: " + bookId));
+            Book book = bookRepository.findById(borrowedBookId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Book not found with ID: " + borrowedBookId));
 
             // Check if the user exists
             User user = userRepository.findByUsername(username)
                     .orElseThrow(() -> new ResourceNotFoundException("User not found with username: " + username));
 
-            // Check if the book is available for borrowing
-            if (!"AVAILABLE".equalsIgnoreCase(book.getStatus())) {
+            // Check if the book is available for borrowing; its stock is checked by the inventory ledger below
+            if (!InventoryService.isStockDriven(book.getStatus())) {
                 throw new IllegalStateException("The book is not available for borrowing.");
             }
 
-            // Ensure the book has quantity > 0 to borrow
-            if (book.getQuantity() <= 0) {
-                throw new IllegalStateException("The book is out of stock.");
-            }
-
             // Check if the user has already borrowed this book
             boolean alreadyBorrowed = transactionRepository.existsByBookAndUser(book, user);
             if (alreadyBorrowed) {
@@ -118,23 +220,21 @@ public class TransactionService {
             transaction.setIssueDate(LocalDate.now());
             transaction.setDueDate(LocalDate.now().plusMonths(1));
 
-            // Save the transaction
-            transactionRepository.save(transaction);
+            // Claim the copy leaving the shelf, if the book is lent by copy; copies are locked before the ledger
+            transaction.setCopy(bookCopyService.claimCopy(borrowedBookId, barcode));
 
-            // Update the book's quantity and status after borrowing
-            book.setQuantity(book.getQuantity() - 1); // Decrease the available stock by 1
+            // Take a copy in the inventory ledger, failing if another borrower got the last one
+            inventoryService.recordBorrow(borrowedBookId, username);
 
-            // If quantity becomes 0, mark the book as unavailable
-            if (book.getQuantity() == 0) {
-                book.setStatus("UNAVAILABLE");
-            }
+            // Save the transaction
+            transactionRepository.save(transaction);
 
             // Create a borrowing notification (without fine for now)
-            NotificationCreateDTO notificationCreateDTO = new NotificationCreateDTO(bookId, username);
+            NotificationCreateDTO notificationCreateDTO = new NotificationCreateDTO(borrowedBookId, username);
             notificationService.createNotificationBorrow(notificationCreateDTO);
 
-            // Save the updated book record
-            bookRepository.save(book);
+            // The book row is left untouched, only its cached JSON shows the stock; dropped once committed
+            AfterCommit.run(() -> bookJsonCache.invalidate(borrowedBookId));
 
         } catch (Exception e) {
             e.printStackTrace(); // Log stack trace for debugging
@@ -145,7 +245,7 @@ public class TransactionService {
     /**
      * Handles the logic for returning a borrowed book.
      * Checks if the book and user exist, ensures the user has borrowed the book,
-     * and updates the book's quantity and status after the return.
+     * and records the returned copy in the inventory ledger.
      *
      * @param bookId   The ID of the book being returned.
      * @param username The username of the user returning the book.
@@ -172,16 +272,242 @@ public class TransactionService {
             throw new IllegalStateException("The user has already returned book.");
         }
 
-        // Update the transaction to reflect the return
-        transaction.setReturnDate(LocalDate.now()); // Set the return date to the current time
+        completeReturn(transaction);
+    }
+
+    /**
+     * Handles the return of a copy scanned at the desk, closing its open loan whoever the borrower is.
+     *
+     * @param barcode The barcode of the returned copy.
+     * @throws ResourceNotFoundException if no copy has this barcode.
+     * @throws IllegalStateException     if the copy is not on loan.
+     */
+    public void returnCopy(String barcode) {
+        BookCopy copy = bookCopyService.getCopyByBarcode(barcode);
+        Transaction transaction = transactionRepository.findByCopyCopyIdAndReturnDateIsNull(copy.getCopyId());
+        if (transaction == null) {
+            throw new IllegalStateException("The copy is not on loan.");
+        }
+        completeReturn(transaction);
+    }
 
-        // Update the book's status and quantity
-        book.setStatus("AVAILABLE");
-        book.setQuantity(book.getQuantity() + 1);
+    /**
+     * Handles the checkout of a stack of books at a self-service kiosk, in a single transaction.
+     * The user, the books and the user's previous loans are loaded once, and the stock of every book is locked
+     * and read in two queries; books are processed in ID order, so concurrent kiosks take their locks in the same
+     * order and cannot deadlock, and one notification covers them all. Each borrowed book still costs a claim of
+     * its copy when it is lent by copy, a ledger event and a loan, as both are inserted with database-generated IDs.
+     * A book that cannot be borrowed is reported in its own result without failing the others.
+     *
+     * @param username The username of the user borrowing the books.
+     * @param bookIds  The IDs of the books to borrow, may be null.
+     * @param barcodes The barcodes of the scanned copies to borrow, may be null.
+     * @return the result of each book, in request order: book IDs first, then barcodes.
+     * @throws ResourceNotFoundException if the user is not found in the database.
+     */
+    public List<LoanItemResultDTO> borrowBooks(String username, List<Long> bookIds, List<String> barcodes) {
+        // Check if the user exists, once for the whole stack
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with username: " + username));
+
+        List<LoanItemResultDTO> results = toLoanItems(bookIds, barcodes);
+        Set<Long> ids = pendingBookIds(results);
+        if (ids.isEmpty()) {
+            return results;
+        }
+
+        // Load the books and the user's loans of them in one query each
+        Map<Long, Book> books = bookRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Book::getBook_id, Function.identity()));
+        Set<Long> borrowed = new HashSet<>(transactionRepository.findBorrowedBookIds(user, ids));
+
+        // Claim the copies first: unlike ledger entries, they are simply put back if the ledger refuses a loan
+        Map<LoanItemResultDTO, BookCopy> claimed = new LinkedHashMap<>();
+        for (LoanItemResultDTO item : inBookOrder(results)) {
+            long bookId = item.getBook_id();
+            Book book = books.get(bookId);
+            if (book == null) {
+                item.fail("Book not found with ID: " + bookId);
+                continue;
+            }
 
-        // Save the updated transaction and book
+            // Also rejects the same book scanned twice in the stack
+            if (borrowed.contains(bookId)) {
+                item.fail("You have already borrowed this book.");
+                continue;
+            }
+
+            // The stock itself is checked by the inventory ledger below
+            if (!InventoryService.isStockDriven(book.getStatus())) {
+                item.fail("The book is not available for borrowing.");
+                continue;
+            }
+            try {
+                claimed.put(item, bookCopyService.claimCopy(bookId, item.getBarcode()));
+                borrowed.add(bookId);
+            } catch (IllegalStateException | ResourceNotFoundException e) {
+                item.fail(e.getMessage());
+            }
+        }
+        if (claimed.isEmpty()) {
+            return results;
+        }
+
+        // Lock the stock of every claimed book at once, and lend those with a copy left
+        Map<Long, Integer> stock = inventoryService.lockStock(
+                claimed.keySet().stream().map(LoanItemResultDTO::getBook_id).collect(Collectors.toList()));
+        List<Long> lent = new ArrayList<>();
+        List<Transaction> loans = new ArrayList<>();
+        Map<LoanItemResultDTO, Transaction> loanByItem = new LinkedHashMap<>();
+        claimed.forEach((item, copy) -> {
+            long bookId = item.getBook_id();
+            if (stock.getOrDefault(bookId, 0) <= 0) {
+                if (copy != null) {
+                    copy.setStatus(BookCopy.Status.AVAILABLE);
+                }
+                item.fail("The book is out of stock.");
+                return;
+            }
+            Transaction transaction = new Transaction();
+            transaction.setBook(books.get(bookId));
+            transaction.setUser(user);
+            transaction.setCopy(copy);
+            transaction.setIssueDate(LocalDate.now());
+            transaction.setDueDate(LocalDate.now().plusMonths(1));
+            lent.add(bookId);
+            loans.add(transaction);
+            loanByItem.put(item, transaction);
+        });
+        if (loans.isEmpty()) {
+            return results;
+        }
+        inventoryService.recordBorrows(stock, lent, username);
+
+        // Insert the loans and send a single notification for the whole stack
+        transactionRepository.saveAll(loans);
+        loanByItem.forEach((item, transaction) -> item.succeed("BORROWED", transaction.getTransactionId()));
+        notificationService.createNotificationBulkBorrow(user,
+                loans.stream().map(Transaction::getBook).collect(Collectors.toList()));
+        AfterCommit.run(() -> lent.forEach(bookJsonCache::invalidate));
+        return results;
+    }
+
+    /**
+     * Handles the return of a stack of books at a self-service kiosk, in a single transaction.
+     * The user's open loans are loaded once with their books and copies, and closed together; the stock of the
+     * returned books is locked and read in two queries, then each return costs one ledger event.
+     * A book the user has no open loan of is reported in its own result without failing the others.
+     *
+     * @param username The username of the user returning the books.
+     * @param bookIds  The IDs of the books to return, may be null.
+     * @param barcodes The barcodes of the returned copies, may be null.
+     * @return the result of each book, in request order: book IDs first, then barcodes.
+     * @throws ResourceNotFoundException if the user is not found in the database.
+     */
+    public List<LoanItemResultDTO> returnBooks(String username, List<Long> bookIds, List<String> barcodes) {
+        // Check if the user exists
+        if (!userRepository.existsByUsername(username)) {
+            throw new ResourceNotFoundException("User not found with username: " + username);
+        }
+
+        List<LoanItemResultDTO> results = toLoanItems(bookIds, barcodes);
+
+        // Index the user's open loans by book and by the barcode of their copy
+        Map<Long, Transaction> loansByBook = new HashMap<>();
+        Map<String, Transaction> loansByBarcode = new HashMap<>();
+        for (Transaction loan : transactionRepository.findOpenLoans(username)) {
+            loansByBook.put(loan.getBook().getBook_id(), loan);
+            if (loan.getCopy() != null) {
+                loansByBarcode.put(loan.getCopy().getBarcode(), loan);
+            }
+        }
+
+        List<Transaction> closed = new ArrayList<>();
+        Map<Long, Boolean> shelved = new LinkedHashMap<>();
+        for (LoanItemResultDTO item : inBookOrder(results)) {
+            Transaction loan = item.getBarcode() != null
+                    ? loansByBarcode.get(BarcodeIndex.normalize(item.getBarcode()))
+                    : loansByBook.get(item.getBook_id());
+
+            // Also rejects the same book scanned twice in the stack, as its loan is closed already
+            if (loan == null || loan.getReturnDate() != null) {
+                item.fail("The user has not borrowed this book.");
+                continue;
+            }
+            shelved.put(loan.getBook().getBook_id(), closeLoan(loan));
+            closed.add(loan);
+            item.succeed("RETURNED", loan.getTransactionId());
+        }
+        if (closed.isEmpty()) {
+            return results;
+        }
+
+        // Put the copies back in the ledger, with the stock of every returned book locked at once
+        inventoryService.recordReturns(inventoryService.lockStock(shelved.keySet()), shelved, username);
+        transactionRepository.saveAll(closed);
+        return results;
+    }
+
+    // Lists the items of a bulk request, resolving scanned barcodes to their book from the barcode index
+    private List<LoanItemResultDTO> toLoanItems(List<Long> bookIds, List<String> barcodes) {
+        List<LoanItemResultDTO> items = new ArrayList<>();
+        if (bookIds != null) {
+            bookIds.forEach(bookId -> items.add(new LoanItemResultDTO(bookId, null)));
+        }
+        if (barcodes != null) {
+            for (String barcode : barcodes) {
+                LoanItemResultDTO item = new LoanItemResultDTO(bookCopyService.findBookIdByBarcode(barcode), barcode);
+                if (item.getBook_id() == null) {
+                    item.fail("Copy not found with barcode: " + barcode);
+                }
+                items.add(item);
+            }
+        }
+        for (LoanItemResultDTO item : items) {
+            if (item.isPending() && item.getBook_id() == null) {
+                item.fail("A book ID is required.");
+            }
+        }
+        return items;
+    }
+
+    private static Set<Long> pendingBookIds(List<LoanItemResultDTO> items) {
+        return items.stream()
+                .filter(LoanItemResultDTO::isPending)
+                .map(LoanItemResultDTO::getBook_id)
+                .collect(Collectors.toSet());
+    }
+
+    // Orders the pending items by book, then barcode, so every kiosk locks copies in the same order
+    private static List<LoanItemResultDTO> inBookOrder(List<LoanItemResultDTO> items) {
+        return items.stream()
+                .filter(LoanItemResultDTO::isPending)
+                .sorted(Comparator.comparing(LoanItemResultDTO::getBook_id)
+                        .thenComparing(LoanItemResultDTO::getBarcode, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .collect(Collectors.toList());
+    }
+
+    // Closes an open loan, records the returned copy in the inventory ledger and saves the loan
+    private void completeReturn(Transaction transaction) {
+        boolean shelved = closeLoan(transaction);
+        inventoryService.recordReturn(transaction.getBook().getBook_id(), transaction.getUser().getUsername(), shelved);
         transactionRepository.save(transaction);
-        bookRepository.save(book);
+    }
+
+    // Closes an open loan, putting its copy back on the shelf; returns whether the copy counts in the stock again
+    private boolean closeLoan(Transaction transaction) {
+        long bookId = transaction.getBook().getBook_id();
+
+        // Update the transaction to reflect the return
+        transaction.setReturnDate(LocalDate.now()); // Set the return date to the current time
+
+        // A book lent by copy only counts registered copies, so an unlabelled copy from an older loan is not shelved
+        BookCopy copy = transaction.getCopy();
+        if (copy != null) {
+            bookCopyService.releaseCopy(copy);
+        }
+        AfterCommit.run(() -> bookJsonCache.invalidate(bookId));
+        return copy != null || !bookCopyService.hasCopies(bookId);
     }
 
     /**
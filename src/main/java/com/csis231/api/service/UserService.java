@@ -2,11 +2,15 @@ package com.csis231.api.service;
 
 import com.csis231.api.exception.ResourceNotFoundException;
 import com.csis231.api.model.User;
+import com.csis231.api.repository.FieldProjectionRepository;
 import com.csis231.api.repository.UserRepository;
+import com.csis231.api.repository.VersionStamp;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -17,16 +21,34 @@ import java.util.Map;
 @Service
 public class UserService {
 
+    // Fields of the user list that can be requested one by one, mapped to the attribute they are read from.
+    // The password is never selectable.
+    private static final Map<String, String> LIST_FIELDS = new LinkedHashMap<>();
+
+    static {
+        LIST_FIELDS.put("username", "username");
+        LIST_FIELDS.put("firstName", "firstName");
+        LIST_FIELDS.put("lastName", "lastName");
+        LIST_FIELDS.put("email", "email");
+        LIST_FIELDS.put("phoneNumber", "phoneNumber");
+        LIST_FIELDS.put("address", "address");
+        LIST_FIELDS.put("role", "role");
+        LIST_FIELDS.put("registrationDate", "registration_date");
+    }
+
     private final UserRepository userRepository;
+    private final FieldProjectionRepository fieldProjectionRepository;
 
     /**
      * Constructor for UserService.
      *
-     * @param userRepository the UserRepository to interact with the database.
+     * @param userRepository            the UserRepository to interact with the database.
+     * @param fieldProjectionRepository the repository selecting only the requested fields of users.
      */
     @Autowired
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, FieldProjectionRepository fieldProjectionRepository) {
         this.userRepository = userRepository;
+        this.fieldProjectionRepository = fieldProjectionRepository;
     }
 
     /**
@@ -34,11 +56,46 @@ public class UserService {
      *
      * @return List of {@link User} objects containing details of all users.
      */
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
         // Returns a list of all users in the system
         return userRepository.findAll();
     }
 
+    /**
+     * Retrieve only the requested fields of all users.
+     *
+     * @param fields the comma-separated fields to return, e.g. {@code username,email}.
+     * @return one map per user, from field name to value.
+     * @throws IllegalArgumentException if a field is unknown.
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllUsers(String fields) {
+        return fieldProjectionRepository.findFields(User.class, LIST_FIELDS,
+                FieldProjectionRepository.parseFields(fields, LIST_FIELDS));
+    }
+
+    /**
+     * Gets the version stamp of all users, used to answer conditional requests without loading them.
+     *
+     * @return the number of users and their latest modification time.
+     */
+    @Transactional(readOnly = true)
+    public VersionStamp getUsersVersion() {
+        return userRepository.findVersionStamp();
+    }
+
+    /**
+     * Gets the version stamp of a single user.
+     *
+     * @param username the username of the user.
+     * @return the user's modification time, with a total of 0 if the user does not exist.
+     */
+    @Transactional(readOnly = true)
+    public VersionStamp getUserVersion(String username) {
+        return userRepository.findVersionStampByUsername(username);
+    }
+
     /**
      * Checks if a user already exists by their username.
      *
@@ -47,7 +104,7 @@ public class UserService {
      */
     public boolean doesUserExist(String username) {
         // Returns true if the user exists, false if not
-        return userRepository.findByUsername(username).isPresent();
+        return userRepository.existsByUsername(username);
     }
 
     /**
@@ -57,6 +114,7 @@ public class UserService {
      * @return the saved {@link User} object.
      * @throws IllegalArgumentException if the username already exists in the database.
      */
+    @Transactional
     public User createUser(User user) {
         // Check if the user already exists by username
         if (doesUserExist(user.getUsername())) {
@@ -74,6 +132,7 @@ public class UserService {
      * @return the {@link User} object if found.
      * @throws ResourceNotFoundException if the user is not found with the given username.
      */
+    @Transactional(readOnly = true)
     public User getUserByUsername(String username) {
         // Use the repository to find a user by their username
         return userRepository.findByUsername(username)
@@ -88,6 +147,7 @@ public class UserService {
      * @return the updated {@link User} object.
      * @throws ResourceNotFoundException if the user is not found by the given username.
      */
+    @Transactional
     public User updateUser(String username, User userDetails) {
         // Retrieve the existing user by username
         User existingUser = userRepository.findByUsername(username)
@@ -113,6 +173,7 @@ public class UserService {
      * @return a map with the result of the deletion operation.
      * @throws ResourceNotFoundException if the user is not found with the given username.
      */
+    @Transactional
     public Map<String, Boolean> deleteUser(String username) {
         // Find the user by username
         User user = userRepository.findByUsername(username)
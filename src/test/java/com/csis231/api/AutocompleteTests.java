@@ -0,0 +1,87 @@
+package com.csis231.api;
+
+import com.csis231.api.model.Author;
+import com.csis231.api.model.Book;
+import com.csis231.api.model.User;
+import com.csis231.api.repository.UserRepository;
+import com.csis231.api.service.AuthorService;
+import com.csis231.api.service.AutocompleteIndex;
+import com.csis231.api.service.BookService;
+import com.csis231.api.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that author and title suggestions follow catalog changes and are ranked by loans.
+ */
+@SpringBootTest
+class AutocompleteTests {
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AutocompleteIndex autocompleteIndex;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void suggestionsFollowChangesAndLoans() {
+        Author bronte = authorService.createAuthor(new Author("Émilie", "Quillbrook"));
+        Author other = authorService.createAuthor(new Author("Quillon", "Marsh"));
+        User reader = userRepository.save(new User("typeahead-1", "Type", "Ahead", "typeahead@example.com", null, null, "USER", "secret"));
+
+        // Names are found by the start of either name, ignoring case and accents
+        assertEquals(List.of(bronte.getAuthor_id()), authorIds(authorService.suggestAuthors("emil", 10)));
+        assertEquals(2, authorService.suggestAuthors("QUILL", 10).size());
+
+        // Titles by the start of any word, the most borrowed first
+        long quiet = createBook(bronte, "9781000000054", "The Quillwood Quiet");
+        long storm = createBook(other, "9781000000061", "Quillwood Storms");
+        assertEquals(List.of(quiet, storm), bookIds(bookService.suggestBooks("quillw", 10)));
+        transactionService.borrowBook(storm, reader.getUsername());
+        assertEquals(List.of(storm, quiet), bookIds(bookService.suggestBooks("quillw", 10)));
+        assertEquals(List.of(storm), bookIds(bookService.suggestBooks("quillwood st", 10)));
+
+        // An author's popularity counts their books and the loans of those books
+        assertEquals(List.of(other.getAuthor_id(), bronte.getAuthor_id()), authorIds(authorService.suggestAuthors("quill", 10)));
+
+        // Renames and deletions are reflected, and a rebuild from the database agrees
+        authorService.updateAuthor(other.getAuthor_id(), new Author("Quillon", "Thornbury"));
+        assertTrue(authorService.suggestAuthors("marsh", 10).isEmpty());
+        bookService.deleteBook(quiet);
+        assertEquals(List.of(storm), bookIds(bookService.suggestBooks("quillw", 10)));
+        autocompleteIndex.rebuild();
+        assertEquals(List.of(storm), bookIds(bookService.suggestBooks("quillw", 10)));
+        assertEquals(List.of(other.getAuthor_id(), bronte.getAuthor_id()), authorIds(authorService.suggestAuthors("quill", 10)));
+
+        assertThrows(IllegalArgumentException.class, () -> bookService.suggestBooks("q", 0));
+    }
+
+    private long createBook(Author author, String isbn, String title) {
+        return bookService.createBook(new Book(title, isbn, "Press", 2012,
+                "AVAILABLE", "", author, 2, 4, new ArrayList<>(), null)).getBook_id();
+    }
+
+    private static List<Long> authorIds(List<Map<String, Object>> suggestions) {
+        return suggestions.stream().map(suggestion -> (Long) suggestion.get("author_id")).toList();
+    }
+
+    private static List<Long> bookIds(List<Map<String, Object>> suggestions) {
+        return suggestions.stream().map(suggestion -> (Long) suggestion.get("book_id")).toList();
+    }
+}
@@ -0,0 +1,104 @@
+package com.csis231.api;
+
+import com.csis231.api.config.BinaryEncodingConfig;
+import com.csis231.api.model.Author;
+import com.csis231.api.model.Book;
+import com.csis231.api.repository.AuthorRepository;
+import com.csis231.api.service.BookService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Checks that responses are encoded and compressed as the client asks, plain JSON by default.
+ */
+@SpringBootTest
+class BinaryEncodingTests {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Test
+    void booksAreServedAsJsonCborOrSmile() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        Author author = authorRepository.save(new Author("Binary", "Author"));
+        long bookId = bookService.createBook(new Book("Binary book", "9781000000160", "Press", 2014,
+                "AVAILABLE", "", author, 2, 4, new ArrayList<>(), null)).getBook_id();
+
+        mockMvc.perform(get("/api/books/" + bookId))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.title").value("Binary book"));
+
+        byte[] cbor = mockMvc.perform(get("/api/books/" + bookId).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode book = new CBORMapper().readTree(cbor);
+        assertEquals("Binary book", book.get("title").asText());
+        assertEquals(2, book.get("quantity").asInt());
+
+        byte[] smile = mockMvc.perform(get("/api/books").param("fields", "book_id,title")
+                        .accept(BinaryEncodingConfig.APPLICATION_SMILE))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals("Binary book", new SmileMapper().readTree(smile).findValues("title").stream()
+                .map(JsonNode::asText).filter("Binary book"::equals).findFirst().orElse(null));
+
+        mockMvc.perform(get("/api/books").accept(MediaType.ALL))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void booksAreGzippedOnlyWhenTheClientAcceptsIt() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        // Long enough for the cache to keep a gzipped copy
+        Author author = authorRepository.save(new Author("Gzipped", "Author with a long name".repeat(10)));
+        String title = "Gzipped book" + ", with a long title".repeat(12);
+        long bookId = bookService.createBook(new Book(title, "9781000000306", "Press ".repeat(40), 2017,
+                "AVAILABLE", "A long description. ".repeat(12), author, 2, 4, new ArrayList<>(), null)).getBook_id();
+
+        for (String acceptEncoding : new String[]{"gzip", "x-gzip", "br, gzip;q=0.8", "*;q=0.5", "GZIP; Q=1"}) {
+            mockMvc.perform(get("/api/books/" + bookId).header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                    .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT_ENCODING)));
+        }
+        for (String acceptEncoding : new String[]{"gzip;q=0", "x-gzip;q=0.0, identity", "*;q=0", "gzip;q=0, *", "identity"}) {
+            mockMvc.perform(get("/api/books/" + bookId).header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                    .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT_ENCODING)))
+                    .andExpect(jsonPath("$.title").value(title));
+        }
+
+        // A revalidated copy is still keyed by encoding in shared caches
+        String etag = mockMvc.perform(get("/api/books/" + bookId).header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/api/books/" + bookId).header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT_ENCODING)));
+    }
+}
@@ -0,0 +1,117 @@
+package com.csis231.api;
+
+import com.csis231.api.model.Author;
+import com.csis231.api.model.Book;
+import com.csis231.api.model.BookCopy;
+import com.csis231.api.model.User;
+import com.csis231.api.repository.AuthorRepository;
+import com.csis231.api.repository.BookCopyRepository;
+import com.csis231.api.repository.UserRepository;
+import com.csis231.api.service.BookCopyService;
+import com.csis231.api.service.BookService;
+import com.csis231.api.service.InventoryService;
+import com.csis231.api.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that books with registered copies are lent and returned copy by copy.
+ */
+@SpringBootTest
+class BookCopyServiceTests {
+
+    @Autowired
+    private BookCopyService bookCopyService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookCopyRepository bookCopyRepository;
+
+    @Test
+    void loansClaimAndReleaseCopies() {
+        Author author = authorRepository.save(new Author("Copy", "Author"));
+        User first = userRepository.save(new User("copy-1", "Copy", "One", "copy1@example.com", null, null, "USER", "secret"));
+        User second = userRepository.save(new User("copy-2", "Copy", "Two", "copy2@example.com", null, null, "USER", "secret"));
+        User third = userRepository.save(new User("copy-3", "Copy", "Three", "copy3@example.com", null, null, "USER", "secret"));
+        long bookId = bookService.createBook(new Book("Copy book", "9781000000016", "Press", 2005,
+                "AVAILABLE", "", author, 5, 4, new ArrayList<>(), null)).getBook_id();
+
+        // Registering copies switches the book to lending by copy: only registered copies count
+        bookCopyService.registerCopy(bookId, " lib-0001 ");
+        bookCopyService.registerCopy(bookId, "LIB-0002");
+        assertEquals(2, inventoryService.getAvailable(bookId));
+        assertThrows(IllegalArgumentException.class, () -> bookCopyService.registerCopy(bookId, "lib-0002"));
+
+        // The scanned copy alone identifies the book; the other borrower gets the remaining copy
+        transactionService.borrowBook(null, first.getUsername(), "lib-0002");
+        transactionService.borrowBook(bookId, second.getUsername());
+        assertEquals(BookCopy.Status.ON_LOAN, bookCopyService.getCopyByBarcode("LIB-0001").getStatus());
+        assertEquals(0, inventoryService.getAvailable(bookId));
+        assertThrows(RuntimeException.class, () -> transactionService.borrowBook(bookId, third.getUsername()));
+
+        // Returning by barcode closes the loan of that copy, whoever borrowed it
+        transactionService.returnCopy("LIB-0001");
+        assertEquals(BookCopy.Status.AVAILABLE, bookCopyService.getCopyByBarcode("LIB-0001").getStatus());
+        assertEquals(1, inventoryService.getAvailable(bookId));
+        assertEquals("LIB-0001", transactionService.getTransactionsByUser(second.getUsername()).get(0).getBarcode());
+
+        // A written-off copy leaves the stock and the barcode index
+        bookCopyService.writeOffCopy("LIB-0001");
+        assertEquals(0, inventoryService.getAvailable(bookId));
+        assertThrows(IllegalStateException.class, () -> bookCopyService.writeOffCopy("LIB-0002"));
+    }
+
+    @Test
+    void firstCopyWaitsForLoansMadeByCount() {
+        Author author = authorRepository.save(new Author("Counted", "Author"));
+        User reader = userRepository.save(new User("copy-counted", "Counted", "Reader", "counted@example.com", null, null, "USER", "secret"));
+        long bookId = bookService.createBook(new Book("Counted book", "9781000000214", "Press", 2006,
+                "AVAILABLE", "", author, 3, 4, new ArrayList<>(), null)).getBook_id();
+
+        // A copy lent by count is still out: switching to copies now would lose track of it
+        transactionService.borrowBook(bookId, reader.getUsername());
+        assertThrows(IllegalStateException.class, () -> bookCopyService.registerCopy(bookId, "LIB-COUNTED-1"));
+        assertEquals(2, inventoryService.getAvailable(bookId));
+
+        transactionService.returnBook(bookId, reader.getUsername());
+        bookCopyService.registerCopy(bookId, "LIB-COUNTED-1");
+        bookCopyService.registerCopy(bookId, "LIB-COUNTED-2");
+        assertEquals(2, inventoryService.getAvailable(bookId));
+    }
+
+    @Test
+    void copyMissingFromTheIndexIsStillClaimed() {
+        Author author = authorRepository.save(new Author("Unindexed", "Author"));
+        User reader = userRepository.save(new User("copy-unindexed", "Unindexed", "Reader", "unindexed@example.com", null, null, "USER", "secret"));
+        long bookId = bookService.createBook(new Book("Unindexed book", "9781000000269", "Press", 2014,
+                "AVAILABLE", "", author, 3, 4, new ArrayList<>(), null)).getBook_id();
+
+        // A copy registered on another node is in the database but not in this node's index yet
+        BookCopy copy = bookCopyRepository.save(new BookCopy(bookId, "LIB-UNINDEXED-1"));
+        assertTrue(bookCopyService.hasCopies(bookId));
+
+        // The loan claims it rather than taking a copy by count, and the index catches up
+        transactionService.borrowBook(bookId, reader.getUsername());
+        assertEquals(BookCopy.Status.ON_LOAN, bookCopyRepository.findById(copy.getCopyId()).orElseThrow().getStatus());
+        assertEquals(BookCopy.Status.ON_LOAN, bookCopyService.getCopyByBarcode("LIB-UNINDEXED-1").getStatus());
+    }
+}
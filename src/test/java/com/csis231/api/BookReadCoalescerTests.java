@@ -0,0 +1,175 @@
+package com.csis231.api;
+
+import com.csis231.api.exception.ResourceNotFoundException;
+import com.csis231.api.model.Author;
+import com.csis231.api.model.Book;
+import com.csis231.api.repository.AuthorRepository;
+import com.csis231.api.service.BookJsonCache;
+import com.csis231.api.service.BookJsonCache.CachedBookJson;
+import com.csis231.api.service.BookReadCoalescer;
+import com.csis231.api.service.BookService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Checks that concurrent book reads share one load, and that book reads are served from the JSON cache
+ * without ever caching a book older than its last commit.
+ */
+@SpringBootTest
+class BookReadCoalescerTests {
+
+    @Autowired
+    private BookReadCoalescer bookReadCoalescer;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // A coalescer of its own around a stubbed book service, to control when and how loads finish
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BookService loader = mock(BookService.class);
+    private final BookJsonCache cache = new BookJsonCache(100, 1024, meterRegistry);
+    private BookReadCoalescer coalescer;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        coalescer = new BookReadCoalescer(loader, cache, objectMapper, meterRegistry);
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentReadsShareOneLoad() throws Exception {
+        List<CompletableFuture<CachedBookJson>> reads = readTwice(invocation -> loadedBook());
+
+        assertSame(reads.get(0).get(5, TimeUnit.SECONDS), reads.get(1).get(5, TimeUnit.SECONDS));
+        verify(loader, times(1)).getBookById(1L);
+        assertEquals(0.5, coalescer.getCoalescingRatio());
+
+        // Later reads are served from the cache
+        assertSame(reads.get(0).get(), coalescer.getBookJson(1L));
+        verify(loader, times(1)).getBookById(1L);
+    }
+
+    @Test
+    void failedLoadIsRethrownToEveryRead() throws Exception {
+        List<CompletableFuture<CachedBookJson>> reads = readTwice(invocation -> {
+            throw new ResourceNotFoundException("Book not found with id: 1");
+        });
+
+        for (CompletableFuture<CachedBookJson> read : reads) {
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> read.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(ResourceNotFoundException.class, failure.getCause());
+        }
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void errorInALoadDoesNotLeaveOtherReadsWaiting() throws Exception {
+        List<CompletableFuture<CachedBookJson>> reads = readTwice(invocation -> {
+            throw new StackOverflowError();
+        });
+
+        for (CompletableFuture<CachedBookJson> read : reads) {
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> read.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(StackOverflowError.class, failure.getCause());
+        }
+    }
+
+    @Test
+    void loadRacingAnInvalidationIsNotCached() {
+        // The book changes while it is being loaded: the loaded JSON may be stale
+        when(loader.getBookById(1L)).thenAnswer(invocation -> {
+            cache.invalidate(1L);
+            return loadedBook();
+        });
+
+        assertNotNull(coalescer.getBookJson(1L));
+        assertNull(cache.get(1L));
+        coalescer.getBookJson(1L);
+        verify(loader, times(2)).getBookById(1L);
+    }
+
+    @Test
+    void readsRacingAnUpdateDoNotCacheTheOldBook() throws Exception {
+        Author author = authorRepository.save(new Author("Racing", "Reader"));
+        long id = bookService.createBook(new Book("Before the update", "9781000000252", "Press", 2013,
+                "AVAILABLE", "", author, 1, 4, new ArrayList<>(), null)).getBook_id();
+        assertEquals("Before the update", title(id));
+
+        // Another request reads the book while the update is not committed yet, and sees the old row
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            bookService.updateBook(id, new Book("After the update", "9781000000252", "Press", 2013,
+                    "AVAILABLE", "", author, 1, 4, new ArrayList<>(), null));
+            assertEquals("Before the update", CompletableFuture.supplyAsync(() -> title(id)).join());
+        });
+
+        assertEquals("After the update", title(id));
+    }
+
+    private String title(long id) {
+        try {
+            return objectMapper.readTree(bookReadCoalescer.getBookJson(id).getJson()).get("title").asText();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Starts a read of book 1, then a second one that joins its load, which finishes with the given answer
+    private List<CompletableFuture<CachedBookJson>> readTwice(Answer<Book> answer) throws InterruptedException {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        when(loader.getBookById(1L)).thenAnswer(invocation -> {
+            loading.countDown();
+            assertTrue(finish.await(5, TimeUnit.SECONDS));
+            return answer.answer(invocation);
+        });
+
+        CompletableFuture<CachedBookJson> first = CompletableFuture.supplyAsync(() -> coalescer.getBookJson(1L), executor);
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        CompletableFuture<CachedBookJson> second = CompletableFuture.supplyAsync(() -> coalescer.getBookJson(1L), executor);
+        for (int i = 0; i < 500 && meterRegistry.counter("library.books.reads", "result", "coalesced").count() == 0; i++) {
+            Thread.sleep(10);
+        }
+        finish.countDown();
+        return List.of(first, second);
+    }
+
+    private static Book loadedBook() {
+        return new Book("Loaded book", "9781000000276", "Press", 2015,
+                "AVAILABLE", "", new Author("Loaded", "Author"), 1, 4, new ArrayList<>(), null);
+    }
+}
@@ -0,0 +1,87 @@
+package com.csis231.api;
+
+import com.csis231.api.DTO.LoanItemResultDTO;
+import com.csis231.api.DTO.NotificationDTO;
+import com.csis231.api.model.Author;
+import com.csis231.api.model.Book;
+import com.csis231.api.model.User;
+import com.csis231.api.repository.AuthorRepository;
+import com.csis231.api.repository.UserRepository;
+import com.csis231.api.service.BookCopyService;
+import com.csis231.api.service.BookService;
+import com.csis231.api.service.InventoryService;
+import com.csis231.api.service.NotificationService;
+import com.csis231.api.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that kiosk checkouts and returns report each book on its own.
+ */
+@SpringBootTest
+class BulkLoanTests {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookCopyService bookCopyService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void bulkCheckoutAndReturnReportEachBook() {
+        Author author = authorRepository.save(new Author("Kiosk", "Author"));
+        User reader = userRepository.save(new User("kiosk-1", "Kiosk", "Reader", "kiosk@example.com", null, null, "USER", "secret"));
+        long counted = createBook(author, "9781000000078", 2);
+        long outOfStock = createBook(author, "9781000000085", 0);
+        long byCopy = createBook(author, "9781000000092", 0);
+        bookCopyService.registerCopy(byCopy, "KIOSK-COPY-1");
+
+        List<LoanItemResultDTO> borrowed = transactionService.borrowBooks(reader.getUsername(),
+                List.of(outOfStock, counted, counted, -1L), List.of("kiosk-copy-1"));
+        assertEquals(List.of("FAILED", "BORROWED", "FAILED", "FAILED", "BORROWED"),
+                borrowed.stream().map(LoanItemResultDTO::getStatus).toList());
+        assertEquals(1, inventoryService.getAvailable(counted));
+        assertEquals(0, inventoryService.getAvailable(byCopy));
+
+        // One reminder, about every borrowed book
+        List<NotificationDTO> reminders = notificationService.getAllNotifications().stream()
+                .filter(notification -> notification.getUsername().equals(reader.getUsername())).toList();
+        assertEquals(1, reminders.size());
+        assertNull(reminders.get(0).getBook_id());
+        assertEquals(List.of(counted, byCopy), reminders.get(0).getBook_ids());
+        assertEquals("Don't forget to return the 2 books you borrowed!", reminders.get(0).getMessage());
+
+        List<LoanItemResultDTO> returned = transactionService.returnBooks(reader.getUsername(),
+                List.of(counted, outOfStock), List.of("KIOSK-COPY-1"));
+        assertEquals(List.of("RETURNED", "FAILED", "RETURNED"),
+                returned.stream().map(LoanItemResultDTO::getStatus).toList());
+        assertEquals(2, inventoryService.getAvailable(counted));
+        assertEquals(1, inventoryService.getAvailable(byCopy));
+    }
+
+    private long createBook(Author author, String isbn, int quantity) {
+        return bookService.createBook(new Book("Kiosk book " + isbn, isbn, "Press", 2010,
+                "AVAILABLE", "", author, quantity, 4, new ArrayList<>(), null)).getBook_id();
+    }
+}
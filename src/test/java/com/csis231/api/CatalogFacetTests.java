@@ -0,0 +1,82 @@
+package com.csis231.api;
+
+import com.csis231.api.model.Author;
+import com.csis231.api.model.Book;
+import com.csis231.api.model.Genre;
+import com.csis231.api.model.User;
+import com.csis231.api.repository.AuthorRepository;
+import com.csis231.api.repository.GenreRepository;
+import com.csis231.api.repository.UserRepository;
+import com.csis231.api.service.BookService;
+import com.csis231.api.service.CatalogFacetIndex;
+import com.csis231.api.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that catalog facets follow book changes and loans.
+ */
+@SpringBootTest
+class CatalogFacetTests {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private CatalogFacetIndex catalogFacetIndex;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void facetsCountBooksOfAnAuthor() {
+        Author author = authorRepository.save(new Author("Facet", "Author"));
+        Genre poetry = genreRepository.save(new Genre("Facet poetry"));
+        User reader = userRepository.save(new User("facet-1", "Facet", "Reader", "facet@example.com", null, null, "USER", "secret"));
+        long lastCopy = createBook(author, "9781000000139", 1995, "AVAILABLE", 1, List.of(poetry));
+        createBook(author, "9781000000146", 1999, "AVAILABLE", 3, List.of());
+        long repair = createBook(author, "9781000000153", 2004, "IN REPAIR", 2, List.of(poetry));
+
+        // Borrowing the last copy makes the book unavailable
+        transactionService.borrowBook(lastCopy, reader.getUsername());
+
+        Map<String, Object> facets = bookService.getFacets(null, null, null, author.getAuthor_id(), null, null, null, 20);
+        assertEquals(3L, facets.get("total"));
+        assertEquals(Map.of(poetry.getGenreId(), 2), facets.get("genres"));
+        assertEquals(Map.of(author.getAuthor_id(), 3), facets.get("authors"));
+        assertEquals(Map.of("1990-1999", 2, "2000-2009", 1), facets.get("published_years"));
+        assertEquals(Map.of("AVAILABLE", 1, "UNAVAILABLE", 1, "IN REPAIR", 1), facets.get("statuses"));
+
+        // Filters narrow every facet, and the index agrees with the database after a rebuild
+        bookService.deleteBook(repair);
+        catalogFacetIndex.rebuild();
+        Map<String, Object> available = bookService.getFacets(List.of(poetry.getGenreId()), null, null,
+                author.getAuthor_id(), 1990, 1999, "UNAVAILABLE", 20);
+        assertEquals(1L, available.get("total"));
+        assertEquals(Map.of("UNAVAILABLE", 1), available.get("statuses"));
+        assertEquals(0, ((Map<String, Integer>) bookService.getFacets(null, null, null, author.getAuthor_id(),
+                2000, null, null, 20).get("published_years")).size());
+    }
+
+    private long createBook(Author author, String isbn, int year, String status, int quantity, List<Genre> genres) {
+        return bookService.createBook(new Book("Facet book " + isbn, isbn, "Press", year,
+                status, "", author, quantity, 4, new ArrayList<>(genres), null)).getBook_id();
+    }
+}
@@ -0,0 +1,62 @@
+package com.csis231.api;
+
+import com.csis231.api.model.Author;
+import com.csis231.api.model.Book;
+import com.csis231.api.repository.AuthorRepository;
+import com.csis231.api.repository.BookRepository;
+import com.csis231.api.service.CatalogStreamService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that the reactive catalog reads rows written through JPA, and is only served as a stream.
+ */
+@SpringBootTest
+class CatalogStreamServiceTests {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private CatalogStreamService catalogStreamService;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Test
+    void streamsBooksWithTheirAuthor() {
+        Author author = authorRepository.save(new Author("Ursula", "Le Guin"));
+        bookRepository.save(new Book("The Dispossessed", "9780060512750", "Harper", 1974,
+                "Available", "An ambiguous utopia", author, 3, 5, new ArrayList<>(), null));
+
+        StepVerifier.create(catalogStreamService.streamBooks()
+                        .filter(book -> "9780060512750".equals(book.getISBN())))
+                .expectNextMatches(book -> book.getQuantity() == 3
+                        && book.getAuthor() != null
+                        && "Le Guin".equals(book.getAuthor().getLastName()))
+                .verifyComplete();
+    }
+
+    @Test
+    void rowsAreNotBufferedIntoAnArray() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        mockMvc.perform(get("/api/reactive/genres").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotAcceptable());
+        mockMvc.perform(get("/api/reactive/genres").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk());
+    }
+}
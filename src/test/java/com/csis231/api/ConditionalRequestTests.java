@@ -0,0 +1,118 @@
+package com.csis231.api;
+
+import com.csis231.api.model.Author;
+import com.csis231.api.model.Book;
+import com.csis231.api.repository.AuthorRepository;
+import com.csis231.api.repository.VersionStamp;
+import com.csis231.api.service.BookService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Checks that the book endpoints answer conditional GET requests with 304 Not Modified while the client's copy
+ * is current, and with the new version and ETag once the book changes.
+ */
+@SpringBootTest
+class ConditionalRequestTests {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    private MockMvc mockMvc;
+    private Author author;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        author = authorRepository.save(new Author("Conditional", "Author"));
+    }
+
+    @Test
+    void bookListIsNotSentAgainUntilABookChanges() throws Exception {
+        long bookId = bookService.createBook(book("Conditional list", "9781000000283")).getBook_id();
+        VersionStamp before = bookService.getBooksVersion();
+        String etag = mockMvc.perform(get("/api/books"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // The list is only known to hold the same rows, so its ETag is weak
+        assertNotNull(etag);
+        assertTrue(etag.startsWith("W/\""), etag);
+        mockMvc.perform(get("/api/books").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // If-None-Match compares weakly, so the strong form of the tag matches as well; "*" matches any current list
+        mockMvc.perform(get("/api/books").header(HttpHeaders.IF_NONE_MATCH, etag.substring(2)))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/books").header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/books").header(HttpHeaders.IF_NONE_MATCH, "W/\"0-0\""))
+                .andExpect(status().isOk());
+
+        // Leave the stamp a millisecond to move on, then change the book
+        Thread.sleep(10);
+        bookService.updateBook(bookId, book("Conditional list, revised", "9781000000283"));
+        VersionStamp after = bookService.getBooksVersion();
+        assertTrue(after.getLastModifiedMillis() > before.getLastModifiedMillis());
+        String updatedEtag = mockMvc.perform(get("/api/books").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, updatedEtag);
+    }
+
+    @Test
+    void bookIsNotSentAgainUntilItChanges() throws Exception {
+        long bookId = bookService.createBook(book("Conditional book", "9781000000290")).getBook_id();
+        String etag = mockMvc.perform(get("/api/books/" + bookId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Conditional book"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // The exact bytes are cached, so the book's ETag is strong; a weak copy of it still matches If-None-Match
+        assertNotNull(etag);
+        assertTrue(etag.startsWith("\""), etag);
+        mockMvc.perform(get("/api/books/" + bookId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/api/books/" + bookId).header(HttpHeaders.IF_NONE_MATCH, "W/" + etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/books/" + bookId).header(HttpHeaders.IF_NONE_MATCH, "\"other\", " + etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/books/" + bookId).header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isNotModified());
+
+        // Once updated, the book is sent again with a new ETag
+        bookService.updateBook(bookId, book("Conditional book, revised", "9781000000290"));
+        String updatedEtag = mockMvc.perform(get("/api/books/" + bookId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Conditional book, revised"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, updatedEtag);
+        mockMvc.perform(get("/api/books/" + bookId).header(HttpHeaders.IF_NONE_MATCH, updatedEtag))
+                .andExpect(status().isNotModified());
+    }
+
+    private Book book(String title, String isbn) {
+        return new Book(title, isbn, "Press", 2016, "AVAILABLE", "", author, 2, 4, new ArrayList<>(), null);
+    }
+}
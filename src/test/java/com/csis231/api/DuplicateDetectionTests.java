@@ -0,0 +1,100 @@
+package com.csis231.api;
+
+import com.csis231.api.model.Author;
+import com.csis231.api.model.Book;
+import com.csis231.api.service.AuthorService;
+import com.csis231.api.service.BookService;
+import com.csis231.api.service.DuplicateIndex;
+import com.csis231.api.service.DuplicateReportJob;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that near-duplicate authors and books are flagged on create and listed by the duplicate report.
+ */
+@SpringBootTest
+class DuplicateDetectionTests {
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private DuplicateReportJob duplicateReportJob;
+
+    @Autowired
+    private DuplicateIndex duplicateIndex;
+
+    @Test
+    void nearDuplicatesAreFlaggedAndReported() {
+        Author dotted = authorService.createAuthor(new Author("J.R.R.", "Tolkeen"));
+        Author undotted = authorService.createAuthor(new Author("JRR", "Tolkeen"));
+        Author reversed = authorService.createAuthor(new Author("Tolkeen,", "J. R. R."));
+        Author unrelated = authorService.createAuthor(new Author("Ursula", "Leguinne"));
+
+        // Punctuation, spacing and the order of the name parts are ignored
+        assertEquals(List.of(undotted.getAuthor_id(), reversed.getAuthor_id()),
+                ids(authorService.findLikelyDuplicates(dotted), "author_id").stream().sorted().toList());
+        assertTrue(authorService.findLikelyDuplicates(unrelated).isEmpty());
+
+        // Books: a similar title by the same author or a likely duplicate author
+        Book original = createBook(dotted, "9781000000108", "The Fellowship of the Rung");
+        Book copy = createBook(undotted, "9781000000115", "Fellowship of the Rung");
+        Book other = createBook(unrelated, "9781000000122", "The Fellowship of the Rung");
+        List<Long> duplicates = ids(bookService.findLikelyDuplicates(copy), "book_id");
+        assertEquals(List.of(original.getBook_id()), duplicates);
+        assertFalse(duplicates.contains(other.getBook_id()));
+
+        // The report lists each pair once, lower ID first
+        duplicateReportJob.runReport();
+        List<?> authorPairs = (List<?>) authorService.getDuplicateReport().get("pairs");
+        assertTrue(authorPairs.stream().anyMatch(pair -> isPair(pair, "author_id", dotted.getAuthor_id(), undotted.getAuthor_id())));
+        assertFalse(authorPairs.stream().anyMatch(pair -> isPair(pair, "author_id", undotted.getAuthor_id(), dotted.getAuthor_id())));
+        List<?> bookPairs = (List<?>) bookService.getDuplicateReport().get("pairs");
+        assertTrue(bookPairs.stream().anyMatch(pair -> isPair(pair, "book_id", original.getBook_id(), copy.getBook_id())));
+
+        // Deleted books are no longer flagged
+        bookService.deleteBook(original.getBook_id());
+        assertTrue(bookService.findLikelyDuplicates(copy).isEmpty());
+    }
+
+    @Test
+    void theFirstReportRunsInTheBackground() {
+        List<Runnable> started = new ArrayList<>();
+        DuplicateReportJob job = new DuplicateReportJob(duplicateIndex, new SimpleMeterRegistry(), started::add);
+
+        // Pending, with a single run started however many times it is asked for
+        assertEquals("PENDING", job.getAuthorReport().get("status"));
+        assertEquals(0, job.getBookReport().get("total"));
+        assertEquals(1, started.size());
+
+        started.get(0).run();
+        assertEquals("READY", job.getBookReport().get("status"));
+        assertNotNull(job.getAuthorReport().get("generated_at"));
+        assertEquals(1, started.size());
+    }
+
+    private Book createBook(Author author, String isbn, String title) {
+        return bookService.createBook(new Book(title, isbn, "Press", 1954,
+                "AVAILABLE", "", author, 1, 4, new ArrayList<>(), null));
+    }
+
+    private static List<Long> ids(List<Map<String, Object>> matches, String key) {
+        return matches.stream().map(match -> (Long) match.get(key)).toList();
+    }
+
+    private static boolean isPair(Object pair, String key, long first, long second) {
+        Map<?, ?> entries = (Map<?, ?>) pair;
+        return ((Map<?, ?>) entries.get("first")).get(key).equals(first) && ((Map<?, ?>) entries.get("second")).get(key).equals(second);
+    }
+}
@@ -0,0 +1,109 @@
+package com.csis231.api;
+
+import com.csis231.api.exception.ResourceNotFoundException;
+import com.csis231.api.model.Author;
+import com.csis231.api.model.Book;
+import com.csis231.api.model.Comment;
+import com.csis231.api.model.Genre;
+import com.csis231.api.repository.AuthorRepository;
+import com.csis231.api.repository.GenreRepository;
+import com.csis231.api.service.AuthorService;
+import com.csis231.api.service.BookService;
+import com.csis231.api.service.CommentService;
+import com.csis231.api.service.GenreService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that yes/no checks answer from IDs alone, without loading the books they are about.
+ */
+@SpringBootTest
+class ExistenceQueryTests {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private GenreService genreService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void deletesCheckForBooksWithoutLoadingThem() {
+        Author author = authorRepository.save(new Author("Exists", "Author"));
+        Genre genre = genreRepository.save(new Genre("Existence checks"));
+        for (int i = 1; i <= 3; i++) {
+            bookService.createBook(new Book("Existence book " + i, "97810000020" + i + checkDigit(i), "Press", 2015,
+                    "AVAILABLE", "", author, 1, 4, new ArrayList<>(List.of(genre)), null));
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        try {
+            statistics.clear();
+            assertThrows(IllegalArgumentException.class, () -> genreService.deleteGenre(genre.getGenreId()));
+            assertThrows(IllegalArgumentException.class, () -> authorService.deleteAuthor(author.getAuthor_id()));
+            assertEquals(0, statistics.getEntityStatistics(Book.class.getName()).getLoadCount());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+
+        // Unused authors and genres are still deleted
+        Author unused = authorRepository.save(new Author("Unused", "Author"));
+        Genre empty = genreRepository.save(new Genre("Existence empty"));
+        assertTrue(authorService.deleteAuthor(unused.getAuthor_id()).get("deleted"));
+        assertTrue(genreService.deleteGenre(empty.getGenreId()).get("deleted"));
+    }
+
+    @Test
+    void genresAreValidatedInOneBatch() {
+        Genre first = genreRepository.save(new Genre("Batch first"));
+        Genre second = genreRepository.save(new Genre("Batch second"));
+
+        assertTrue(genreService.doesGenreExistManyGenres(List.of(first.getGenreId(), second.getGenreId(), first.getGenreId())));
+        assertEquals(Long.valueOf(-1), genreService.findMissingGenreId(List.of(first.getGenreId(), -1L, -2L)));
+        assertEquals(2, genreService.getGenresByIds(List.of(second.getGenreId(), first.getGenreId(), second.getGenreId())).size());
+        ResourceNotFoundException missing = assertThrows(ResourceNotFoundException.class,
+                () -> genreService.getGenresByIds(List.of(first.getGenreId(), -7L)));
+        assertEquals("Genre does not exist with id: -7", missing.getMessage());
+    }
+
+    @Test
+    void commentsOnMissingBooksAreRejected() {
+        Book missing = new Book();
+        missing.setBook_id(-1L);
+        assertThrows(IllegalArgumentException.class, () -> commentService.createComment(new Comment(missing, "Lost", 3)));
+    }
+
+    // ISBN-13 check digit of 97810000020 followed by a single digit
+    private static int checkDigit(int digit) {
+        String prefix = "97810000020" + digit;
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            sum += (prefix.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return (10 - sum % 10) % 10;
+    }
+}
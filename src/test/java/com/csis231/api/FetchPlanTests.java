@@ -0,0 +1,184 @@
+package com.csis231.api;
+
+import com.csis231.api.DTO.NotificationCreateDTO;
+import com.csis231.api.model.Author;
+import com.csis231.api.model.Book;
+import com.csis231.api.model.Comment;
+import com.csis231.api.model.Genre;
+import com.csis231.api.model.Image;
+import com.csis231.api.model.Transaction;
+import com.csis231.api.model.User;
+import com.csis231.api.repository.AuthorRepository;
+import com.csis231.api.repository.GenreRepository;
+import com.csis231.api.repository.ImageRepository;
+import com.csis231.api.repository.TransactionRepository;
+import com.csis231.api.repository.UserRepository;
+import com.csis231.api.service.BookJsonCache;
+import com.csis231.api.service.BookService;
+import com.csis231.api.service.CommentService;
+import com.csis231.api.service.FineService;
+import com.csis231.api.service.NotificationService;
+import com.csis231.api.service.TransactionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.sql.rowset.serial.SerialBlob;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the SQL each read endpoint issues: the statements do not grow with the number of rows,
+ * and no association is loaded lazily while the response is serialized.
+ */
+@SpringBootTest
+class FetchPlanTests {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookJsonCache bookJsonCache;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private FineService fineService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void enableStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void disableStatistics() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void readEndpointsLoadOnlyWhatTheySerialize() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        Author author = authorRepository.save(new Author("Fetch", "Plan"));
+        Genre genre = genreRepository.save(new Genre("Fetch plans"));
+        Image cover = imageRepository.save(new Image(new SerialBlob(new byte[]{1, 2, 3})));
+        User reader = userRepository.save(new User("fetch-1", "Fetch", "Reader", "fetch@example.com", null, null, "USER", "secret"));
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            books.add(bookService.createBook(new Book("Fetch book " + i, "97810000030" + i + checkDigit("97810000030" + i),
+                    "Press", 2016, "AVAILABLE", "", author, 2, 4, new ArrayList<>(List.of(genre)), cover)));
+        }
+        for (Book book : books) {
+            transactionService.borrowBook(book.getBook_id(), reader.getUsername());
+        }
+        List<Transaction> loans = transactionRepository.findByUserUsername(reader.getUsername());
+        for (Transaction loan : loans) {
+            fineService.createFine(loan.getTransactionId());
+        }
+        long notificationId = notificationService.createNotificationBorrow(
+                new NotificationCreateDTO(books.get(0).getBook_id(), reader.getUsername())).getNotification_id();
+        long commentId = commentService.createComment(new Comment(books.get(0), "Well fetched", 5)).getCommentId();
+
+        // A book with its author, genres and image, all embedded in its JSON, in one query
+        long bookId = books.get(0).getBook_id();
+        bookJsonCache.invalidate(bookId);
+        assertStatements(1, () -> mockMvc.perform(get("/api/books/" + bookId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.author.firstName").value("Fetch"))
+                .andExpect(jsonPath("$.genres[0].type").value("Fetch plans"))
+                .andExpect(jsonPath("$.image.imageBase64").value("AQID")));
+
+        // The list: its version stamp over books, authors, genres and the ledger, then the books in one query
+        assertStatements(5, () -> mockMvc.perform(get("/api/books")).andExpect(status().isOk()));
+
+        // Loans, fines and notifications show the IDs of what they refer to: no book, author or image is loaded
+        assertStatements(2, () -> mockMvc.perform(get("/api/transactions/users/" + reader.getUsername()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3)));
+        assertNotLoaded(User.class, Book.class, Author.class, Image.class);
+        assertStatements(2, () -> mockMvc.perform(get("/api/fines")).andExpect(status().isOk()));
+        assertNotLoaded(Transaction.class, User.class, Book.class, Author.class, Image.class);
+        assertStatements(1, () -> mockMvc.perform(get("/api/notifications")).andExpect(status().isOk()));
+        assertNotLoaded(Transaction.class, User.class, Book.class, Author.class, Image.class);
+
+        long fineId = fineService.getAllFines().get(0).getFine_id();
+        assertStatements(1, () -> mockMvc.perform(get("/api/fines/" + fineId)).andExpect(status().isOk()));
+        assertNotLoaded(Transaction.class, Book.class);
+        assertStatements(1, () -> mockMvc.perform(get("/api/notifications/" + notificationId)).andExpect(status().isOk()));
+        assertNotLoaded(Transaction.class, User.class, Book.class);
+        assertStatements(2, () -> mockMvc.perform(get("/api/comments/" + commentId)).andExpect(status().isOk()));
+        assertNotLoaded(Book.class);
+    }
+
+    // Runs a request and checks the number of statements it issued, and that nothing was fetched lazily
+    private void assertStatements(long expected, ThrowingRunnable request) throws Exception {
+        statistics.clear();
+        request.run();
+        assertEquals(0, statistics.getEntityFetchCount(), "entities loaded lazily");
+        assertEquals(0, statistics.getCollectionFetchCount(), "collections loaded lazily");
+        assertEquals(expected, statistics.getPrepareStatementCount(), "statements issued");
+    }
+
+    // Checks that the last request loaded none of the given entities
+    private void assertNotLoaded(Class<?>... entities) {
+        for (Class<?> entity : entities) {
+            assertEquals(0, statistics.getEntityStatistics(entity.getName()).getLoadCount(), entity.getSimpleName() + " loaded");
+        }
+    }
+
+    // ISBN-13 check digit of the first 12 digits
+    private static int checkDigit(String prefix) {
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            sum += (prefix.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return (10 - sum % 10) % 10;
+    }
+
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
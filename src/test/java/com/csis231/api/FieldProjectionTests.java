@@ -0,0 +1,67 @@
+package com.csis231.api;
+
+import com.csis231.api.model.Author;
+import com.csis231.api.model.Book;
+import com.csis231.api.model.User;
+import com.csis231.api.repository.AuthorRepository;
+import com.csis231.api.repository.UserRepository;
+import com.csis231.api.service.BookService;
+import com.csis231.api.service.TransactionService;
+import com.csis231.api.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that list endpoints return only the requested fields.
+ */
+@SpringBootTest
+class FieldProjectionTests {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void listsSelectOnlyRequestedFields() {
+        Author author = authorRepository.save(new Author("Sparse", "Author"));
+        User reader = userRepository.save(new User("sparse-1", "Sparse", "Reader", "sparse@example.com", null, null, "USER", "secret"));
+        long bookId = bookService.createBook(new Book("Sparse book", "9781000000177", "Press", 2010,
+                "AVAILABLE", "", author, 2, 4, new ArrayList<>(), null)).getBook_id();
+        transactionService.borrowBook(bookId, reader.getUsername());
+
+        // The stock comes from the ledger, the author ID from the foreign key
+        Map<String, Object> book = bookService.getAllBooks("quantity, title,author_id").stream()
+                .filter(row -> "Sparse book".equals(row.get("title")))
+                .findFirst().orElseThrow();
+        assertEquals(List.of("quantity", "title", "author_id"), new ArrayList<>(book.keySet()));
+        assertEquals(1, book.get("quantity"));
+        assertEquals(author.getAuthor_id(), book.get("author_id"));
+
+        // Loans without a copy keep their row, with a null barcode
+        Map<String, Object> loan = transactionService.getAllTransactions("username,book_id,barcode").stream()
+                .filter(row -> reader.getUsername().equals(row.get("username")))
+                .findFirst().orElseThrow();
+        assertEquals(bookId, loan.get("book_id"));
+        assertNull(loan.get("barcode"));
+
+        assertThrows(IllegalArgumentException.class, () -> userService.getAllUsers("username,password"));
+    }
+}
@@ -0,0 +1,72 @@
+package com.csis231.api;
+
+import com.csis231.api.model.Author;
+import com.csis231.api.model.Book;
+import com.csis231.api.model.Genre;
+import com.csis231.api.repository.AuthorRepository;
+import com.csis231.api.repository.GenreRepository;
+import com.csis231.api.service.BookService;
+import com.csis231.api.service.GenreIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that genre combinations are answered from the genre index, kept current by book changes.
+ */
+@SpringBootTest
+class GenreIndexTests {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private GenreIndex genreIndex;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Test
+    void genreCombinationsFollowBookChanges() {
+        Author author = authorRepository.save(new Author("Genre", "Author"));
+        Genre fantasy = genreRepository.save(new Genre("Index fantasy"));
+        Genre youngAdult = genreRepository.save(new Genre("Index young adult"));
+        Genre horror = genreRepository.save(new Genre("Index horror"));
+        long first = createBook(author, "9781000000023", List.of(fantasy, youngAdult));
+        long second = createBook(author, "9781000000030", List.of(fantasy, youngAdult, horror));
+        createBook(author, "9781000000047", List.of(fantasy));
+
+        // fantasy AND young-adult NOT horror
+        List<Long> fantasyAndYoungAdult = List.of(fantasy.getGenreId(), youngAdult.getGenreId());
+        Map<String, Object> result = bookService.findByGenres(fantasyAndYoungAdult, null, List.of(horror.getGenreId()), 0, 10);
+        assertEquals(1L, result.get("total"));
+        assertEquals(first, ((List<?>) result.get("books")).stream().map(book -> ((Book) book).getBook_id()).findFirst().orElseThrow());
+
+        // The facet counts cover every genre of the matching books
+        Map<Long, Integer> counts = genreIndex.countByGenre(genreIndex.match(List.of(fantasy.getGenreId()), List.of(), List.of()));
+        assertEquals(3, counts.get(fantasy.getGenreId()));
+        assertEquals(2, counts.get(youngAdult.getGenreId()));
+        assertEquals(1, counts.get(horror.getGenreId()));
+
+        // Deleted books leave the index, and a rebuild from the database agrees
+        bookService.deleteBook(second);
+        assertEquals(0, genreIndex.match(List.of(horror.getGenreId()), List.of(), List.of()).getCardinality());
+        genreIndex.rebuild();
+        assertEquals(0, genreIndex.match(List.of(horror.getGenreId()), List.of(), List.of()).getCardinality());
+        assertEquals(2, genreIndex.match(fantasyAndYoungAdult.subList(0, 1), List.of(), List.of()).getCardinality());
+    }
+
+    private long createBook(Author author, String isbn, List<Genre> genres) {
+        return bookService.createBook(new Book("Genre book " + isbn, isbn, "Press", 2011,
+                "AVAILABLE", "", author, 1, 4, new ArrayList<>(genres), null)).getBook_id();
+    }
+}
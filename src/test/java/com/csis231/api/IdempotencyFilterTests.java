@@ -0,0 +1,128 @@
+package com.csis231.api;
+
+import com.csis231.api.config.IdempotencyFilter;
+import com.csis231.api.model.Author;
+import com.csis231.api.model.Book;
+import com.csis231.api.model.IdempotencyRecord;
+import com.csis231.api.model.User;
+import com.csis231.api.repository.AuthorRepository;
+import com.csis231.api.repository.IdempotencyRecordRepository;
+import com.csis231.api.repository.TransactionRepository;
+import com.csis231.api.repository.UserRepository;
+import com.csis231.api.service.BookService;
+import com.csis231.api.service.IdempotencyStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Checks that retried requests carrying an Idempotency-Key run only once.
+ */
+@SpringBootTest
+class IdempotencyFilterTests {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private IdempotencyFilter idempotencyFilter;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Test
+    void retriedBorrowIsReplayedInsteadOfRunAgain() throws Exception {
+        // Built on the shared test context rather than with @AutoConfigureMockMvc, which would start another one
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).addFilters(idempotencyFilter).build();
+        Author author = authorRepository.save(new Author("Retry", "Author"));
+        User reader = userRepository.save(new User("retry-1", "Retry", "Reader", "retry@example.com", null, null, "USER", "secret"));
+        long bookId = bookService.createBook(new Book("Retry book", "9781000000191", "Press", 2012,
+                "AVAILABLE", "", author, 3, 4, new ArrayList<>(), null)).getBook_id();
+        String body = "{\"bookId\": " + bookId + ", \"username\": \"retry-1\"}";
+
+        mockMvc.perform(post("/api/transactions/borrow").header("Idempotency-Key", "borrow-retry-1")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+
+        // The retry gets the first response back, without a second loan
+        mockMvc.perform(post("/api/transactions/borrow").header("Idempotency-Key", "borrow-retry-1")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.message").value("Book borrowed successfully."));
+        assertEquals(1, transactionRepository.findByUserUsername(reader.getUsername()).size());
+
+        // The same key cannot be reused for another request
+        mockMvc.perform(post("/api/transactions/borrow").header("Idempotency-Key", "borrow-retry-1")
+                        .contentType(MediaType.APPLICATION_JSON).content(body.replace("retry-1", "retry-2")))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void retryTakesOverAClaimPastItsLease() {
+        LocalDateTime expiresAt = LocalDateTime.now().plusHours(1);
+        idempotencyRecordRepository.saveAndFlush(new IdempotencyRecord("lease-stale", "fingerprint", "node-a",
+                LocalDateTime.now().minusMinutes(5), expiresAt));
+        idempotencyRecordRepository.saveAndFlush(new IdempotencyRecord("lease-fresh", "fingerprint", "node-a", expiresAt));
+
+        // A request still within its lease keeps its key
+        assertEquals(IdempotencyRecord.Status.IN_PROGRESS,
+                idempotencyStore.begin("lease-fresh", "fingerprint", "node-b").orElseThrow().getStatus());
+
+        // A claim past its lease is not taken over by another request, only by a retry, and by one retry only
+        assertTrue(idempotencyStore.begin("lease-stale", "other", "node-b").isPresent());
+        assertTrue(idempotencyStore.begin("lease-stale", "fingerprint", "node-b").isEmpty());
+        assertTrue(idempotencyStore.begin("lease-stale", "fingerprint", "node-c").isPresent());
+        assertTrue(idempotencyRecordRepository.findById("lease-stale").orElseThrow().getClaimedAt()
+                .isAfter(LocalDateTime.now().minusMinutes(1)));
+    }
+
+    @Test
+    void requestTakenOverCannotCompleteOrReleaseTheKey() {
+        LocalDateTime expiresAt = LocalDateTime.now().plusHours(1);
+        idempotencyRecordRepository.saveAndFlush(new IdempotencyRecord("lease-lost", "fingerprint", "node-a",
+                LocalDateTime.now().minusMinutes(5), expiresAt));
+        assertTrue(idempotencyStore.begin("lease-lost", "fingerprint", "node-b").isEmpty());
+
+        // The slow first request finishes after the retry took its key over: its outcome is dropped
+        assertFalse(idempotencyStore.complete("lease-lost", "fingerprint", "node-a", 201, null, new byte[0]));
+        assertFalse(idempotencyStore.release("lease-lost", "node-a"));
+        IdempotencyRecord record = idempotencyRecordRepository.findById("lease-lost").orElseThrow();
+        assertEquals(IdempotencyRecord.Status.IN_PROGRESS, record.getStatus());
+        assertEquals("node-b", record.getOwner());
+
+        // The retry holding the key stores its response, which later retries get back
+        assertTrue(idempotencyStore.complete("lease-lost", "fingerprint", "node-b", 200, null, "{}".getBytes()));
+        assertEquals(200, idempotencyStore.begin("lease-lost", "fingerprint", "node-d").orElseThrow()
+                .getResponseStatus());
+        assertEquals(IdempotencyRecord.Status.COMPLETED,
+                idempotencyRecordRepository.findById("lease-lost").orElseThrow().getStatus());
+    }
+}
@@ -0,0 +1,139 @@
+package com.csis231.api;
+
+import com.csis231.api.model.Image;
+import com.csis231.api.repository.ImageRepository;
+import com.csis231.api.service.ImageCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.sql.rowset.serial.SerialBlob;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Checks that cover images are served from the off-heap cache, and that the cache evicts by its byte budget
+ * without ever reusing the pages of an image still being written.
+ */
+@SpringBootTest
+class ImageCacheTests {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private ImageCache imageCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void imagesAreServedFromTheCache() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        byte[] png = image(200_000, 0x89, 'P', 'N', 'G');
+        long id = imageRepository.save(new Image(new SerialBlob(png))).getId();
+        imageCache.invalidate(id);
+        double hits = requests("hit");
+
+        // Read from the database on the first request, from the cache on the next
+        for (int i = 0; i < 2; i++) {
+            MvcResult result = mockMvc.perform(get("/api/images/" + id))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            result.getAsyncResult();
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType("image/png"))
+                    .andExpect(header().longValue("Content-Length", png.length))
+                    .andExpect(content().bytes(png));
+        }
+        assertEquals(hits + 1, requests("hit"));
+
+        // A client holding the image revalidates it without a body
+        String etag = "\"image-" + id + "-" + png.length + "\"";
+        mockMvc.perform(get("/api/images/" + id).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        MvcResult missing = mockMvc.perform(get("/api/images/0")).andReturn();
+        missing.getAsyncResult();
+        mockMvc.perform(asyncDispatch(missing))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").exists());
+    }
+
+    @Test
+    void leastRecentlyUsedImagesAreEvicted() throws IOException {
+        // Room for 4 pages of 1 KB
+        ImageCache cache = new ImageCache(DataSize.ofKilobytes(4), DataSize.ofKilobytes(1), DataSize.ofKilobytes(4),
+                new SimpleMeterRegistry());
+        put(cache, 1, 1500).close();
+        put(cache, 2, 1024).close();
+        put(cache, 3, 10).close();
+        assertEquals(4 * 1024, cache.getUsedBytes());
+
+        // Image 1 is used again, so image 2 is the one evicted to make room
+        cache.acquire(1).close();
+        put(cache, 4, 500).close();
+        assertNull(cache.acquire(2));
+        assertNotNull(cache.acquire(1));
+        assertEquals(3, cache.size());
+
+        // Too large for the cache: not cached, nothing evicted
+        assertNull(cache.put(5, 5000, "image/png", "\"5\"", new ByteArrayInputStream(new byte[5000])));
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void pinnedPagesAreNotReused() throws IOException {
+        ImageCache cache = new ImageCache(DataSize.ofKilobytes(2), DataSize.ofKilobytes(1), DataSize.ofKilobytes(2),
+                new SimpleMeterRegistry());
+        byte[] first = image(2048, 'G', 'I', 'F', '8');
+        ImageCache.CachedImage writing = cache.put(1, first.length, "image/gif", "\"1\"", new ByteArrayInputStream(first));
+
+        // Everything is pinned by the image being written: the next one cannot be cached
+        assertNull(put(cache, 2, 1024));
+        cache.invalidate(1);
+        assertNull(put(cache, 2, 1024));
+
+        // The evicted image is still written whole, and its pages freed once done
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writing.writeTo(out);
+        writing.close();
+        assertArrayEquals(first, out.toByteArray());
+        assertEquals(0, cache.getUsedBytes());
+        assertNotNull(put(cache, 2, 1024));
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("library.cache.images.requests").tag("result", result).functionCounter().count();
+    }
+
+    private static ImageCache.CachedImage put(ImageCache cache, long id, int length) throws IOException {
+        return cache.put(id, length, "image/png", "\"" + id + "\"", new ByteArrayInputStream(image(length, 0x89, 'P', 'N', 'G')));
+    }
+
+    // An image of the given size, starting with the signature of its format
+    private static byte[] image(int length, int... signature) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) (i < signature.length ? signature[i] : i * 31);
+        }
+        return bytes;
+    }
+}
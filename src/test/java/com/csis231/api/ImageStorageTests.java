@@ -0,0 +1,193 @@
+package com.csis231.api;
+
+import com.csis231.api.model.Author;
+import com.csis231.api.model.Book;
+import com.csis231.api.model.Image;
+import com.csis231.api.model.ImageObject;
+import com.csis231.api.repository.AuthorRepository;
+import com.csis231.api.repository.BookRepository;
+import com.csis231.api.repository.ImageBlobRepository;
+import com.csis231.api.repository.ImageObjectRepository;
+import com.csis231.api.repository.ImageRepository;
+import com.csis231.api.service.BookService;
+import com.csis231.api.service.DatabaseImageStore;
+import com.csis231.api.service.FileSystemImageStore;
+import com.csis231.api.service.ImageMigrationJob;
+import com.csis231.api.service.ImageService;
+import com.csis231.api.service.ImageStorage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.sql.rowset.serial.SerialBlob;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Checks that images are stored once per content, reference-counted, and moved out of their own blobs by the migration job,
+ * on the database and filesystem backends.
+ */
+@SpringBootTest
+class ImageStorageTests {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private ImageService imageService;
+
+    @Autowired
+    private ImageStorage imageStorage;
+
+    @Autowired
+    private DatabaseImageStore databaseImageStore;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private ImageObjectRepository imageObjectRepository;
+
+    @Autowired
+    private ImageBlobRepository imageBlobRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Test
+    void migrationStoresIdenticalImagesOnce() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        byte[] shared = randomImage(1, 40_000);
+        byte[] other = randomImage(2, 30_000);
+        long first = imageRepository.save(new Image(new SerialBlob(shared))).getId();
+        long second = imageRepository.save(new Image(new SerialBlob(shared))).getId();
+        long third = imageRepository.save(new Image(new SerialBlob(other))).getId();
+
+        // Batches of 2 over 3 workers
+        ImageMigrationJob job = new ImageMigrationJob(imageService, imageRepository, 2, 3, new SimpleMeterRegistry());
+        assertTrue(job.migrateImages() >= 3);
+        assertEquals(0, job.migrateImages());
+
+        Image firstImage = imageRepository.findById(first).orElseThrow();
+        Image secondImage = imageRepository.findById(second).orElseThrow();
+        Image thirdImage = imageRepository.findById(third).orElseThrow();
+        assertNull(firstImage.getImage());
+        assertEquals(firstImage.getContentHash(), secondImage.getContentHash());
+        assertNotEquals(firstImage.getContentHash(), thirdImage.getContentHash());
+
+        // One object and one blob for both copies of the shared image
+        ImageObject object = imageObjectRepository.findById(firstImage.getContentHash()).orElseThrow();
+        assertEquals(2, object.getRefCount());
+        assertEquals(shared.length, object.getLength());
+        assertEquals("image/png", object.getContentType());
+        assertEquals("database", object.getStore());
+        assertTrue(imageBlobRepository.existsById(object.getHash()));
+
+        // Served from the store, tagged with the hash of its bytes
+        MvcResult result = mockMvc.perform(get("/api/images/" + second)).andReturn();
+        result.getAsyncResult();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + object.getHash() + "\""))
+                .andExpect(content().bytes(shared));
+    }
+
+    @Test
+    void movedImagesRenewTheBooksShowingThem() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        Image image = imageRepository.save(new Image(new SerialBlob(randomImage(3, 20_000))));
+        Author author = authorRepository.save(new Author("Moved", "Cover"));
+        long bookId = bookService.createBook(new Book("Moved cover", "9781000000221", "Press", 2011,
+                "AVAILABLE", "", author, 1, 4, new ArrayList<>(), image)).getBook_id();
+
+        // Cached with the bytes of its image embedded
+        mockMvc.perform(get("/api/books/" + bookId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.image.imageBase64").isNotEmpty());
+        long stamp = bookRepository.findVersionStamp().getLastModifiedMillis();
+
+        Thread.sleep(5);
+        assertTrue(imageService.moveToStore(image.getId()));
+        assertTrue(bookRepository.findVersionStamp().getLastModifiedMillis() > stamp);
+        mockMvc.perform(get("/api/books/" + bookId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.image.imageBase64").doesNotExist());
+    }
+
+    @Test
+    void filesystemBackendKeepsBytesUntilTheLastReference(@TempDir Path directory) throws Exception {
+        FileSystemImageStore files = new FileSystemImageStore(directory.resolve("store"));
+        ImageStorage storage = new ImageStorage(imageObjectRepository, List.of(databaseImageStore, files), "filesystem",
+                directory.resolve("staging"), transactionManager);
+        byte[] bytes = randomImage(3, 100_000);
+
+        String hash = null;
+        for (int i = 0; i < 2; i++) {
+            try (ImageStorage.StagedImage staged = storage.stage(new ByteArrayInputStream(bytes))) {
+                hash = storage.reference(staged, ImageObject::getHash);
+            }
+        }
+        ImageObject object = storage.find(hash);
+        assertEquals(2, object.getRefCount());
+        assertEquals("filesystem", object.getStore());
+        assertArrayEquals(bytes, Files.readAllBytes(files.path(hash)));
+        assertEquals(0, countFiles(directory.resolve("staging")));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        storage.getStore(object).writeTo(hash, out);
+        assertArrayEquals(bytes, out.toByteArray());
+
+        // The bytes go with the last reference
+        storage.release(hash);
+        assertTrue(Files.exists(files.path(hash)));
+        storage.release(hash);
+        assertFalse(Files.exists(files.path(hash)));
+        assertFalse(imageObjectRepository.existsById(hash));
+
+        assertThrows(IllegalArgumentException.class, () -> new ImageStorage(imageObjectRepository, List.of(files), "s3",
+                directory, transactionManager));
+    }
+
+    private static long countFiles(Path directory) throws Exception {
+        try (var listing = Files.list(directory)) {
+            return listing.count();
+        }
+    }
+
+    // A PNG signature followed by random bytes
+    private static byte[] randomImage(long seed, int length) {
+        byte[] bytes = new byte[length];
+        new Random(seed ^ System.nanoTime()).nextBytes(bytes);
+        bytes[0] = (byte) 0x89;
+        bytes[1] = 'P';
+        bytes[2] = 'N';
+        bytes[3] = 'G';
+        return bytes;
+    }
+}
@@ -0,0 +1,184 @@
+package com.csis231.api;
+
+import com.csis231.api.exception.ImageTooLargeException;
+import com.csis231.api.model.Image;
+import com.csis231.api.model.ImageObject;
+import com.csis231.api.repository.ImageObjectRepository;
+import com.csis231.api.repository.ImageRepository;
+import com.csis231.api.service.ImageStorage;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.sql.rowset.serial.SerialBlob;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Checks that images are uploaded as multipart streams, deduplicated in the image store,
+ * and rejected on their type or size while they are still being read.
+ */
+@SpringBootTest
+class ImageUploadTests {
+
+    private static final String BOUNDARY = "----cover-boundary";
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private ImageStorage imageStorage;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private ImageObjectRepository imageObjectRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void uploadedImagesAreStoredOnce() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        byte[] jpeg = image(300_000, 0xFF, 0xD8, 0xFF, 0xE0);
+
+        long first = upload(mockMvc, jpeg);
+        long second = upload(mockMvc, jpeg);
+        assertNotEquals(first, second);
+
+        // Two images, one object
+        String hash = imageRepository.findById(first).orElseThrow().getContentHash();
+        assertEquals(hash, imageRepository.findById(second).orElseThrow().getContentHash());
+        ImageObject object = imageObjectRepository.findById(hash).orElseThrow();
+        assertEquals(2, object.getRefCount());
+        assertEquals("image/jpeg", object.getContentType());
+
+        MvcResult result = mockMvc.perform(get("/api/images/" + second)).andReturn();
+        result.getAsyncResult();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("image/jpeg"))
+                .andExpect(content().bytes(jpeg));
+    }
+
+    @Test
+    void invalidUploadsAreRejected() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        mockMvc.perform(post("/api/images").contentType("multipart/form-data; boundary=" + BOUNDARY)
+                        .content(multipart("file", "notes.txt", "hello, not an image".getBytes(StandardCharsets.UTF_8))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+        mockMvc.perform(post("/api/images").contentType("multipart/form-data; boundary=" + BOUNDARY)
+                        .content(multipart("cover", "cover.png", image(100, 0x89, 'P', 'N', 'G'))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("The request has no file part"));
+        mockMvc.perform(post("/api/images").contentType("multipart/form-data; boundary=" + BOUNDARY)
+                        .content(multipart("file", "huge.png", image(11 * 1024 * 1024, 0x89, 'P', 'N', 'G'))))
+                .andExpect(status().isPayloadTooLarge());
+    }
+
+    @Test
+    void limitsAreCheckedWhileReading() {
+        Set<String> png = Set.of("image/png");
+
+        // Rejected on its first bytes, without reading the rest
+        CountingStream text = new CountingStream(new byte[1024 * 1024]);
+        assertThrows(IllegalArgumentException.class, () -> imageStorage.stage(text, Long.MAX_VALUE, png));
+        assertTrue(text.read < 64 * 1024);
+
+        // Rejected once past the maximum size
+        CountingStream large = new CountingStream(image(1024 * 1024, 0x89, 'P', 'N', 'G'));
+        assertThrows(ImageTooLargeException.class, () -> imageStorage.stage(large, 100_000, png));
+        assertTrue(large.read <= 100_000 + 64 * 1024);
+
+        assertThrows(IllegalArgumentException.class, () -> imageStorage.stage(new ByteArrayInputStream(new byte[0]), 100, null));
+    }
+
+    @Test
+    void blobImagesAreEncodedWithoutIntCast() throws Exception {
+        byte[] bytes = image(5000, 'G', 'I', 'F', '8');
+        Image image = new Image(new SerialBlob(bytes));
+        assertEquals(Base64.getEncoder().encodeToString(bytes), image.getImageBase64());
+        assertNull(new Image("0".repeat(64)).getImageBase64());
+    }
+
+    private long upload(MockMvc mockMvc, byte[] bytes) throws Exception {
+        String response = mockMvc.perform(post("/api/images").contentType("multipart/form-data; boundary=" + BOUNDARY)
+                        .content(multipart("file", "cover.jpg", bytes)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.imageUrl").exists())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode image = objectMapper.readTree(response);
+        return image.get("id").asLong();
+    }
+
+    // A multipart body with a form field and one file part
+    private static byte[] multipart(String name, String filename, byte[] bytes) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"title\"\r\n\r\nA cover\r\n")
+                .getBytes(StandardCharsets.UTF_8));
+        body.write(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"" + name + "\"; filename=\"" + filename
+                + "\"\r\nContent-Type: application/octet-stream\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.write(bytes);
+        body.write(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return body.toByteArray();
+    }
+
+    // Random bytes behind the signature of a format
+    private static byte[] image(int length, int... signature) {
+        byte[] bytes = new byte[length];
+        new Random(length ^ System.nanoTime()).nextBytes(bytes);
+        for (int i = 0; i < signature.length; i++) {
+            bytes[i] = (byte) signature[i];
+        }
+        return bytes;
+    }
+
+    // Counts the bytes read from it
+    private static final class CountingStream extends InputStream {
+
+        private final InputStream data;
+        private long read;
+
+        CountingStream(byte[] bytes) {
+            this.data = new ByteArrayInputStream(bytes);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = data.read();
+            if (b >= 0) {
+                read++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = data.read(buffer, offset, length);
+            if (n > 0) {
+                read += n;
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.csis231.api;
+
+import com.csis231.api.model.Author;
+import com.csis231.api.model.Book;
+import com.csis231.api.model.InventoryEvent;
+import com.csis231.api.model.User;
+import com.csis231.api.repository.AuthorRepository;
+import com.csis231.api.repository.BookRepository;
+import com.csis231.api.repository.InventoryEventRepository;
+import com.csis231.api.repository.UserRepository;
+import com.csis231.api.service.BookService;
+import com.csis231.api.service.InventoryService;
+import com.csis231.api.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that stock changes go through the inventory ledger and its projection.
+ */
+@SpringBootTest
+class InventoryServiceTests {
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private InventoryEventRepository inventoryEventRepository;
+
+    @Test
+    void borrowsAndReturnsAreAppendedToTheLedger() {
+        Author author = authorRepository.save(new Author("Ledger", "Author"));
+        User first = userRepository.save(new User("ledger-1", "Ledger", "One", "ledger1@example.com", null, null, "USER", "secret"));
+        User second = userRepository.save(new User("ledger-2", "Ledger", "Two", "ledger2@example.com", null, null, "USER", "secret"));
+        Book book = bookService.createBook(new Book("Ledger book", "9781000000184", "Press", 2001,
+                "AVAILABLE", "", author, 1, 4, new ArrayList<>(), null));
+        long bookId = book.getBook_id();
+
+        transactionService.borrowBook(bookId, first.getUsername());
+        assertEquals(0, inventoryService.getAvailable(bookId));
+        assertEquals("UNAVAILABLE", bookService.getBookById(bookId).getStatus());
+
+        // The last copy is gone: the second borrower is refused and nothing is appended
+        assertThrows(RuntimeException.class, () -> transactionService.borrowBook(bookId, second.getUsername()));
+        assertEquals(0, inventoryService.getAvailable(bookId));
+
+        transactionService.returnBook(bookId, first.getUsername());
+        assertEquals(1, inventoryService.getAvailable(bookId));
+
+        List<InventoryEvent.Type> history = inventoryService.getHistory(bookId).stream().map(InventoryEvent::getType).toList();
+        assertEquals(List.of(InventoryEvent.Type.RESTOCK, InventoryEvent.Type.BORROW, InventoryEvent.Type.RETURN), history);
+
+        // The book row was never written by the loans; a snapshot brings it up to date
+        inventoryService.takeSnapshots();
+        assertEquals(1, bookRepository.findById(bookId).orElseThrow().getQuantity());
+        assertEquals(1, inventoryService.getAvailable(bookId));
+    }
+
+    @Test
+    void booksPredatingTheLedgerStartFromTheirQuantity() {
+        Author author = authorRepository.save(new Author("Legacy", "Author"));
+        User reader = userRepository.save(new User("ledger-legacy", "Legacy", "Reader", "legacy@example.com", null, null, "USER", "secret"));
+        long bookId = bookRepository.save(new Book("Legacy book", "LEDGER-2", "Press", 1980,
+                "AVAILABLE", "", author, 3, 4, new ArrayList<>(), null)).getBook_id();
+
+        assertEquals(3, inventoryService.getAvailable(bookId));
+        transactionService.borrowBook(bookId, reader.getUsername());
+        assertEquals(2, inventoryService.getAvailable(bookId));
+
+        inventoryService.takeSnapshots();
+        assertEquals(2, bookRepository.findById(bookId).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void stockChangesFromOtherInstancesAreRespected() {
+        Author author = authorRepository.save(new Author("Shared", "Author"));
+        User reader = userRepository.save(new User("ledger-shared", "Shared", "Reader", "shared@example.com", null, null, "USER", "secret"));
+        long bookId = bookService.createBook(new Book("Shared book", "9781000000207", "Press", 2002,
+                "AVAILABLE", "", author, 1, 4, new ArrayList<>(), null)).getBook_id();
+        assertEquals(1, inventoryService.getAvailable(bookId));
+
+        // Another instance lends the last copy: this projection still shows it, but the ledger refuses the loan
+        inventoryEventRepository.save(new InventoryEvent(bookId, InventoryEvent.Type.BORROW, -1, "elsewhere"));
+        assertEquals(1, inventoryService.getAvailable(bookId));
+        assertThrows(RuntimeException.class, () -> transactionService.borrowBook(bookId, reader.getUsername()));
+
+        // It is returned there: this projection shows none left, but the ledger lends it
+        inventoryService.refreshProjection();
+        assertEquals(0, inventoryService.getAvailable(bookId));
+        inventoryEventRepository.save(new InventoryEvent(bookId, InventoryEvent.Type.RETURN, 1, "elsewhere"));
+        transactionService.borrowBook(bookId, reader.getUsername());
+        assertEquals(0, inventoryService.getAvailable(bookId));
+
+        inventoryService.takeSnapshots();
+        assertEquals(0, bookRepository.findById(bookId).orElseThrow().getQuantity());
+        assertEquals(List.of(InventoryEvent.Type.RESTOCK, InventoryEvent.Type.BORROW, InventoryEvent.Type.RETURN, InventoryEvent.Type.BORROW),
+                inventoryService.getHistory(bookId).stream().map(InventoryEvent::getType).toList());
+    }
+}
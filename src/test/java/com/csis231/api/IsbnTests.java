@@ -0,0 +1,96 @@
+package com.csis231.api;
+
+import com.csis231.api.exception.ResourceNotFoundException;
+import com.csis231.api.model.Author;
+import com.csis231.api.model.Book;
+import com.csis231.api.repository.AuthorRepository;
+import com.csis231.api.repository.BookRepository;
+import com.csis231.api.service.BookService;
+import com.csis231.api.service.IsbnIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that ISBNs are validated and that every notation of an ISBN finds, and blocks duplicates of, the same book.
+ */
+@SpringBootTest
+class IsbnTests {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private IsbnIndex isbnIndex;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Test
+    void notationsAreCanonicalized() {
+        assertEquals(9780306406157L, IsbnIndex.toKey("0-306-40615-2"));
+        assertEquals(9780306406157L, IsbnIndex.toKey("ISBN 978-0-306-40615-7"));
+        assertEquals(9780306406157L, IsbnIndex.toKey("9780306406157"));
+        assertThrows(IllegalArgumentException.class, () -> IsbnIndex.toKey("0-306-40615-3"));
+        assertThrows(IllegalArgumentException.class, () -> IsbnIndex.toKey("978-0-306-40615"));
+        assertThrows(IllegalArgumentException.class, () -> IsbnIndex.toKey(null));
+    }
+
+    @Test
+    void anyNotationFindsTheBook() {
+        Author author = authorRepository.save(new Author("Isbn", "Author"));
+        Book book = bookService.createBook(newBook(author, "0-306-40615-2"));
+
+        assertEquals(book.getBook_id(), bookService.getBookByIsbn("978-0-306-40615-7").getBook_id());
+        assertEquals(book.getBook_id(), bookService.getBookByIsbn("0306406152").getBook_id());
+
+        // The same ISBN in another notation is a duplicate, a wrong check digit is rejected
+        assertThrows(ResourceNotFoundException.class, () -> bookService.createBook(newBook(author, "9780306406157")));
+        assertThrows(IllegalArgumentException.class, () -> bookService.createBook(newBook(author, "9780306406158")));
+        assertThrows(ResourceNotFoundException.class, () -> bookService.getBookByIsbn("9781000000009"));
+
+        // Deleted books are no longer found
+        bookService.deleteBook(book.getBook_id());
+        assertThrows(ResourceNotFoundException.class, () -> bookService.getBookByIsbn("0-306-40615-2"));
+    }
+
+    @Test
+    void staleIndexEntriesFallBackToTheDatabase() {
+        Author author = authorRepository.save(new Author("Stale", "Isbn"));
+        Book book = bookService.createBook(newBook(author, "9781000000238"));
+
+        // Left behind by a book another instance deleted, now the ISBN of a new book
+        isbnIndex.put(9781000000238L, -1);
+        assertEquals(book.getBook_id(), bookService.getBookByIsbn("9781000000238").getBook_id());
+        assertEquals(book.getBook_id(), isbnIndex.get(9781000000238L));
+
+        // Left behind by a book whose ISBN was changed on another instance
+        isbnIndex.put(9781000000245L, book.getBook_id());
+        assertThrows(ResourceNotFoundException.class, () -> bookService.getBookByIsbn("9781000000245"));
+        assertNull(isbnIndex.get(9781000000245L));
+    }
+
+    @Test
+    void legacyBooksAreBackfilled() {
+        Author author = authorRepository.save(new Author("Legacy", "Isbn"));
+        // Saved without a key, as books were before ISBNs were canonicalized
+        Book legacy = bookRepository.save(newBook(author, "0-19-852663-6"));
+        assertNull(legacy.getIsbnKey());
+
+        isbnIndex.rebuild();
+        assertEquals(9780198526636L, bookRepository.findById(legacy.getBook_id()).orElseThrow().getIsbnKey());
+        assertEquals(legacy.getBook_id(), bookService.getBookByIsbn("978-0-19-852663-6").getBook_id());
+    }
+
+    private static Book newBook(Author author, String isbn) {
+        return new Book("Isbn book " + isbn, isbn, "Press", 2012,
+                "AVAILABLE", "", author, 1, 4, new ArrayList<>(), null);
+    }
+}
@@ -0,0 +1,96 @@
+package com.csis231.api;
+
+import com.csis231.api.model.*;
+import com.csis231.api.repository.*;
+import com.csis231.api.service.FineService;
+import com.csis231.api.service.NotificationService;
+import com.csis231.api.service.TransactionArchiveJob;
+import com.csis231.api.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that old returned transactions move to the archive and stay readable through the services.
+ */
+@SpringBootTest
+class TransactionArchiveJobTests {
+
+    @Autowired
+    private TransactionArchiveJob archiveJob;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private FineService fineService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private FineRepository fineRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Test
+    void archivesOldReturnedTransactionsWithTheirPaidFines() {
+        Author author = authorRepository.save(new Author("Archive", "Author"));
+        Book book = bookRepository.save(new Book("Archived loans", "ARCHIVE-1", "Press", 1990,
+                "AVAILABLE", "", author, 5, 3, new ArrayList<>(), null));
+        User user = userRepository.save(new User("archive-reader", "Archive", "Reader", "archive@example.com",
+                null, null, "USER", "secret"));
+
+        LocalDate longAgo = LocalDate.now().minusDays(200);
+        Transaction paidUp = transactionRepository.save(new Transaction(0, longAgo, longAgo.plusDays(40), longAgo.plusDays(30), user, book));
+        Transaction stillOwing = transactionRepository.save(new Transaction(0, longAgo, longAgo.plusDays(40), longAgo.plusDays(30), user, book));
+        Transaction recent = transactionRepository.save(new Transaction(0, LocalDate.now().minusDays(5), LocalDate.now(), LocalDate.now().plusDays(20), user, book));
+        Transaction open = transactionRepository.save(new Transaction(0, LocalDate.now(), null, LocalDate.now().plusDays(30), user, book));
+
+        Fine paidFine = fineRepository.save(new Fine(50, "Paid", paidUp, LocalDateTime.now().minusDays(150)));
+        fineRepository.save(new Fine(50, "Unpaid", stillOwing, null));
+        Notification reminder = new Notification();
+        reminder.setBook(book);
+        reminder.setUser(user);
+        reminder.setFine(paidFine);
+        reminder.setMessage("Pay your fine");
+        reminder.setReminderDate(LocalDateTime.now().minusDays(160));
+        long reminderId = notificationRepository.save(reminder).getNotificationId();
+
+        assertEquals(1, archiveJob.archiveReturnedTransactions());
+
+        // Only the paid-up transaction left the hot tables
+        assertFalse(transactionRepository.existsById(paidUp.getTransactionId()));
+        assertFalse(fineRepository.existsById(paidFine.getId()));
+        assertTrue(transactionRepository.existsById(stillOwing.getTransactionId()));
+        assertTrue(transactionRepository.existsById(recent.getTransactionId()));
+        assertTrue(transactionRepository.existsById(open.getTransactionId()));
+
+        // Reads still see it
+        assertEquals(longAgo.plusDays(40), transactionService.getTransactionById(paidUp.getTransactionId()).getReturn_date());
+        assertEquals(paidUp.getTransactionId(), fineService.getFineById(paidFine.getId()).getTransaction_id());
+        assertEquals(4, transactionService.getTransactionsByUser("archive-reader").size());
+
+        // The reminder of the archived fine stays, still showing which fine it was about
+        assertEquals(paidFine.getId(), notificationService.getNotificationById(reminderId).getFine_id());
+    }
+}
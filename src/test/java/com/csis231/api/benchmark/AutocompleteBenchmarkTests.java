@@ -0,0 +1,77 @@
+package com.csis231.api.benchmark;
+
+import com.csis231.api.service.AutocompleteIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures the latency of title and author suggestions on a synthetic catalog of half a million books,
+ * with the typeahead filled directly rather than from the database.
+ * Runs only with {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+class AutocompleteBenchmarkTests {
+
+    private static final int BOOKS = 500_000;
+    private static final int AUTHORS = 50_000;
+    private static final int WORDS = 20_000;
+    private static final int LOOKUPS = 20_000;
+
+    @Test
+    void suggestionsOnHalfAMillionBooks() {
+        Random random = new Random(42);
+        String[] words = new String[WORDS];
+        for (int i = 0; i < WORDS; i++) {
+            words[i] = randomWord(random);
+        }
+
+        AutocompleteIndex index = new AutocompleteIndex(null, null, null, null);
+        for (int id = 1; id <= AUTHORS; id++) {
+            index.putAuthor(id, words[random.nextInt(WORDS)], words[random.nextInt(WORDS)]);
+        }
+        for (int id = 1; id <= BOOKS; id++) {
+            int length = 1 + random.nextInt(5);
+            StringBuilder title = new StringBuilder();
+            for (int word = 0; word < length; word++) {
+                title.append(word == 0 ? "" : " ").append(words[random.nextInt(WORDS)]);
+            }
+            index.putBook(id, (long) 1 + random.nextInt(AUTHORS), title.toString());
+        }
+        for (int loan = 0; loan < BOOKS; loan++) {
+            index.recordLoan(1 + random.nextInt(BOOKS));
+        }
+
+        // One to four typed characters of a known word, the case where most titles match
+        long[] nanos = new long[LOOKUPS];
+        for (int round = 0; round < LOOKUPS * 2; round++) {
+            String word = words[random.nextInt(WORDS)];
+            String prefix = word.substring(0, 1 + random.nextInt(Math.min(4, word.length())));
+            long start = System.nanoTime();
+            index.suggestBooks(prefix, 10);
+            index.suggestAuthors(prefix, 10);
+            long elapsed = System.nanoTime() - start;
+            if (round >= LOOKUPS) { // The first half warms up
+                nanos[round - LOOKUPS] = elapsed;
+            }
+        }
+
+        Arrays.sort(nanos);
+        double p50 = nanos[LOOKUPS / 2] / 1e6;
+        double p99 = nanos[LOOKUPS * 99 / 100] / 1e6;
+        System.out.printf("suggestions, titles and authors %8.3f ms p50 %8.3f ms p99%n", p50, p99);
+        assertTrue(p99 < 1, "suggestions took " + p99 + " ms at p99");
+    }
+
+    private static String randomWord(Random random) {
+        char[] word = new char[3 + random.nextInt(8)];
+        for (int i = 0; i < word.length; i++) {
+            word[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(word);
+    }
+}
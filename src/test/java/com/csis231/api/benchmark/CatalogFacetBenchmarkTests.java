@@ -0,0 +1,71 @@
+package com.csis231.api.benchmark;
+
+import com.csis231.api.service.CatalogFacetIndex;
+import com.csis231.api.service.GenreIndex;
+import com.csis231.api.service.InventoryProjection;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures the latency of catalog facets on a synthetic catalog of one million books,
+ * with the genre and facet indexes filled directly rather than from the database.
+ * Runs only with {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+class CatalogFacetBenchmarkTests {
+
+    private static final int BOOKS = 1_000_000;
+    private static final int AUTHORS = 50_000;
+    private static final int GENRES = 40;
+    private static final int ROUNDS = 200;
+
+    @Test
+    void facetsOnAMillionBooks() {
+        InventoryProjection inventoryProjection = new InventoryProjection();
+        GenreIndex genreIndex = new GenreIndex(null, null);
+        CatalogFacetIndex facetIndex = new CatalogFacetIndex(null, inventoryProjection, null, 10);
+
+        Random random = new Random(42);
+        for (int id = 1; id <= BOOKS; id++) {
+            long genre = 1 + random.nextInt(GENRES);
+            genreIndex.put(id, random.nextBoolean() ? List.of(genre) : List.of(genre, 1 + (genre + 7) % GENRES));
+            facetIndex.put(id, (long) 1 + random.nextInt(AUTHORS), 1900 + random.nextInt(125),
+                    random.nextInt(50) == 0 ? "IN REPAIR" : "AVAILABLE");
+            inventoryProjection.update(id, random.nextInt(4), 0);
+        }
+
+        measure("facets, whole catalog", genreIndex, facetIndex, List.of(), null, null);
+        measure("facets, one genre", genreIndex, facetIndex, List.of(3L), null, null);
+        long millis = measure("facets, genre and years", genreIndex, facetIndex, List.of(3L), 1990, 2010);
+        assertTrue(millis < 100, "facets took " + millis + " ms");
+    }
+
+    // Returns the slowest round, in milliseconds
+    private long measure(String name, GenreIndex genreIndex, CatalogFacetIndex facetIndex,
+                         List<Long> genres, Integer yearFrom, Integer yearTo) {
+        long total = 0;
+        long slowest = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            RoaringBitmap matching = facetIndex.filter(genreIndex.match(genres, List.of(), List.of()), null, yearFrom, yearTo, null);
+            genreIndex.countByGenre(matching);
+            facetIndex.countByAuthor(matching, 20);
+            facetIndex.countByYearBucket(matching);
+            facetIndex.countByStatus(matching);
+            long elapsed = System.nanoTime() - start;
+            if (round >= ROUNDS / 4) { // The first rounds warm up
+                total += elapsed;
+                slowest = Math.max(slowest, elapsed);
+            }
+        }
+        long measured = ROUNDS - ROUNDS / 4;
+        System.out.printf("%-28s %8.2f ms mean %8.2f ms max%n", name, total / 1e6 / measured, slowest / 1e6);
+        return slowest / 1_000_000;
+    }
+}
@@ -0,0 +1,174 @@
+package com.csis231.api.benchmark;
+
+import com.csis231.api.model.Author;
+import com.csis231.api.model.Book;
+import com.csis231.api.model.Genre;
+import com.csis231.api.model.User;
+import com.csis231.api.repository.AuthorRepository;
+import com.csis231.api.repository.BookRepository;
+import com.csis231.api.repository.GenreRepository;
+import com.csis231.api.repository.UserRepository;
+import com.csis231.api.service.TransactionService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the write paths with and without Hibernate's JDBC batching, the {@code batch_size} of the {@code prod} profile.
+ * Runs only with {@code mvn -Pbenchmark test}, and prints the time and the number of statements Hibernate prepared
+ * for each path to standard output; it asserts only that batching prepares fewer statements for the import.
+ * <p>
+ * By default it runs against the embedded H2 database, so it measures Hibernate batching and nothing else:
+ * H2 runs in-process, with no network round trip for batching to save, so its timings say little about MySQL.
+ * None of the rest of the profile is exercised: the pool sizes, and the driver settings that only exist in Connector/J
+ * (statement cache, batch rewriting). To measure those, point the run at a MySQL server, e.g.
+ * {@code mvn -Pbenchmark test -Dspring.profiles.active=prod -Dspring.datasource.url=jdbc:mysql://localhost:3307/javalibrary
+ * -Dspring.datasource.username=root -Dspring.datasource.password=root
+ * -Dspring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQL8Dialect -Dspring.jpa.hibernate.ddl-auto=update}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.order_updates=true"
+})
+class DatasourceTuningBenchmarkTests {
+
+    private static final int CATALOG_SIZE = 2000;
+    private static final int BORROWERS = 100;
+    private static final int BOOKS_PER_BORROWER = 5;
+    private static final int BATCH_SIZE = 50;
+
+    // Keeps ISBNs and usernames unique across rounds
+    private static final AtomicInteger sequence = new AtomicInteger();
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Test
+    void bulkCatalogImport() {
+        Author author = authorRepository.save(new Author("Benchmark", "Author"));
+        List<Genre> genres = genreRepository.saveAll(List.of(new Genre("Benchmark fiction"), new Genre("Benchmark classics")));
+
+        // Warm up both paths before measuring
+        importCatalog(author, genres, 1, CATALOG_SIZE / 10);
+        importCatalog(author, genres, BATCH_SIZE, CATALOG_SIZE / 10);
+
+        Measurement unbatched = measure("catalog import, no batching", () -> importCatalog(author, genres, 1, CATALOG_SIZE));
+        Measurement batched = measure("catalog import, batch size " + BATCH_SIZE, () -> importCatalog(author, genres, BATCH_SIZE, CATALOG_SIZE));
+
+        // Book rows use IDENTITY keys and are never batched, their genre links are
+        assertTrue(batched.statements < unbatched.statements);
+    }
+
+    @Test
+    void borrowReturnMix() {
+        Author author = authorRepository.save(new Author("Benchmark", "Lender"));
+
+        borrowAndReturn(author, 1, BORROWERS / 10);
+        borrowAndReturn(author, BATCH_SIZE, BORROWERS / 10);
+
+        measure("borrow/return, no batching", () -> borrowAndReturn(author, 1, BORROWERS));
+        measure("borrow/return, batch size " + BATCH_SIZE, () -> borrowAndReturn(author, BATCH_SIZE, BORROWERS));
+    }
+
+    // Saves the books in one transaction, as an import would
+    private void importCatalog(Author author, List<Genre> genres, int batchSize, int count) {
+        inTransaction(batchSize).executeWithoutResult(status -> {
+            List<Book> books = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                books.add(newBook(author, genres));
+            }
+            bookRepository.saveAll(books);
+        });
+    }
+
+    // Each borrower borrows then returns a few books, one transaction per request
+    private void borrowAndReturn(Author author, int batchSize, int borrowers) {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < BOOKS_PER_BORROWER; i++) {
+            books.add(newBook(author, new ArrayList<>()));
+        }
+        bookRepository.saveAll(books);
+
+        for (int i = 0; i < borrowers; i++) {
+            int n = sequence.incrementAndGet();
+            String username = userRepository.save(new User("bench" + n, "Bench", "User", "bench" + n + "@example.com",
+                    null, null, "USER", "secret")).getUsername();
+            for (Book book : books) {
+                inTransaction(batchSize).executeWithoutResult(status -> transactionService.borrowBook(book.getBook_id(), username));
+            }
+            for (Book book : books) {
+                inTransaction(batchSize).executeWithoutResult(status -> transactionService.returnBook(book.getBook_id(), username));
+            }
+        }
+    }
+
+    private Book newBook(Author author, List<Genre> genres) {
+        return new Book("Benchmark book", "BENCH-" + sequence.incrementAndGet(), "Benchmark press", 2000,
+                "AVAILABLE", "Generated for the datasource benchmark", author, BORROWERS * 2, 3, genres, null);
+    }
+
+    // Transaction whose session groups statements into JDBC batches of the given size
+    private TransactionTemplate inTransaction(int batchSize) {
+        return new TransactionTemplate(transactionManager) {
+            @Override
+            public <T> T execute(org.springframework.transaction.support.TransactionCallback<T> action) {
+                return super.execute(status -> {
+                    entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+                    return action.doInTransaction(status);
+                });
+            }
+        };
+    }
+
+    private Measurement measure(String name, Runnable workload) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        long start = System.nanoTime();
+        workload.run();
+        Measurement measurement = new Measurement((System.nanoTime() - start) / 1_000_000, statistics.getPrepareStatementCount());
+        System.out.printf("%-40s %6d ms %8d statements%n", name, measurement.millis, measurement.statements);
+        return measurement;
+    }
+
+    private record Measurement(long millis, long statements) {
+    }
+}
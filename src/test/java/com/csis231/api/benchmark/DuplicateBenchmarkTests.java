@@ -0,0 +1,71 @@
+package com.csis231.api.benchmark;
+
+import com.csis231.api.service.DuplicateIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures duplicate detection on a synthetic catalog of 200,000 authors and 500,000 books,
+ * with the index filled directly rather than from the database: the check made on each create,
+ * and the full report spread over all cores.
+ * Runs only with {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+class DuplicateBenchmarkTests {
+
+    private static final int AUTHORS = 200_000;
+    private static final int BOOKS = 500_000;
+    private static final int LOOKUPS = 20_000;
+
+    @Test
+    void duplicateChecksOnALargeCatalog() {
+        Random random = new Random(42);
+        DuplicateIndex index = new DuplicateIndex(null, null, null, 0.8);
+        for (int id = 1; id <= AUTHORS; id++) {
+            index.putAuthor(id, randomWord(random, 3, 9), randomWord(random, 4, 12));
+        }
+        for (int id = 1; id <= BOOKS; id++) {
+            index.putBook(id, (long) 1 + random.nextInt(AUTHORS),
+                    randomWord(random, 3, 9) + " " + randomWord(random, 2, 6) + " " + randomWord(random, 4, 10));
+        }
+
+        // The check made when an author or a book is created
+        long[] nanos = new long[LOOKUPS];
+        for (int round = 0; round < LOOKUPS * 2; round++) {
+            String first = randomWord(random, 3, 9);
+            String last = randomWord(random, 4, 12);
+            String title = randomWord(random, 3, 9) + " " + randomWord(random, 4, 10);
+            long start = System.nanoTime();
+            index.findSimilarAuthors(null, first, last);
+            index.findSimilarBooks(null, (long) 1 + random.nextInt(AUTHORS), title);
+            long elapsed = System.nanoTime() - start;
+            if (round >= LOOKUPS) { // The first half warms up
+                nanos[round - LOOKUPS] = elapsed;
+            }
+        }
+        Arrays.sort(nanos);
+        double p99 = nanos[LOOKUPS * 99 / 100] / 1e6;
+        System.out.printf("duplicate check on create %8.3f ms p50 %8.3f ms p99%n", nanos[LOOKUPS / 2] / 1e6, p99);
+
+        // The full report
+        long start = System.nanoTime();
+        int pairs = index.findDuplicateAuthors().size() + index.findDuplicateBooks().size();
+        System.out.printf("duplicate report, %d cores  %8.0f ms, %d pairs%n",
+                Runtime.getRuntime().availableProcessors(), (System.nanoTime() - start) / 1e6, pairs);
+
+        assertTrue(p99 < 1, "duplicate check took " + p99 + " ms at p99");
+    }
+
+    private static String randomWord(Random random, int minLength, int maxLength) {
+        char[] word = new char[minLength + random.nextInt(maxLength - minLength + 1)];
+        for (int i = 0; i < word.length; i++) {
+            word[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(word);
+    }
+}
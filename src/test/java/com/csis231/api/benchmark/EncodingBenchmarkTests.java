@@ -0,0 +1,152 @@
+package com.csis231.api.benchmark;
+
+import com.csis231.api.DTO.CommentDTO;
+import com.csis231.api.DTO.FineDTO;
+import com.csis231.api.DTO.NotificationDTO;
+import com.csis231.api.DTO.TransactionDTO;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the size of list payloads and the time to write and read them in JSON, CBOR and Smile,
+ * with and without gzip, for the DTOs returned by the transaction, fine, notification and comment endpoints.
+ * Runs only with {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+class EncodingBenchmarkTests {
+
+    private static final int LIST_SIZE = 5000;
+    private static final int ROUNDS = 50;
+
+    private final ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper cbor = Jackson2ObjectMapperBuilder.cbor().build();
+    private final ObjectMapper smile = Jackson2ObjectMapperBuilder.smile().build();
+
+    @Test
+    void transactions() throws IOException {
+        compare("TransactionDTO", list(i -> {
+            TransactionDTO transaction = new TransactionDTO();
+            transaction.setTransaction_id(i);
+            transaction.setUsername("reader" + (i % 300));
+            transaction.setBook_id(i % 2000);
+            transaction.setIssue_date(LocalDate.of(2024, 1, 1).plusDays(i % 365));
+            transaction.setDue_date(transaction.getIssue_date().plusDays(14));
+            transaction.setReturn_date(i % 3 == 0 ? null : transaction.getIssue_date().plusDays(10));
+            transaction.setBarcode(i % 2 == 0 ? "BC-" + i : null);
+            return transaction;
+        }), new TypeReference<List<TransactionDTO>>() {
+        });
+    }
+
+    @Test
+    void fines() throws IOException {
+        compare("FineDTO", list(i -> {
+            FineDTO fine = new FineDTO();
+            fine.setFine_id(i);
+            fine.setTransaction_id(i * 3L);
+            fine.setFine_amount(0.5 * (i % 40));
+            fine.setFine_status(i % 4 == 0 ? "Paid" : "Unpaid");
+            fine.setPaid_date(i % 4 == 0 ? LocalDateTime.of(2024, 3, 1, 10, 0).plusHours(i) : null);
+            return fine;
+        }), new TypeReference<List<FineDTO>>() {
+        });
+    }
+
+    @Test
+    void notifications() throws IOException {
+        compare("NotificationDTO", list(i -> {
+            NotificationDTO notification = new NotificationDTO();
+            notification.setNotification_id(i);
+            notification.setUsername("reader" + (i % 300));
+            notification.setBook_id((long) (i % 2000));
+            notification.setFine_id(i % 5 == 0 ? (long) i : null);
+            notification.setReminder_date(LocalDateTime.of(2024, 2, 1, 9, 0).plusMinutes(i));
+            notification.setMessage("Reminder: the book you borrowed is due back on " + LocalDate.of(2024, 2, 15));
+            return notification;
+        }), new TypeReference<List<NotificationDTO>>() {
+        });
+    }
+
+    @Test
+    void comments() throws IOException {
+        compare("CommentDTO", list(i -> {
+            CommentDTO comment = new CommentDTO();
+            comment.setId(i);
+            comment.setBookId((long) (i % 2000));
+            comment.setCommentDescription("A gripping read, comment number " + i + " of the benchmark.");
+            comment.setRating(1 + i % 5);
+            return comment;
+        }), new TypeReference<List<CommentDTO>>() {
+        });
+    }
+
+    private <T> void compare(String name, List<T> payload, TypeReference<List<T>> type) throws IOException {
+        byte[] jsonBytes = json.writeValueAsBytes(payload);
+        Measurement jsonResult = measure(name + " json", json, payload, type);
+        Measurement cborResult = measure(name + " cbor", cbor, payload, type);
+        Measurement smileResult = measure(name + " smile", smile, payload, type);
+
+        // The binary encodings carry the same data in fewer bytes
+        assertTrue(cborResult.bytes < jsonBytes.length);
+        assertTrue(smileResult.bytes < jsonResult.bytes);
+    }
+
+    private <T> Measurement measure(String name, ObjectMapper mapper, List<T> payload, TypeReference<List<T>> type)
+            throws IOException {
+        // Warm up before measuring
+        for (int i = 0; i < ROUNDS / 5; i++) {
+            mapper.readValue(mapper.writeValueAsBytes(payload), type);
+        }
+
+        byte[] bytes = null;
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            bytes = mapper.writeValueAsBytes(payload);
+        }
+        long writeMicros = (System.nanoTime() - start) / 1000 / ROUNDS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            mapper.readValue(bytes, type);
+        }
+        long readMicros = (System.nanoTime() - start) / 1000 / ROUNDS;
+
+        Measurement measurement = new Measurement(bytes.length, gzip(bytes).length, writeMicros, readMicros);
+        System.out.printf("%-24s %9d bytes %9d gzipped %8d us write %8d us read%n",
+                name, measurement.bytes, measurement.gzippedBytes, measurement.writeMicros, measurement.readMicros);
+        return measurement;
+    }
+
+    private static <T> List<T> list(IntFunction<T> factory) {
+        List<T> list = new ArrayList<>(LIST_SIZE);
+        for (int i = 0; i < LIST_SIZE; i++) {
+            list.add(factory.apply(i));
+        }
+        return list;
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private record Measurement(int bytes, int gzippedBytes, long writeMicros, long readMicros) {
+    }
+}
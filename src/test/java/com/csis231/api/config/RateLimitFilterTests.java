@@ -0,0 +1,49 @@
+package com.csis231.api.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks which callers get a token bucket of their own.
+ */
+class RateLimitFilterTests {
+
+    @Test
+    void onlyRegisteredApiKeysGetTheirOwnBucket() throws Exception {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getDefaults().setCapacity(2);
+        properties.getDefaults().setRefillPerSecond(0.001);
+        properties.setApiKeys(Map.of("kiosk", "kiosk-secret"));
+        RateLimitFilter filter = new RateLimitFilter(properties, new ObjectMapper(), new SimpleMeterRegistry());
+
+        // Rotating unknown keys and usernames still spends the bucket of the address
+        assertEquals(200, call(filter, "10.0.0.1", "random-1", "alice"));
+        assertEquals(200, call(filter, "10.0.0.1", "random-2", "bob"));
+        assertEquals(429, call(filter, "10.0.0.1", "random-3", "carol"));
+
+        // A registered client has its own bucket, wherever it calls from
+        assertEquals(200, call(filter, "10.0.0.1", "kiosk-secret", null));
+        assertEquals(200, call(filter, "10.0.0.2", "kiosk-secret", null));
+        assertEquals(429, call(filter, "10.0.0.3", "kiosk-secret", null));
+    }
+
+    private static int call(RateLimitFilter filter, String address, String apiKey, String username) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books");
+        request.setRemoteAddr(address);
+        request.addHeader("X-API-Key", apiKey);
+        if (username != null) {
+            request.addHeader("X-Username", username);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+}
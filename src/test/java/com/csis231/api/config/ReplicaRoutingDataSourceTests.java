@@ -0,0 +1,101 @@
+package com.csis231.api.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.FutureTask;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Routes transactions between two embedded databases standing in for the primary and the replica.
+ */
+class ReplicaRoutingDataSourceTests {
+
+    private DataSource primary;
+    private DataSource replica;
+
+    @BeforeEach
+    void createDatabases() {
+        primary = database("primary");
+        replica = database("replica");
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        DataSource dataSource = routing(Duration.ZERO);
+
+        assertEquals("replica", readIn(dataSource, true));
+        assertEquals("primary", readIn(dataSource, false));
+    }
+
+    @Test
+    void readsStayOnThePrimaryWithinTheReplicaLag() {
+        DataSource dataSource = routing(Duration.ofMinutes(1));
+        write(dataSource);
+
+        // The write was not replicated yet, so the read must see the primary
+        assertEquals("primary", readIn(dataSource, true));
+    }
+
+    @Test
+    void oneCallersWriteDoesNotPinAnotherCallersReads() throws Exception {
+        DataSource dataSource = routing(Duration.ofMinutes(1));
+        try {
+            ReplicaRoutingDataSource.setCaller("10.0.0.1/alice");
+            write(dataSource);
+            assertEquals("primary", readIn(dataSource, true));
+
+            // Another client, and work on another thread outside of any request, still read from the replica
+            ReplicaRoutingDataSource.setCaller("10.0.0.2/bob");
+            assertEquals("replica", readIn(dataSource, true));
+            ReplicaRoutingDataSource.setCaller(null);
+            assertEquals("replica", readIn(dataSource, true));
+            FutureTask<String> background = new FutureTask<>(() -> readIn(dataSource, true));
+            new Thread(background).start();
+            assertEquals("replica", background.get());
+        } finally {
+            ReplicaRoutingDataSource.setCaller(null);
+        }
+    }
+
+    @Test
+    void everythingGoesToThePrimaryWithoutReplica() {
+        DataSource dataSource = new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, null, Duration.ZERO));
+
+        assertEquals("primary", readIn(dataSource, true));
+    }
+
+    private DataSource routing(Duration maxLag) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica, maxLag));
+    }
+
+    private static void write(DataSource dataSource) {
+        TransactionTemplate template = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        template.executeWithoutResult(status -> new JdbcTemplate(dataSource).update("UPDATE node SET writes = writes + 1"));
+    }
+
+    // Reads the name of the database the transaction was routed to
+    private static String readIn(DataSource dataSource, boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        template.setReadOnly(readOnly);
+        return template.execute(status -> new JdbcTemplate(dataSource).queryForObject("SELECT name FROM node", String.class));
+    }
+
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(20), writes INT)");
+        jdbc.execute("DELETE FROM node");
+        jdbc.update("INSERT INTO node VALUES (?, 0)", name);
+        return dataSource;
+    }
+}
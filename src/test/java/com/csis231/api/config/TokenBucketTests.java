@@ -0,0 +1,40 @@
+package com.csis231.api.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives a token bucket with an explicit clock.
+ */
+class TokenBucketTests {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void burstsUpToCapacityThenRefillsAtTheSteadyRate() {
+        TokenBucket bucket = new TokenBucket(3, 2);
+        long now = 1_000 * SECOND;
+
+        // A full bucket admits a burst of its capacity
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(now));
+        }
+
+        // Then callers wait for the next token, half a second at 2 per second
+        long wait = bucket.tryAcquire(now);
+        assertEquals(SECOND / 2, wait);
+        assertTrue(bucket.tryAcquire(now + wait - 1) > 0);
+        assertEquals(0, bucket.tryAcquire(now + wait));
+
+        // An idle bucket refills up to its capacity, not beyond
+        long later = now + 60 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(later));
+        }
+        assertTrue(bucket.tryAcquire(later) > 0);
+    }
+}